@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,12 @@ import org.eclipse.core.runtime.IStatus;
 public abstract class AbstractOperation implements IUndoableOperation {
 	List<IUndoContext> contexts = new ArrayList<>();
 
+	/**
+	 * The {@link DefaultOperationHistory} that indexes the operation, which has
+	 * to be told when its contexts change, or <code>null</code>.
+	 */
+	volatile DefaultOperationHistory indexingHistory;
+
 	private String label = ""; //$NON-NLS-1$
 
 	/**
@@ -57,6 +63,7 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public void addContext(IUndoContext context) {
 		if (!contexts.contains(context)) {
 			contexts.add(context);
+			contextsChanged();
 		}
 	}
 
@@ -124,7 +131,20 @@ public abstract class AbstractOperation implements IUndoableOperation {
 
 	@Override
 	public void removeContext(IUndoContext context) {
-		contexts.remove(context);
+		if (contexts.remove(context)) {
+			contextsChanged();
+		}
+	}
+
+	/*
+	 * Tell the operation history that indexes this operation that its contexts
+	 * changed.
+	 */
+	void contextsChanged() {
+		DefaultOperationHistory history = indexingHistory;
+		if (history != null) {
+			history.contextsChanged();
+		}
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,13 +15,23 @@
  *******************************************************************************/
 package org.eclipse.core.commands.operations;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.internal.util.Tracing;
@@ -54,10 +64,27 @@ import org.eclipse.core.runtime.Status;
  * its undo contexts.
  * </p>
  * <p>
- * The data structures used by the DefaultOperationHistory are synchronized, and
- * entry points that modify the undo and redo history concurrently are also
- * synchronized. This means that the DefaultOperationHistory is relatively
- * "thread-friendly" in its implementation. Outbound notifications or operation
+ * The undo and redo history of every undo context that is queried or limited
+ * is indexed, so that the history of a context is available without scanning
+ * the global history. The index is only used while all operations in the
+ * history are {@link AbstractOperation}s and their contexts, like the queried
+ * context, use the matching rules of {@link UndoContext} or
+ * {@link ObjectUndoContext}. It is discarded whenever the contexts of such an
+ * operation or the matches of an {@link ObjectUndoContext} change.
+ * </p>
+ * <p>
+ * Besides the number of operations, the history can limit the estimated memory
+ * retained by operations implementing {@link ISizedUndoableOperation}, both
+ * for single contexts and for the whole history. When a size limit is exceeded,
+ * the oldest operations are spilled to disk if a spill directory is set and
+ * they support it, and are removed from the history otherwise.
+ * </p>
+ * <p>
+ * The data structures used by the DefaultOperationHistory are guarded by a
+ * read-write lock, so queries of the history can proceed concurrently while
+ * entry points that modify the undo and redo history are serialized. This means
+ * that the DefaultOperationHistory is relatively "thread-friendly" in its
+ * implementation. Outbound notifications or operation
  * approval requests will occur on the thread that initiated the request.
  * Clients may use DefaultOperationHistory API from any thread; however,
  * listeners or operation approvers that receive notifications from the
@@ -119,6 +146,14 @@ public final class DefaultOperationHistory implements IOperationHistory {
 
 	static final int DEFAULT_LIMIT = 20;
 
+	/**
+	 * The size limit of contexts that have no size limit.
+	 *
+	 * @see #setSizeLimit(IUndoContext, long)
+	 * @since 3.11
+	 */
+	public static final long NO_SIZE_LIMIT = -1;
+
 	/**
 	 * the list of {@link IOperationApprover}s
 	 */
@@ -129,6 +164,30 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private Map<IUndoContext, Integer> limits = Collections.synchronizedMap(new HashMap<>());
 
+	/**
+	 * a map of size limits in bytes per context. The limit of the whole
+	 * history is kept for the global undo context.
+	 */
+	private Map<IUndoContext, Long> sizeLimits = Collections.synchronizedMap(new HashMap<>());
+
+	/**
+	 * the estimated sizes of the operations in the history that report a size
+	 * and are not spilled, guarded by the write lock
+	 */
+	private final Map<IUndoableOperation, Long> sizes = new IdentityHashMap<>();
+
+	/**
+	 * the files of the operations in the history that are spilled, guarded by
+	 * the write lock
+	 */
+	private final Map<IUndoableOperation, Path> spilledOperations = new IdentityHashMap<>();
+
+	/**
+	 * the directory operations are spilled to, or <code>null</code> if
+	 * operations are not spilled
+	 */
+	private volatile Path spillDirectory;
+
 	/**
 	 * the list of {@link IOperationHistoryListener}s
 	 */
@@ -137,18 +196,74 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	/**
 	 * the list of operations available for redo, LIFO
 	 */
-	private List<IUndoableOperation> redoList = Collections.synchronizedList(new ArrayList<>());
+	private List<IUndoableOperation> redoList = new ArrayList<>();
 
 	/**
 	 * the list of operations available for undo, LIFO
 	 */
-	private List<IUndoableOperation> undoList = Collections.synchronizedList(new ArrayList<>());
+	private List<IUndoableOperation> undoList = new ArrayList<>();
+
+	/**
+	 * The undo and redo histories of single contexts, in the order of the
+	 * global histories. Contexts are weakly referenced so that the histories of
+	 * contexts that are no longer used can be collected once their operations
+	 * left the history.
+	 */
+	private final Map<IUndoContext, ContextHistory> contextHistories = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Counts the changes of the contexts of the operations indexed by this
+	 * history and of the matches of the contexts it indexes. The context
+	 * histories are discarded when it changes.
+	 */
+	private final AtomicInteger contextChanges = new AtomicInteger();
 
 	/**
-	 * a lock that is used to synchronize access between the undo and redo
-	 * history
+	 * The value of {@link #contextChanges} the context histories are valid
+	 * for. Guarded by {@link #contextHistories}.
 	 */
-	final Object undoRedoHistoryLock = new Object();
+	private int indexedContextChanges;
+
+	/**
+	 * Whether the context histories have to be collected again. Guarded by
+	 * {@link #contextHistories}.
+	 */
+	private boolean contextHistoriesStale = true;
+
+	/**
+	 * The number of operations in the history whose contexts cannot be
+	 * indexed. Guarded by {@link #contextHistories}.
+	 */
+	private int unindexedOperations;
+
+	/**
+	 * Whether the matching rules of a context class are known to change only
+	 * through {@link ObjectUndoContext#addMatch(IUndoContext)} and
+	 * {@link ObjectUndoContext#removeMatch(IUndoContext)}.
+	 */
+	private static final ClassValue<Boolean> KNOWN_MATCHING = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				Class<?> declaringClass = type.getMethod("matches", IUndoContext.class).getDeclaringClass(); //$NON-NLS-1$
+				return Boolean.valueOf(declaringClass == UndoContext.class || declaringClass == ObjectUndoContext.class);
+			} catch (NoSuchMethodException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
+	/**
+	 * a lock that is used to synchronize access to the undo and redo history
+	 * and the context histories. Queries hold the read lock, changes the write
+	 * lock.
+	 */
+	private final ReadWriteLock undoRedoHistoryLock = new ReentrantReadWriteLock();
+
+	private final Lock readLock = undoRedoHistoryLock.readLock();
+
+	private final Lock writeLock = undoRedoHistoryLock.writeLock();
 
 	/**
 	 * An operation that is "absorbing" all other operations while it is open.
@@ -163,6 +278,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	final Object openCompositeLock = new Object();
 
+	/**
+	 * The operations of the undo and redo history that have a particular
+	 * context.
+	 */
+	private static final class ContextHistory {
+
+		final List<IUndoableOperation> undo = new ArrayList<>();
+
+		final List<IUndoableOperation> redo = new ArrayList<>();
+
+		List<IUndoableOperation> get(boolean undoHistory) {
+			return undoHistory ? undo : redo;
+		}
+	}
+
 	/**
 	 * Create an instance of DefaultOperationHistory.
 	 */
@@ -190,8 +320,13 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		}
 
 		if (checkUndoLimit(operation)) {
-			synchronized (undoRedoHistoryLock) {
+			writeLock.lock();
+			try {
 				undoList.add(operation);
+				indexAdded(operation, true);
+				sizeAdded(operation);
+			} finally {
+				writeLock.unlock();
 			}
 			notifyAdd(operation);
 
@@ -200,6 +335,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			for (IUndoContext context : contexts) {
 				flushRedo(context);
 			}
+			forceSizeLimits(operation);
 		} else {
 			// Dispose the operation since we will not have a reference to it.
 			operation.dispose();
@@ -321,6 +457,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			flushUndo(context);
 			flushRedo(context);
 			limits.remove(context);
+			sizeLimits.remove(context);
+			contextHistories.remove(context);
 			return;
 		}
 		if (flushUndo) {
@@ -341,6 +479,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	private IStatus doRedo(IProgressMonitor monitor, IAdaptable info, IUndoableOperation operation)
 			throws ExecutionException {
 
+		if (!restore(operation)) {
+			return IOperationHistory.OPERATION_INVALID_STATUS;
+		}
 		IStatus status = getRedoApproval(operation, info);
 		if (status.isOK()) {
 			notifyAboutToRedo(operation);
@@ -369,17 +510,24 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		// placed back in the undo history.
 		if (status.isOK()) {
 			boolean addedToUndo = true;
-			synchronized (undoRedoHistoryLock) {
-				redoList.remove(operation);
+			writeLock.lock();
+			try {
+				if (redoList.remove(operation)) {
+					indexRemoved(operation, false);
+				}
 				if (checkUndoLimit(operation)) {
 					undoList.add(operation);
+					indexAdded(operation, true);
 				} else {
 					addedToUndo = false;
 				}
+			} finally {
+				writeLock.unlock();
 			}
 			// dispose the operation since we could not add it to the
 			// stack and will no longer have a reference to it.
 			if (!addedToUndo) {
+				sizeRemoved(operation);
 				operation.dispose();
 			}
 
@@ -400,6 +548,9 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private IStatus doUndo(IProgressMonitor monitor, IAdaptable info, IUndoableOperation operation)
 			throws ExecutionException {
+		if (!restore(operation)) {
+			return IOperationHistory.OPERATION_INVALID_STATUS;
+		}
 		IStatus status = getUndoApproval(operation, info);
 		if (status.isOK()) {
 			notifyAboutToUndo(operation);
@@ -428,17 +579,24 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		// placed in the redo history.
 		if (status.isOK()) {
 			boolean addedToRedo = true;
-			synchronized (undoRedoHistoryLock) {
-				undoList.remove(operation);
+			writeLock.lock();
+			try {
+				if (undoList.remove(operation)) {
+					indexRemoved(operation, true);
+				}
 				if (checkRedoLimit(operation)) {
 					redoList.add(operation);
+					indexAdded(operation, false);
 				} else {
 					addedToRedo = false;
 				}
+			} finally {
+				writeLock.unlock();
 			}
 			// dispose the operation since we could not add it to the
 			// stack and will no longer have a reference to it.
 			if (!addedToRedo) {
+				sizeRemoved(operation);
 				operation.dispose();
 			}
 			// notification occurs after the undo and redo histories are
@@ -523,29 +681,191 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	}
 
 	/*
-	 * Filter the specified list to include only the specified undo context.
+	 * Return the operations of the undo or redo history that have the specified
+	 * context, in the order of the history. The caller must hold the read or
+	 * write lock and must not modify the returned list.
 	 */
-	private IUndoableOperation[] filter(List<IUndoableOperation> list, IUndoContext context) {
-		/*
-		 * This method is used whenever there is a need to filter the undo or
-		 * redo history on a particular context. Currently there are no caches
-		 * kept to optimize repeated requests for the same filter. If benchmarks
-		 * show this to be a common pattern that causes performances problems,
-		 * we could implement a filtered cache here that is nullified whenever
-		 * the global history changes.
-		 */
+	private List<IUndoableOperation> getHistory(IUndoContext context, boolean undoHistory) {
+		if (context == GLOBAL_UNDO_CONTEXT) {
+			return undoHistory ? undoList : redoList;
+		}
+		synchronized (contextHistories) {
+			int changes = contextChanges.get();
+			if (contextHistoriesStale || changes != indexedContextChanges) {
+				contextHistories.clear();
+				unindexedOperations = 0;
+				for (IUndoableOperation operation : undoList) {
+					track(operation);
+				}
+				for (IUndoableOperation operation : redoList) {
+					track(operation);
+				}
+				indexedContextChanges = changes;
+				contextHistoriesStale = false;
+			}
+			if (unindexedOperations > 0 || !hasKnownMatching(context)) {
+				return createContextHistory(context).get(undoHistory);
+			}
+			watchMatches(context);
+			return contextHistories.computeIfAbsent(context, this::createContextHistory).get(undoHistory);
+		}
+	}
+
+	/*
+	 * Mark an operation that enters the history, so that changes of its
+	 * contexts discard the context histories, and count it if its contexts
+	 * cannot be indexed. The caller must hold the lock of the context
+	 * histories.
+	 */
+	private void track(IUndoableOperation operation) {
+		boolean indexable = isIndexable(operation);
+		if (indexable) {
+			AbstractOperation abstractOperation = (AbstractOperation) operation;
+			if (abstractOperation.indexingHistory == null) {
+				abstractOperation.indexingHistory = this;
+			}
+			// an operation in several histories only tells the first one
+			indexable = abstractOperation.indexingHistory == this;
+		}
+		if (indexable) {
+			for (IUndoContext context : operation.getContexts()) {
+				watchMatches(context);
+			}
+		} else {
+			unindexedOperations++;
+		}
+	}
+
+	/*
+	 * Have the specified context tell this history when its matches change.
+	 */
+	private void watchMatches(IUndoContext context) {
+		if (context instanceof ObjectUndoContext) {
+			((ObjectUndoContext) context).indexingHistories.add(this);
+		}
+	}
+
+	/*
+	 * Return whether the contexts of the operation only change through
+	 * AbstractOperation and have known matching rules.
+	 */
+	private static boolean isIndexable(IUndoableOperation operation) {
+		if (!(operation instanceof AbstractOperation)) {
+			return false;
+		}
+		for (IUndoContext context : operation.getContexts()) {
+			if (!hasKnownMatching(context)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasKnownMatching(IUndoContext context) {
+		return context == GLOBAL_UNDO_CONTEXT || KNOWN_MATCHING.get(context.getClass()).booleanValue();
+	}
+
+	/*
+	 * Discard the context histories of this history. Called when the contexts
+	 * of an operation indexed by this history, or the matches of a context it
+	 * indexes, change.
+	 */
+	void contextsChanged() {
+		contextChanges.incrementAndGet();
+	}
+
+	/*
+	 * Collect the operations of the undo and redo history that have the
+	 * specified context.
+	 */
+	private ContextHistory createContextHistory(IUndoContext context) {
+		ContextHistory history = new ContextHistory();
+		for (IUndoableOperation operation : undoList) {
+			if (operation.hasContext(context)) {
+				history.undo.add(operation);
+			}
+		}
+		for (IUndoableOperation operation : redoList) {
+			if (operation.hasContext(context)) {
+				history.redo.add(operation);
+			}
+		}
+		return history;
+	}
 
-		List<IUndoableOperation> filtered = new ArrayList<>();
-		synchronized (undoRedoHistoryLock) {
-			Iterator<IUndoableOperation> iterator = list.iterator();
-			while (iterator.hasNext()) {
-				IUndoableOperation operation = iterator.next();
-				if (operation.hasContext(context)) {
-					filtered.add(operation);
+	/*
+	 * Filter the undo or redo history to include only the specified undo
+	 * context.
+	 */
+	private IUndoableOperation[] filter(IUndoContext context, boolean undoHistory) {
+		readLock.lock();
+		try {
+			List<IUndoableOperation> filtered = getHistory(context, undoHistory);
+			return filtered.toArray(new IUndoableOperation[filtered.size()]);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/*
+	 * Add the operation, which has been added to the end of the undo or redo
+	 * history, to the histories of its contexts. The caller must hold the write
+	 * lock.
+	 */
+	private void indexAdded(IUndoableOperation operation, boolean undoHistory) {
+		synchronized (contextHistories) {
+			if (contextHistoriesStale) {
+				return;
+			}
+			track(operation);
+			for (Map.Entry<IUndoContext, ContextHistory> entry : contextHistories.entrySet()) {
+				if (operation.hasContext(entry.getKey())) {
+					entry.getValue().get(undoHistory).add(operation);
 				}
 			}
 		}
-		return filtered.toArray(new IUndoableOperation[filtered.size()]);
+	}
+
+	/*
+	 * Remove the operation, which has been removed from the undo or redo
+	 * history, from the histories of its contexts. The caller must hold the
+	 * write lock.
+	 */
+	private void indexRemoved(IUndoableOperation operation, boolean undoHistory) {
+		synchronized (contextHistories) {
+			if (contextHistoriesStale) {
+				return;
+			}
+			if (!isIndexable(operation)) {
+				unindexedOperations--;
+			}
+			for (ContextHistory history : contextHistories.values()) {
+				List<IUndoableOperation> list = history.get(undoHistory);
+				int index = lastIndexOf(list, operation);
+				if (index >= 0) {
+					list.remove(index);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Collect the context histories again when they are needed.
+	 */
+	private void invalidateContextHistories() {
+		synchronized (contextHistories) {
+			contextHistoriesStale = true;
+			contextHistories.clear();
+		}
+	}
+
+	private static int lastIndexOf(List<IUndoableOperation> list, IUndoableOperation operation) {
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (list.get(i) == operation) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/*
@@ -556,15 +876,15 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			Tracing.printTrace(OPERATIONHISTORY, "Flushing redo history for " + context); //$NON-NLS-1$
 		}
 
-		synchronized (undoRedoHistoryLock) {
-
-			Object[] filtered = filter(redoList, context);
-			for (Object element : filtered) {
-				IUndoableOperation operation = (IUndoableOperation) element;
+		writeLock.lock();
+		try {
+			IUndoableOperation[] filtered = filter(context, false);
+			for (IUndoableOperation operation : filtered) {
 				if (context == GLOBAL_UNDO_CONTEXT || operation.getContexts().length == 1) {
 					// remove the operation if it only has the context or we are
 					// flushing all
 					redoList.remove(operation);
+					indexRemoved(operation, false);
 					internalRemove(operation);
 				} else {
 					// remove the reference to the context.
@@ -579,10 +899,13 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					}
 					if (operation.getContexts().length == 0) {
 						redoList.remove(operation);
+						indexRemoved(operation, false);
 						internalRemove(operation);
 					}
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -594,16 +917,16 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			Tracing.printTrace(OPERATIONHISTORY, "Flushing undo history for " + context); //$NON-NLS-1$
 		}
 
-		synchronized (undoRedoHistoryLock) {
-
+		writeLock.lock();
+		try {
 			// Get all operations that have the context (or one that matches)
-			Object[] filtered = filter(undoList, context);
-			for (Object element : filtered) {
-				IUndoableOperation operation = (IUndoableOperation) element;
+			IUndoableOperation[] filtered = filter(context, true);
+			for (IUndoableOperation operation : filtered) {
 				if (context == GLOBAL_UNDO_CONTEXT || operation.getContexts().length == 1) {
 					// remove the operation if it only has the context or we are
 					// flushing all
 					undoList.remove(operation);
+					indexRemoved(operation, true);
 					internalRemove(operation);
 				} else {
 					// remove the reference to the context.
@@ -618,10 +941,13 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					}
 					if (operation.getContexts().length == 0) {
 						undoList.remove(operation);
+						indexRemoved(operation, true);
 						internalRemove(operation);
 					}
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 		/*
 		 * There may be an open composite. If it has this context, then the
@@ -653,19 +979,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * items.
 	 */
 	private void forceRedoLimit(IUndoContext context, int max) {
-		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(redoList, context);
+		writeLock.lock();
+		try {
+			IUndoableOperation[] filtered = filter(context, false);
 			int size = filtered.length;
 			if (size > 0) {
 				int index = 0;
 				while (size > max) {
-					IUndoableOperation removed = (IUndoableOperation) filtered[index];
+					IUndoableOperation removed = filtered[index];
 					if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
 						/*
 						 * remove the operation if we are enforcing a global limit
 						 * or if the operation only has the specified context
 						 */
 						redoList.remove(removed);
+						indexRemoved(removed, false);
 						internalRemove(removed);
 					} else {
 						/*
@@ -679,6 +1007,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					index++;
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -687,19 +1017,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * items.
 	 */
 	private void forceUndoLimit(IUndoContext context, int max) {
-		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(undoList, context);
+		writeLock.lock();
+		try {
+			IUndoableOperation[] filtered = filter(context, true);
 			int size = filtered.length;
 			if (size > 0) {
 				int index = 0;
 				while (size > max) {
-					IUndoableOperation removed = (IUndoableOperation) filtered[index];
+					IUndoableOperation removed = filtered[index];
 					if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
 						/*
 						 * remove the operation if we are enforcing a global limit
 						 * or if the operation only has the specified context
 						 */
 						undoList.remove(removed);
+						indexRemoved(removed, true);
 						internalRemove(removed);
 					} else {
 						/*
@@ -713,6 +1045,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					index++;
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -748,21 +1082,19 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	@Override
 	public IUndoableOperation[] getRedoHistory(IUndoContext context) {
 		Assert.isNotNull(context);
-		return filter(redoList, context);
+		return filter(context, false);
 	}
 
 	@Override
 	public IUndoableOperation getRedoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = redoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = redoList.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
+		readLock.lock();
+		try {
+			List<IUndoableOperation> history = getHistory(context, false);
+			return history.isEmpty() ? null : history.get(history.size() - 1);
+		} finally {
+			readLock.unlock();
 		}
-		return null;
 	}
 
 	/*
@@ -789,21 +1121,19 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	@Override
 	public IUndoableOperation[] getUndoHistory(IUndoContext context) {
 		Assert.isNotNull(context);
-		return filter(undoList, context);
+		return filter(context, true);
 	}
 
 	@Override
 	public IUndoableOperation getUndoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = undoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = undoList.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
+		readLock.lock();
+		try {
+			List<IUndoableOperation> history = getHistory(context, true);
+			return history.isEmpty() ? null : history.get(history.size() - 1);
+		} finally {
+			readLock.unlock();
 		}
-		return null;
 	}
 
 	/*
@@ -836,6 +1166,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * Remove the operation by disposing it and notifying listeners.
 	 */
 	private void internalRemove(IUndoableOperation operation) {
+		sizeRemoved(operation);
 		operation.dispose();
 		notifyRemoved(operation);
 	}
@@ -1050,7 +1381,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public void replaceOperation(IUndoableOperation operation, IUndoableOperation[] replacements) {
 		// check the undo history first.
 		boolean inUndo = false;
-		synchronized (undoRedoHistoryLock) {
+		writeLock.lock();
+		try {
 			int index = undoList.indexOf(operation);
 			if (index > -1) {
 				inUndo = true;
@@ -1061,15 +1393,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					IUndoContext[] opContexts = replacement.getContexts();
 					allContexts.addAll(Arrays.asList(opContexts));
 					undoList.add(index, replacement);
+					sizeAdded(replacement);
 					// notify listeners after the lock on the history is
 					// released
 				}
+				// the replacements are not at the end of the history, collect
+				// the context histories again when they are needed
+				invalidateContextHistories();
 				// recheck all the limits. We do this at the end so the index
 				// doesn't change during replacement
 				for (IUndoContext context : allContexts) {
 					forceUndoLimit(context, getLimit(context));
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 		if (inUndo) {
 			// notify listeners of operations added and removed
@@ -1077,12 +1415,14 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			for (IUndoableOperation replacement : replacements) {
 				notifyAdd(replacement);
 			}
+			forceSizeLimits(null);
 			return;
 		}
 
 		// operation was not in the undo history. Check the redo history.
 
-		synchronized (undoRedoHistoryLock) {
+		writeLock.lock();
+		try {
 			int index = redoList.indexOf(operation);
 			if (index == -1) {
 				return;
@@ -1094,19 +1434,24 @@ public final class DefaultOperationHistory implements IOperationHistory {
 				IUndoContext[] opContexts = replacement.getContexts();
 				allContexts.addAll(Arrays.asList(opContexts));
 				redoList.add(index, replacement);
+				sizeAdded(replacement);
 				// notify listeners after we release the lock on redoList
 			}
+			invalidateContextHistories();
 			// recheck all the limits. We do this at the end so the index
 			// doesn't change during replacement
 			for (IUndoContext context : allContexts) {
 				forceRedoLimit(context, getLimit(context));
 			}
+		} finally {
+			writeLock.unlock();
 		}
 		// send listener notifications after we release the lock on the history
 		internalRemove(operation);
 		for (IUndoableOperation replacement : replacements) {
 			notifyAdd(replacement);
 		}
+		forceSizeLimits(null);
 	}
 
 	@Override
@@ -1121,11 +1466,303 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		 */
 		Assert.isNotNull(context);
 		limits.put(context, Integer.valueOf(limit));
-		synchronized (undoRedoHistoryLock) {
+		writeLock.lock();
+		try {
 			forceUndoLimit(context, limit);
 			forceRedoLimit(context, limit);
+		} finally {
+			writeLock.unlock();
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Set the limit of the estimated size of the operations kept in the undo
+	 * and redo history of the specified context. Only operations implementing
+	 * {@link ISizedUndoableOperation} count towards the limit. If the limit is
+	 * exceeded, the oldest undo operations are spilled or removed first,
+	 * followed by the redo operations least recently undone. An operation that
+	 * is added, undone or redone is not itself removed to enforce the limit.
+	 * </p>
+	 * <p>
+	 * Like the count limit, a size limit of a context removes the context from
+	 * operations that have other contexts rather than removing the operations.
+	 * The size limit of the {@link IOperationHistory#GLOBAL_UNDO_CONTEXT} limits
+	 * the size of the whole history.
+	 * </p>
+	 *
+	 * @param context
+	 *            the context whose size is limited
+	 * @param limit
+	 *            the limit in bytes, or {@link #NO_SIZE_LIMIT}
+	 * @since 3.11
+	 */
+	public void setSizeLimit(IUndoContext context, long limit) {
+		Assert.isNotNull(context);
+		Assert.isTrue(limit >= 0 || limit == NO_SIZE_LIMIT);
+		if (limit == NO_SIZE_LIMIT) {
+			sizeLimits.remove(context);
+		} else {
+			sizeLimits.put(context, Long.valueOf(limit));
+			forceSizeLimits(null);
 		}
+	}
 
+	/**
+	 * Return the size limit of the specified context.
+	 *
+	 * @param context
+	 *            the context
+	 * @return the limit in bytes, or {@link #NO_SIZE_LIMIT}
+	 * @see #setSizeLimit(IUndoContext, long)
+	 * @since 3.11
+	 */
+	public long getSizeLimit(IUndoContext context) {
+		Long limit = sizeLimits.get(context);
+		return limit == null ? NO_SIZE_LIMIT : limit.longValue();
+	}
+
+	/**
+	 * Return the estimated size of the operations in the undo and redo history
+	 * of the specified context that are held in memory.
+	 *
+	 * @param context
+	 *            the context, or {@link IOperationHistory#GLOBAL_UNDO_CONTEXT}
+	 *            for the whole history
+	 * @return the size in bytes
+	 * @since 3.11
+	 */
+	public long getSize(IUndoContext context) {
+		Assert.isNotNull(context);
+		readLock.lock();
+		try {
+			return getSize(getHistory(context, true)) + getSize(getHistory(context, false));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Set the directory that operations exceeding a size limit are spilled to.
+	 * Operations implementing {@link ISizedUndoableOperation} that are able to
+	 * spill their data are then kept in the history without their data being
+	 * held in memory, and restored before they are undone or redone.
+	 * </p>
+	 * <p>
+	 * The history writes one file per spilled operation, which is deleted when
+	 * the operation leaves the history. Clients should use a directory that is
+	 * cleaned up when the application exits.
+	 * </p>
+	 *
+	 * @param directory
+	 *            an existing directory, or <code>null</code> to remove
+	 *            operations exceeding a size limit from the history
+	 * @since 3.11
+	 */
+	public void setSpillDirectory(Path directory) {
+		spillDirectory = directory;
+	}
+
+	/*
+	 * Record the size of an operation added to the history. The caller must
+	 * hold the write lock.
+	 */
+	private void sizeAdded(IUndoableOperation operation) {
+		if (operation instanceof ISizedUndoableOperation && !spilledOperations.containsKey(operation)) {
+			long size = Math.max(0, ((ISizedUndoableOperation) operation).getSizeEstimate());
+			sizes.put(operation, Long.valueOf(size));
+		}
+	}
+
+	/*
+	 * Forget the size of an operation that left the history, and delete its
+	 * spill file.
+	 */
+	private void sizeRemoved(IUndoableOperation operation) {
+		if (!(operation instanceof ISizedUndoableOperation)) {
+			return;
+		}
+		Path file;
+		writeLock.lock();
+		try {
+			sizes.remove(operation);
+			file = spilledOperations.remove(operation);
+		} finally {
+			writeLock.unlock();
+		}
+		if (file != null) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				if (DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace(OPERATIONHISTORY, "Could not delete spill file " + file + ' ' + e); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/*
+	 * Return the estimated size of the given operations held in memory. The
+	 * caller must hold the read or write lock.
+	 */
+	private long getSize(List<IUndoableOperation> operations) {
+		long size = 0;
+		for (IUndoableOperation operation : operations) {
+			Long operationSize = sizes.get(operation);
+			if (operationSize != null) {
+				size += operationSize.longValue();
+			}
+		}
+		return size;
+	}
+
+	/*
+	 * Spill or remove the oldest operations of all contexts that exceed their
+	 * size limit. The given operation, if any, is kept.
+	 */
+	private void forceSizeLimits(IUndoableOperation keep) {
+		if (sizeLimits.isEmpty()) {
+			return;
+		}
+		Map<IUndoContext, Long> limitsToForce;
+		synchronized (sizeLimits) {
+			limitsToForce = new HashMap<>(sizeLimits);
+		}
+		writeLock.lock();
+		try {
+			for (Map.Entry<IUndoContext, Long> entry : limitsToForce.entrySet()) {
+				forceSizeLimit(entry.getKey(), entry.getValue().longValue(), keep);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/*
+	 * Spill or remove the oldest operations of the given context until the
+	 * estimated size of its history is within the limit. The caller must hold
+	 * the write lock.
+	 */
+	private void forceSizeLimit(IUndoContext context, long limit, IUndoableOperation keep) {
+		List<IUndoableOperation> undoHistory = getHistory(context, true);
+		List<IUndoableOperation> redoHistory = getHistory(context, false);
+		long size = getSize(undoHistory) + getSize(redoHistory);
+		if (size <= limit) {
+			return;
+		}
+		List<IUndoableOperation> candidates = new ArrayList<>(undoHistory.size() + redoHistory.size());
+		candidates.addAll(undoHistory);
+		candidates.addAll(redoHistory);
+		for (IUndoableOperation operation : candidates) {
+			if (size <= limit) {
+				return;
+			}
+			Long operationSize = sizes.get(operation);
+			if (operation == keep || operationSize == null || operationSize.longValue() == 0) {
+				continue;
+			}
+			size -= operationSize.longValue();
+			if (spill(operation)) {
+				continue;
+			}
+			boolean undoHistoryOperation = undoList.contains(operation);
+			if (context == GLOBAL_UNDO_CONTEXT || operation.getContexts().length == 1) {
+				if (undoHistoryOperation) {
+					undoList.remove(operation);
+				} else {
+					redoList.remove(operation);
+				}
+				indexRemoved(operation, undoHistoryOperation);
+				internalRemove(operation);
+			} else {
+				// only the context is over its limit, keep the operation for
+				// the other contexts
+				operation.removeContext(context);
+			}
+		}
+	}
+
+	/*
+	 * Spill the data of an operation to the spill directory. The caller must
+	 * hold the write lock. Return whether the operation was spilled.
+	 */
+	private boolean spill(IUndoableOperation operation) {
+		Path directory = spillDirectory;
+		if (directory == null || !((ISizedUndoableOperation) operation).canSpill()) {
+			return false;
+		}
+		Path file = null;
+		try {
+			file = Files.createTempFile(directory, "operation", ".spill"); //$NON-NLS-1$ //$NON-NLS-2$
+			try (OutputStream out = Files.newOutputStream(file)) {
+				((ISizedUndoableOperation) operation).spill(out);
+			}
+		} catch (IOException | RuntimeException e) {
+			if (DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				Tracing.printTrace(OPERATIONHISTORY, "Could not spill " + operation + ' ' + e); //$NON-NLS-1$
+			}
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e1) {
+					// the file is left behind in the spill directory
+				}
+			}
+			return false;
+		}
+		sizes.remove(operation);
+		spilledOperations.put(operation, file);
+		return true;
+	}
+
+	/*
+	 * Restore the data of an operation that was spilled before it is undone
+	 * or redone. If the data cannot be restored, the operation is removed from
+	 * the history. Return whether the operation can proceed.
+	 */
+	private boolean restore(IUndoableOperation operation) {
+		if (!(operation instanceof ISizedUndoableOperation)) {
+			return true;
+		}
+		boolean restored = true;
+		writeLock.lock();
+		try {
+			Path file = spilledOperations.get(operation);
+			if (file == null) {
+				return true;
+			}
+			try (InputStream in = Files.newInputStream(file)) {
+				((ISizedUndoableOperation) operation).restore(in);
+			} catch (IOException | RuntimeException e) {
+				if (DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace(OPERATIONHISTORY, "Could not restore " + operation + ' ' + e); //$NON-NLS-1$
+				}
+				restored = false;
+			}
+			if (restored) {
+				spilledOperations.remove(operation);
+				sizeAdded(operation);
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					// the file is left behind in the spill directory
+				}
+			} else {
+				boolean undoHistoryOperation = undoList.remove(operation);
+				if (undoHistoryOperation || redoList.remove(operation)) {
+					indexRemoved(operation, undoHistoryOperation);
+				}
+				internalRemove(operation);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		if (restored) {
+			forceSizeLimits(operation);
+		}
+		return restored;
 	}
 
 	@Override
@@ -1229,8 +1866,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 
 	@Override
 	public void operationChanged(IUndoableOperation operation) {
-		if (undoList.contains(operation) || redoList.contains(operation)) {
+		boolean inHistory;
+		writeLock.lock();
+		try {
+			inHistory = undoList.contains(operation) || redoList.contains(operation);
+			if (inHistory && sizes.containsKey(operation)) {
+				// the size may have changed as well
+				sizes.remove(operation);
+				sizeAdded(operation);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		if (inHistory) {
 			notifyChanged(operation);
+			forceSizeLimits(null);
 		}
 	}
 }
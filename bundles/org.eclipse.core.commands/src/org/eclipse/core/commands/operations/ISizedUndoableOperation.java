@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.commands.operations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>
+ * ISizedUndoableOperation defines methods that allow an operation history to
+ * bound the memory held by its operations. Operations report an estimate of the
+ * memory they retain for undo and redo, which the history compares with its
+ * size limits. Operations may also support spilling, which writes the data they
+ * retain to a stream and releases it, so that the history can keep the
+ * operation undoable without holding its data in memory. The data is restored
+ * before the operation is undone or redone.
+ * </p>
+ * <p>
+ * While its data is spilled, an operation must still answer its label, its
+ * contexts, and {@link IUndoableOperation#canUndo()} and
+ * {@link IUndoableOperation#canRedo()}.
+ * </p>
+ *
+ * @see DefaultOperationHistory#setSizeLimit(IUndoContext, long)
+ * @see DefaultOperationHistory#setSpillDirectory(java.nio.file.Path)
+ *
+ * @since 3.11
+ */
+public interface ISizedUndoableOperation {
+
+	/**
+	 * Return an estimate of the number of bytes of memory retained by the
+	 * receiver to undo or redo it.
+	 *
+	 * @return the estimated size in bytes, not negative
+	 */
+	long getSizeEstimate();
+
+	/**
+	 * Return whether the receiver can currently spill its data. The default
+	 * implementation returns <code>false</code>.
+	 *
+	 * @return <code>true</code> if {@link #spill(OutputStream)} is supported
+	 */
+	default boolean canSpill() {
+		return false;
+	}
+
+	/**
+	 * Write the data retained for undo and redo to the given stream and release
+	 * it. The stream is closed by the caller. If this method throws an
+	 * exception, the receiver must still hold its data. The default
+	 * implementation writes nothing and keeps the data, which leaves the
+	 * operation undoable for receivers that don't support spilling.
+	 *
+	 * @param out
+	 *            the stream to write the data to
+	 * @throws IOException
+	 *             if the data could not be written
+	 */
+	default void spill(OutputStream out) throws IOException {
+		// nothing to write, the data is kept in memory
+	}
+
+	/**
+	 * Read the data written by {@link #spill(OutputStream)} from the given
+	 * stream. The stream is closed by the caller. The default implementation
+	 * does nothing, matching the default {@link #spill(OutputStream)}.
+	 *
+	 * @param in
+	 *            the stream to read the data from
+	 * @throws IOException
+	 *             if the data could not be read
+	 */
+	default void restore(InputStream in) throws IOException {
+		// nothing to read, the data was kept in memory
+	}
+}
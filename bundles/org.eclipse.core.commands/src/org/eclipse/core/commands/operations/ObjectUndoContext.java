@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,10 @@
 package org.eclipse.core.commands.operations;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * <p>
@@ -33,6 +36,13 @@ public final class ObjectUndoContext extends UndoContext {
 
 	private List<IUndoContext> children = new ArrayList<>();
 
+	/**
+	 * The operation histories whose indexes depend on the matches of this
+	 * context.
+	 */
+	final Set<DefaultOperationHistory> indexingHistories = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
 	/**
 	 * Construct an operation context that represents the given object.
 	 *
@@ -91,6 +101,7 @@ public final class ObjectUndoContext extends UndoContext {
 	 */
 	public void addMatch(IUndoContext context) {
 		children.add(context);
+		matchesChanged();
 	}
 
 	/**
@@ -104,7 +115,23 @@ public final class ObjectUndoContext extends UndoContext {
 	 *            context
 	 */
 	public void removeMatch(IUndoContext context) {
-		children.remove(context);
+		if (children.remove(context)) {
+			matchesChanged();
+		}
+	}
+
+	/*
+	 * Tell the operation histories that index this context that its matches
+	 * changed.
+	 */
+	private void matchesChanged() {
+		DefaultOperationHistory[] histories;
+		synchronized (indexingHistories) {
+			histories = indexingHistories.toArray(new DefaultOperationHistory[indexingHistories.size()]);
+		}
+		for (DefaultOperationHistory history : histories) {
+			history.contextsChanged();
+		}
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -280,6 +280,7 @@ public final class TriggeredOperations extends AbstractOperation implements
 			}
 		}
 		contexts = allContexts;
+		contextsChanged();
 
 	}
 
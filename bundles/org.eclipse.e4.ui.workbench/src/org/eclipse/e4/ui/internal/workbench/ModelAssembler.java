@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2021 BestSolution.at and others.
+ * Copyright (c) 2010, 2023 BestSolution.at and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +34,12 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
@@ -65,6 +72,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -171,13 +179,7 @@ public class ModelAssembler {
 
 						URI uri;
 						try {
-							// check if the attrURI is already a platform URI
-							if (URIHelper.isPlatformURI(attrURI)) {
-								uri = URI.createURI(attrURI);
-							} else {
-								String path = bundleName + '/' + attrURI;
-								uri = URI.createPlatformPluginURI(path, false);
-							}
+							uri = createFragmentURI(attrURI, bundleName);
 						} catch (RuntimeException e) {
 							log(LogLevel.WARN, "Invalid location {} of model extension {}", attrURI, bundleName, //$NON-NLS-1$
 									e);
@@ -210,6 +212,12 @@ public class ModelAssembler {
 	private static final String INITIAL = "initial"; //$NON-NLS-1$
 	private static final String NOTEXISTS = "notexists"; //$NON-NLS-1$
 
+	/**
+	 * The threads parsing fragment resources concurrently, shared by all
+	 * instances. Idle threads end after a while.
+	 */
+	private static final ExecutorService FRAGMENT_LOADER = createFragmentLoader();
+
 	LoggerFactory factory;
 	Logger logger;
 
@@ -341,6 +349,10 @@ public class ModelAssembler {
 	 *
 	 */
 	private void processFragments(IExtension[] extensions, boolean initial) {
+		// parse all fragment resources up front, the merge below is done in the
+		// deterministic order given by the extension sort and the fragment comparator
+		preloadFragmentResources(collectFragmentURIs(extensions, initial));
+
 		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
 		for (IExtension extension : extensions) {
 			IConfigurationElement[] ces = extension.getConfigurationElements();
@@ -379,13 +391,61 @@ public class ModelAssembler {
 		processFragmentWrappers(wrappers);
 	}
 
+	/**
+	 * Collects the URIs of all fragment resources that will be read on processing
+	 * the given extensions and the bundles providing a Model-Fragment header.
+	 *
+	 * @param extensions the list of {@link IExtension} extension elements
+	 * @param initial    <code>true</code> if running from a non-persisted state
+	 * @return the URIs of the fragment resources in contribution order
+	 */
+	private Set<URI> collectFragmentURIs(IExtension[] extensions, boolean initial) {
+		Set<URI> uris = new LinkedHashSet<>();
+		for (IExtension extension : extensions) {
+			for (IConfigurationElement ce : extension.getConfigurationElements()) {
+				if ("fragment".equals(ce.getName()) && (initial || !INITIAL.equals(ce.getAttribute("apply")))) { //$NON-NLS-1$ //$NON-NLS-2$
+					addFragmentURI(uris, ce.getAttribute("uri"), ce.getContributor().getName()); //$NON-NLS-1$
+				}
+			}
+		}
+
+		if (this.tracker != null && this.bundleContext != null) {
+			int trackedStates = Bundle.STARTING | Bundle.ACTIVE | Bundle.STOPPING;
+			for (Bundle bundle : this.bundleContext.getBundles()) {
+				if ((bundle.getState() & trackedStates) == 0) {
+					continue;
+				}
+				String fragmentHeader = bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER); //$NON-NLS-1$
+				if (fragmentHeader == null) {
+					continue;
+				}
+				String[] fr = fragmentHeader.split(";"); //$NON-NLS-1$
+				if (fr.length > 0 && (initial || !INITIAL.equals(getApplyAttribute(fr)))) {
+					addFragmentURI(uris, fr[0], bundle.getSymbolicName());
+				}
+			}
+		}
+		return uris;
+	}
+
+	private static void addFragmentURI(Set<URI> uris, String attrURI, String bundleName) {
+		if (attrURI == null) {
+			return;
+		}
+		try {
+			uris.add(createFragmentURI(attrURI, bundleName));
+		} catch (RuntimeException e) {
+			// reported when the fragment is read
+		}
+	}
+
 	private List<ModelFragmentWrapper> getModelFragmentWrapperFromBundle(Bundle bundle, boolean initial) {
 		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
 		String fragmentHeader = bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER); //$NON-NLS-1$
 		String[] fr = fragmentHeader.split(";"); //$NON-NLS-1$
 		if (fr.length > 0) {
 			String uri = fr[0];
-			String apply = fr.length > 1 ? fr[1].split("=")[1] : "always"; //$NON-NLS-1$ //$NON-NLS-2$
+			String apply = getApplyAttribute(fr);
 
 			// check if the value for apply is valid
 			if (!ALWAYS.equals(apply) && !INITIAL.equals(apply) && !NOTEXISTS.equals(apply)) {
@@ -532,6 +592,106 @@ public class ModelAssembler {
 		}
 	}
 
+	/**
+	 * Parses the given fragment resources concurrently and adds them to the
+	 * resource set of the application model. The resources are added in the
+	 * iteration order of the given collection, so subsequent lookups via
+	 * {@link ResourceSet#getResource(URI, boolean)} are served from the resource
+	 * set regardless of the order in which parsing finished. Resources that fail
+	 * to load are skipped here and reported when they are requested again.
+	 *
+	 * @param uris the URIs of the fragment resources to load
+	 */
+	private void preloadFragmentResources(Collection<URI> uris) {
+		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
+		ResourceSet resourceSet = applicationResource.getResourceSet();
+
+		List<Resource> resources = new ArrayList<>();
+		for (URI uri : uris) {
+			if (resourceSet.getResource(uri, false) != null) {
+				continue;
+			}
+			Resource.Factory factory = resourceSet.getResourceFactoryRegistry().getFactory(uri);
+			if (factory != null) {
+				resources.add(factory.createResource(uri));
+			}
+		}
+		if (resources.size() < 2) {
+			// nothing to gain, let the regular lookup load the resource
+			return;
+		}
+
+		Map<Object, Object> loadOptions = new HashMap<>(resourceSet.getLoadOptions());
+		URIConverter uriConverter = resourceSet.getURIConverter();
+		List<Future<Resource>> loaded = new ArrayList<>(resources.size());
+		try {
+			for (Resource resource : resources) {
+				loaded.add(FRAGMENT_LOADER.submit(() -> {
+					try (InputStream in = uriConverter.createInputStream(resource.getURI(), loadOptions)) {
+						resource.load(in, loadOptions);
+					}
+					return resource;
+				}));
+			}
+			for (Future<Resource> future : loaded) {
+				try {
+					resourceSet.getResources().add(future.get());
+				} catch (ExecutionException e) {
+					log(LogLevel.DEBUG, "Preloading model fragment failed: {}", e.getCause()); //$NON-NLS-1$
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			loaded.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private static ExecutorService createFragmentLoader() {
+		int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 10, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread thread = new Thread(r, "Model Fragment Loader"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		// the fragments are read on startup and when bundles are added
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Creates the {@link URI} of a fragment resource.
+	 *
+	 * @param attrURI    the location of the fragment, either a platform URI or a
+	 *                   path relative to the contributing bundle
+	 * @param bundleName the symbolic name of the contributing bundle
+	 * @return the fragment URI
+	 * @throws IllegalArgumentException if the location is not a valid URI
+	 */
+	private static URI createFragmentURI(String attrURI, String bundleName) {
+		// check if the attrURI is already a platform URI
+		if (URIHelper.isPlatformURI(attrURI)) {
+			return URI.createURI(attrURI);
+		}
+		String path = bundleName + '/' + attrURI;
+		return URI.createPlatformPluginURI(path, false);
+	}
+
+	/**
+	 * Returns the value of the apply attribute of a Model-Fragment header.
+	 *
+	 * @param fragmentHeader the header value split at its semicolons
+	 * @return the value of the apply attribute, or <code>always</code> if it is
+	 *         not given
+	 */
+	private static String getApplyAttribute(String[] fragmentHeader) {
+		if (fragmentHeader.length < 2) {
+			return ALWAYS;
+		}
+		String attribute = fragmentHeader[1];
+		return attribute.substring(attribute.indexOf('=') + 1);
+	}
+
 	private MModelFragments getFragmentsContainer(String attrURI, String bundleName) {
 		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
 		ResourceSet resourceSet = applicationResource.getResourceSet();
@@ -542,13 +702,7 @@ public class ModelAssembler {
 
 		URI uri;
 		try {
-			// check if the attrURI is already a platform URI
-			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
-			}
+			uri = createFragmentURI(attrURI, bundleName);
 		} catch (RuntimeException e) {
 			log(LogLevel.WARN, "Invalid location {} of model extension {}", attrURI, bundleName, e); //$NON-NLS-1$
 			return null;
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.ImageData;
+
+/**
+ * Caches the composed image data of composite image descriptors, so that an
+ * image that is disposed by its resource manager and requested again later
+ * does not have to be composed again.
+ * <p>
+ * Entries are keyed by the composition key of the descriptor and hold the
+ * data per zoom level. Entries are reference counted by the number of live
+ * images created from them through the resource managers; referenced entries
+ * are never evicted. Of the unreferenced entries, only the
+ * {@link #getMaximumSize() most recently used ones} are kept.
+ * </p>
+ * <p>
+ * Hit rate and live image counts are available from {@link #getStatistics()}.
+ * </p>
+ *
+ * @since 3.30
+ */
+public final class CompositionCache {
+
+	/**
+	 * System property for the maximum number of unreferenced entries.
+	 */
+	public static final String SIZE_PROPERTY = "org.eclipse.jface.compositionCacheSize"; //$NON-NLS-1$
+
+	private static final int DEFAULT_SIZE = 512;
+
+	private static final class Entry {
+		final Map<Integer, ImageData> data = new HashMap<>(4);
+		int liveImages;
+	}
+
+	/** in access order, so that iteration starts with the least recently used */
+	private static final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+	private static int maximumSize = Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE).intValue();
+
+	private static int referencedEntries;
+
+	private static int liveImages;
+
+	private static long hits;
+
+	private static long misses;
+
+	private CompositionCache() {
+		// not instantiated
+	}
+
+	/**
+	 * Returns the cached data of a composition.
+	 *
+	 * @param key  the composition key
+	 * @param zoom the zoom level
+	 * @return the cached data, or <code>null</code> if it has to be composed.
+	 *         The data is shared and must not be modified.
+	 */
+	public static synchronized ImageData get(Object key, int zoom) {
+		Entry entry = entries.get(key);
+		ImageData data = entry == null ? null : entry.data.get(Integer.valueOf(zoom));
+		if (data != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return data;
+	}
+
+	/**
+	 * Stores the composed data of a composition.
+	 *
+	 * @param key  the composition key
+	 * @param zoom the zoom level
+	 * @param data the composed data, which must not be modified afterwards
+	 */
+	public static synchronized void put(Object key, int zoom, ImageData data) {
+		entries.computeIfAbsent(key, k -> new Entry()).data.put(Integer.valueOf(zoom), data);
+		evict();
+	}
+
+	/**
+	 * Records that an image has been created for the given composition.
+	 *
+	 * @param key the composition key
+	 */
+	public static synchronized void acquire(Object key) {
+		Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+		if (entry.liveImages++ == 0) {
+			referencedEntries++;
+		}
+		liveImages++;
+	}
+
+	/**
+	 * Records that an image created for the given composition has been disposed.
+	 *
+	 * @param key the composition key
+	 */
+	public static synchronized void release(Object key) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.liveImages == 0) {
+			return;
+		}
+		liveImages--;
+		if (--entry.liveImages == 0) {
+			referencedEntries--;
+			evict();
+		}
+	}
+
+	private static void evict() {
+		int unreferenced = entries.size() - referencedEntries;
+		for (Iterator<Entry> it = entries.values().iterator(); unreferenced > maximumSize && it.hasNext();) {
+			if (it.next().liveImages == 0) {
+				it.remove();
+				unreferenced--;
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximum number of entries without live images that are kept.
+	 *
+	 * @return the maximum number of unreferenced entries
+	 */
+	public static synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries without live images that are kept.
+	 *
+	 * @param size the maximum number of unreferenced entries
+	 */
+	public static synchronized void setMaximumSize(int size) {
+		maximumSize = Math.max(0, size);
+		evict();
+	}
+
+	/**
+	 * @return the number of cached compositions
+	 */
+	public static synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of images created from cached compositions that have
+	 *         not been disposed yet
+	 */
+	public static synchronized int getLiveImageCount() {
+		return liveImages;
+	}
+
+	/**
+	 * @return the number of lookups that found the composed data
+	 */
+	public static synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups that had to compose the data
+	 */
+	public static synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Removes all unreferenced entries and resets the hit and miss counts.
+	 */
+	public static synchronized void clear() {
+		entries.values().removeIf(entry -> entry.liveImages == 0);
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * @return a one line summary of the cache statistics
+	 */
+	public static synchronized String getStatistics() {
+		long lookups = hits + misses;
+		return String.format("Composition cache: %d entries, %d live images, hit rate %d%% (%d of %d)", //$NON-NLS-1$
+				Integer.valueOf(entries.size()), Integer.valueOf(liveImages),
+				Long.valueOf(lookups == 0 ? 0 : hits * 100 / lookups), Long.valueOf(hits), Long.valueOf(lookups));
+	}
+}
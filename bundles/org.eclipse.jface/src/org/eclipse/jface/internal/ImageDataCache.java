@@ -0,0 +1,806 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * (NON-API) A persistent cache of decoded {@link ImageData} keyed by image URL
+ * and zoom level. The cache is stored in a single file which is memory mapped
+ * when the cache is opened, so cached images are read from the mapping without
+ * opening or decoding the original image file. Results of probing for
+ * non-existing high resolution variants are remembered as well.
+ * <p>
+ * Entries are keyed by the origin of the image, which does not depend on the
+ * running framework: the symbolic name and version of the bundle providing the
+ * image and the path of the image in the bundle, or the path of a local file.
+ * Every entry records a stamp of its origin: the modification time of the
+ * bundle together with the modification time of the image entry in the bundle,
+ * so that images changed in a bundle run from a directory are noticed, or the
+ * modification time and size of the local file. Entries whose stamp no longer
+ * matches are ignored and replaced, and are dropped when the cache is written.
+ * Entries of local files that were not used while the cache was open are
+ * dropped as well. Images from other locations are never cached.
+ * </p>
+ * <p>
+ * The default cache is disabled until {@link #open(File)} is called. New
+ * entries are written through to a journal file next to the cache file, and
+ * are merged into the cache file by {@link #close()}. They take effect when
+ * the cache is opened the next time.
+ * </p>
+ *
+ * @since 3.30
+ */
+public final class ImageDataCache {
+
+	private static final int MAGIC = 0x4A464943; // "JFIC"
+
+	private static final int FORMAT_VERSION = 2;
+
+	private static final int MISSING = -1;
+
+	private static final String BUNDLE_ENTRY_PROTOCOL = "bundleentry"; //$NON-NLS-1$
+
+	private static final String BUNDLE_RESOURCE_PROTOCOL = "bundleresource"; //$NON-NLS-1$
+
+	private static final String PLATFORM_PROTOCOL = "platform"; //$NON-NLS-1$
+
+	private static final String PLUGIN_PREFIX = "/plugin/"; //$NON-NLS-1$
+
+	private static final String FILE_PROTOCOL = "file"; //$NON-NLS-1$
+
+	private static volatile ImageDataCache instance;
+
+	private final File file;
+
+	/** The mapped cache file, or <code>null</code> if there was none. */
+	private final ByteBuffer mapped;
+
+	/** Entries read from the cache file, pointing into {@link #mapped}. */
+	private final Map<String, StoredEntry> stored;
+
+	/**
+	 * Entries added since the cache file has been read, pointing into
+	 * {@link #journal}.
+	 */
+	private final Map<String, AddedEntry> added = new ConcurrentHashMap<>();
+
+	/** The file the data of added entries is written to, created on demand. */
+	private FileChannel journal;
+
+	private long journalSize;
+
+	/** The origins of the entries looked up or added while the cache is open. */
+	private final Set<String> usedOrigins = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, String> originStamps = new ConcurrentHashMap<>();
+
+	/** Bundles by <code>symbolic name_version</code>. */
+	private final Map<String, Bundle> bundlesByKey = new ConcurrentHashMap<>();
+
+	private Map<String, Bundle> bundlesByName;
+
+	private static final class StoredEntry {
+		final String stamp;
+		final int offset;
+		final int length;
+
+		StoredEntry(String stamp, int offset, int length) {
+			this.stamp = stamp;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private static final class AddedEntry {
+		final String stamp;
+		final long offset;
+		final int length;
+
+		AddedEntry(String stamp, long offset, int length) {
+			this.stamp = stamp;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private ImageDataCache(File file, ByteBuffer mapped, Map<String, StoredEntry> stored) {
+		this.file = file;
+		this.mapped = mapped;
+		this.stored = stored;
+	}
+
+	/**
+	 * Opens the cache stored in the given file and makes it available through
+	 * {@link #getDefault()}.
+	 *
+	 * @param file the file to read the cache from and to write it to
+	 * @see #read(File)
+	 */
+	public static synchronized void open(File file) {
+		instance = read(file);
+	}
+
+	/**
+	 * Writes the entries of the default cache back to its file and disables the
+	 * cache. Does nothing if the cache has not been opened.
+	 */
+	public static synchronized void close() {
+		ImageDataCache cache = instance;
+		instance = null;
+		if (cache != null) {
+			cache.save();
+		}
+	}
+
+	/**
+	 * Reads the cache stored in the given file. A missing, outdated or corrupt
+	 * file results in an empty cache.
+	 *
+	 * @param file the file to read the cache from and to write it to
+	 * @return the cache
+	 */
+	public static ImageDataCache read(File file) {
+		ByteBuffer mapped = null;
+		Map<String, StoredEntry> stored = new HashMap<>();
+		// left over if the previous session ended without closing the cache
+		getJournalFile(file).delete();
+		File pending = getPendingFile(file);
+		if (pending.isFile()) {
+			try {
+				Files.move(pending.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException e) {
+				log(e);
+			}
+		}
+		if (file.isFile()) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				if (readIndex(buffer, stored)) {
+					mapped = buffer;
+				} else {
+					stored.clear();
+				}
+			} catch (IOException | RuntimeException e) {
+				stored.clear();
+				log(e);
+			}
+		}
+		return new ImageDataCache(file, mapped, stored);
+	}
+
+	/**
+	 * Writes the entries added to this cache back to its file and deletes the
+	 * journal. The written file takes effect when the cache is read the next
+	 * time.
+	 */
+	public synchronized void save() {
+		if (added.isEmpty() && !hasUnusedFileEntries()) {
+			return;
+		}
+		try {
+			write();
+		} catch (IOException | RuntimeException e) {
+			log(e);
+		} finally {
+			added.clear();
+			closeJournal();
+		}
+	}
+
+	private boolean hasUnusedFileEntries() {
+		for (String key : stored.keySet()) {
+			String origin = getOriginOfKey(key);
+			if (origin.startsWith(FILE_PROTOCOL + ':') && !usedOrigins.contains(origin)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the opened cache.
+	 *
+	 * @return the cache or <code>null</code> if caching is disabled
+	 */
+	public static ImageDataCache getDefault() {
+		return instance;
+	}
+
+	/**
+	 * Returns whether the cache knows the image data for the given URL and zoom.
+	 * The result of {@link #get(URL, int)} is only meaningful if this returns
+	 * <code>true</code>.
+	 *
+	 * @param url  the URL of the image
+	 * @param zoom the zoom level
+	 * @return <code>true</code> if there is a valid entry
+	 */
+	public boolean contains(URL url, int zoom) {
+		String origin = getOrigin(url);
+		return origin != null && findStamped(origin, zoom) != null;
+	}
+
+	/**
+	 * Returns the cached image data for the given URL and zoom, or loads it and
+	 * stores it if there is no valid entry. A missing image is remembered for
+	 * other zoom levels than 100, which are probed for high resolution variants,
+	 * but failing to load an image at zoom level 100 is not.
+	 *
+	 * @param url    the URL of the image
+	 * @param zoom   the zoom level
+	 * @param loader loads the image data on a cache miss, may return
+	 *               <code>null</code>
+	 * @return the image data or <code>null</code>
+	 */
+	public ImageData get(URL url, int zoom, Supplier<ImageData> loader) {
+		String origin = getOrigin(url);
+		if (origin == null) {
+			return loader.get();
+		}
+		Object entry = findStamped(origin, zoom);
+		if (entry != null) {
+			return read(entry);
+		}
+		ImageData data = loader.get();
+		if (data != null || zoom != 100) {
+			put(origin, zoom, data);
+		}
+		return data;
+	}
+
+	/**
+	 * Returns the cached image data for the given URL and zoom. Returns
+	 * <code>null</code> if there is no valid entry or if the cache remembers that
+	 * the image does not exist.
+	 *
+	 * @param url  the URL of the image
+	 * @param zoom the zoom level
+	 * @return the image data or <code>null</code>
+	 */
+	public ImageData get(URL url, int zoom) {
+		String origin = getOrigin(url);
+		return origin == null ? null : read(findStamped(origin, zoom));
+	}
+
+	private ImageData read(Object entry) {
+		try {
+			if (entry instanceof AddedEntry) {
+				AddedEntry addedEntry = (AddedEntry) entry;
+				if (addedEntry.length == MISSING) {
+					return null;
+				}
+				return readImageData(readJournal(addedEntry));
+			} else if (entry instanceof StoredEntry) {
+				StoredEntry storedEntry = (StoredEntry) entry;
+				if (storedEntry.length == MISSING) {
+					return null;
+				}
+				ByteBuffer buffer = mapped.duplicate();
+				buffer.position(storedEntry.offset);
+				buffer.limit(storedEntry.offset + storedEntry.length);
+				return readImageData(buffer.slice());
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | IOException e) {
+			log(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the image data for the given URL and zoom. Does nothing if the URL
+	 * does not point into a bundle or to a local file.
+	 *
+	 * @param url       the URL of the image
+	 * @param zoom      the zoom level
+	 * @param imageData the decoded image data, or <code>null</code> to remember
+	 *                  that there is no such image
+	 */
+	public void put(URL url, int zoom, ImageData imageData) {
+		String origin = getOrigin(url);
+		if (origin != null) {
+			put(origin, zoom, imageData);
+		}
+	}
+
+	private void put(String origin, int zoom, ImageData imageData) {
+		String stamp = getStamp(origin);
+		if (stamp == null) {
+			return;
+		}
+		usedOrigins.add(origin);
+		if (imageData == null) {
+			added.put(key(origin, zoom), new AddedEntry(stamp, 0, MISSING));
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			writeImageData(out, imageData);
+			AddedEntry entry = writeJournal(stamp, bytes.toByteArray());
+			if (entry != null) {
+				added.put(key(origin, zoom), entry);
+			}
+		} catch (IOException e) {
+			log(e);
+		}
+	}
+
+	/**
+	 * Appends the given data to the journal, or returns <code>null</code> if the
+	 * cache has been saved in the meantime.
+	 */
+	private synchronized AddedEntry writeJournal(String stamp, byte[] data) throws IOException {
+		if (journal == null) {
+			journal = FileChannel.open(getJournalFile(file).toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+			journalSize = 0;
+		}
+		long offset = journalSize;
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining()) {
+			journal.write(buffer, offset + buffer.position());
+		}
+		journalSize += data.length;
+		return new AddedEntry(stamp, offset, data.length);
+	}
+
+	private ByteBuffer readJournal(AddedEntry entry) throws IOException {
+		FileChannel channel;
+		synchronized (this) {
+			channel = journal;
+		}
+		if (channel == null) {
+			throw new IOException("Image data cache journal closed"); //$NON-NLS-1$
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+				throw new IOException("Image data cache journal truncated"); //$NON-NLS-1$
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private void closeJournal() {
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				log(e);
+			}
+			journal = null;
+		}
+	}
+
+	private Object findStamped(String origin, int zoom) {
+		String key = key(origin, zoom);
+		AddedEntry addedEntry = added.get(key);
+		StoredEntry storedEntry = stored.get(key);
+		if (addedEntry == null && storedEntry == null) {
+			return null;
+		}
+		String stamp = getStamp(origin);
+		if (stamp == null) {
+			return null;
+		}
+		usedOrigins.add(origin);
+		if (addedEntry != null && stamp.equals(addedEntry.stamp)) {
+			return addedEntry;
+		}
+		if (storedEntry != null && stamp.equals(storedEntry.stamp)) {
+			return storedEntry;
+		}
+		return null;
+	}
+
+	private static String key(String origin, int zoom) {
+		return zoom + ":" + origin; //$NON-NLS-1$
+	}
+
+	private static String getOriginOfKey(String key) {
+		return key.substring(key.indexOf(':') + 1);
+	}
+
+	/**
+	 * Returns the origin of the image at the given URL, which stays the same
+	 * across launches: <code>file:&lt;path&gt;</code> for a local file, or
+	 * <code>&lt;protocol&gt;:&lt;symbolic name&gt;_&lt;version&gt;&lt;path&gt;</code>
+	 * for an image in a bundle. Returns <code>null</code> if images from the
+	 * given URL cannot be cached.
+	 */
+	private String getOrigin(URL url) {
+		String protocol = url.getProtocol();
+		if (FILE_PROTOCOL.equalsIgnoreCase(protocol)) {
+			return FILE_PROTOCOL + ':' + url.getPath();
+		}
+		if (!InternalPolicy.OSGI_AVAILABLE) {
+			return null;
+		}
+		Bundle bundle;
+		String path;
+		if (BUNDLE_ENTRY_PROTOCOL.equalsIgnoreCase(protocol) || BUNDLE_RESOURCE_PROTOCOL.equalsIgnoreCase(protocol)) {
+			// host is "<bundle id>.fwk<framework hash>", the hash changes with every
+			// launch
+			String host = url.getHost();
+			int dot = host.indexOf('.');
+			bundle = findBundle(dot == -1 ? host : host.substring(0, dot));
+			path = url.getPath();
+			protocol = protocol.toLowerCase();
+		} else if (PLATFORM_PROTOCOL.equalsIgnoreCase(protocol) && url.getPath().startsWith(PLUGIN_PREFIX)) {
+			String pluginPath = url.getPath().substring(PLUGIN_PREFIX.length());
+			int slash = pluginPath.indexOf('/');
+			if (slash == -1) {
+				return null;
+			}
+			bundle = findBundleByName(pluginPath.substring(0, slash));
+			path = pluginPath.substring(slash);
+			// platform:/plugin URLs resolve to bundle entries
+			protocol = BUNDLE_ENTRY_PROTOCOL;
+		} else {
+			return null;
+		}
+		if (bundle == null || bundle.getSymbolicName() == null) {
+			return null;
+		}
+		String bundleKey = bundle.getSymbolicName() + '_' + bundle.getVersion();
+		bundlesByKey.putIfAbsent(bundleKey, bundle);
+		return protocol + ':' + bundleKey + path;
+	}
+
+	/**
+	 * Returns the stamp identifying the current state of the given origin, or
+	 * <code>null</code> if it is gone.
+	 */
+	private String getStamp(String origin) {
+		if (origin.startsWith(FILE_PROTOCOL + ':')) {
+			File imageFile = new File(origin.substring(FILE_PROTOCOL.length() + 1));
+			return imageFile.lastModified() + ":" + imageFile.length(); //$NON-NLS-1$
+		}
+		// not computeIfAbsent, computing the stamp may wait for the lock of this
+		// cache, which save() holds while it looks up stamps
+		String stamp = originStamps.get(origin);
+		if (stamp == null) {
+			stamp = computeBundleStamp(origin);
+			if (stamp != null) {
+				originStamps.putIfAbsent(origin, stamp);
+			}
+		}
+		return stamp;
+	}
+
+	/**
+	 * Returns the modification time of the bundle of the given origin together
+	 * with the modification time of the image entry. The bundle alone does not
+	 * change when an image of a bundle run from a directory, for example from
+	 * the workspace of the developer, is edited.
+	 */
+	private String computeBundleStamp(String origin) {
+		int colon = origin.indexOf(':');
+		int slash = origin.indexOf('/', colon);
+		if (colon == -1 || slash == -1) {
+			return null;
+		}
+		String bundleKey = origin.substring(colon + 1, slash);
+		Bundle bundle = bundlesByKey.get(bundleKey);
+		if (bundle == null) {
+			// an entry read from the cache file, not looked up in this session
+			synchronized (this) {
+				initBundleMaps();
+			}
+			bundle = bundlesByKey.get(bundleKey);
+		}
+		if (bundle == null || bundle.getState() == Bundle.UNINSTALLED) {
+			return null;
+		}
+		String path = origin.substring(slash);
+		URL entry = BUNDLE_RESOURCE_PROTOCOL.equals(origin.substring(0, colon)) ? bundle.getResource(path)
+				: bundle.getEntry(path);
+		if (entry == null) {
+			return null;
+		}
+		long entryModified;
+		try {
+			URLConnection connection = entry.openConnection();
+			entryModified = connection.getLastModified();
+		} catch (IOException e) {
+			return null;
+		}
+		return bundle.getLastModified() + ":" + entryModified; //$NON-NLS-1$
+	}
+
+	private static BundleContext getBundleContext() {
+		Bundle self = FrameworkUtil.getBundle(ImageDataCache.class);
+		return self == null ? null : self.getBundleContext();
+	}
+
+	private static Bundle findBundle(String id) {
+		BundleContext context = getBundleContext();
+		if (context == null) {
+			return null;
+		}
+		try {
+			return context.getBundle(Long.parseLong(id));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private synchronized Bundle findBundleByName(String symbolicName) {
+		initBundleMaps();
+		return bundlesByName == null ? null : bundlesByName.get(symbolicName);
+	}
+
+	private void initBundleMaps() {
+		if (bundlesByName != null) {
+			return;
+		}
+		BundleContext context = getBundleContext();
+		if (context == null) {
+			return;
+		}
+		bundlesByName = new HashMap<>();
+		for (Bundle bundle : context.getBundles()) {
+			String symbolicName = bundle.getSymbolicName();
+			if (symbolicName == null) {
+				continue;
+			}
+			bundlesByKey.putIfAbsent(symbolicName + '_' + bundle.getVersion(), bundle);
+			Bundle existing = bundlesByName.get(symbolicName);
+			if (existing == null || existing.getVersion().compareTo(bundle.getVersion()) < 0) {
+				bundlesByName.put(symbolicName, bundle);
+			}
+		}
+	}
+
+	/**
+	 * Writes all valid entries to a temporary file which then replaces the cache
+	 * file. Layout: magic, format version, entry count, the index of
+	 * <code>(key, stamp, offset, length)</code> records and the data section.
+	 */
+	private void write() throws IOException {
+		Map<String, Object> entries = new LinkedHashMap<>();
+		for (Entry<String, StoredEntry> entry : stored.entrySet()) {
+			String origin = getOriginOfKey(entry.getKey());
+			// drop entries of local files that were not used, and of images whose
+			// origin has changed or is gone
+			if (origin.startsWith(FILE_PROTOCOL + ':') && !usedOrigins.contains(origin)) {
+				continue;
+			}
+			if (entry.getValue().stamp.equals(getStamp(origin))) {
+				entries.put(entry.getKey(), entry.getValue());
+			}
+		}
+		entries.putAll(added);
+
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		DataOutputStream index = new DataOutputStream(indexBytes);
+		int dataOffset = 0;
+		for (Entry<String, Object> entry : entries.entrySet()) {
+			String stamp;
+			int length;
+			if (entry.getValue() instanceof AddedEntry) {
+				AddedEntry addedEntry = (AddedEntry) entry.getValue();
+				stamp = addedEntry.stamp;
+				length = addedEntry.length;
+			} else {
+				StoredEntry storedEntry = (StoredEntry) entry.getValue();
+				stamp = storedEntry.stamp;
+				length = storedEntry.length;
+			}
+			writeString(index, entry.getKey());
+			writeString(index, stamp);
+			index.writeInt(dataOffset);
+			index.writeInt(length);
+			if (length > 0) {
+				dataOffset += length;
+			}
+		}
+		index.flush();
+
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp.toPath()));
+				DataOutputStream out = new DataOutputStream(stream)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(entries.size());
+			out.writeInt(indexBytes.size());
+			indexBytes.writeTo(out);
+			byte[] copyBuffer = new byte[8192];
+			for (Object value : entries.values()) {
+				if (value instanceof AddedEntry) {
+					AddedEntry addedEntry = (AddedEntry) value;
+					if (addedEntry.length > 0) {
+						ByteBuffer buffer = readJournal(addedEntry);
+						out.write(buffer.array(), 0, buffer.limit());
+					}
+				} else {
+					StoredEntry storedEntry = (StoredEntry) value;
+					if (storedEntry.length > 0) {
+						ByteBuffer buffer = mapped.duplicate();
+						buffer.position(storedEntry.offset);
+						int remaining = storedEntry.length;
+						while (remaining > 0) {
+							int chunk = Math.min(remaining, copyBuffer.length);
+							buffer.get(copyBuffer, 0, chunk);
+							out.write(copyBuffer, 0, chunk);
+							remaining -= chunk;
+						}
+					}
+				}
+			}
+		}
+		// the cache file may still be mapped, which prevents replacing it on some
+		// platforms, so it is only replaced when the cache is opened the next time
+		Files.move(temp.toPath(), getPendingFile(file).toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static File getPendingFile(File file) {
+		return new File(file.getPath() + ".new"); //$NON-NLS-1$
+	}
+
+	private static File getJournalFile(File file) {
+		return new File(file.getPath() + ".journal"); //$NON-NLS-1$
+	}
+
+	private static boolean readIndex(ByteBuffer buffer, Map<String, StoredEntry> entries) {
+		if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+			return false;
+		}
+		int count = buffer.getInt();
+		int indexLength = buffer.getInt();
+		int dataStart = buffer.position() + indexLength;
+		for (int i = 0; i < count; i++) {
+			String key = readString(buffer);
+			String stamp = readString(buffer);
+			int offset = buffer.getInt();
+			int length = buffer.getInt();
+			if (length != MISSING && (length < 0 || (long) dataStart + offset + length > buffer.limit())) {
+				return false;
+			}
+			entries.put(key, new StoredEntry(stamp, dataStart + offset, length));
+		}
+		return buffer.position() == dataStart;
+	}
+
+	private static void writeImageData(DataOutputStream out, ImageData data) throws IOException {
+		out.writeInt(data.width);
+		out.writeInt(data.height);
+		out.writeInt(data.depth);
+		out.writeInt(data.scanlinePad);
+		PaletteData palette = data.palette;
+		out.writeBoolean(palette.isDirect);
+		if (palette.isDirect) {
+			out.writeInt(palette.redMask);
+			out.writeInt(palette.greenMask);
+			out.writeInt(palette.blueMask);
+		} else {
+			RGB[] colors = palette.getRGBs();
+			out.writeInt(colors.length);
+			for (RGB color : colors) {
+				out.writeByte(color.red);
+				out.writeByte(color.green);
+				out.writeByte(color.blue);
+			}
+		}
+		writeBytes(out, data.data);
+		out.writeInt(data.maskPad);
+		writeBytes(out, data.maskData);
+		writeBytes(out, data.alphaData);
+		out.writeInt(data.alpha);
+		out.writeInt(data.transparentPixel);
+		out.writeInt(data.type);
+		out.writeInt(data.x);
+		out.writeInt(data.y);
+		out.writeInt(data.disposalMethod);
+		out.writeInt(data.delayTime);
+	}
+
+	private static ImageData readImageData(ByteBuffer in) {
+		int width = in.getInt();
+		int height = in.getInt();
+		int depth = in.getInt();
+		int scanlinePad = in.getInt();
+		PaletteData palette;
+		if (in.get() != 0) {
+			palette = new PaletteData(in.getInt(), in.getInt(), in.getInt());
+		} else {
+			RGB[] colors = new RGB[in.getInt()];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = new RGB(in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF);
+			}
+			palette = new PaletteData(colors);
+		}
+		ImageData data = new ImageData(width, height, depth, palette, scanlinePad, readBytes(in));
+		data.maskPad = in.getInt();
+		data.maskData = readBytes(in);
+		data.alphaData = readBytes(in);
+		data.alpha = in.getInt();
+		data.transparentPixel = in.getInt();
+		data.type = in.getInt();
+		data.x = in.getInt();
+		data.y = in.getInt();
+		data.disposalMethod = in.getInt();
+		data.delayTime = in.getInt();
+		return data;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return bytes;
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readString(ByteBuffer in) {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static void log(Exception e) {
+		Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE, "Image data cache not available", e)); //$NON-NLS-1$
+	}
+}
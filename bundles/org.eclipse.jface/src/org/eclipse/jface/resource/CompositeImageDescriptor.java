@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ package org.eclipse.jface.resource;
 import java.util.Objects;
 import java.util.function.ToIntFunction;
 
+import org.eclipse.jface.internal.CompositionCache;
+import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageDataProvider;
@@ -360,6 +362,68 @@ public abstract class CompositeImageDescriptor extends ImageDescriptor {
 		if (!supportsZoomLevel(zoom)) {
 			return null;
 		}
+		Object key = getCompositionKey();
+		if (key == null) {
+			return composeImageData(zoom);
+		}
+		ImageData cached = CompositionCache.get(key, zoom);
+		if (cached == null) {
+			cached = composeImageData(zoom);
+			CompositionCache.put(key, zoom, cached);
+		}
+		// callers may modify the returned data
+		return (ImageData) cached.clone();
+	}
+
+	@Override
+	public Object createResource(Device device) throws DeviceResourceException {
+		Object key = getCompositionKey();
+		if (key == null) {
+			return super.createResource(device);
+		}
+		// acquire first, so that the composed data is not evicted right away
+		CompositionCache.acquire(key);
+		try {
+			return super.createResource(device);
+		} catch (DeviceResourceException | RuntimeException e) {
+			CompositionCache.release(key);
+			throw e;
+		}
+	}
+
+	@Override
+	public void destroyResource(Object previouslyCreatedObject) {
+		super.destroyResource(previouslyCreatedObject);
+		Object key = getCompositionKey();
+		if (key != null) {
+			CompositionCache.release(key);
+		}
+	}
+
+	/**
+	 * Returns the key identifying the composition of this descriptor, or
+	 * <code>null</code> if the composed image data must not be cached.
+	 * <p>
+	 * Composed image data is shared by all composite image descriptors with
+	 * equal keys, so the key must cover everything that influences
+	 * {@link #drawCompositeImage(int, int)} and {@link #getSize()}, such as the
+	 * base image and the overlays. The data is kept as long as images created
+	 * for the key through a {@link ResourceManager} are alive, and for a bounded
+	 * number of recently used keys afterwards.
+	 * </p>
+	 * <p>
+	 * The default implementation returns <code>null</code>. Subclasses may
+	 * override.
+	 * </p>
+	 *
+	 * @return the composition key, or <code>null</code>
+	 * @since 3.30
+	 */
+	protected Object getCompositionKey() {
+		return null;
+	}
+
+	private ImageData composeImageData(int zoom) {
 		/* Assign before calling getSize(), just in case an implementer of
 		 * getSize() already uses a CachedImageDataProvider. */
 		compositeZoom = zoom;
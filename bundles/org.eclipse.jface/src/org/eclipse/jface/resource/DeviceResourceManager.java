@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -52,6 +52,13 @@ public final class DeviceResourceManager extends AbstractResourceManager {
 
 	@Override
 	protected Object allocate(DeviceResourceDescriptor descriptor) throws DeviceResourceException {
+		if (descriptor instanceof ImageDescriptor) {
+			// use data decoded by createImageAsync if available
+			Image image = ImageDataLoader.createPrefetched((ImageDescriptor) descriptor, device);
+			if (image != null) {
+				return image;
+			}
+		}
 		return descriptor.createResource(device);
 	}
 
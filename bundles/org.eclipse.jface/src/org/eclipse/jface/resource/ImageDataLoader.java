@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
+
+/**
+ * Decodes the image data of image descriptors on a small pool of worker
+ * threads. Only descriptors that read their data from a URL or file are
+ * decoded in the background, all other descriptors may need the display
+ * thread to compute their data.
+ * <p>
+ * Decoded data is handed to the {@link DeviceResourceManager} while the image
+ * is created on the display thread, see
+ * {@link #createPrefetched(ImageDescriptor, Device)}.
+ * </p>
+ */
+final class ImageDataLoader {
+
+	private static ExecutorService executor;
+
+	/**
+	 * Decoded image data per zoom level of the descriptors whose image is
+	 * currently being created on the display thread.
+	 */
+	private static final Map<ImageDescriptor, Map<Integer, ImageData>> prefetched = new HashMap<>();
+
+	private ImageDataLoader() {
+		// not instantiated
+	}
+
+	/**
+	 * Returns whether the image data of the given descriptor can be decoded off
+	 * the display thread.
+	 *
+	 * @param descriptor the image descriptor
+	 * @return <code>true</code> if {@link #load(ImageDescriptor, int)} may be
+	 *         used
+	 */
+	static boolean canLoad(ImageDescriptor descriptor) {
+		return descriptor instanceof URLImageDescriptor || descriptor instanceof FileImageDescriptor
+				|| descriptor instanceof DeferredImageDescriptor;
+	}
+
+	/**
+	 * Decodes the image data of the given descriptor for 100% and the given zoom
+	 * on a worker thread. Data for any other zoom level the image is asked for
+	 * later is computed on the display thread.
+	 *
+	 * @param descriptor the image descriptor
+	 * @param zoom       the zoom level of the display the image is shown on, as
+	 *                   returned by {@link org.eclipse.swt.widgets.Monitor#getZoom()}
+	 * @return the decoded data per zoom level, without entries for zoom levels
+	 *         that could not be decoded
+	 */
+	static CompletableFuture<Map<Integer, ImageData>> load(ImageDescriptor descriptor, int zoom) {
+		return CompletableFuture.supplyAsync(() -> {
+			Map<Integer, ImageData> data = new HashMap<>();
+			decode(descriptor, 100, data);
+			if (zoom != 100) {
+				decode(descriptor, zoom, data);
+			}
+			return data;
+		}, getExecutor());
+	}
+
+	private static void decode(ImageDescriptor descriptor, int zoom, Map<Integer, ImageData> data) {
+		try {
+			ImageData imageData = descriptor.getImageData(zoom);
+			if (imageData != null) {
+				data.put(Integer.valueOf(zoom), imageData);
+			}
+		} catch (SWTException | IllegalArgumentException e) {
+			// leave it to the display thread to report the problem
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+			executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, "JFace Image Decoder"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Makes the decoded data available while the given runnable creates the image
+	 * of the descriptor on the display thread.
+	 *
+	 * @param descriptor the image descriptor
+	 * @param data       the decoded data per zoom level
+	 * @param runnable   the runnable creating the image
+	 */
+	static void runWithPrefetched(ImageDescriptor descriptor, Map<Integer, ImageData> data, Runnable runnable) {
+		if (data.get(Integer.valueOf(100)) == null) {
+			runnable.run();
+			return;
+		}
+		synchronized (prefetched) {
+			prefetched.put(descriptor, data);
+		}
+		try {
+			runnable.run();
+		} finally {
+			synchronized (prefetched) {
+				prefetched.remove(descriptor);
+			}
+		}
+	}
+
+	/**
+	 * Creates the image of the given descriptor from previously decoded data.
+	 *
+	 * @param descriptor the image descriptor
+	 * @param device     the device to create the image on
+	 * @return the image, or <code>null</code> if there is no decoded data for
+	 *         the descriptor
+	 */
+	static Image createPrefetched(ImageDescriptor descriptor, Device device) {
+		Map<Integer, ImageData> data;
+		synchronized (prefetched) {
+			if (prefetched.isEmpty()) {
+				return null;
+			}
+			data = prefetched.get(descriptor);
+		}
+		if (data == null) {
+			return null;
+		}
+		try {
+			return new Image(device, (ImageDataProvider) zoom -> {
+				ImageData imageData = data.get(Integer.valueOf(zoom));
+				return imageData != null ? imageData : descriptor.getImageData(zoom);
+			});
+		} catch (SWTException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
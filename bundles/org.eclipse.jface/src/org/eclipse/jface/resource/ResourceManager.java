@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,10 @@
 package org.eclipse.jface.resource;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -25,7 +28,9 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * This class manages SWT resources. It manages reference-counted instances of resources
@@ -50,6 +55,13 @@ public abstract class ResourceManager {
 	 */
 	private List<Runnable> disposeExecs = null;
 
+	/**
+	 * Callbacks of the images requested by
+	 * {@link #createImageAsync(ImageDescriptor, Image, Consumer)} whose data is
+	 * still being decoded. null if empty.
+	 */
+	private Map<ImageDescriptor, List<Consumer<Image>>> pendingImages = null;
+
 	/**
 	 * Returns the Device for which this ResourceManager will create resources
 	 *
@@ -202,6 +214,92 @@ public abstract class ResourceManager {
 		}
 	}
 
+	/**
+	 * Creates an image, given an image descriptor, without blocking the caller
+	 * while the image data is read and decoded. If the image can be provided
+	 * right away, for example because it is already allocated by this manager,
+	 * it is returned and the callback is not run. Otherwise the image data is
+	 * decoded in the background, the given placeholder is returned and the
+	 * callback is run on the display thread once the image has been created.
+	 * The callback is not run if this manager is disposed before that.
+	 * <p>
+	 * Like {@link #createImageWithDefault(ImageDescriptor)}, the default image is
+	 * provided if the image cannot be created. Images provided by this method,
+	 * either directly or through the callback, must be disposed by
+	 * {@link #destroyImage(ImageDescriptor)}. The placeholder is not managed by
+	 * this manager.
+	 * </p>
+	 * <p>
+	 * Only image descriptors reading their image from a URL or file are decoded
+	 * in the background, all other images are created synchronously. Must be
+	 * called on the display thread.
+	 * </p>
+	 *
+	 * @param descriptor  descriptor for the image to create
+	 * @param placeholder the image to return while the image is being created,
+	 *                    may be <code>null</code>
+	 * @param callback    receives the image once it has been created
+	 * @return the image if it could be provided right away, otherwise the
+	 *         placeholder
+	 * @since 3.30
+	 */
+	public final Image createImageAsync(ImageDescriptor descriptor, Image placeholder, Consumer<Image> callback) {
+		Assert.isNotNull(callback);
+		if (descriptor == null || find(descriptor) != null || !ImageDataLoader.canLoad(descriptor)
+				|| !(getDevice() instanceof Display)) {
+			return createImageWithDefault(descriptor);
+		}
+
+		if (pendingImages == null) {
+			pendingImages = new HashMap<>();
+		}
+		List<Consumer<Image>> callbacks = pendingImages.get(descriptor);
+		if (callbacks != null) {
+			// already being decoded
+			callbacks.add(callback);
+			return placeholder;
+		}
+		callbacks = new ArrayList<>();
+		callbacks.add(callback);
+		pendingImages.put(descriptor, callbacks);
+
+		Display display = (Display) getDevice();
+		ImageDataLoader.load(descriptor, display.getPrimaryMonitor().getZoom()).whenComplete((data, e) -> {
+			if (display.isDisposed()) {
+				return;
+			}
+			try {
+				display.asyncExec(() -> completeImage(display, descriptor, data));
+			} catch (SWTException ex) {
+				// display disposed in the meantime
+			}
+		});
+		return placeholder;
+	}
+
+	private void completeImage(Display display, ImageDescriptor descriptor, Map<Integer, ImageData> data) {
+		if (display.isDisposed()) {
+			return;
+		}
+		List<Consumer<Image>> waiting = pendingImages == null ? null : pendingImages.remove(descriptor);
+		if (waiting == null) {
+			// manager has been disposed
+			return;
+		}
+		if (pendingImages.isEmpty()) {
+			pendingImages = null;
+		}
+		for (Consumer<Image> consumer : waiting) {
+			Image[] image = new Image[1];
+			if (data != null) {
+				ImageDataLoader.runWithPrefetched(descriptor, data, () -> image[0] = createImageWithDefault(descriptor));
+			} else {
+				image[0] = createImageWithDefault(descriptor);
+			}
+			consumer.accept(image[0]);
+		}
+	}
+
 	/**
 	 * Returns the default image that will be returned in the event that the intended
 	 * image is missing.
@@ -310,6 +408,9 @@ public abstract class ResourceManager {
 	 * Disposes any remaining resources allocated by this manager.
 	 */
 	public void dispose() {
+		// pending asynchronous images are dropped
+		pendingImages = null;
+
 		if (disposeExecs == null) {
 			return;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -81,22 +82,31 @@ class URLImageDescriptor extends ImageDescriptor implements IAdaptable, ImageFil
 	public ImageData getImageData(int zoom) {
 		URL tempURL = getURL(url);
 		if (tempURL != null) {
-			if (zoom == 100) {
-				return getImageData(tempURL);
+			ImageDataCache cache = ImageDataCache.getDefault();
+			if (cache != null) {
+				return cache.get(tempURL, zoom, () -> getImageData(tempURL, zoom));
 			}
-			URL xUrl = getxURL(tempURL, zoom);
-			if (xUrl != null) {
-				ImageData xdata = getImageData(xUrl);
-				if (xdata != null) {
-					return xdata;
-				}
+			return getImageData(tempURL, zoom);
+		}
+		return null;
+	}
+
+	private ImageData getImageData(URL tempURL, int zoom) {
+		if (zoom == 100) {
+			return getImageData(tempURL);
+		}
+		URL xUrl = getxURL(tempURL, zoom);
+		if (xUrl != null) {
+			ImageData xdata = getImageData(xUrl);
+			if (xdata != null) {
+				return xdata;
 			}
-			String xpath = FileImageDescriptor.getxPath(url, zoom);
-			if (xpath != null) {
-				URL xPathUrl = getURL(xpath);
-				if (xPathUrl != null) {
-					return getImageData(xPathUrl);
-				}
+		}
+		String xpath = FileImageDescriptor.getxPath(url, zoom);
+		if (xpath != null) {
+			URL xPathUrl = getURL(xpath);
+			if (xPathUrl != null) {
+				return getImageData(xPathUrl);
 			}
 		}
 		return null;
@@ -236,7 +246,9 @@ class URLImageDescriptor extends ImageDescriptor implements IAdaptable, ImageFil
 		}
 		try {
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
-				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+				// with the image data cache enabled, the data provider is served
+				// from the cache instead of decoding the image file
+				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY && ImageDataCache.getDefault() == null) {
 					try {
 						return new Image(device, (ImageFileNameProvider) this);
 					} catch (SWTException | IllegalArgumentException exception) {
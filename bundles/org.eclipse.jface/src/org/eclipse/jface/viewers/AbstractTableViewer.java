@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -669,6 +669,9 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 
 		Object[] children = getSortedChildren(getRoot());
 		Item[] items = doGetItems();
+		if (reconcileItems(items, children, updateLabels)) {
+			return;
+		}
 		int min = Math.min(children.length, items.length);
 		for (int i = 0; i < min; ++i) {
 
@@ -727,6 +730,66 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Updates the items of the table by matching the old and new elements by key
+	 * rather than by position. Items of elements that are kept retain their
+	 * labels; only items of inserted elements are created and only items of
+	 * removed elements are removed.
+	 *
+	 * @param items        the current items
+	 * @param children     the new elements
+	 * @param updateLabels <code>true</code> to update labels for kept items
+	 * @return <code>false</code> if the items have to be updated by position
+	 */
+	private boolean reconcileItems(Item[] items, Object[] children, boolean updateLabels) {
+		if (virtualManager != null || items.length == 0 || children.length == 0) {
+			return false;
+		}
+		Object[] oldElements = new Object[items.length];
+		for (int i = 0; i < items.length; i++) {
+			oldElements[i] = items[i].getData();
+			if (oldElements[i] == null) {
+				return false;
+			}
+		}
+		int[] sources = KeyedDiff.compute(oldElements, children, getComparer());
+		if (sources == null) {
+			return false;
+		}
+
+		boolean[] kept = new boolean[items.length];
+		for (int source : sources) {
+			if (source >= 0) {
+				kept[source] = true;
+			}
+		}
+		int[] indices = new int[items.length];
+		int count = 0;
+		for (int i = 0; i < items.length; i++) {
+			if (!kept[i]) {
+				disassociate(items[i]);
+				indices[count++] = i;
+			}
+		}
+		if (count > 0) {
+			System.arraycopy(indices, 0, indices = new int[count], 0, count);
+			doRemove(indices);
+		}
+
+		for (int i = 0; i < children.length; i++) {
+			if (sources[i] < 0) {
+				createItem(children[i], i);
+			} else if (updateLabels) {
+				updateItem(items[sources[i]], children[i]);
+			} else {
+				// associate the new element, even if equal to the old one,
+				// to remove stale references (see bug 31314)
+				associate(children[i], items[sources[i]]);
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Removes the given elements from this table viewer.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,14 +24,18 @@ package org.eclipse.jface.viewers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.internal.InternalPolicy;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.swt.SWT;
@@ -42,6 +46,7 @@ import org.eclipse.swt.events.TreeEvent;
 import org.eclipse.swt.events.TreeListener;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Item;
 import org.eclipse.swt.widgets.Widget;
 
@@ -108,6 +113,146 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isTreePathContentProvider = false;
 
+	/**
+	 * The changes collected by {@link #batchUpdates(Runnable)}, or
+	 * <code>null</code> if changes are applied immediately.
+	 */
+	private TreeUpdateBatch updateBatch;
+
+	/**
+	 * Key of the data of a pending placeholder item that maps it to its
+	 * {@link ChildrenRequest}.
+	 */
+	private static final String PENDING_REQUEST_KEY = "org.eclipse.jface.viewers.AbstractTreeViewer.pendingRequest"; //$NON-NLS-1$
+
+	/**
+	 * The requests computing children in the background whose results have not
+	 * been merged yet.
+	 */
+	private final Set<ChildrenRequest> pendingRequests = new HashSet<>();
+
+	/**
+	 * Computes the children of an expanded item with an
+	 * {@link IAsyncTreeContentProvider} in the background and replaces the
+	 * pending placeholder with them.
+	 */
+	private class ChildrenRequest implements Runnable {
+
+		private final Item parentItem;
+
+		private final Object parentElement;
+
+		private final IAsyncTreeContentProvider provider;
+
+		private final Display display;
+
+		/**
+		 * Whether the children of the parent changed while they were computed.
+		 */
+		boolean stale;
+
+		ChildrenRequest(Item parentItem, IAsyncTreeContentProvider provider) {
+			this.parentItem = parentItem;
+			this.parentElement = parentItem.getData();
+			this.provider = provider;
+			this.display = parentItem.getDisplay();
+		}
+
+		void schedule() {
+			pendingRequests.add(this);
+			Executor executor = provider.getExecutor();
+			executor.execute(this);
+		}
+
+		@Override
+		public void run() {
+			Object[] children;
+			try {
+				children = provider.getChildren(parentElement);
+			} catch (RuntimeException e) {
+				Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE, e.getMessage(), e));
+				children = null;
+			}
+			Object[] result = children == null ? new Object[0] : children;
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> merge(result));
+			}
+		}
+
+		/**
+		 * Filters and sorts the computed children with the current filters and
+		 * comparator of the viewer. Called on the UI thread, since filters and
+		 * comparators are not required to be thread safe.
+		 */
+		private Object[] filterAndSort(Object[] children) {
+			Object[] result = children;
+			for (ViewerFilter filter : getFilters()) {
+				result = filter.filter(AbstractTreeViewer.this, parentElement, result);
+			}
+			ViewerComparator comparator = getComparator();
+			if (comparator instanceof TreePathViewerSorter) {
+				result = result.clone();
+				TreePath path = internalGetSorterParentPath(parentItem, comparator);
+				((TreePathViewerSorter) comparator).sort(AbstractTreeViewer.this, path, result);
+			} else if (comparator != null) {
+				result = result.clone();
+				comparator.sort(AbstractTreeViewer.this, result);
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the placeholder shown while this request is computing, or
+		 * <code>null</code> if it has been replaced.
+		 */
+		Item findPlaceholder() {
+			if (parentItem.isDisposed()) {
+				return null;
+			}
+			Item[] items = getChildren(parentItem);
+			if (items != null) {
+				for (Item item : items) {
+					if (item.getData() == null && item.getData(PENDING_REQUEST_KEY) == this) {
+						return item;
+					}
+				}
+			}
+			return null;
+		}
+
+		private void merge(Object[] children) {
+			pendingRequests.remove(this);
+			Item placeholder = findPlaceholder();
+			if (placeholder == null) {
+				// replaced by a refresh or a later request
+				return;
+			}
+			if (stale) {
+				// the children changed while they were computed
+				ChildrenRequest request = new ChildrenRequest(parentItem, provider);
+				placeholder.setData(PENDING_REQUEST_KEY, request);
+				request.schedule();
+				return;
+			}
+			boolean oldBusy = isBusy();
+			setBusy(true);
+			try {
+				// items created next to the placeholder are part of the result
+				for (Item item : getChildren(parentItem)) {
+					if (item.getData() != null) {
+						disassociate(item);
+					}
+					item.dispose();
+				}
+				for (Object element : filterAndSort(children)) {
+					createTreeItem(parentItem, element, -1);
+				}
+			} finally {
+				setBusy(oldBusy);
+			}
+		}
+	}
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -155,6 +300,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	public void add(Object parentElementOrTreePath, Object... childElements) {
 		Assert.isNotNull(parentElementOrTreePath);
 		assertElementsNotNull(childElements);
+		if (updateBatch != null) {
+			updateBatch.add(parentElementOrTreePath, childElements);
+			return;
+		}
 		if (checkBusy())
 			return;
 		Widget[] widgets = internalFindItems(parentElementOrTreePath);
@@ -168,6 +317,86 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Runs the given code and applies the changes it makes to this viewer as one
+	 * batch. Calls to the <code>add</code>, <code>remove</code>,
+	 * <code>refresh</code> and <code>update</code> methods of this viewer made by
+	 * the code are collected rather than applied immediately. The batch then
+	 * removes and adds the children of every parent at once, sorting them once,
+	 * refreshes every element once and updates every element once with all
+	 * changed properties, while the redraw of the tree is turned off.
+	 * <p>
+	 * A refresh of the root supersedes all additions and removals collected
+	 * before it, and a refresh of any element the additions to it. Other changes,
+	 * like <code>insert</code> or expanding elements, are applied immediately.
+	 * Nested calls join the outermost batch.
+	 * </p>
+	 * <p>
+	 * Use this method when the model notifies many small changes in a row, for
+	 * example when search results or progress updates stream in.
+	 * </p>
+	 *
+	 * @param updates the code changing the viewer
+	 * @since 3.30
+	 */
+	public void batchUpdates(Runnable updates) {
+		if (updateBatch != null) {
+			updates.run();
+			return;
+		}
+		TreeUpdateBatch batch = new TreeUpdateBatch(getComparer());
+		updateBatch = batch;
+		try {
+			updates.run();
+		} finally {
+			updateBatch = null;
+			applyUpdateBatch(batch);
+		}
+	}
+
+	/**
+	 * Applies the changes collected by a batch.
+	 *
+	 * @param batch the collected changes
+	 */
+	private void applyUpdateBatch(TreeUpdateBatch batch) {
+		Control control = getControl();
+		if (batch.isEmpty() || control == null || control.isDisposed() || checkBusy()) {
+			return;
+		}
+		if (!batch.getRefreshes().isEmpty() && isCellEditorActive()) {
+			cancelEditing();
+		}
+		control.setRedraw(false);
+		try {
+			preservingSelection(() -> {
+				Object[] removals = batch.getRemovals();
+				if (removals.length > 0) {
+					internalRemove(removals);
+				}
+				for (Object parent : batch.getRemovalParents()) {
+					internalRemove(parent, batch.getRemovals(parent));
+				}
+				for (TreeUpdateBatch.Additions additions : batch.getAdditions()) {
+					Object[] children = additions.getChildren();
+					if (children.length > 0) {
+						for (Widget widget : internalFindItems(additions.parentElementOrTreePath)) {
+							internalAdd(widget, additions.parentElementOrTreePath, children);
+						}
+					}
+				}
+				for (Object element : batch.getRefreshes()) {
+					internalRefresh(element, batch.isUpdateLabels(element));
+				}
+			});
+			for (Object element : batch.getUpdates()) {
+				update(element, batch.getProperties(element));
+			}
+		} finally {
+			control.setRedraw(true);
+		}
+	}
+
 	/**
 	 * Find the items for the given element of tree path
 	 *
@@ -234,6 +463,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	protected void internalAdd(Widget widget, Object parentElementOrTreePath,
 			Object[] childElements) {
+		if (invalidatePendingRequests(widget, false)) {
+			// the children are computed in the background, including the added ones
+			return;
+		}
 		Object parent;
 		TreePath path;
 		if (parentElementOrTreePath instanceof TreePath) {
@@ -1562,12 +1795,93 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 *            the SWT tree event
 	 */
 	protected void handleTreeExpand(TreeEvent event) {
-		createChildren(event.item);
+		if (!createChildrenInBackground(event.item)) {
+			createChildren(event.item);
+		}
 		if (event.item.getData() != null) {
 			fireTreeExpanded(new TreeExpansionEvent(this, event.item.getData()));
 		}
 	}
 
+	/**
+	 * Starts computing the children of the given item in the background if the
+	 * content provider is an {@link IAsyncTreeContentProvider}, and shows a
+	 * pending placeholder until they are available.
+	 *
+	 * @param widget the expanded item
+	 * @return <code>true</code> if the children are computed in the background,
+	 *         <code>false</code> if they must be created synchronously
+	 */
+	private boolean createChildrenInBackground(Widget widget) {
+		if (!(widget instanceof Item) || isTreePathContentProvider
+				|| !(getContentProvider() instanceof IAsyncTreeContentProvider)) {
+			return false;
+		}
+		Item item = (Item) widget;
+		Object element = item.getData();
+		IAsyncTreeContentProvider provider = (IAsyncTreeContentProvider) getContentProvider();
+		if (element == null || !provider.isComputedInBackground(element)) {
+			return false;
+		}
+		Item[] items = getChildren(item);
+		if (items != null && items.length > 0) {
+			if (items[0].getData() != null) {
+				return false; // children already there
+			}
+			if (items.length == 1 && items[0].getData(PENDING_REQUEST_KEY) != null) {
+				return true; // already pending
+			}
+			for (Item child : items) {
+				child.dispose();
+			}
+		}
+		ChildrenRequest request = new ChildrenRequest(item, provider);
+		Item placeholder = newItem(item, SWT.NULL, -1);
+		placeholder.setText(JFaceResources.getString("AbstractTreeViewer.pending")); //$NON-NLS-1$
+		placeholder.setData(PENDING_REQUEST_KEY, request);
+		request.schedule();
+		return true;
+	}
+
+	/**
+	 * Marks the background computations of the children of the given widget as
+	 * stale, so that they are started again once they finish. With
+	 * <code>descendants</code>, the computations of the children of all items
+	 * below the widget are marked as well.
+	 *
+	 * @param widget      the item or the control
+	 * @param descendants whether to mark the computations below the widget
+	 * @return <code>true</code> if the children of the widget itself are being
+	 *         computed
+	 */
+	private boolean invalidatePendingRequests(Widget widget, boolean descendants) {
+		boolean pending = false;
+		for (ChildrenRequest request : pendingRequests) {
+			if (request.parentItem == widget) {
+				request.stale = true;
+				pending |= request.findPlaceholder() != null;
+			} else if (descendants && isAncestor(widget, request.parentItem)) {
+				request.stale = true;
+			}
+		}
+		return pending;
+	}
+
+	private boolean isAncestor(Widget widget, Item item) {
+		if (widget == getControl()) {
+			return true;
+		}
+		if (item.isDisposed()) {
+			return false;
+		}
+		for (Item parent = getParentItem(item); parent != null; parent = getParentItem(parent)) {
+			if (parent == widget) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	protected void hookControl(Control control) {
 		super.hookControl(control);
@@ -1885,6 +2199,34 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		return null;
 	}
 
+	@Override
+	public void refresh(Object element) {
+		if (updateBatch != null) {
+			updateBatch.refresh(element, true, getRoot());
+			return;
+		}
+		super.refresh(element);
+	}
+
+	@Override
+	public void refresh(Object element, boolean updateLabels) {
+		if (updateBatch != null) {
+			updateBatch.refresh(element, updateLabels, getRoot());
+			return;
+		}
+		super.refresh(element, updateLabels);
+	}
+
+	@Override
+	public void update(Object element, String[] properties) {
+		if (updateBatch != null) {
+			Assert.isNotNull(element);
+			updateBatch.update(element, properties);
+			return;
+		}
+		super.update(element, properties);
+	}
+
 	@Override
 	protected void internalRefresh(Object element) {
 		internalRefresh(element, true);
@@ -1894,12 +2236,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	protected void internalRefresh(Object element, boolean updateLabels) {
 		// If element is null, do a full refresh.
 		if (element == null) {
+			invalidatePendingRequests(getControl(), true);
 			internalRefresh(getControl(), getRoot(), true, updateLabels);
 			return;
 		}
 		Widget[] items = findItems(element);
 		if (items.length != 0) {
 			for (Widget item : items) {
+				invalidatePendingRequests(item, true);
 				// pick up structure changes too
 				internalRefresh(item, element, true, updateLabels);
 			}
@@ -2018,9 +2362,13 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 					Widget[] parentItems = internalFindItems(parent);
 					for (Widget parentItem : parentItems) {
 						if (parentItem instanceof Item) {
+							invalidatePendingRequests(parentItem, false);
 							updatePlus((Item) parentItem, parent);
 						}
 					}
+				} else if (parent == null) {
+					// the element may be among any children being computed
+					invalidatePendingRequests(getControl(), true);
 				}
 			}
 		}
@@ -2254,6 +2602,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		if (elementsOrTreePaths.length == 0) {
 			return;
 		}
+		if (updateBatch != null) {
+			updateBatch.remove(elementsOrTreePaths);
+			return;
+		}
 		if (checkBusy())
 			return;
 		preservingSelection(() -> internalRemove(elementsOrTreePaths));
@@ -2282,6 +2634,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		if (elements.length == 0) {
 			return;
 		}
+		if (updateBatch != null) {
+			updateBatch.remove(parent, elements);
+			return;
+		}
 		if (checkBusy())
 			return;
 		preservingSelection(() -> internalRemove(parent, elements));
@@ -2710,6 +3066,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 		}
 
+		if (reconcileChildren(widget, items, elementChildren, updateLabels, expanded)) {
+			return;
+		}
+
 		int min = Math.min(elementChildren.length, items.length);
 
 		// dispose of surplus items, optimizing for the case where elements have
@@ -2841,6 +3201,77 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Updates the items of the given widget by matching the old and new children
+	 * by key rather than by position. Items of children that are kept retain
+	 * their labels, children and expanded state; only items of inserted children
+	 * are created and only items of removed children are disposed.
+	 *
+	 * @param widget          the parent widget
+	 * @param items           the current child items
+	 * @param elementChildren the new child elements
+	 * @param updateLabels    <code>true</code> to update labels for kept items
+	 * @param expanded        the elements that were expanded
+	 * @return <code>false</code> if the items have to be updated by position
+	 */
+	private boolean reconcileChildren(Widget widget, Item[] items, Object[] elementChildren, boolean updateLabels,
+			CustomHashtable expanded) {
+		if (items.length == 0 || elementChildren.length == 0) {
+			return false;
+		}
+		Object[] oldElements = new Object[items.length];
+		for (int i = 0; i < items.length; i++) {
+			oldElements[i] = items[i].getData();
+			if (oldElements[i] == null) {
+				// dummy or virtual item
+				return false;
+			}
+		}
+		int[] sources = KeyedDiff.compute(oldElements, elementChildren, getComparer());
+		if (sources == null) {
+			return false;
+		}
+
+		boolean[] kept = new boolean[items.length];
+		for (int source : sources) {
+			if (source >= 0) {
+				kept[source] = true;
+			}
+		}
+		for (int i = 0; i < items.length; i++) {
+			if (!kept[i]) {
+				disassociate(items[i]);
+				items[i].dispose();
+			}
+		}
+
+		for (int i = 0; i < elementChildren.length; i++) {
+			Object newElement = elementChildren[i];
+			if (sources[i] < 0) {
+				createTreeItem(widget, newElement, i);
+				if (expanded.containsKey(newElement)) {
+					setExpanded(getChild(widget, i), true);
+				}
+				continue;
+			}
+			Item item = items[sources[i]];
+			Object data = item.getData();
+			if (data != newElement) {
+				// equal elements may still have different labels or children
+				unmapElement(data, item);
+				item.setData(newElement);
+				mapElement(newElement, item);
+			}
+			updatePlus(item, newElement);
+			if (updateLabels) {
+				updateItem(item, newElement);
+			} else {
+				associate(newElement, item);
+			}
+		}
+		return true;
+	}
+
 	/** Returns true if children were pruned */
 	/*package*/ boolean optionallyPruneChildren(Item item, Object element) {
 		// need a dummy node if element is expandable;
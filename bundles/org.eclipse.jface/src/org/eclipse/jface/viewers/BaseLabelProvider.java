@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,16 @@
 
 package org.eclipse.jface.viewers;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.core.commands.common.EventManager;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.jface.util.SafeRunnable;
+import org.eclipse.swt.graphics.Image;
 
 /**
  * BaseLabelProvider is a default concrete implementation of
@@ -26,6 +34,14 @@ import org.eclipse.jface.util.SafeRunnable;
  */
 public class BaseLabelProvider extends EventManager implements IBaseLabelProvider {
 
+	/**
+	 * The images this label provider holds a reference on per resource manager,
+	 * see {@link #getImageAsync(ResourceManager, ImageDescriptor, Object, Image)}.
+	 */
+	private Map<ResourceManager, Set<ImageDescriptor>> asyncImages;
+
+	private boolean disposed;
+
 	@Override
 	public void addListener(ILabelProviderListener listener) {
 		addListenerObject(listener);
@@ -33,12 +49,19 @@ public class BaseLabelProvider extends EventManager implements IBaseLabelProvide
 
 	/**
 	 * The <code>BaseLabelProvider</code> implementation of this
-	 * <code>IBaseLabelProvider</code> method clears its internal listener list.
+	 * <code>IBaseLabelProvider</code> method clears its internal listener list
+	 * and releases the images obtained through
+	 * {@link #getImageAsync(ResourceManager, ImageDescriptor, Object, Image)}.
 	 * Subclasses may extend but should call the super implementation.
 	 */
 	@Override
 	public void dispose() {
 		clearListeners();
+		disposed = true;
+		if (asyncImages != null) {
+			asyncImages.forEach((resourceManager, descriptors) -> descriptors.forEach(resourceManager::destroyImage));
+			asyncImages = null;
+		}
 	}
 
 	/**
@@ -78,4 +101,72 @@ public class BaseLabelProvider extends EventManager implements IBaseLabelProvide
 
 		}
 	}
+
+	/**
+	 * Returns the image described by the given descriptor without blocking while
+	 * its data is read and decoded. If the image is not allocated by the resource
+	 * manager yet, the placeholder is returned and a label provider changed event
+	 * for the element is fired once the image is available, so that viewers ask
+	 * for the label of the element again.
+	 * <p>
+	 * This label provider holds one reference on each image it returns, which is
+	 * released when this label provider is disposed.
+	 * </p>
+	 *
+	 * @param resourceManager the resource manager to allocate the image with
+	 * @param descriptor      descriptor of the image, may be <code>null</code>
+	 * @param element         the element the image is shown for
+	 * @param placeholder     the image to show while the image is being created,
+	 *                        may be <code>null</code>
+	 * @return the image, or the placeholder while the image is being created
+	 * @see ResourceManager#createImageAsync(ImageDescriptor, Image,
+	 *      java.util.function.Consumer)
+	 * @since 3.30
+	 */
+	protected Image getImageAsync(ResourceManager resourceManager, ImageDescriptor descriptor, Object element,
+			Image placeholder) {
+		if (descriptor == null) {
+			return null;
+		}
+		Set<ImageDescriptor> held = asyncImages == null ? null : asyncImages.get(resourceManager);
+		if (held != null && held.contains(descriptor)) {
+			Image image = (Image) resourceManager.find(descriptor);
+			if (image != null) {
+				return image;
+			}
+			// the resource manager has been disposed
+			held.remove(descriptor);
+		}
+		Image image = resourceManager.createImageAsync(descriptor, placeholder, created -> {
+			// every callback is passed its own reference, keep only one
+			if (resourceManager.find(descriptor) != null && !hold(resourceManager, descriptor)) {
+				resourceManager.destroyImage(descriptor);
+			}
+			if (!disposed) {
+				fireLabelProviderChanged(new LabelProviderChangedEvent(this, element));
+			}
+		});
+		if (resourceManager.find(descriptor) != null) {
+			// provided right away
+			hold(resourceManager, descriptor);
+		}
+		return image;
+	}
+
+	/**
+	 * Records a reference on the image of the given descriptor.
+	 *
+	 * @return <code>false</code> if this label provider is disposed or holds a
+	 *         reference on the image already, in which case the caller has to
+	 *         release the reference
+	 */
+	private boolean hold(ResourceManager resourceManager, ImageDescriptor descriptor) {
+		if (disposed) {
+			return false;
+		}
+		if (asyncImages == null) {
+			asyncImages = new HashMap<>();
+		}
+		return asyncImages.computeIfAbsent(resourceManager, m -> new HashSet<>()).add(descriptor);
+	}
 }
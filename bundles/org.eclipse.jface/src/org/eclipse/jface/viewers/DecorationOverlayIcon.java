@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2020 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -220,6 +220,51 @@ public class DecorationOverlayIcon extends CompositeImageDescriptor {
 		drawOverlays(overlays);
 	}
 
+	@Override
+	protected Object getCompositionKey() {
+		if (getClass() != DecorationOverlayIcon.class) {
+			// subclasses may draw differently
+			return null;
+		}
+		return new CompositionKey(referenceImageOrDescriptor, overlays,
+				referenceImageOrDescriptor instanceof Image ? size.get() : null);
+	}
+
+	/**
+	 * Identifies the composition of a decoration overlay icon, consistent with
+	 * {@link DecorationOverlayIcon#equals(Object)}.
+	 */
+	private static final class CompositionKey {
+		private final Object base;
+		private final ImageDescriptor[] overlays;
+		private final Point size;
+		private final int hashCode;
+
+		CompositionKey(Object base, ImageDescriptor[] overlays, Point size) {
+			this.base = base;
+			this.overlays = overlays.clone();
+			this.size = size;
+			this.hashCode = Objects.hash(base, Integer.valueOf(Arrays.hashCode(overlays)), size);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CompositionKey other)) {
+				return false;
+			}
+			return Objects.equals(base, other.base) && Arrays.equals(overlays, other.overlays)
+					&& Objects.equals(size, other.size);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
 	@Override
 	protected Point getSize() {
 		return size.get();
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import java.util.Arrays;
+
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * ElementMap maps the elements of a structured viewer to their widgets. The
+ * value of an element is either a <code>Widget</code> or, if the element is
+ * shown more than once, a <code>Widget[]</code>. Keys and values cannot be
+ * null.
+ * <p>
+ * Unlike {@link CustomHashtable}, the map uses open addressing with linear
+ * probing: keys, values and the hash codes of the keys are stored in parallel
+ * arrays, so a mapping costs no entry object and a lookup compares cached hash
+ * codes before asking the element or the comparer for equality. Without a
+ * comparer, identical keys are found without calling <code>equals</code>.
+ * </p>
+ */
+/* package */final class ElementMap {
+
+	/**
+	 * The default capacity used when not specified in the constructor.
+	 */
+	static final int DEFAULT_CAPACITY = 16;
+
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	private final IElementComparer comparer;
+
+	private Object[] keys;
+
+	private Object[] values;
+
+	private int[] hashes;
+
+	private int size;
+
+	private int threshold;
+
+	/**
+	 * Constructs a new map with the given capacity and element comparer.
+	 *
+	 * @param capacity the number of elements that can be added without growing
+	 * @param comparer the element comparer to use to compare keys and obtain hash
+	 *                 codes for keys, or <code>null</code> to use the normal
+	 *                 <code>equals</code> and <code>hashCode</code> methods
+	 */
+	ElementMap(int capacity, IElementComparer comparer) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.comparer = comparer;
+		allocate(tableSizeFor(capacity));
+	}
+
+	/**
+	 * Constructs a new map with all mappings of the given map, using the given
+	 * element comparer.
+	 *
+	 * @param map      the original map to copy from
+	 * @param comparer the element comparer to use to compare keys and obtain hash
+	 *                 codes for keys, or <code>null</code> to use the normal
+	 *                 <code>equals</code> and <code>hashCode</code> methods
+	 */
+	ElementMap(ElementMap map, IElementComparer comparer) {
+		this(map.size, comparer);
+		for (int i = 0; i < map.keys.length; i++) {
+			if (map.keys[i] != null) {
+				put(map.keys[i], map.values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the element comparer used to compare keys and to obtain hash codes
+	 * for keys, or <code>null</code> if no comparer has been provided.
+	 *
+	 * @return the element comparer or <code>null</code>
+	 */
+	IElementComparer getComparer() {
+		return comparer;
+	}
+
+	/**
+	 * Answers the value associated with the specified key.
+	 *
+	 * @param key the key of the value returned
+	 * @return the <code>Widget</code> or <code>Widget[]</code> associated with
+	 *         the key, <code>null</code> if the key is not mapped
+	 */
+	Object get(Object key) {
+		int index = indexOf(key, hash(key));
+		return index < 0 ? null : values[index];
+	}
+
+	/**
+	 * Associates the specified value with the specified key. If the key already
+	 * exists, the old key and value are replaced.
+	 *
+	 * @param key   the key to add
+	 * @param value the value to add
+	 * @return the old value associated with the key, <code>null</code> if the
+	 *         key was not mapped
+	 */
+	Object put(Object key, Object value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		int hash = hash(key);
+		int index = indexOf(key, hash);
+		if (index >= 0) {
+			Object result = values[index];
+			keys[index] = key; // avoid hanging onto keys that are equal but "old" -- see bug 30607
+			values[index] = value;
+			return result;
+		}
+		insert(-index - 1, key, hash, value);
+		return null;
+	}
+
+	/**
+	 * Adds the given widget to the widgets of the given element, unless the
+	 * element is already mapped to it.
+	 *
+	 * @param key  the element
+	 * @param item the widget of the element
+	 */
+	void addWidget(Object key, Widget item) {
+		if (key == null || item == null) {
+			throw new NullPointerException();
+		}
+		int hash = hash(key);
+		int index = indexOf(key, hash);
+		if (index < 0) {
+			insert(-index - 1, key, hash, item);
+			return;
+		}
+		Object widgetOrWidgets = values[index];
+		if (widgetOrWidgets instanceof Widget) {
+			if (widgetOrWidgets != item) {
+				values[index] = new Widget[] { (Widget) widgetOrWidgets, item };
+			}
+		} else {
+			Widget[] widgets = (Widget[]) widgetOrWidgets;
+			if (Arrays.asList(widgets).indexOf(item) == -1) {
+				int length = widgets.length;
+				System.arraycopy(widgets, 0, widgets = new Widget[length + 1], 0, length);
+				widgets[length] = item;
+				values[index] = widgets;
+			}
+		}
+	}
+
+	/**
+	 * Removes the given widget from the widgets of the given element. The element
+	 * is removed when its last widget is removed. Does nothing if the element
+	 * does not map to the widget.
+	 *
+	 * @param key  the element
+	 * @param item the widget to remove
+	 */
+	void removeWidget(Object key, Widget item) {
+		int index = indexOf(key, hash(key));
+		if (index < 0) {
+			return;
+		}
+		Object widgetOrWidgets = values[index];
+		if (widgetOrWidgets instanceof Widget) {
+			if (widgetOrWidgets == item) {
+				delete(index);
+			}
+			return;
+		}
+		Widget[] widgets = (Widget[]) widgetOrWidgets;
+		int indexOfItem = Arrays.asList(widgets).indexOf(item);
+		if (indexOfItem == -1) {
+			return;
+		}
+		int length = widgets.length;
+		if (length == 1) {
+			delete(index);
+			return;
+		}
+		Widget[] updatedWidgets = new Widget[length - 1];
+		System.arraycopy(widgets, 0, updatedWidgets, 0, indexOfItem);
+		System.arraycopy(widgets, indexOfItem + 1, updatedWidgets, indexOfItem, length - indexOfItem - 1);
+		values[index] = updatedWidgets;
+	}
+
+	/**
+	 * Removes the mapping of the specified key.
+	 *
+	 * @param key the key to remove
+	 * @return the value associated with the key, <code>null</code> if the key was
+	 *         not mapped
+	 */
+	Object remove(Object key) {
+		int index = indexOf(key, hash(key));
+		if (index < 0) {
+			return null;
+		}
+		Object result = values[index];
+		delete(index);
+		return result;
+	}
+
+	/**
+	 * Answers the number of mapped keys.
+	 *
+	 * @return the number of mapped keys
+	 */
+	int size() {
+		return size;
+	}
+
+	private int hash(Object key) {
+		int h = comparer == null ? key.hashCode() : comparer.hashCode(key);
+		// spread the high bits, the table size is a power of two
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the slot of the given key, or <code>-(slot + 1)</code> of the free
+	 * slot the key would be inserted at.
+	 */
+	private int indexOf(Object key, int hash) {
+		Object[] k = keys;
+		int mask = k.length - 1;
+		int index = hash & mask;
+		if (comparer == null) {
+			for (Object candidate; (candidate = k[index]) != null; index = (index + 1) & mask) {
+				if (candidate == key || (hashes[index] == hash && key.equals(candidate))) {
+					return index;
+				}
+			}
+		} else {
+			for (Object candidate; (candidate = k[index]) != null; index = (index + 1) & mask) {
+				if (hashes[index] == hash && comparer.equals(key, candidate)) {
+					return index;
+				}
+			}
+		}
+		return -index - 1;
+	}
+
+	private void insert(int index, Object key, int hash, Object value) {
+		if (size >= threshold && keys.length < MAXIMUM_CAPACITY) {
+			grow();
+			index = -indexOf(key, hash) - 1;
+		}
+		keys[index] = key;
+		values[index] = value;
+		hashes[index] = hash;
+		size++;
+	}
+
+	/**
+	 * Clears the given slot and shifts back the following keys of the probe
+	 * sequence, so lookups never need to skip deleted slots.
+	 */
+	private void delete(int index) {
+		int mask = keys.length - 1;
+		int hole = index;
+		for (int i = (index + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+			int distance = (i - hashes[i]) & mask;
+			if (distance >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				values[hole] = values[i];
+				hashes[hole] = hashes[i];
+				hole = i;
+			}
+		}
+		keys[hole] = null;
+		values[hole] = null;
+		hashes[hole] = 0;
+		size--;
+	}
+
+	private void grow() {
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(oldKeys.length << 1);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int index = oldHashes[i] & mask;
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				hashes[index] = oldHashes[i];
+			}
+		}
+	}
+
+	private void allocate(int length) {
+		keys = new Object[length];
+		values = new Object[length];
+		hashes = new int[length];
+		threshold = (int) (length * 0.75f);
+	}
+
+	/**
+	 * Returns the power of two table size that holds the given number of keys
+	 * without growing.
+	 */
+	private static int tableSizeFor(int capacity) {
+		int length = 2;
+		while (length < MAXIMUM_CAPACITY && length * 0.75f <= capacity) {
+			length <<= 1;
+		}
+		return length;
+	}
+
+	@Override
+	public String toString() {
+		if (size == 0) {
+			return "{}"; //$NON-NLS-1$
+		}
+		StringBuilder buffer = new StringBuilder();
+		buffer.append('{');
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				buffer.append(keys[i]);
+				buffer.append('=');
+				buffer.append(values[i]);
+				buffer.append(", "); //$NON-NLS-1$
+			}
+		}
+		// Remove the last ", "
+		buffer.setLength(buffer.length() - 2);
+		buffer.append('}');
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A tree content provider whose children can be computed in the background.
+ * <p>
+ * When the user expands an element of an {@link AbstractTreeViewer} with such
+ * a content provider, the viewer shows a pending placeholder item and calls
+ * {@link #getChildren(Object)} on the {@link #getExecutor() executor}. The
+ * children are then filtered, sorted and replace the placeholder on the UI
+ * thread. Structural changes to the viewer made while the children are
+ * computed cause them to be computed again.
+ * </p>
+ * <p>
+ * Implementors must make {@link #getChildren(Object)} thread safe. The filters
+ * and comparator of the viewer are only called from the UI thread. Children
+ * of elements that are expanded
+ * programmatically, for example by
+ * {@link AbstractTreeViewer#expandToLevel(Object, int)}, are still computed
+ * synchronously.
+ * </p>
+ *
+ * @since 3.30
+ */
+public interface IAsyncTreeContentProvider extends ITreeContentProvider {
+
+	/**
+	 * Returns whether the children of the given element are computed in the
+	 * background when the user expands it. The default implementation returns
+	 * <code>true</code>; content providers may return <code>false</code> for
+	 * elements whose children are known to be cheap.
+	 *
+	 * @param parentElement the expanded element
+	 * @return <code>true</code> to compute the children in the background
+	 */
+	default boolean isComputedInBackground(Object parentElement) {
+		return true;
+	}
+
+	/**
+	 * Returns the executor that computes children. The default implementation
+	 * returns a shared executor with a small number of daemon threads, so that
+	 * slow content providers neither block each other indefinitely nor starve
+	 * the common fork join pool.
+	 *
+	 * @return the executor, not <code>null</code>
+	 */
+	default Executor getExecutor() {
+		return TreeChildrenExecutor.get();
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+/**
+ * Computes which items of a parent can keep showing their element when the
+ * children of the parent change. Elements are matched by key, using the element
+ * comparer of the viewer, rather than by position, so inserting or removing a
+ * child near the top does not rebind all following items.
+ * <p>
+ * The items kept are the longest sequence of old children that keep their
+ * relative order in the new children; all other old items are removed, and
+ * new items are created for the new children not matched. If that touches at
+ * least as many items as updating them by position, for example because the
+ * children are reversed, the positional update is used instead.
+ * </p>
+ */
+/* package */final class KeyedDiff {
+
+	private KeyedDiff() {
+		// not instantiated
+	}
+
+	/**
+	 * Matches the new children with the old ones.
+	 *
+	 * @param oldElements the elements of the existing items, not
+	 *                    <code>null</code>
+	 * @param newElements the new children
+	 * @param comparer    the element comparer of the viewer, or
+	 *                    <code>null</code>
+	 * @return for every new child, the index of the old element whose item
+	 *         shows it, or <code>-1</code> if a new item is needed; or
+	 *         <code>null</code> if updating the items by position is at least as
+	 *         cheap, or if the old elements contain duplicates
+	 */
+	static int[] compute(Object[] oldElements, Object[] newElements, IElementComparer comparer) {
+		int oldLength = oldElements.length;
+		int newLength = newElements.length;
+		int min = Math.min(oldLength, newLength);
+		int[] sources = new int[newLength];
+
+		int start = 0;
+		while (start < min && equals(comparer, oldElements[start], newElements[start])) {
+			sources[start] = start;
+			start++;
+		}
+		if (start == min) {
+			// only changes at the end, which the positional update handles
+			return null;
+		}
+		int oldEnd = oldLength;
+		int newEnd = newLength;
+		while (oldEnd > start && newEnd > start
+				&& equals(comparer, oldElements[oldEnd - 1], newElements[newEnd - 1])) {
+			oldEnd--;
+			newEnd--;
+			sources[newEnd] = oldEnd;
+		}
+
+		CustomHashtable indices = new CustomHashtable(oldLength * 2 + 1, comparer);
+		for (int i = 0; i < oldLength; i++) {
+			if (indices.put(oldElements[i], Integer.valueOf(i)) != null) {
+				return null;
+			}
+		}
+
+		// old index of every new child in the changed range, or -1
+		int count = newEnd - start;
+		int[] candidates = new int[count];
+		for (int j = 0; j < count; j++) {
+			Integer index = (Integer) indices.get(newElements[start + j]);
+			int i = index == null ? -1 : index.intValue();
+			candidates[j] = i >= start && i < oldEnd ? i : -1;
+			sources[start + j] = -1;
+		}
+
+		// longest increasing subsequence of the candidates
+		int[] tails = new int[count];
+		int[] predecessors = new int[count];
+		int length = 0;
+		for (int j = 0; j < count; j++) {
+			int candidate = candidates[j];
+			if (candidate < 0) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (candidates[tails[middle]] < candidate) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[j] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = j;
+			if (low == length) {
+				length++;
+			}
+		}
+		// by key, the items of the changed range that are not kept are disposed
+		// or created; by position, all items from the first change on are
+		// rebound and only the difference in length is disposed or created
+		int keyedChanges = (oldEnd - start - length) + (count - length);
+		int positionalChanges = min - start + Math.abs(oldLength - newLength);
+		if (keyedChanges >= positionalChanges) {
+			return null;
+		}
+		for (int j = length > 0 ? tails[length - 1] : -1; j >= 0; j = predecessors[j]) {
+			sources[start + j] = candidates[j];
+		}
+		return sources;
+	}
+
+	private static boolean equals(IElementComparer comparer, Object a, Object b) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null) {
+			return false;
+		}
+		return comparer == null ? a.equals(b) : comparer.equals(a, b);
+	}
+}
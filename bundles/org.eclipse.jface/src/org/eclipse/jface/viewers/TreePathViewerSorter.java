@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -92,6 +92,8 @@ public class TreePathViewerSorter extends ViewerSorter {
 	 * The default implementation of this method uses the
 	 * java.util.Arrays#sort algorithm on the given array,
 	 * calling {@link #compare(Viewer, TreePath, Object, Object)} to compare elements.
+	 * If neither compare method is overridden, the elements are sorted by their
+	 * category and label as in {@link #sort(Viewer, Object[])}.
 	 * </p>
 	 * <p>
 	 * Subclasses may reimplement this method to provide a more optimized implementation.
@@ -102,6 +104,9 @@ public class TreePathViewerSorter extends ViewerSorter {
 	 * @param elements the elements to sort
 	 */
 	public void sort(final Viewer viewer, final TreePath parentPath, Object[] elements) {
+		if (sortByKeys(viewer, elements)) {
+			return;
+		}
 		Arrays.sort(elements, (a, b) -> TreePathViewerSorter.this.compare(viewer, parentPath, a, b));
 	}
 }
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The changes collected by {@link AbstractTreeViewer#batchUpdates(Runnable)}.
+ * Additions and removals are grouped by parent, refreshes and updates by
+ * element, so that the viewer applies the changes of every parent once.
+ * Elements and parents may be given as tree paths.
+ */
+/* package */final class TreeUpdateBatch {
+
+	/**
+	 * The children added to one parent, in the order they were added.
+	 */
+	static final class Additions {
+
+		final Object parentElementOrTreePath;
+
+		private final List<Object> children = new ArrayList<>();
+
+		private final CustomHashtable childSet;
+
+		private final IElementComparer comparer;
+
+		Additions(Object parentElementOrTreePath, IElementComparer comparer) {
+			this.parentElementOrTreePath = parentElementOrTreePath;
+			this.childSet = new CustomHashtable(comparer);
+			this.comparer = comparer;
+		}
+
+		void add(Object child) {
+			if (childSet.put(child, child) == null) {
+				children.add(child);
+			}
+		}
+
+		/**
+		 * Drops the addition of a child that is removed again.
+		 */
+		void remove(Object child) {
+			if (childSet.remove(child) == null) {
+				return;
+			}
+			for (int i = 0; i < children.size(); i++) {
+				if (comparer.equals(children.get(i), child)) {
+					children.remove(i);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * @return the added children that have not been removed again
+		 */
+		Object[] getChildren() {
+			return children.toArray();
+		}
+	}
+
+	private final IElementComparer comparer;
+
+	/**
+	 * Maps parents to their {@link Additions}.
+	 */
+	private CustomHashtable additions;
+
+	private List<Additions> additionOrder = new ArrayList<>();
+
+	/**
+	 * Children that have pending additions to any parent.
+	 */
+	private CustomHashtable addedChildren;
+
+	private List<Object> removals = new ArrayList<>();
+
+	/**
+	 * Maps parents to the list of children removed from them.
+	 */
+	private CustomHashtable parentRemovals;
+
+	private List<Object> parentRemovalOrder = new ArrayList<>();
+
+	/**
+	 * Maps elements to Boolean.TRUE if their labels are to be updated.
+	 */
+	private CustomHashtable refreshes;
+
+	private List<Object> refreshOrder = new ArrayList<>();
+
+	/**
+	 * Maps elements to the set of changed properties, or to
+	 * {@link #ALL_PROPERTIES}.
+	 */
+	private final CustomHashtable updates;
+
+	private final List<Object> updateOrder = new ArrayList<>();
+
+	private static final Object ALL_PROPERTIES = new Object();
+
+	/**
+	 * Creates an empty batch.
+	 *
+	 * @param elementComparer the comparer of the viewer, or <code>null</code>
+	 */
+	TreeUpdateBatch(IElementComparer elementComparer) {
+		this.comparer = new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				if (a instanceof TreePath || b instanceof TreePath) {
+					return a instanceof TreePath && ((TreePath) a).equals(b, elementComparer);
+				}
+				return elementComparer == null ? a.equals(b) : elementComparer.equals(a, b);
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				if (element instanceof TreePath) {
+					return ((TreePath) element).hashCode(elementComparer);
+				}
+				return elementComparer == null ? element.hashCode() : elementComparer.hashCode(element);
+			}
+		};
+		additions = new CustomHashtable(comparer);
+		addedChildren = new CustomHashtable(comparer);
+		parentRemovals = new CustomHashtable(comparer);
+		refreshes = new CustomHashtable(comparer);
+		updates = new CustomHashtable(comparer);
+	}
+
+	/**
+	 * Records the addition of children to a parent.
+	 *
+	 * @param parentElementOrTreePath the parent element or path
+	 * @param childElements           the added children
+	 */
+	void add(Object parentElementOrTreePath, Object[] childElements) {
+		if (refreshes.containsKey(parentElementOrTreePath)) {
+			// the refresh of the parent shows the children
+			return;
+		}
+		Additions added = (Additions) additions.get(parentElementOrTreePath);
+		if (added == null) {
+			added = new Additions(parentElementOrTreePath, comparer);
+			additions.put(parentElementOrTreePath, added);
+			additionOrder.add(added);
+		}
+		for (Object child : childElements) {
+			added.add(child);
+			addedChildren.put(child, child);
+		}
+	}
+
+	/**
+	 * Records the removal of elements from all of their parents.
+	 *
+	 * @param elementsOrTreePaths the removed elements or paths
+	 */
+	void remove(Object[] elementsOrTreePaths) {
+		for (Object element : elementsOrTreePaths) {
+			cancelAdditions(null, element);
+			removals.add(element);
+		}
+	}
+
+	/**
+	 * Records the removal of elements from the given parent.
+	 *
+	 * @param parent   the parent element or path
+	 * @param elements the removed elements
+	 */
+	@SuppressWarnings("unchecked")
+	void remove(Object parent, Object[] elements) {
+		List<Object> removed = (List<Object>) parentRemovals.get(parent);
+		if (removed == null) {
+			removed = new ArrayList<>();
+			parentRemovals.put(parent, removed);
+			parentRemovalOrder.add(parent);
+		}
+		for (Object element : elements) {
+			cancelAdditions(parent, element);
+			removed.add(element);
+		}
+	}
+
+	/**
+	 * Drops pending additions of the given element, which is removed again.
+	 */
+	private void cancelAdditions(Object parent, Object elementOrTreePath) {
+		if (elementOrTreePath instanceof TreePath) {
+			TreePath path = (TreePath) elementOrTreePath;
+			if (path.getSegmentCount() == 0) {
+				return;
+			}
+			Object element = path.getLastSegment();
+			if (!addedChildren.containsKey(element)) {
+				return;
+			}
+			TreePath parentPath = path.getParentPath();
+			cancelAddition(parentPath, element);
+			cancelAddition(parentPath.getLastSegment(), element);
+			return;
+		}
+		if (!addedChildren.containsKey(elementOrTreePath)) {
+			return;
+		}
+		if (parent != null) {
+			cancelAddition(parent, elementOrTreePath);
+			return;
+		}
+		for (Additions added : additionOrder) {
+			added.remove(elementOrTreePath);
+		}
+	}
+
+	private void cancelAddition(Object parent, Object element) {
+		if (parent != null) {
+			Additions added = (Additions) additions.get(parent);
+			if (added != null) {
+				added.remove(element);
+			}
+		}
+	}
+
+	/**
+	 * Records the refresh of an element. Refreshing the root of the viewer
+	 * supersedes all structural changes recorded so far, refreshing another
+	 * element the additions to that element.
+	 *
+	 * @param element      the element
+	 * @param updateLabels whether labels of existing elements are updated
+	 * @param root         the root of the viewer
+	 */
+	void refresh(Object element, boolean updateLabels, Object root) {
+		if (element == null) {
+			element = root;
+		}
+		if (element == null) {
+			// no input, nothing to refresh
+			return;
+		}
+		if (element == root || comparer.equals(element, root)) {
+			additions = new CustomHashtable(comparer);
+			additionOrder = new ArrayList<>();
+			addedChildren = new CustomHashtable(comparer);
+			removals = new ArrayList<>();
+			parentRemovals = new CustomHashtable(comparer);
+			parentRemovalOrder = new ArrayList<>();
+			Boolean previous = (Boolean) refreshes.get(root);
+			refreshes = new CustomHashtable(comparer);
+			refreshOrder = new ArrayList<>();
+			updateLabels |= previous != null && previous.booleanValue();
+		} else {
+			Additions added = (Additions) additions.remove(element);
+			if (added != null) {
+				additionOrder.remove(added);
+			}
+		}
+		Boolean previous = (Boolean) refreshes.put(element, Boolean.valueOf(updateLabels));
+		if (previous == null) {
+			refreshOrder.add(element);
+		} else if (previous.booleanValue()) {
+			refreshes.put(element, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Records the update of an element.
+	 *
+	 * @param element    the element
+	 * @param properties the changed properties, or <code>null</code> if unknown
+	 */
+	@SuppressWarnings("unchecked")
+	void update(Object element, String[] properties) {
+		Object previous = updates.get(element);
+		if (previous == null) {
+			updateOrder.add(element);
+		}
+		if (properties == null || previous == ALL_PROPERTIES) {
+			updates.put(element, ALL_PROPERTIES);
+			return;
+		}
+		Set<String> changed = previous == null ? new LinkedHashSet<>() : (Set<String>) previous;
+		for (String property : properties) {
+			changed.add(property);
+		}
+		updates.put(element, changed);
+	}
+
+	/**
+	 * @return whether no changes have been recorded
+	 */
+	boolean isEmpty() {
+		return additionOrder.isEmpty() && removals.isEmpty() && parentRemovalOrder.isEmpty()
+				&& refreshOrder.isEmpty() && updateOrder.isEmpty();
+	}
+
+	/**
+	 * @return the elements or tree paths removed from all parents
+	 */
+	Object[] getRemovals() {
+		return removals.toArray();
+	}
+
+	/**
+	 * @return the parents with removed children
+	 */
+	List<Object> getRemovalParents() {
+		return parentRemovalOrder;
+	}
+
+	/**
+	 * @param parent a parent returned by {@link #getRemovalParents()}
+	 * @return the children removed from the parent
+	 */
+	@SuppressWarnings("unchecked")
+	Object[] getRemovals(Object parent) {
+		return ((List<Object>) parentRemovals.get(parent)).toArray();
+	}
+
+	/**
+	 * @return the additions by parent
+	 */
+	List<Additions> getAdditions() {
+		return additionOrder;
+	}
+
+	/**
+	 * @return the refreshed elements
+	 */
+	List<Object> getRefreshes() {
+		return refreshOrder;
+	}
+
+	/**
+	 * @param element a refreshed element
+	 * @return whether the labels of existing elements are updated
+	 */
+	boolean isUpdateLabels(Object element) {
+		return ((Boolean) refreshes.get(element)).booleanValue();
+	}
+
+	/**
+	 * @return the updated elements
+	 */
+	List<Object> getUpdates() {
+		return updateOrder;
+	}
+
+	/**
+	 * @param element an updated element
+	 * @return the changed properties, or <code>null</code> if unknown
+	 */
+	@SuppressWarnings("unchecked")
+	String[] getProperties(Object element) {
+		Object properties = updates.get(element);
+		if (properties == ALL_PROPERTIES) {
+			return null;
+		}
+		return ((Set<String>) properties).toArray(new String[0]);
+	}
+}
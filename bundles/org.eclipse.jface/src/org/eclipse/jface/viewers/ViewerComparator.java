@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -53,6 +55,58 @@ public class ViewerComparator {
 	 */
 	private Comparator<? super String> comparator;
 
+	/**
+	 * Minimum number of elements for which {@link #sort(Viewer, Object[])} sorts
+	 * collation keys in parallel.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 10000;
+
+	/**
+	 * Whether a class of viewer comparators compares elements as implemented by
+	 * {@link #compare(Viewer, Object, Object)} in this class, so that elements
+	 * can be sorted by their category and label computed once per element.
+	 */
+	private static final ClassValue<Boolean> DEFAULT_COMPARE = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				if (type.getMethod("compare", Viewer.class, Object.class, Object.class) //$NON-NLS-1$
+						.getDeclaringClass() != ViewerComparator.class) {
+					return Boolean.FALSE;
+				}
+				if (TreePathViewerSorter.class.isAssignableFrom(type)) {
+					return Boolean.valueOf(type
+							.getMethod("compare", Viewer.class, TreePath.class, Object.class, Object.class) //$NON-NLS-1$
+							.getDeclaringClass() == TreePathViewerSorter.class);
+				}
+				return Boolean.TRUE;
+			} catch (NoSuchMethodException | SecurityException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
+	/**
+	 * An element decorated with its sort keys.
+	 */
+	private static final class SortKey {
+
+		final Object element;
+
+		final int category;
+
+		final String label;
+
+		final CollationKey collationKey;
+
+		SortKey(Object element, int category, String label, CollationKey collationKey) {
+			this.element = element;
+			this.category = category;
+			this.label = label;
+			this.collationKey = collationKey;
+		}
+	}
+
 	/**
 	 * Creates a new {@link ViewerComparator}, which uses the default comparator
 	 * to sort strings.
@@ -195,6 +249,12 @@ public class ViewerComparator {
 	 * elements.
 	 * </p>
 	 * <p>
+	 * If {@link #compare(Viewer, Object, Object)} is not overridden, the
+	 * category and label of every element are computed only once, and labels
+	 * are compared by their collation keys if the string comparator is a
+	 * {@link Collator}.
+	 * </p>
+	 * <p>
 	 * Subclasses may reimplement this method to provide a more optimized implementation.
 	 * </p>
 	 *
@@ -203,7 +263,9 @@ public class ViewerComparator {
 	 */
 	public void sort(final Viewer viewer, Object[] elements) {
 		try {
-			Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			if (!sortByKeys(viewer, elements)) {
+				Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			}
 		} catch (IllegalArgumentException e) {
 			String msg = e
 					+ "\nWorkaround for comparator violation:\n\tSet system property -Djava.util.Arrays.useLegacyMergeSort=true" //$NON-NLS-1$
@@ -228,4 +290,53 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	/**
+	 * Sorts the given elements by their category and label, which are computed
+	 * once per element, if this is equivalent to sorting them with
+	 * {@link #compare(Viewer, Object, Object)}.
+	 *
+	 * @param viewer   the viewer
+	 * @param elements the elements to sort
+	 * @return <code>true</code> if the elements have been sorted,
+	 *         <code>false</code> if the comparator compares elements differently
+	 */
+	boolean sortByKeys(Viewer viewer, Object[] elements) {
+		if (elements.length < 2 || !DEFAULT_COMPARE.get(getClass()).booleanValue()) {
+			return false;
+		}
+		Comparator<? super String> labelComparator = getComparator();
+		Collator collator = labelComparator instanceof Collator ? (Collator) labelComparator : null;
+		SortKey[] keys = new SortKey[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			String label = getLabel(viewer, element);
+			keys[i] = new SortKey(element, category(element), label,
+					collator == null ? null : collator.getCollationKey(label));
+		}
+		if (collator != null) {
+			Comparator<SortKey> keyComparator = (a, b) -> {
+				if (a.category != b.category) {
+					return a.category - b.category;
+				}
+				return a.collationKey.compareTo(b.collationKey);
+			};
+			if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(keys, keyComparator);
+			} else {
+				Arrays.sort(keys, keyComparator);
+			}
+		} else {
+			Arrays.sort(keys, (a, b) -> {
+				if (a.category != b.category) {
+					return a.category - b.category;
+				}
+				return labelComparator.compare(a.label, b.label);
+			});
+		}
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = keys[i].element;
+		}
+		return true;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -77,6 +77,7 @@ import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.internal.ide.StatusUtil;
 import org.eclipse.ui.internal.ide.dialogs.IDEResourceInfoUtils;
+import org.eclipse.ui.internal.ide.filesystem.FileCopyEngine;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.wizards.datatransfer.FileStoreStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
@@ -1374,6 +1375,11 @@ public class CopyFilesAndFoldersOperation {
 			}
 		};
 
+		if (!createVirtualFoldersAndLinks && !createLinks && FileCopyEngine.canCopy(stores, target)) {
+			performLocalFileImport(stores, target, query, monitor);
+			return;
+		}
+
 		ImportOperation op = new ImportOperation(target.getFullPath(),
 				stores[0].getParent(), FileStoreStructureProvider.INSTANCE,
 				query, Arrays.asList(stores));
@@ -1407,6 +1413,43 @@ public class CopyFilesAndFoldersOperation {
 		}
 	}
 
+	/**
+	 * Imports local files and folders with a {@link FileCopyEngine}, which asks
+	 * all overwrite questions before copying, and copies the files
+	 * concurrently.
+	 *
+	 * @param stores
+	 *            stores that are to be imported
+	 * @param target
+	 *            container to which the import will be done
+	 * @param query
+	 *            the query asked about existing resources
+	 * @param monitor
+	 *            a progress monitor for showing progress and for cancelation
+	 */
+	private void performLocalFileImport(IFileStore[] stores, IContainer target, IOverwriteQuery query,
+			IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 100);
+		FileCopyEngine engine = new FileCopyEngine(target, query, messageShell);
+		IStatus status;
+		try {
+			engine.plan(stores, subMonitor.split(10));
+			status = engine.execute(subMonitor.split(90));
+		} catch (OperationCanceledException e) {
+			return;
+		} catch (CoreException e) {
+			displayError(e.getStatus());
+			return;
+		}
+		if (!status.isOK()) {
+			if (errorStatus == null) {
+				errorStatus = new MultiStatus(PlatformUI.PLUGIN_ID,
+						IStatus.ERROR, getProblemsMessage(), null);
+			}
+			errorStatus.merge(status);
+		}
+	}
+
 	/**
 	 * Records the core exception to be displayed to the user once the action is
 	 * finished.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -82,6 +82,8 @@ import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
 import org.eclipse.ui.internal.ide.IIDEHelpContextIds;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndexManager;
 import org.eclipse.ui.internal.ide.model.ResourceFactory;
 import org.eclipse.ui.model.WorkbenchLabelProvider;
 import org.eclipse.ui.statushandlers.StatusManager;
@@ -436,6 +438,17 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 		super.applyFilter();
 	}
 
+	/**
+	 * {@link ResourceFilter} only reads the workspace tree and immutable
+	 * patterns, so resources are matched in parallel.
+	 *
+	 * @since 3.21
+	 */
+	@Override
+	protected boolean isParallelMatchingEnabled() {
+		return true;
+	}
+
 	@Override
 	protected Comparator<IResource> getItemsComparator() {
 		final String pattern;
@@ -587,6 +600,10 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 			IResource[] members = container.members();
 			progressMonitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
 					members.length);
+			if (fillFromIndex(contentProvider, (ResourceFilter) itemsFilter, progressMonitor)) {
+				progressMonitor.done();
+				return;
+			}
 
 			ResourceProxyVisitor visitor = new ResourceProxyVisitor(contentProvider, (ResourceFilter) itemsFilter,
 					progressMonitor);
@@ -605,6 +622,23 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 		progressMonitor.done();
 	}
 
+	/**
+	 * Answers the query from the workspace resource name index. The candidates
+	 * of the index are verified by the filter like the traversed resources.
+	 *
+	 * @return <code>false</code> if the index is not available
+	 */
+	private boolean fillFromIndex(AbstractContentProvider contentProvider, ResourceFilter resourceFilter,
+			IProgressMonitor progressMonitor) {
+		ResourceNameIndexManager index = ResourceNameIndexManager.getDefault();
+		if (index == null) {
+			return false;
+		}
+		return index.query(container, ResourceNameIndex.getFragments(resourceFilter.getPattern()),
+				resourceFilter.filterTypeMask, resourceFilter.isShowDerived(), resourceFilter::nameMatches,
+				resource -> contentProvider.add(resource, resourceFilter), progressMonitor);
+	}
+
 	private boolean parentIsRoot(IResource resource) {
 		if (resource.getParent() == null) {
 			return false;
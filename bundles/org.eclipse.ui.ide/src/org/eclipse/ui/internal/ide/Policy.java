@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@ package org.eclipse.ui.internal.ide;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.statushandlers.StatusManager;
 
 /**
@@ -47,12 +49,19 @@ public class Policy {
 	 */
 	public static boolean DEBUG_CORE_EXCEPTIONS = DEFAULT;
 
+	/**
+	 * Option for reporting the time spent in project configurators by smart
+	 * import.
+	 */
+	public static boolean DEBUG_SMART_IMPORT = DEFAULT;
+
 	static {
 		if (getDebugOption("/debug")) { //$NON-NLS-1$
 			DEBUG_OPEN_ERROR_DIALOG = getDebugOption("/debug/internalerror/openDialog"); //$NON-NLS-1$
 			DEBUG_GC = getDebugOption("/debug/gc"); //$NON-NLS-1$
 			DEBUG_UNDOMONITOR = getDebugOption("/debug/undomonitor"); //$NON-NLS-1$
 			DEBUG_CORE_EXCEPTIONS = getDebugOption("/debug/coreExceptions"); //$NON-NLS-1$
+			DEBUG_SMART_IMPORT = getDebugOption("/debug/smartimport"); //$NON-NLS-1$
 		}
 	}
 
@@ -60,6 +69,22 @@ public class Policy {
 		return "true".equalsIgnoreCase(Platform.getDebugOption(IDEWorkbenchPlugin.IDE_WORKBENCH + option)); //$NON-NLS-1$
 	}
 
+	/**
+	 * Writes the given message to the trace of the given debug option of the
+	 * ide, e.g. <code>"/debug/smartimport"</code>.
+	 *
+	 * @param option  the debug option, relative to the ide bundle
+	 * @param clazz   the class that reports the message
+	 * @param message the message to trace
+	 */
+	public static void trace(String option, Class<?> clazz, String message) {
+		WorkbenchPlugin plugin = WorkbenchPlugin.getDefault();
+		DebugOptions options = plugin == null ? null : plugin.getDebugOptions();
+		if (options != null) {
+			options.newDebugTrace(IDEWorkbenchPlugin.IDE_WORKBENCH, clazz).trace(option, message);
+		}
+	}
+
 	/**
 	 * Handle the core exception.
 	 *
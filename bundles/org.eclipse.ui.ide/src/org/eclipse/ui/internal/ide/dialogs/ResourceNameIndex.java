@@ -0,0 +1,513 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.dialogs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * An in-memory index of resource names, used to answer file name queries of
+ * the Open Resource dialog without traversing the workspace.
+ * <p>
+ * Every entry is a resource with its parent entry, its name, its type and
+ * whether it is derived. Entries are looked up by trigrams of their
+ * lower-cased names. Removed entries are only marked as removed until the
+ * index is {@link #compact() compacted}. Entries always have a greater id than
+ * their parent.
+ * </p>
+ * <p>
+ * This class is not thread safe, see {@link ResourceNameIndexManager}.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class ResourceNameIndex {
+
+	/**
+	 * The parent id of projects.
+	 */
+	public static final int ROOT = -1;
+
+	private static final int TYPE_MASK = IResource.FILE | IResource.FOLDER | IResource.PROJECT;
+
+	private static final int DERIVED = 0x10;
+
+	private static final int IN_DERIVED = 0x20;
+
+	private static final int REMOVED = 0x40;
+
+	private static final int MAGIC = 0x524E4958; // "RNIX"
+
+	private static final int VERSION = 1;
+
+	private static final int EMPTY = -1;
+
+	private static final class IntList {
+		int[] values = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		boolean contains(int value) {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		}
+	}
+
+	private String[] names = new String[1024];
+
+	private int[] parents = new int[1024];
+
+	private byte[] flags = new byte[1024];
+
+	private int count;
+
+	private int removedCount;
+
+	/** open addressing table of (parent, name) to id */
+	private int[] table = newTable(2048);
+
+	private final Map<Long, IntList> trigrams = new HashMap<>();
+
+	/**
+	 * Adds an entry, or updates the type and derived flag of the live entry with
+	 * the same parent and name.
+	 *
+	 * @param parent  the id of the parent entry, or {@link #ROOT} for projects
+	 * @param name    the name of the resource
+	 * @param type    the type of the resource, see {@link IResource#getType()}
+	 * @param derived whether the resource is derived
+	 * @return the id of the entry
+	 */
+	public int add(int parent, String name, int type, boolean derived) {
+		int id = find(parent, name);
+		if (id != EMPTY) {
+			flags[id] = (byte) ((flags[id] & ~(TYPE_MASK | DERIVED)) | (type & TYPE_MASK) | (derived ? DERIVED : 0));
+			return id;
+		}
+		if (count == names.length) {
+			int capacity = count * 2;
+			names = Arrays.copyOf(names, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+		}
+		id = count++;
+		names[id] = name;
+		parents[id] = parent;
+		int f = (type & TYPE_MASK) | (derived ? DERIVED : 0);
+		if (parent != ROOT && (flags[parent] & (DERIVED | IN_DERIVED)) != 0) {
+			f |= IN_DERIVED;
+		}
+		flags[id] = (byte) f;
+		if (count * 2 > table.length) {
+			rehash(table.length * 2);
+		} else {
+			insert(id);
+		}
+		addTrigrams(id, name);
+		return id;
+	}
+
+	/**
+	 * Adds an entry for the given workspace path, creating folder entries for
+	 * missing ancestors.
+	 *
+	 * @param path    the full path of the resource, not the workspace root
+	 * @param type    the type of the resource
+	 * @param derived whether the resource is derived
+	 * @return the id of the entry
+	 */
+	public int add(IPath path, int type, boolean derived) {
+		int parent = ROOT;
+		int segments = path.segmentCount();
+		for (int i = 0; i < segments - 1; i++) {
+			int id = find(parent, path.segment(i));
+			parent = id != EMPTY ? id : add(parent, path.segment(i), i == 0 ? IResource.PROJECT : IResource.FOLDER, false);
+		}
+		return add(parent, path.lastSegment(), type, derived);
+	}
+
+	/**
+	 * @param parent the id of the parent entry, or {@link #ROOT}
+	 * @param name   the name of the resource
+	 * @return the id of the live entry, or <code>-1</code>
+	 */
+	public int find(int parent, String name) {
+		int mask = table.length - 1;
+		for (int slot = hash(parent, name) & mask;; slot = (slot + 1) & mask) {
+			int id = table[slot];
+			if (id == EMPTY) {
+				return EMPTY;
+			}
+			if (parents[id] == parent && (flags[id] & REMOVED) == 0 && names[id].equals(name)) {
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * @param path the full path of a resource
+	 * @return the id of the live entry, or <code>-1</code>
+	 */
+	public int find(IPath path) {
+		int id = ROOT;
+		for (int i = 0; i < path.segmentCount(); i++) {
+			id = find(id, path.segment(i));
+			if (id == EMPTY) {
+				return EMPTY;
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Removes the given entries with all their descendants.
+	 *
+	 * @param ids the ids of the entries to remove
+	 */
+	public void remove(Collection<Integer> ids) {
+		int first = count;
+		for (Integer id : ids) {
+			int i = id.intValue();
+			if ((flags[i] & REMOVED) == 0) {
+				flags[i] |= REMOVED;
+				removedCount++;
+				first = Math.min(first, i);
+			}
+		}
+		// descendants always have a greater id than their parent
+		for (int i = first + 1; i < count; i++) {
+			int parent = parents[i];
+			if (parent != ROOT && (flags[i] & REMOVED) == 0 && (flags[parent] & REMOVED) != 0) {
+				flags[i] |= REMOVED;
+				removedCount++;
+			}
+		}
+	}
+
+	/**
+	 * Changes the derived flag of an entry and updates its descendants.
+	 *
+	 * @param id      the id of the entry
+	 * @param derived whether the resource is derived
+	 */
+	public void setDerived(int id, boolean derived) {
+		flags[id] = (byte) (derived ? flags[id] | DERIVED : flags[id] & ~DERIVED);
+		for (int i = id + 1; i < count; i++) {
+			int parent = parents[i];
+			if (parent >= id && isAncestorOrSelf(id, parent)) {
+				boolean inDerived = (flags[parent] & (DERIVED | IN_DERIVED)) != 0;
+				flags[i] = (byte) (inDerived ? flags[i] | IN_DERIVED : flags[i] & ~IN_DERIVED);
+			}
+		}
+	}
+
+	/**
+	 * @param ancestor the id of the possible ancestor, or {@link #ROOT}
+	 * @param id       the id of an entry
+	 * @return whether the entry is the given ancestor or one of its descendants
+	 */
+	public boolean isAncestorOrSelf(int ancestor, int id) {
+		if (ancestor == ROOT) {
+			return true;
+		}
+		for (int i = id; i >= ancestor; i = parents[i]) {
+			if (i == ancestor) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return the id of the parent entry, or {@link #ROOT}
+	 */
+	public int getParent(int id) {
+		return parents[id];
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return the name of the resource
+	 */
+	public String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return the type of the resource, see {@link IResource#getType()}
+	 */
+	public int getType(int id) {
+		return flags[id] & TYPE_MASK;
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return whether the resource is derived
+	 */
+	public boolean isDerived(int id) {
+		return (flags[id] & DERIVED) != 0;
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return whether one of the ancestors of the resource is derived
+	 */
+	public boolean isInDerived(int id) {
+		return (flags[id] & IN_DERIVED) != 0;
+	}
+
+	/**
+	 * @param id the id of an entry
+	 * @return the full path of the resource
+	 */
+	public IPath getPath(int id) {
+		int depth = 0;
+		for (int i = id; i != ROOT; i = parents[i]) {
+			depth++;
+		}
+		String[] segments = new String[depth];
+		for (int i = id; i != ROOT; i = parents[i]) {
+			segments[--depth] = names[i];
+		}
+		IPath path = Path.ROOT;
+		for (String segment : segments) {
+			path = path.append(segment);
+		}
+		return path;
+	}
+
+	/**
+	 * @return the number of live entries
+	 */
+	public int size() {
+		return count - removedCount;
+	}
+
+	/**
+	 * Visits the live entries whose names contain all given fragments, ignoring
+	 * case. Fragments shorter than three characters are not considered. The
+	 * entries are visited in the order of their ids.
+	 *
+	 * @param fragments the fragments, see {@link #getFragments(String)}
+	 * @param visitor   receives the entry ids, returns <code>false</code> to stop
+	 */
+	public void query(String[] fragments, IntPredicate visitor) {
+		Set<Long> keys = new LinkedHashSet<>();
+		for (String fragment : fragments) {
+			String lower = fragment.toLowerCase(Locale.ROOT);
+			for (int i = 0; i + 3 <= lower.length(); i++) {
+				keys.add(Long.valueOf(trigram(lower.charAt(i), lower.charAt(i + 1), lower.charAt(i + 2))));
+			}
+		}
+		if (keys.isEmpty()) {
+			for (int id = 0; id < count; id++) {
+				if ((flags[id] & REMOVED) == 0 && !visitor.test(id)) {
+					return;
+				}
+			}
+			return;
+		}
+
+		List<IntList> lists = new ArrayList<>(keys.size());
+		for (Long key : keys) {
+			IntList list = trigrams.get(key);
+			if (list == null) {
+				return;
+			}
+			lists.add(list);
+		}
+		lists.sort((a, b) -> Integer.compare(a.size, b.size));
+		IntList smallest = lists.get(0);
+		candidates: for (int i = 0; i < smallest.size; i++) {
+			int id = smallest.values[i];
+			if ((flags[id] & REMOVED) != 0) {
+				continue;
+			}
+			for (int j = 1; j < lists.size(); j++) {
+				if (!lists.get(j).contains(id)) {
+					continue candidates;
+				}
+			}
+			if (!visitor.test(id)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the fragments of a file name pattern that every matching name
+	 * contains, ignoring case. The pattern is split at wild cards, at the start
+	 * and end symbols, at dots, at digits and at upper case characters, because a
+	 * camel case pattern only requires its camel case words to be contained.
+	 *
+	 * @param pattern the file name pattern of a
+	 *                {@link org.eclipse.ui.dialogs.SearchPattern}
+	 * @return the fragments
+	 */
+	public static String[] getFragments(String pattern) {
+		List<String> fragments = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i <= pattern.length(); i++) {
+			char c = i < pattern.length() ? pattern.charAt(i) : '*';
+			boolean separator = c == '*' || c == '?' || c == '<' || c == '>' || c == '.'
+					|| Character.isWhitespace(c) || Character.isDigit(c);
+			if (separator || Character.isUpperCase(c)) {
+				if (i > start) {
+					fragments.add(pattern.substring(start, i));
+				}
+				start = separator ? i + 1 : i;
+			}
+		}
+		return fragments.toArray(new String[fragments.size()]);
+	}
+
+	/**
+	 * @return whether enough entries have been removed to make
+	 *         {@link #compact()} worthwhile
+	 */
+	public boolean needsCompaction() {
+		return removedCount > 10000 && removedCount > size();
+	}
+
+	/**
+	 * Drops the removed entries.
+	 *
+	 * @return the compacted index, this index must no longer be used
+	 */
+	public ResourceNameIndex compact() {
+		ResourceNameIndex compacted = new ResourceNameIndex();
+		int[] newIds = new int[count];
+		for (int id = 0; id < count; id++) {
+			if ((flags[id] & REMOVED) == 0) {
+				int parent = parents[id] == ROOT ? ROOT : newIds[parents[id]];
+				newIds[id] = compacted.add(parent, names[id], flags[id] & TYPE_MASK, (flags[id] & DERIVED) != 0);
+			}
+		}
+		return compacted;
+	}
+
+	/**
+	 * Writes the live entries.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(size());
+		int[] newIds = new int[count];
+		int next = 0;
+		for (int id = 0; id < count; id++) {
+			if ((flags[id] & REMOVED) == 0) {
+				newIds[id] = next++;
+				out.writeInt(parents[id] == ROOT ? ROOT : newIds[parents[id]]);
+				out.writeUTF(names[id]);
+				out.writeByte(flags[id] & (TYPE_MASK | DERIVED));
+			}
+		}
+	}
+
+	/**
+	 * Reads an index written by {@link #write(DataOutputStream)}.
+	 *
+	 * @param in the stream to read from
+	 * @return the index
+	 * @throws IOException if reading fails or the data is not a valid index
+	 */
+	public static ResourceNameIndex read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Not a resource name index"); //$NON-NLS-1$
+		}
+		int size = in.readInt();
+		ResourceNameIndex index = new ResourceNameIndex();
+		for (int id = 0; id < size; id++) {
+			int parent = in.readInt();
+			String name = in.readUTF();
+			int f = in.readByte();
+			if (parent < ROOT || parent >= id) {
+				throw new IOException("Corrupt resource name index"); //$NON-NLS-1$
+			}
+			if (index.add(parent, name, f & TYPE_MASK, (f & DERIVED) != 0) != id) {
+				throw new IOException("Duplicate entry in resource name index"); //$NON-NLS-1$
+			}
+		}
+		return index;
+	}
+
+	private void addTrigrams(int id, String name) {
+		String lower = name.toLowerCase(Locale.ROOT);
+		for (int i = 0; i + 3 <= lower.length(); i++) {
+			Long key = Long.valueOf(trigram(lower.charAt(i), lower.charAt(i + 1), lower.charAt(i + 2)));
+			IntList list = trigrams.computeIfAbsent(key, k -> new IntList());
+			// ids are added in ascending order, so duplicates are adjacent
+			if (list.size == 0 || list.values[list.size - 1] != id) {
+				list.add(id);
+			}
+		}
+	}
+
+	private static long trigram(char c1, char c2, char c3) {
+		return ((long) c1 << 32) | ((long) c2 << 16) | c3;
+	}
+
+	private static int hash(int parent, String name) {
+		int h = parent * 31 + name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int[] newTable(int capacity) {
+		int[] newTable = new int[capacity];
+		Arrays.fill(newTable, EMPTY);
+		return newTable;
+	}
+
+	private void insert(int id) {
+		int mask = table.length - 1;
+		int slot = hash(parents[id], names[id]) & mask;
+		while (table[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = id;
+	}
+
+	private void rehash(int capacity) {
+		table = newTable(capacity);
+		for (int id = 0; id < count; id++) {
+			insert(id);
+		}
+	}
+}
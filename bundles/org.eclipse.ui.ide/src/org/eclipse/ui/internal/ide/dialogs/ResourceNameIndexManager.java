@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.dialogs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+
+/**
+ * Maintains the {@link ResourceNameIndex} of the workspace. The index is
+ * built once by traversing the workspace, kept up to date from resource
+ * deltas, and persisted in the plug-in state location on every full workspace
+ * save. On the next start, the persisted index is read and brought up to date
+ * with the deltas since that save.
+ * <p>
+ * The index can be disabled with
+ * <code>-Dorg.eclipse.ui.ide.resourceNameIndex=false</code>.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class ResourceNameIndexManager implements IResourceChangeListener, ISaveParticipant {
+
+	private static final String ENABLED_PROPERTY = "org.eclipse.ui.ide.resourceNameIndex"; //$NON-NLS-1$
+
+	private static final String INDEX_FILE = "resourceNames"; //$NON-NLS-1$
+
+	private static final IPath INDEX_KEY = new Path(INDEX_FILE);
+
+	private static ResourceNameIndexManager instance;
+
+	private final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** guarded by lock, <code>null</code> while the index is built */
+	private ResourceNameIndex index;
+
+	/** changes received while the index is built, guarded by lock */
+	private final List<Change> pendingChanges = new ArrayList<>();
+
+	/** projects that have to be traversed, guarded by lock */
+	private final Set<IProject> pendingProjects = new LinkedHashSet<>();
+
+	private ISavedState savedState;
+
+	private final Job job = new Job("Indexing resource names") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			if (index == null) {
+				build(monitor);
+			}
+			indexPendingProjects(monitor);
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+	};
+
+	private ResourceNameIndexManager() {
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Returns the index manager, starting to build the index on the first call.
+	 *
+	 * @return the manager, or <code>null</code> if the index is disabled
+	 */
+	public static synchronized ResourceNameIndexManager getDefault() {
+		if (instance == null && Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) { //$NON-NLS-1$
+			instance = new ResourceNameIndexManager();
+			instance.startup();
+		}
+		return instance;
+	}
+
+	/**
+	 * Stops maintaining the index, if it has been started.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			instance.workspace.removeResourceChangeListener(instance);
+			instance.workspace.removeSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH);
+			instance.job.cancel();
+			instance = null;
+		}
+	}
+
+	private void startup() {
+		workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		try {
+			savedState = workspace.addSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH, this);
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log("Unable to restore the resource name index", e.getStatus()); //$NON-NLS-1$
+		}
+		job.schedule();
+	}
+
+	/**
+	 * Visits the accessible resources in the given container whose names contain
+	 * all given fragments, ignoring case. Resources inside derived folders are
+	 * only visited if derived resources are shown. The caller has to verify the
+	 * visited resources, the index may lag slightly behind the workspace.
+	 *
+	 * @param container   the container to search in, is visited itself as well
+	 * @param fragments   the fragments all names contain, see
+	 *                    {@link ResourceNameIndex#getFragments(String)}
+	 * @param typeMask    the types of resources to visit
+	 * @param showDerived whether resources in derived folders are visited
+	 * @param nameFilter  checks the names of candidates before resources are
+	 *                    created for them
+	 * @param collector   receives the resources
+	 * @param monitor     the progress monitor, checked for cancellation
+	 * @return <code>false</code> if the index is not available yet, in which case
+	 *         nothing has been visited
+	 */
+	public boolean query(IContainer container, String[] fragments, int typeMask, boolean showDerived,
+			Predicate<String> nameFilter, Consumer<IResource> collector, IProgressMonitor monitor) {
+		List<IPath> paths = new ArrayList<>();
+		List<Integer> types = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			if (index == null || !pendingProjects.isEmpty()) {
+				return false;
+			}
+			int scope = container.getType() == IResource.ROOT ? ResourceNameIndex.ROOT
+					: index.find(container.getFullPath());
+			if (scope == -1 && container.getType() != IResource.ROOT) {
+				return false;
+			}
+			int[] visited = new int[1];
+			index.query(fragments, id -> {
+				if ((++visited[0] & 0x3FF) == 0 && monitor.isCanceled()) {
+					return false;
+				}
+				int type = index.getType(id);
+				if ((type & typeMask) == 0 || (!showDerived && index.isInDerived(id))
+						|| !index.isAncestorOrSelf(scope, id) || !nameFilter.test(index.getName(id))) {
+					return true;
+				}
+				paths.add(index.getPath(id));
+				types.add(Integer.valueOf(type));
+				return true;
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		IWorkspaceRoot root = workspace.getRoot();
+		for (int i = 0; i < paths.size() && !monitor.isCanceled(); i++) {
+			IPath path = paths.get(i);
+			IResource resource;
+			switch (types.get(i).intValue()) {
+			case IResource.PROJECT:
+				resource = root.getProject(path.lastSegment());
+				break;
+			case IResource.FOLDER:
+				resource = root.getFolder(path);
+				break;
+			default:
+				resource = root.getFile(path);
+				break;
+			}
+			if (resource.isAccessible()) {
+				collector.accept(resource);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		// the delta must not be used after the notification
+		List<Change> changes = getChanges(delta);
+		if (changes.isEmpty()) {
+			return;
+		}
+		boolean schedule;
+		lock.writeLock().lock();
+		try {
+			if (index == null) {
+				pendingChanges.addAll(changes);
+				return;
+			}
+			schedule = apply(changes);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (schedule) {
+			job.schedule();
+		}
+	}
+
+	private static List<Change> getChanges(IResourceDelta delta) {
+		List<Change> changes = new ArrayList<>();
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				int type = resource.getType();
+				if (type == IResource.ROOT) {
+					return true;
+				}
+				if (child.getKind() == IResourceDelta.REMOVED || !resource.isAccessible()) {
+					changes.add(new Change(Change.REMOVED, resource, false));
+					return false;
+				}
+				if (type == IResource.PROJECT && (child.getKind() == IResourceDelta.ADDED
+						|| (child.getFlags() & IResourceDelta.OPEN) != 0)) {
+					changes.add(new Change(Change.PROJECT_ADDED, resource, false));
+					return false;
+				}
+				if (child.getKind() == IResourceDelta.ADDED) {
+					changes.add(new Change(Change.ADDED, resource, resource.isDerived()));
+				} else if ((child.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0) {
+					changes.add(new Change(Change.DERIVED_CHANGED, resource, resource.isDerived()));
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log("Unable to update the resource name index", e.getStatus()); //$NON-NLS-1$
+		}
+		return changes;
+	}
+
+	/**
+	 * Applies changes to the index, must be called with the write lock held.
+	 *
+	 * @return whether projects have to be traversed
+	 */
+	private boolean apply(List<Change> changes) {
+		List<Integer> removed = new ArrayList<>();
+		boolean traverse = false;
+		for (Change change : changes) {
+			IResource resource = change.resource;
+			switch (change.kind) {
+			case Change.REMOVED: {
+				int id = index.find(resource.getFullPath());
+				if (id != -1) {
+					removed.add(Integer.valueOf(id));
+				}
+				break;
+			}
+			case Change.PROJECT_ADDED:
+				pendingProjects.add((IProject) resource);
+				traverse = true;
+				break;
+			case Change.ADDED:
+				index.add(resource.getFullPath(), resource.getType(), change.derived);
+				break;
+			default: {
+				int id = index.find(resource.getFullPath());
+				if (id != -1) {
+					index.setDerived(id, change.derived);
+				}
+				break;
+			}
+			}
+		}
+		if (!removed.isEmpty()) {
+			index.remove(removed);
+		}
+		if (index.needsCompaction()) {
+			index = index.compact();
+		}
+		return traverse;
+	}
+
+	private void build(IProgressMonitor monitor) {
+		ResourceNameIndex built = null;
+		File file = savedState == null ? null : getIndexFile(savedState.lookup(INDEX_KEY));
+		if (file != null && file.isFile()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				built = ResourceNameIndex.read(in);
+			} catch (IOException e) {
+				// traverse the workspace instead
+			}
+		}
+		boolean restored = built != null;
+		if (!restored) {
+			built = new ResourceNameIndex();
+			for (IProject project : workspace.getRoot().getProjects()) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				traverse(project, built, monitor);
+			}
+		}
+
+		lock.writeLock().lock();
+		try {
+			index = built;
+			apply(pendingChanges);
+			pendingChanges.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (restored) {
+			// bring the persisted index up to date, the deltas since the save are
+			// relative to the current tree and can be applied after the pending ones
+			try {
+				savedState.processResourceChangeEvents(this);
+			} catch (RuntimeException e) {
+				IDEWorkbenchPlugin.log("Unable to update the resource name index", e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void indexPendingProjects(IProgressMonitor monitor) {
+		while (!monitor.isCanceled()) {
+			IProject project;
+			lock.readLock().lock();
+			try {
+				if (pendingProjects.isEmpty()) {
+					return;
+				}
+				project = pendingProjects.iterator().next();
+			} finally {
+				lock.readLock().unlock();
+			}
+
+			ResourceNameIndex projectIndex = new ResourceNameIndex();
+			traverse(project, projectIndex, monitor);
+
+			lock.writeLock().lock();
+			try {
+				if (project.isAccessible()) {
+					merge(projectIndex);
+				}
+				pendingProjects.remove(project);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	private void merge(ResourceNameIndex projectIndex) {
+		// the project index has no removed entries and parents precede children
+		int[] ids = new int[projectIndex.size()];
+		for (int id = 0; id < ids.length; id++) {
+			int parent = projectIndex.getParent(id);
+			ids[id] = index.add(parent == ResourceNameIndex.ROOT ? ResourceNameIndex.ROOT : ids[parent],
+					projectIndex.getName(id), projectIndex.getType(id), projectIndex.isDerived(id));
+		}
+	}
+
+	private static void traverse(IProject project, ResourceNameIndex target, IProgressMonitor monitor) {
+		if (!project.isAccessible()) {
+			return;
+		}
+		try {
+			project.accept(proxy -> {
+				if (monitor.isCanceled()) {
+					return false;
+				}
+				target.add(proxy.requestFullPath(), proxy.getType(), proxy.isDerived());
+				return proxy.getType() != IResource.FILE;
+			}, IResource.NONE);
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log("Unable to index " + project.getName(), e.getStatus()); //$NON-NLS-1$
+		}
+	}
+
+	private static File getIndexFile(IPath relativePath) {
+		if (relativePath == null) {
+			return null;
+		}
+		return IDEWorkbenchPlugin.getDefault().getStateLocation().append(relativePath).toFile();
+	}
+
+	@Override
+	public void prepareToSave(ISaveContext context) {
+		// nothing to prepare
+	}
+
+	@Override
+	public void saving(ISaveContext context) throws CoreException {
+		if (context.getKind() != ISaveContext.FULL_SAVE) {
+			return;
+		}
+		IPath fileName = new Path(INDEX_FILE + '.' + context.getSaveNumber());
+		lock.readLock().lock();
+		try {
+			if (index == null || !pendingProjects.isEmpty()) {
+				// not worth persisting, the next session traverses the workspace
+				return;
+			}
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(getIndexFile(fileName))))) {
+				index.write(out);
+			} catch (IOException e) {
+				IDEWorkbenchPlugin.log("Unable to save the resource name index", e); //$NON-NLS-1$
+				return;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		context.map(INDEX_KEY, fileName);
+		context.needDelta();
+	}
+
+	@Override
+	public void doneSaving(ISaveContext context) {
+		File previous = getIndexFile(new Path(INDEX_FILE + '.' + context.getPreviousSaveNumber()));
+		previous.delete();
+	}
+
+	@Override
+	public void rollback(ISaveContext context) {
+		File current = getIndexFile(new Path(INDEX_FILE + '.' + context.getSaveNumber()));
+		current.delete();
+	}
+
+	/**
+	 * A change of a resource, copied from a resource delta during the
+	 * notification together with the state of the resource at that time.
+	 */
+	private static final class Change {
+
+		static final int ADDED = 0;
+
+		static final int REMOVED = 1;
+
+		static final int DERIVED_CHANGED = 2;
+
+		static final int PROJECT_ADDED = 3;
+
+		final int kind;
+
+		final IResource resource;
+
+		final boolean derived;
+
+		Change(int kind, IResource resource, boolean derived) {
+			this.kind = kind;
+			this.resource = resource;
+			this.derived = derived;
+		}
+	}
+}
@@ -0,0 +1,537 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourceAttributes;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
+
+/**
+ * Copies files and folders of the local file system into a workspace
+ * container, in two phases:
+ * <ol>
+ * <li>{@link #plan(IFileStore[], IProgressMonitor)} walks the sources, and
+ * asks the overwrite query about every existing file and folder before
+ * anything is copied.</li>
+ * <li>{@link #execute(IProgressMonitor)} creates the new folders, copies the
+ * new files concurrently with {@link FileChannel#transferTo}, overwrites
+ * existing files through {@link IFile#setContents}, which keeps their local
+ * history, and refreshes every new resource tree once.</li>
+ * </ol>
+ * <p>
+ * New files are written to a temporary file next to their target and renamed
+ * once complete, so a failed or canceled copy leaves no partial files behind.
+ * Files and folders that exist in the file system but not in the workspace are
+ * treated like existing resources: the query is asked about them, and they are
+ * replaced or merged.
+ * </p>
+ * <p>
+ * Only sources and destinations in the local file system are supported, see
+ * {@link #canCopy(IFileStore[], IContainer)}.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class FileCopyEngine {
+
+	private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final int OVERWRITE_NOT_SET = 0;
+
+	private static final int OVERWRITE_NONE = 1;
+
+	private static final int OVERWRITE_ALL = 2;
+
+	private final IContainer target;
+
+	private final IOverwriteQuery query;
+
+	private final Shell context;
+
+	private int overwriteState = OVERWRITE_NOT_SET;
+
+	/** the new folders, parents first */
+	private final List<Path> folders = new ArrayList<>();
+
+	/** the new files */
+	private final List<Copy> copies = new ArrayList<>();
+
+	/** the existing files to overwrite and their sources */
+	private final List<IFile> overwrites = new ArrayList<>();
+
+	private final List<Path> overwriteSources = new ArrayList<>();
+
+	/** the topmost new resources, to refresh */
+	private final List<IResource> newResources = new ArrayList<>();
+
+	private final Set<Path> foldersVisited = new HashSet<>();
+
+	private final List<IStatus> errors = new ArrayList<>();
+
+	/**
+	 * A file copied through the file system.
+	 */
+	private static final class Copy {
+
+		final Path source;
+
+		final Path target;
+
+		/** whether the target may exist in the file system */
+		final boolean replace;
+
+		Copy(Path source, Path target, boolean replace) {
+			this.source = source;
+			this.target = target;
+			this.replace = replace;
+		}
+	}
+
+	/**
+	 * Creates an engine copying into the given container.
+	 *
+	 * @param target
+	 *            the container to copy to
+	 * @param query
+	 *            the query asked about existing resources
+	 * @param context
+	 *            the shell used to validate edits of read-only files, or
+	 *            <code>null</code>
+	 */
+	public FileCopyEngine(IContainer target, IOverwriteQuery query, Shell context) {
+		this.target = target;
+		this.query = query;
+		this.context = context;
+	}
+
+	/**
+	 * Returns whether the given stores can be copied into the container by an
+	 * engine.
+	 *
+	 * @param stores
+	 *            the files and folders to copy
+	 * @param target
+	 *            the container to copy to
+	 * @return <code>true</code> if the stores and the container are in the
+	 *         local file system
+	 */
+	public static boolean canCopy(IFileStore[] stores, IContainer target) {
+		if (stores.length == 0 || target.getLocation() == null) {
+			return false;
+		}
+		for (IFileStore store : stores) {
+			URI uri = store.toURI();
+			if (uri == null || !EFS.SCHEME_FILE.equals(uri.getScheme())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Walks the stores and decides what to copy, asking the overwrite query
+	 * about existing files and folders.
+	 *
+	 * @param stores
+	 *            the files and folders to copy
+	 * @param monitor
+	 *            the monitor to report to
+	 * @throws OperationCanceledException
+	 *             if the query or the monitor was canceled
+	 */
+	public void plan(IFileStore[] stores, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, stores.length);
+		Path targetLocation = target.getLocation().toFile().toPath();
+		for (IFileStore store : stores) {
+			subMonitor.subTask(store.getName());
+			plan(Paths.get(store.toURI()), target, targetLocation);
+			subMonitor.split(1);
+		}
+	}
+
+	/**
+	 * Plans the copy of a source into a container that exists in the
+	 * workspace.
+	 */
+	private void plan(Path source, IContainer parent, Path parentLocation) {
+		String name = source.getFileName().toString();
+		boolean folder = Files.isDirectory(source);
+		IResource existing = parent.findMember(name);
+		if (existing == null) {
+			Path location = parentLocation.resolve(name);
+			boolean outOfSync = Files.exists(location, LinkOption.NOFOLLOW_LINKS);
+			if (outOfSync) {
+				// not in the workspace yet, ask as if it was
+				if (folder != Files.isDirectory(location, LinkOption.NOFOLLOW_LINKS)) {
+					addError(NLS.bind(FileSystemMessages.FileCopyEngine_typeConflict, source, location), null);
+					return;
+				}
+				if (!queryOverwrite(parent.getFullPath().append(name))) {
+					return;
+				}
+				if (isSameFile(source, location)) {
+					addError(NLS.bind(FileSystemMessages.FileCopyEngine_sameSourceAndTarget, source), null);
+					return;
+				}
+			}
+			if (folder) {
+				newResources.add(parent.getWorkspace().getRoot().getFolder(parent.getFullPath().append(name)));
+				planNew(source, location, outOfSync);
+			} else {
+				newResources.add(parent.getWorkspace().getRoot().getFile(parent.getFullPath().append(name)));
+				copies.add(new Copy(source, location, outOfSync));
+			}
+			return;
+		}
+		if (folder != (existing.getType() != IResource.FILE)) {
+			addError(NLS.bind(FileSystemMessages.FileCopyEngine_typeConflict, source,
+					existing.getFullPath().makeRelative()), null);
+			return;
+		}
+		if (!queryOverwrite(existing.getFullPath())) {
+			return;
+		}
+		IPath location = existing.getLocation();
+		if (location == null) {
+			addError(NLS.bind(IDEWorkbenchMessages.CopyFilesAndFoldersOperation_sourceCannotBeCopiedIntoAVirtualFolder,
+					source), null);
+			return;
+		}
+		Path existingLocation = location.toFile().toPath();
+		if (isSameFile(source, existingLocation)) {
+			addError(NLS.bind(FileSystemMessages.FileCopyEngine_sameSourceAndTarget, source), null);
+			return;
+		}
+		if (!folder) {
+			overwrites.add((IFile) existing);
+			overwriteSources.add(source);
+			return;
+		}
+		// merge
+		if (!visitFolder(source)) {
+			return;
+		}
+		try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+			for (Path child : children) {
+				plan(child, (IContainer) existing, existingLocation);
+			}
+		} catch (IOException e) {
+			addError(NLS.bind(FileSystemMessages.FileCopyEngine_copyError, source, e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Plans the copy of a folder to a location that is not in the workspace.
+	 * With <code>merge</code>, the location may exist in the file system, and
+	 * its files are replaced.
+	 */
+	private void planNew(Path source, Path location, boolean merge) {
+		if (!visitFolder(source)) {
+			return;
+		}
+		folders.add(location);
+		try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+			for (Path child : children) {
+				Path childLocation = location.resolve(child.getFileName().toString());
+				boolean childFolder = Files.isDirectory(child);
+				if (merge && Files.exists(childLocation, LinkOption.NOFOLLOW_LINKS)
+						&& childFolder != Files.isDirectory(childLocation, LinkOption.NOFOLLOW_LINKS)) {
+					addError(NLS.bind(FileSystemMessages.FileCopyEngine_typeConflict, child, childLocation), null);
+				} else if (childFolder) {
+					planNew(child, childLocation, merge);
+				} else {
+					copies.add(new Copy(child, childLocation, merge));
+				}
+			}
+		} catch (IOException e) {
+			addError(NLS.bind(FileSystemMessages.FileCopyEngine_copyError, source, e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Returns <code>false</code> for folders visited before through a link,
+	 * which would not end.
+	 */
+	private boolean visitFolder(Path source) {
+		try {
+			return foldersVisited.add(source.toRealPath());
+		} catch (IOException e) {
+			return foldersVisited.add(source.toAbsolutePath());
+		}
+	}
+
+	private static boolean isSameFile(Path source, Path target) {
+		try {
+			return Files.exists(target) && Files.isSameFile(source, target);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Asks whether to overwrite an existing resource, as the import
+	 * operation.
+	 */
+	private boolean queryOverwrite(IPath resourcePath) {
+		if (overwriteState == OVERWRITE_ALL) {
+			return true;
+		}
+		if (overwriteState == OVERWRITE_NONE) {
+			return false;
+		}
+		String answer = query.queryOverwrite(resourcePath.makeRelative().toString());
+		if (IOverwriteQuery.CANCEL.equals(answer)) {
+			throw new OperationCanceledException();
+		}
+		if (IOverwriteQuery.NO_ALL.equals(answer)) {
+			overwriteState = OVERWRITE_NONE;
+			return false;
+		}
+		if (IOverwriteQuery.ALL.equals(answer)) {
+			overwriteState = OVERWRITE_ALL;
+		}
+		return !IOverwriteQuery.NO.equals(answer);
+	}
+
+	/**
+	 * Copies what was planned. Runs in a workspace operation with the target
+	 * container as its scheduling rule, so that the refreshes are batched.
+	 *
+	 * @param monitor
+	 *            the monitor to report to
+	 * @return the status of the copy, with the problems that occurred while
+	 *         planning or copying
+	 * @throws CoreException
+	 *             if the workspace operation failed
+	 * @throws OperationCanceledException
+	 *             if the monitor was canceled
+	 */
+	public IStatus execute(IProgressMonitor monitor) throws CoreException {
+		IWorkspace workspace = target.getWorkspace();
+		workspace.run(this::copy, target, IWorkspace.AVOID_UPDATE, monitor);
+		if (errors.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		return new MultiStatus(PlatformUI.PLUGIN_ID, IStatus.ERROR, errors.toArray(new IStatus[errors.size()]),
+				IDEWorkbenchMessages.CopyFilesAndFoldersOperation_problemMessage, null);
+	}
+
+	private void copy(IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, IDEWorkbenchMessages.CopyFilesAndFoldersOperation_operationTitle,
+				copies.size() + overwrites.size() + newResources.size());
+		try {
+			for (Path folder : folders) {
+				Files.createDirectories(folder);
+			}
+			copyNewFiles(subMonitor);
+			overwriteFiles(subMonitor);
+		} catch (IOException e) {
+			addError(NLS.bind(FileSystemMessages.FileCopyEngine_copyError, target.getFullPath(), e.getMessage()), e);
+		} finally {
+			// also after cancellation, so that the workspace is in sync
+			for (IResource resource : newResources) {
+				resource.refreshLocal(IResource.DEPTH_INFINITE, null);
+				subMonitor.worked(1);
+			}
+		}
+	}
+
+	private void copyNewFiles(SubMonitor monitor) {
+		if (copies.isEmpty()) {
+			return;
+		}
+		ExecutorService workers = Executors.newFixedThreadPool(Math.min(THREADS, copies.size()), runnable -> {
+			Thread thread = new Thread(runnable, "File Copy"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> results = new ArrayList<>(copies.size());
+			for (Copy copy : copies) {
+				results.add(workers.submit(() -> {
+					copyFile(copy);
+					return null;
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				Path source = copies.get(i).source;
+				monitor.subTask(source.getFileName().toString());
+				try {
+					results.get(i).get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					addError(NLS.bind(FileSystemMessages.FileCopyEngine_copyError, source, cause.getMessage()), cause);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+				monitor.worked(1);
+			}
+		} finally {
+			workers.shutdownNow();
+			// the files are refreshed afterwards, wait until they are complete or
+			// deleted
+			try {
+				workers.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Copies the contents, modification time and permissions of a file. The
+	 * contents are written to a temporary file, which is renamed to the target
+	 * once complete and deleted otherwise, also when the copy is interrupted.
+	 * Called from the worker threads.
+	 */
+	private static void copyFile(Copy copy) throws IOException {
+		Path source = copy.source;
+		Path target = copy.target;
+		Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				long size = in.size();
+				long position = 0;
+				while (position < size) {
+					long transferred = in.transferTo(position, size - position, out);
+					if (transferred <= 0) {
+						// truncated while copying
+						break;
+					}
+					position += transferred;
+				}
+			}
+			if (copy.replace) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			} else {
+				Files.move(temp, target);
+			}
+		} finally {
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException e) {
+				// left behind, the copy failed anyway
+			}
+		}
+		Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+		if (Files.isExecutable(source)) {
+			target.toFile().setExecutable(true);
+		}
+		if (!Files.isWritable(source)) {
+			target.toFile().setWritable(false);
+		}
+	}
+
+	/**
+	 * Overwrites the existing files through the workspace, which keeps their
+	 * local history and lets the team provider validate the edit.
+	 */
+	private void overwriteFiles(SubMonitor monitor) throws CoreException {
+		if (overwrites.isEmpty()) {
+			return;
+		}
+		List<IFile> readOnly = new ArrayList<>();
+		for (IFile file : overwrites) {
+			ResourceAttributes attributes = file.getResourceAttributes();
+			if (attributes != null && attributes.isReadOnly()) {
+				readOnly.add(file);
+			}
+		}
+		Set<IFile> rejected = new HashSet<>();
+		if (!readOnly.isEmpty()) {
+			IStatus status = target.getWorkspace().validateEdit(readOnly.toArray(new IFile[readOnly.size()]), context);
+			if (!status.isOK()) {
+				errors.add(status);
+				// the status doesn't tell which files failed, but the files that
+				// were made editable are still read-only
+				for (IFile file : readOnly) {
+					ResourceAttributes attributes = file.getResourceAttributes();
+					if (attributes == null || attributes.isReadOnly()) {
+						rejected.add(file);
+					}
+				}
+			}
+		}
+		for (int i = 0; i < overwrites.size(); i++) {
+			IFile file = overwrites.get(i);
+			Path source = overwriteSources.get(i);
+			SubMonitor iterationMonitor = monitor.split(1);
+			if (rejected.contains(file)) {
+				continue;
+			}
+			iterationMonitor.subTask(source.getFileName().toString());
+			try (InputStream contents = Files.newInputStream(source)) {
+				if (file.isLinked()) {
+					file.delete(true, null);
+					file.create(contents, false, null);
+				} else {
+					file.setContents(contents, IResource.KEEP_HISTORY, null);
+				}
+				file.setResourceAttributes(ResourceAttributes.fromFile(source.toFile()));
+				file.setLocalTimeStamp(Files.getLastModifiedTime(source).toMillis());
+			} catch (CoreException e) {
+				errors.add(e.getStatus());
+			} catch (IOException e) {
+				addError(NLS.bind(FileSystemMessages.FileCopyEngine_copyError, source, e.getMessage()), e);
+			}
+		}
+	}
+
+	private void addError(String message, Throwable exception) {
+		errors.add(new Status(IStatus.ERROR, PlatformUI.PLUGIN_ID, message, exception));
+	}
+}
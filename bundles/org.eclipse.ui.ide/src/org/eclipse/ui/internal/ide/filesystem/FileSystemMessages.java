@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,4 +46,20 @@ public class FileSystemMessages extends NLS{
 	 * The message for file system extension creation error.
 	 */
 	public static String FileSystemSupportRegistry_e_creating_extension;
+
+	/**
+	 * The message for a file that would be copied over a folder, or a folder
+	 * over a file.
+	 */
+	public static String FileCopyEngine_typeConflict;
+
+	/**
+	 * The message for a file that would be copied onto itself.
+	 */
+	public static String FileCopyEngine_sameSourceAndTarget;
+
+	/**
+	 * The message for a file that could not be copied.
+	 */
+	public static String FileCopyEngine_copyError;
 }
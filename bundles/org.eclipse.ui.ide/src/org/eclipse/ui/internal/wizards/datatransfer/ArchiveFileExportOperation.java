@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,16 @@ package org.eclipse.ui.internal.wizards.datatransfer;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.text.NumberFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -60,6 +67,37 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
 	private boolean createLeadupStructure = true;
 
+	private boolean useParallelExport = false;
+
+	/**
+	 * The threads reading and compressing files in parallel, or
+	 * <code>null</code>
+	 */
+	private ExecutorService workers;
+
+	private int maxPending;
+
+	/**
+	 * The files being prepared by the workers, in the order they are written
+	 */
+	private Deque<PendingFile> pending;
+
+	private long startTime;
+
+	private static final class PendingFile {
+		final IFile file;
+
+		final String destinationName;
+
+		final Future<Object> entry;
+
+		PendingFile(IFile file, String destinationName, Future<Object> entry) {
+			this.file = file;
+			this.destinationName = destinationName;
+			this.entry = entry;
+		}
+	}
+
 	/**
 	 *	Create an instance of this class.  Use this constructor if you wish to
 	 *	export specific resources without a common parent resource
@@ -195,7 +233,16 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
 		if (exportResource.getType() == IResource.FILE) {
 			String destinationName = createDestinationName(leadupDepth, exportResource);
-			monitor.subTask(destinationName);
+			if (workers != null) {
+				IFile file = (IFile) exportResource;
+				IParallelFileExporter parallelExporter = (IParallelFileExporter) exporter;
+				pending.addLast(new PendingFile(file, destinationName,
+						workers.submit(() -> parallelExporter.prepare(file, destinationName))));
+				writePending(maxPending);
+				ModalContext.checkCanceled(monitor);
+				return;
+			}
+			reportProgress(destinationName);
 
 			try {
 				exporter.write((IFile) exportResource, destinationName);
@@ -217,6 +264,10 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
 			if (children.length == 0) { // create an entry for empty containers, see bug 278402
 				String destinationName = createDestinationName(leadupDepth, exportResource);
+				if (workers != null) {
+					// keep the entries in order
+					writePending(0);
+				}
 				try {
 					exporter.write((IContainer) exportResource, destinationName + IPath.SEPARATOR);
 				} catch (IOException e) {
@@ -231,6 +282,69 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 		}
 	}
 
+	/**
+	 * Write the files prepared by the workers to the archive, in order, until
+	 * at most the given number is left pending.
+	 */
+	private void writePending(int maxRemaining) throws InterruptedException {
+		IParallelFileExporter parallelExporter = (IParallelFileExporter) exporter;
+		while (pending.size() > maxRemaining) {
+			PendingFile next = pending.removeFirst();
+			reportProgress(next.destinationName);
+			try {
+				Object entry = getPrepared(next.entry);
+				if (entry == null) {
+					exporter.write(next.file, next.destinationName);
+				} else {
+					parallelExporter.writePrepared(entry);
+				}
+			} catch (IOException | CoreException e) {
+				addError(NLS.bind(DataTransferMessages.DataTransfer_errorExporting, next.file.getFullPath().makeRelative(), e.getMessage()), e);
+			}
+			monitor.worked(1);
+		}
+	}
+
+	private static Object getPrepared(Future<Object> entry)
+			throws IOException, CoreException, InterruptedException {
+		try {
+			return entry.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Show the name of the file being written, and the number of bytes of file
+	 * contents written per second so far.
+	 */
+	private void reportProgress(String destinationName) {
+		long length = exporter.getExportedLength();
+		long elapsed = System.nanoTime() - startTime;
+		if (length <= 0 || elapsed <= 0) {
+			monitor.subTask(destinationName);
+			return;
+		}
+		double megabytesPerSecond = length * 1e9 / elapsed / (1024 * 1024);
+		NumberFormat format = NumberFormat.getNumberInstance();
+		format.setMaximumFractionDigits(1);
+		monitor.subTask(NLS.bind(DataTransferMessages.ArchiveExport_throughput, destinationName,
+				format.format(megabytesPerSecond)));
+	}
+
 	/**
 	 *	Export the resources contained in the previously-defined
 	 *	resourcesToExport collection
@@ -270,12 +384,43 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 	 */
 	protected void initialize() throws IOException {
 		if(useTarFormat) {
-			exporter = new TarFileExporter(destinationFilename, useCompression, resolveLinks);
+			exporter = new TarFileExporter(destinationFilename, useCompression, resolveLinks, useParallelExport);
 		} else {
-			exporter = new ZipFileExporter(destinationFilename, useCompression, resolveLinks);
+			exporter = new ZipFileExporter(destinationFilename, useCompression, resolveLinks, useParallelExport);
 		}
 	}
 
+	/**
+	 * Start the threads that read and compress files in parallel, if the
+	 * exporter supports it.
+	 */
+	private void startWorkers() {
+		if (!useParallelExport || !(exporter instanceof IParallelFileExporter)) {
+			return;
+		}
+		int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+		workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Archive Export"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		// bounds the memory held by prepared entries
+		maxPending = 2 * threads;
+		pending = new ArrayDeque<>(maxPending + 1);
+	}
+
+	private void stopWorkers() {
+		if (workers == null) {
+			return;
+		}
+		for (PendingFile file : pending) {
+			file.entry.cancel(true);
+		}
+		pending = null;
+		workers.shutdownNow();
+		workers = null;
+	}
+
 	/**
 	 *  Answer a boolean indicating whether the passed child is a descendent
 	 *  of one or more members of the passed resources collection
@@ -312,6 +457,8 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 			throw new InvocationTargetException(e, NLS.bind(DataTransferMessages.ZipExport_cannotOpen, e.getMessage()));
 		}
 
+		startTime = System.nanoTime();
+		startWorkers();
 		try {
 			// ie.- a single resource for recursive export was specified
 			int totalWork = IProgressMonitor.UNKNOWN;
@@ -331,6 +478,9 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 				// ie.- a list of specific resources to export was specified
 				exportSpecifiedResources();
 			}
+			if (workers != null) {
+				writePending(0);
+			}
 
 			try {
 				exporter.finished();
@@ -340,6 +490,7 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 						NLS.bind(DataTransferMessages.ZipExport_cannotClose, e.getMessage()));
 			}
 		} finally {
+			stopWorkers();
 			monitor.done();
 		}
 	}
@@ -374,6 +525,21 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 		useTarFormat = value;
 	}
 
+	/**
+	 * Set this boolean indicating whether files should be read and compressed
+	 * on several threads, and appended to the archive in order. Files too
+	 * large to keep in memory are still written on the calling thread. A
+	 * compressed tar archive is larger then, as every entry is compressed on
+	 * its own. Off by default.
+	 *
+	 * @param value
+	 *            boolean
+	 * @since 3.21
+	 */
+	public void setUseParallelExport(boolean value) {
+		useParallelExport = value;
+	}
+
 	/**
 	 * Set this boolean indicating whether linked resources should be resolved
 	 * and exported (as opposed to simply ignored)
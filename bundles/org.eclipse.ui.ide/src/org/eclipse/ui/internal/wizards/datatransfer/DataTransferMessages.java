@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -153,6 +153,8 @@ public class DataTransferMessages extends NLS {
 	public static String ArchiveExport_destinationEmpty;
 	public static String ArchiveExport_saveInZipFormat;
 	public static String ArchiveExport_saveInTarFormat;
+	public static String ArchiveExport_parallelCompression;
+	public static String ArchiveExport_throughput;
 
 	public static String TarImport_invalid_tar_format;
 
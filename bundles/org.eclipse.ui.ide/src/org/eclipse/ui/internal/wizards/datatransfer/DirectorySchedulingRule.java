@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+/**
+ * Scheduling rule of a directory being imported. Two such rules only conflict
+ * when one directory is the same as or contains the other, so that disjoint
+ * subtrees are imported in parallel. Workspace resources conflict with it when
+ * they are located in the subtree, or when their location can't tell.
+ */
+public class DirectorySchedulingRule implements ISchedulingRule {
+
+	private final String path;
+
+	/**
+	 * @param resource the resource whose location is the directory
+	 */
+	public DirectorySchedulingRule(IResource resource) {
+		this.path = SmartImportWizard.toAbsolutePath(resource);
+	}
+
+	@Override
+	public boolean contains(ISchedulingRule rule) {
+		if (rule == this || rule instanceof IResource) {
+			// the workspace operations run by the import are nested in this rule
+			return true;
+		} else if (rule instanceof DirectorySchedulingRule) {
+			return isInSubtree(((DirectorySchedulingRule) rule).path, this.path);
+		} else if (rule instanceof MultiRule) {
+			for (ISchedulingRule child : ((MultiRule) rule).getChildren()) {
+				if (!this.contains(child)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isConflicting(ISchedulingRule rule) {
+		if (rule instanceof DirectorySchedulingRule) {
+			return overlaps(((DirectorySchedulingRule) rule).path);
+		} else if (rule instanceof IResource) {
+			if (rule instanceof IWorkspaceRoot) {
+				return true;
+			}
+			IPath location = ((IResource) rule).getLocation();
+			return location == null || overlaps(location.toFile().getAbsolutePath());
+		} else if (rule instanceof MultiRule) {
+			for (ISchedulingRule child : ((MultiRule) rule).getChildren()) {
+				if (this.isConflicting(child)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean overlaps(String otherPath) {
+		return isInSubtree(otherPath, this.path) || isInSubtree(this.path, otherPath);
+	}
+
+	private static boolean isInSubtree(String path, String directory) {
+		String prefix = directory.endsWith(File.separator) ? directory : directory + File.separator;
+		return path.equals(directory) || path.startsWith(prefix);
+	}
+
+	@Override
+	public String toString() {
+		return "DirectorySchedulingRule(" + this.path + ')'; //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.statushandlers.StatusManager;
+import org.eclipse.ui.wizards.datatransfer.IDirectorySnapshot;
+
+/**
+ * The {@link IDirectorySnapshot} of a smart import, listed in parallel with
+ * the pruning of {@link ProjectFileCrawler}.
+ *
+ * @since 3.21
+ */
+public final class DirectorySnapshot implements IDirectorySnapshot {
+
+	private static final int PARALLELISM = Math.min(8, 2 * Runtime.getRuntime().availableProcessors());
+
+	private static final String[] NO_NAMES = new String[0];
+
+	private final Path root;
+
+	private final Map<Path, Listing> listings;
+
+	private DirectorySnapshot(Path root, Map<Path, Listing> listings) {
+		this.root = root;
+		this.listings = listings;
+	}
+
+	/**
+	 * Lists the directories below the given root.
+	 *
+	 * @param root
+	 *            the directory to list
+	 * @param monitor
+	 *            the monitor to report to and to check for cancellation, the
+	 *            snapshot is incomplete when canceled
+	 * @return the snapshot
+	 */
+	public static DirectorySnapshot create(File root, IProgressMonitor monitor) {
+		Path rootPath = toPath(root);
+		Map<Path, Listing> listings = new ConcurrentHashMap<>();
+		if (Files.isDirectory(rootPath) && Files.isReadable(rootPath)) {
+			ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+			try {
+				pool.invoke(new ListingTask(rootPath, listings, ConcurrentHashMap.newKeySet(), monitor));
+			} finally {
+				pool.shutdown();
+			}
+		}
+		return new DirectorySnapshot(rootPath, Collections.unmodifiableMap(listings));
+	}
+
+	@Override
+	public File getRoot() {
+		return root.toFile();
+	}
+
+	@Override
+	public boolean isListed(File directory) {
+		return listings.containsKey(toPath(directory));
+	}
+
+	@Override
+	public boolean exists(File directory, String name) {
+		Listing listing = listings.get(toPath(directory));
+		if (listing == null) {
+			return new File(directory, name).exists();
+		}
+		return listing.hasFile(name) || listing.hasDirectory(name);
+	}
+
+	@Override
+	public boolean isFile(File directory, String name) {
+		Listing listing = listings.get(toPath(directory));
+		if (listing == null) {
+			return new File(directory, name).isFile();
+		}
+		return listing.hasFile(name);
+	}
+
+	@Override
+	public List<String> getFileNames(File directory, String glob) {
+		PathMatcher matcher = toMatcher(glob);
+		Listing listing = listings.get(toPath(directory));
+		String[] names;
+		if (listing != null) {
+			names = listing.files;
+		} else {
+			File[] files = directory.listFiles(File::isFile);
+			names = NO_NAMES;
+			if (files != null) {
+				names = new String[files.length];
+				for (int i = 0; i < files.length; i++) {
+					names[i] = files[i].getName();
+				}
+				Arrays.sort(names);
+			}
+		}
+		List<String> res = new ArrayList<>();
+		for (String name : names) {
+			if (matcher.matches(Paths.get(name))) {
+				res.add(name);
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public Set<File> findDirectories(File directory, String glob) {
+		Path path = toPath(directory);
+		PathMatcher matcher = toMatcher(glob);
+		Set<File> res = new TreeSet<>();
+		listings.forEach((listed, listing) -> {
+			if (!listed.startsWith(path)) {
+				return;
+			}
+			for (String name : listing.files) {
+				if (matcher.matches(Paths.get(name))) {
+					res.add(listed.toFile());
+					break;
+				}
+			}
+		});
+		return res;
+	}
+
+	private static PathMatcher toMatcher(String glob) {
+		return FileSystems.getDefault().getPathMatcher("glob:" + glob); //$NON-NLS-1$
+	}
+
+	private static Path toPath(File file) {
+		return file.getAbsoluteFile().toPath().normalize();
+	}
+
+	private static final class Listing {
+
+		final String[] files;
+
+		final String[] directories;
+
+		Listing(List<String> files, List<String> directories) {
+			this.files = files.toArray(new String[files.size()]);
+			this.directories = directories.toArray(new String[directories.size()]);
+			Arrays.sort(this.files);
+			Arrays.sort(this.directories);
+		}
+
+		boolean hasFile(String name) {
+			return Arrays.binarySearch(files, name) >= 0;
+		}
+
+		boolean hasDirectory(String name) {
+			return Arrays.binarySearch(directories, name) >= 0;
+		}
+	}
+
+	private static final class ListingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+
+		private final Map<Path, Listing> listings;
+
+		private final Set<String> directoriesVisited;
+
+		private final IProgressMonitor monitor;
+
+		ListingTask(Path directory, Map<Path, Listing> listings, Set<String> directoriesVisited,
+				IProgressMonitor monitor) {
+			this.directory = directory;
+			this.listings = listings;
+			this.directoriesVisited = directoriesVisited;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled() || !visit()) {
+				return;
+			}
+			synchronized (monitor) {
+				monitor.subTask(NLS.bind(DataTransferMessages.WizardProjectsImportPage_CheckingMessage, directory));
+			}
+			List<String> files = new ArrayList<>();
+			List<String> directories = new ArrayList<>();
+			List<ListingTask> tasks = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path child : stream) {
+					BasicFileAttributes attributes = ProjectFileCrawler.readAttributes(child);
+					if (attributes == null) {
+						continue;
+					}
+					String name = child.getFileName().toString();
+					if (attributes.isDirectory()) {
+						directories.add(name);
+						if (!ProjectFileCrawler.isPruned(child, directory)) {
+							tasks.add(new ListingTask(child, listings, directoriesVisited, monitor));
+						}
+					} else if (attributes.isRegularFile()) {
+						files.add(name);
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				// not readable, left to the file system
+				return;
+			}
+			listings.put(directory, new Listing(files, directories));
+			invokeAll(tasks);
+		}
+
+		private boolean visit() {
+			try {
+				// follow links, cycles are caught by the canonical paths
+				return directoriesVisited.add(directory.toFile().getCanonicalPath());
+			} catch (IOException exception) {
+				StatusManager.getManager().handle(StatusUtil.newError(exception));
+				return true;
+			}
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+import org.eclipse.ui.wizards.datatransfer.IDirectorySnapshot;
 import org.eclipse.ui.wizards.datatransfer.ProjectConfigurator;
 
 /**
@@ -41,6 +42,14 @@ import org.eclipse.ui.wizards.datatransfer.ProjectConfigurator;
  */
 public class EclipseProjectConfigurator implements ProjectConfigurator {
 
+	@Override
+	public Set<File> findConfigurableLocations(File root, IDirectorySnapshot snapshot, IProgressMonitor monitor) {
+		if (snapshot.isListed(root)) {
+			return new LinkedHashSet<>(snapshot.findDirectories(root, IProjectDescription.DESCRIPTION_FILE_NAME));
+		}
+		return findConfigurableLocations(root, monitor);
+	}
+
 	@Override
 	public Set<File> findConfigurableLocations(File root, IProgressMonitor monitor) {
 		Set<File> projectFiles = new LinkedHashSet<>();
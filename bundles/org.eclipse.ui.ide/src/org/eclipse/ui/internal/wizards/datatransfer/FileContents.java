@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Reads the contents of files to export. Files in the local file system that
+ * are in sync with the workspace are read through file channels; other files
+ * are read with {@link IFile#getContents(boolean)}, which also reports files
+ * that are out of sync.
+ *
+ * @since 3.21
+ */
+final class FileContents {
+
+	/**
+	 * The largest file that is read into memory to be compressed on a worker
+	 * thread.
+	 */
+	static final int MAX_PREPARED_LENGTH = 4 * 1024 * 1024;
+
+	private FileContents() {
+		// static methods only
+	}
+
+	/**
+	 * Reads the contents of a local file into memory.
+	 *
+	 * @param file
+	 *            the file to read
+	 * @param maxLength
+	 *            the largest number of bytes to read
+	 * @return the contents, or <code>null</code> if the file is not local, is
+	 *         out of sync, or is larger than <code>maxLength</code>
+	 * @throws IOException
+	 *             if the file could not be read
+	 */
+	static byte[] read(IFile file, int maxLength) throws IOException {
+		Path path = getLocalPath(file);
+		if (path == null) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > maxLength) {
+				return null;
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// fill the buffer
+			}
+			if (buffer.hasRemaining()) {
+				// truncated while reading
+				return Arrays.copyOf(buffer.array(), buffer.position());
+			}
+			return buffer.array();
+		}
+	}
+
+	/**
+	 * Opens the contents of a file.
+	 *
+	 * @param file
+	 *            the file to read
+	 * @return the stream of the contents, to be closed by the caller
+	 * @throws IOException
+	 *             if the local file could not be opened
+	 * @throws CoreException
+	 *             if the contents could not be opened
+	 */
+	static InputStream open(IFile file) throws IOException, CoreException {
+		Path path = getLocalPath(file);
+		if (path == null) {
+			return file.getContents(false);
+		}
+		return Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ));
+	}
+
+	private static Path getLocalPath(IFile file) {
+		URI location = file.getLocationURI();
+		if (location == null || !EFS.SCHEME_FILE.equals(location.getScheme())
+				|| !file.isSynchronized(IResource.DEPTH_ZERO)) {
+			return null;
+		}
+		try {
+			return Paths.get(location);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates a gzip file, which may consist of several concatenated members,
+ * starting at any of its members. Unlike {@link java.util.zip.GZIPInputStream},
+ * this stream tells where the member being read starts in the file and in the
+ * uncompressed data, so that a later stream can resume reading there.
+ * <p>
+ * The inflater state inside a member cannot be restored with
+ * {@link Inflater}, so members are the only points where reading can resume.
+ * </p>
+ *
+ * @since 3.21
+ */
+final class GzipMembersInputStream extends InputStream {
+
+	private static final int MAGIC = 0x8b1f;
+
+	private static final int DEFLATED = 8;
+
+	private static final int FHCRC = 2;
+
+	private static final int FEXTRA = 4;
+
+	private static final int FNAME = 8;
+
+	private static final int FCOMMENT = 16;
+
+	private final FileChannel channel;
+
+	private final byte[] buffer = new byte[65536];
+
+	private int bufferPosition;
+
+	private int bufferLength;
+
+	/** the file offset of the byte after the buffer */
+	private long filePosition;
+
+	private final Inflater inflater = new Inflater(true);
+
+	private final CRC32 crc = new CRC32();
+
+	private long position;
+
+	private long memberFileOffset;
+
+	private long memberOffset;
+
+	private boolean eof;
+
+	/**
+	 * Creates a stream reading the given file from the start of a member.
+	 *
+	 * @param channel
+	 *            the file to read, which is not closed by this stream
+	 * @param fileOffset
+	 *            the offset of the member in the file
+	 * @param offset
+	 *            the offset of the member in the uncompressed data
+	 * @throws IOException
+	 *             if there is no member at the offset
+	 */
+	GzipMembersInputStream(FileChannel channel, long fileOffset, long offset) throws IOException {
+		this.channel = channel;
+		this.filePosition = fileOffset;
+		this.position = offset;
+		boolean valid = false;
+		try {
+			valid = readHeader(true);
+		} finally {
+			if (!valid) {
+				// the inflater holds native memory until it is ended
+				inflater.end();
+			}
+		}
+		if (!valid) {
+			throw new ZipException("Not in GZIP format"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return the offset in the uncompressed data of the next byte read
+	 */
+	long getPosition() {
+		return position;
+	}
+
+	/**
+	 * @return the offset in the file of the member being read
+	 */
+	long getMemberFileOffset() {
+		return memberFileOffset;
+	}
+
+	/**
+	 * @return the offset in the uncompressed data of the member being read
+	 */
+	long getMemberOffset() {
+		return memberOffset;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (!eof) {
+			if (inflater.needsInput()) {
+				if (!fill()) {
+					throw new EOFException("Unexpected end of ZLIB input stream"); //$NON-NLS-1$
+				}
+				inflater.setInput(buffer, bufferPosition, bufferLength - bufferPosition);
+				bufferPosition = bufferLength;
+			}
+			int n;
+			try {
+				n = inflater.inflate(b, off, len);
+			} catch (DataFormatException e) {
+				String message = e.getMessage();
+				throw new ZipException(message != null ? message : "Invalid ZLIB data format"); //$NON-NLS-1$
+			}
+			if (n > 0) {
+				crc.update(b, off, n);
+				position += n;
+				return n;
+			}
+			if (inflater.finished()) {
+				bufferPosition = bufferLength - inflater.getRemaining();
+				readTrailer();
+				inflater.reset();
+				crc.reset();
+				eof = !readHeader(false);
+			} else if (inflater.needsDictionary()) {
+				throw new ZipException("Invalid ZLIB data format"); //$NON-NLS-1$
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] skipBuffer = new byte[8192];
+		long skipped = 0;
+		while (skipped < n) {
+			int read = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, n - skipped));
+			if (read < 0) {
+				break;
+			}
+			skipped += read;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return eof ? 0 : 1;
+	}
+
+	@Override
+	public void close() {
+		eof = true;
+		inflater.end();
+	}
+
+	private boolean fill() throws IOException {
+		if (bufferPosition < bufferLength) {
+			return true;
+		}
+		int n = channel.read(ByteBuffer.wrap(buffer), filePosition);
+		if (n <= 0) {
+			return false;
+		}
+		filePosition += n;
+		bufferPosition = 0;
+		bufferLength = n;
+		return true;
+	}
+
+	private int readByte() throws IOException {
+		if (!fill()) {
+			throw new EOFException();
+		}
+		return buffer[bufferPosition++] & 0xff;
+	}
+
+	private int readShort() throws IOException {
+		return readByte() | (readByte() << 8);
+	}
+
+	private long readInt() throws IOException {
+		return readShort() | ((long) readShort() << 16);
+	}
+
+	/**
+	 * Reads the header of the next member.
+	 *
+	 * @return <code>false</code> if there is no further member
+	 */
+	private boolean readHeader(boolean first) throws IOException {
+		if (!fill()) {
+			if (first) {
+				throw new EOFException();
+			}
+			return false;
+		}
+		memberFileOffset = filePosition - (bufferLength - bufferPosition);
+		memberOffset = position;
+		int magic;
+		try {
+			magic = readShort();
+		} catch (EOFException e) {
+			if (first) {
+				throw e;
+			}
+			return false;
+		}
+		if (magic != MAGIC) {
+			if (first) {
+				throw new ZipException("Not in GZIP format"); //$NON-NLS-1$
+			}
+			// trailing garbage, as GZIPInputStream
+			return false;
+		}
+		if (readByte() != DEFLATED) {
+			throw new ZipException("Unsupported compression method"); //$NON-NLS-1$
+		}
+		int flags = readByte();
+		// modification time, extra flags and operating system
+		for (int i = 0; i < 6; i++) {
+			readByte();
+		}
+		if ((flags & FEXTRA) != 0) {
+			for (int length = readShort(); length > 0; length--) {
+				readByte();
+			}
+		}
+		if ((flags & FNAME) != 0) {
+			while (readByte() != 0) {
+				// skip the name
+			}
+		}
+		if ((flags & FCOMMENT) != 0) {
+			while (readByte() != 0) {
+				// skip the comment
+			}
+		}
+		if ((flags & FHCRC) != 0) {
+			readShort();
+		}
+		return true;
+	}
+
+	private void readTrailer() throws IOException {
+		if (readInt() != crc.getValue() || readInt() != (inflater.getBytesWritten() & 0xffffffffL)) {
+			throw new ZipException("Corrupt GZIP trailer"); //$NON-NLS-1$
+		}
+	}
+}
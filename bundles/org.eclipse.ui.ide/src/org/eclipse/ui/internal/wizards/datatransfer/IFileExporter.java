@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -56,4 +56,15 @@ public interface IFileExporter {
 	public void write(IFile resource, String destinationPath)
 		throws IOException, CoreException;
 
+	/**
+	 * Returns the number of bytes of file contents written to the archive so
+	 * far, before compression.
+	 *
+	 * @return the number of bytes, or <code>-1</code> if not known
+	 * @since 3.21
+	 */
+	public default long getExportedLength() {
+		return -1;
+	}
+
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.IOException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * A file exporter that can read and compress files on other threads, and
+ * append them to the archive in the order in which they were exported.
+ *
+ * @since 3.21
+ */
+public interface IParallelFileExporter extends IFileExporter {
+
+	/**
+	 * Reads and, if requested, compresses the contents of the file into an
+	 * entry of the archive. Called from worker threads, concurrently for
+	 * different files.
+	 *
+	 * @param resource
+	 *            the file to export
+	 * @param destinationPath
+	 *            the name of the entry
+	 * @return the entry to pass to {@link #writePrepared(Object)}, or
+	 *         <code>null</code> if the file must be written with
+	 *         {@link #write(IFile, String)}, for example because it is too
+	 *         large to keep in memory
+	 * @throws IOException
+	 *             if the contents could not be read
+	 * @throws CoreException
+	 *             if the contents could not be read
+	 */
+	public Object prepare(IFile resource, String destinationPath) throws IOException, CoreException;
+
+	/**
+	 * Appends an entry returned by {@link #prepare(IFile, String)} to the
+	 * archive. Called on the thread that writes the archive.
+	 *
+	 * @param preparedEntry
+	 *            the entry to append
+	 * @throws IOException
+	 *             if the entry could not be written
+	 */
+	public void writePrepared(Object preparedEntry) throws IOException;
+}
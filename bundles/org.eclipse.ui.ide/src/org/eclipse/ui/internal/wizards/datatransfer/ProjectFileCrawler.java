@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+/**
+ * Finds the project description files below a directory. Directories are
+ * listed with NIO directory streams by the tasks of a work-stealing pool, so
+ * that listing slow file systems, such as network drives, overlaps, and every
+ * file found is reported as soon as it is found.
+ * <p>
+ * Directories that cannot contain projects to import are pruned: workspace
+ * metadata, version control metadata, <code>node_modules</code>, and the
+ * <code>target</code> folder of Maven projects.
+ * </p>
+ *
+ * @since 3.21
+ */
+final class ProjectFileCrawler {
+
+	private static final Set<String> PRUNED_DIRECTORIES = Set.of(WizardProjectsImportPage.METADATA_FOLDER,
+			".git", ".hg", ".svn", "node_modules"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private static final String MAVEN_OUTPUT = "target"; //$NON-NLS-1$
+
+	private static final String MAVEN_POM = "pom.xml"; //$NON-NLS-1$
+
+	private static final int PARALLELISM = Math.min(8, 2 * Runtime.getRuntime().availableProcessors());
+
+	private final boolean nestedProjects;
+
+	private final IProgressMonitor monitor;
+
+	private final Consumer<File> listener;
+
+	private final Set<String> directoriesVisited = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param nestedProjects
+	 *            whether to look for projects inside projects
+	 * @param monitor
+	 *            the monitor to report to and to check for cancellation
+	 * @param listener
+	 *            receives every project description file found; called from
+	 *            the threads of the pool
+	 */
+	ProjectFileCrawler(boolean nestedProjects, IProgressMonitor monitor, Consumer<File> listener) {
+		this.nestedProjects = nestedProjects;
+		this.monitor = monitor;
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the canonical paths of the directories visited, which are not
+	 * visited again.
+	 *
+	 * @return the modifiable set of canonical paths
+	 */
+	Set<String> getDirectoriesVisited() {
+		return directoriesVisited;
+	}
+
+	/**
+	 * Finds the project description files below the given directory, and
+	 * returns when all have been reported.
+	 *
+	 * @param directory
+	 *            the directory to search
+	 * @return <code>false</code> if the search was canceled or the directory
+	 *         could not be listed
+	 */
+	boolean crawl(File directory) {
+		if (monitor.isCanceled() || !directory.isDirectory() || !Files.isReadable(directory.toPath())) {
+			return false;
+		}
+		ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+		try {
+			pool.invoke(new DirectoryTask(directory.toPath()));
+		} finally {
+			pool.shutdown();
+		}
+		return !monitor.isCanceled();
+	}
+
+	/**
+	 * Returns whether the given directory cannot contain projects to import.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @param parent
+	 *            the directory containing it
+	 * @return <code>true</code> if the directory is not to be searched
+	 */
+	static boolean isPruned(Path directory, Path parent) {
+		String name = directory.getFileName().toString();
+		if (PRUNED_DIRECTORIES.contains(name)) {
+			return true;
+		}
+		return name.equals(MAVEN_OUTPUT) && Files.isRegularFile(parent.resolve(MAVEN_POM));
+	}
+
+	private boolean visit(Path directory) {
+		try {
+			return directoriesVisited.add(directory.toFile().getCanonicalPath());
+		} catch (IOException exception) {
+			StatusManager.getManager().handle(StatusUtil.newError(exception));
+			return true;
+		}
+	}
+
+	static BasicFileAttributes readAttributes(Path file) {
+		try {
+			// follow links, cycles are caught by the canonical paths
+			return Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (IOException e) {
+			try {
+				// a broken link
+				return Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			} catch (IOException e1) {
+				return null;
+			}
+		}
+	}
+
+	private final class DirectoryTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+
+		DirectoryTask(Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled() || !visit(directory)) {
+				return;
+			}
+			synchronized (monitor) {
+				monitor.subTask(NLS.bind(DataTransferMessages.WizardProjectsImportPage_CheckingMessage, directory));
+			}
+			List<Path> directories = new ArrayList<>();
+			Path projectFile = null;
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path child : stream) {
+					BasicFileAttributes attributes = readAttributes(child);
+					if (attributes == null) {
+						continue;
+					}
+					if (attributes.isDirectory()) {
+						if (!isPruned(child, directory)) {
+							directories.add(child);
+						}
+					} else if (attributes.isRegularFile() && child.getFileName().toString()
+							.equals(IProjectDescription.DESCRIPTION_FILE_NAME)) {
+						projectFile = child;
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				// not readable, as File.listFiles() returning null
+				return;
+			}
+			if (projectFile != null) {
+				listener.accept(projectFile.toFile());
+				if (!nestedProjects) {
+					return;
+				}
+			}
+			List<DirectoryTask> tasks = new ArrayList<>(directories.size());
+			for (Path child : directories) {
+				tasks.add(new DirectoryTask(child));
+			}
+			invokeAll(tasks);
+		}
+	}
+}
@@ -27,6 +27,9 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFolder;
@@ -44,7 +47,11 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.osgi.util.NLS;
@@ -52,6 +59,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+import org.eclipse.ui.internal.ide.Policy;
 import org.eclipse.ui.wizards.datatransfer.ProjectConfigurator;
 
 /**
@@ -66,6 +74,11 @@ import org.eclipse.ui.wizards.datatransfer.ProjectConfigurator;
  */
 public class SmartImportJob extends Job {
 
+	/**
+	 * The maximum number of jobs crawling disjoint subtrees at the same time.
+	 */
+	private static final int MAX_CRAWLERS = Math.min(8, Runtime.getRuntime().availableProcessors());
+
 	/*
 	 * Input parameters
 	 */
@@ -92,6 +105,9 @@ public class SmartImportJob extends Job {
 	private Map<IPath, Exception> errors;
 
 	private JobGroup crawlerJobGroup;
+	private Semaphore crawlerSlots;
+	private Set<IPath> refreshedContainers;
+	private Map<String, AtomicLong> configuratorCosts;
 
 	/**
 	 * Builds a new instance of the job
@@ -115,7 +131,11 @@ public class SmartImportJob extends Job {
 		this.deepChildrenDetection = recuriveChildrenDetection;
 		this.report = Collections.synchronizedMap(new HashMap<IProject, List<ProjectConfigurator>>());
 		this.errors = Collections.synchronizedMap(new HashMap<IPath, Exception>());
-		this.crawlerJobGroup = new JobGroup(DataTransferMessages.SmartImportJob_detectAndConfigureProjects, 0, 1);
+		this.crawlerJobGroup = new JobGroup(DataTransferMessages.SmartImportJob_detectAndConfigureProjects,
+				MAX_CRAWLERS, 1);
+		this.crawlerSlots = new Semaphore(MAX_CRAWLERS);
+		this.refreshedContainers = ConcurrentHashMap.newKeySet();
+		this.configuratorCosts = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -181,6 +201,7 @@ public class SmartImportJob extends Job {
 				description.setAutoBuilding(false);
 				workspace.setDescription(description);
 			}
+			this.refreshedContainers.clear();
 
 			if (directoriesToImport != null) {
 				this.deepChildrenDetection = false;
@@ -236,7 +257,7 @@ public class SmartImportJob extends Job {
 							}
 						};
 						// Job1 on path1 and Job2 on path2 can be run in parallel IFF path1 isn't a prefix of path2 and vice-versa
-						directoryJob.setRule(new SubdirectoryOrSameNameSchedulingRule(newProject));
+						directoryJob.setRule(new DirectorySchedulingRule(newProject));
 						directoryJob.setUser(true);
 						directoryJob.setJobGroup(multiDirectoriesJobGroup);
 						directoryJob.schedule();
@@ -284,6 +305,10 @@ public class SmartImportJob extends Job {
 				description.setAutoBuilding(true);
 				workspace.setDescription(description);
 			}
+			if (Policy.DEBUG_SMART_IMPORT) {
+				getConfiguratorCosts().forEach((configurator, cost) -> Policy.trace("/debug/smartimport", //$NON-NLS-1$
+						SmartImportJob.class, configurator + ": " + cost + " ms")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
 		} catch (Exception ex) {
 			return new Status(IStatus.ERROR, IDEWorkbenchPlugin.IDE_WORKBENCH, ex.getMessage(), ex);
 		}
@@ -348,7 +373,7 @@ public class SmartImportJob extends Job {
 				return Collections.emptySet();
 			}
 		}
-		parentContainer.refreshLocal(IResource.DEPTH_ONE, progressMonitor); // make sure we know all children
+		refreshOnce(parentContainer, IResource.DEPTH_ONE, progressMonitor); // make sure we know all children
 		Set<IFolder> childrenToProcess = new HashSet<>();
 		final Set<IProject> res = Collections.synchronizedSet(new HashSet<IProject>());
 		for (IResource childResource : parentContainer.members()) {
@@ -377,8 +402,16 @@ public class SmartImportJob extends Job {
 					NLS.bind(DataTransferMessages.SmartImportJob_crawling,
 							SmartImportWizard.toAbsolutePath(childFolder)),
 					childFolder, res);
-			if (crawlerJobGroup.getMaxThreads() == 0 || crawlerJobGroup.getActiveJobs().size() < crawlerJobGroup.getMaxThreads()) {
+			// A slot is taken before scheduling, so that the group never
+			// queues a job that a running job waits for
+			if (crawlerSlots.tryAcquire()) {
 				crawlerJob.setJobGroup(crawlerJobGroup);
+				crawlerJob.addJobChangeListener(new JobChangeAdapter() {
+					@Override
+					public void done(IJobChangeEvent event) {
+						crawlerSlots.release();
+					}
+				});
 				jobs.add(crawlerJob);
 				crawlerJob.schedule();
 			} else {
@@ -413,59 +446,78 @@ public class SmartImportJob extends Job {
 				excludedPaths.add(new Path(excludedDirectory.getAbsolutePath()));
 			}
 		}
-		container.refreshLocal(IResource.DEPTH_INFINITE, progressMonitor);
-		if (!forceFullProjectCheck) {
-			EclipseProjectConfigurator eclipseProjectConfigurator = new EclipseProjectConfigurator();
-			if (eclipseProjectConfigurator.shouldBeAnEclipseProject(container, subMonitor.split(1))) {
-				isAlreadyAnEclipseProject = true;
-			}
-		}
-
-		if (this.configurationManager == null) {
-			this.configurationManager = new ProjectConfiguratorExtensionManager();
-		}
-		Collection<ProjectConfigurator> activeConfigurators = this.configurationManager.getAllActiveProjectConfigurators(container);
 		Set<ProjectConfigurator> potentialSecondaryConfigurators = new HashSet<>();
 		IProject project = null;
-		for (ProjectConfigurator configurator : activeConfigurators) {
-			// exclude Eclipse project configurator for root project if is new
-			if (configurator instanceof EclipseProjectConfigurator && forceFullProjectCheck) {
-				continue;
+		// Detection and configuration of disjoint subtrees run in parallel, the
+		// rule keeps jobs away from the same directory or project name
+		ISchedulingRule rule = beginDirectoryRule(container, subMonitor);
+		try {
+			refreshOnce(container, IResource.DEPTH_INFINITE, progressMonitor);
+			if (!forceFullProjectCheck) {
+				EclipseProjectConfigurator eclipseProjectConfigurator = new EclipseProjectConfigurator();
+				long start = System.nanoTime();
+				if (eclipseProjectConfigurator.shouldBeAnEclipseProject(container, subMonitor.split(1))) {
+					isAlreadyAnEclipseProject = true;
+				}
+				addCost(eclipseProjectConfigurator, start);
 			}
-			if (configurator.shouldBeAnEclipseProject(container, subMonitor.split(1))) {
-				mainProjectConfigurators.add(configurator);
-				if (project == null) {
-					// Create project
-					try {
-						project = toExistingOrNewProject(containerLocation.toFile(), subMonitor.split(1),
-								IResource.BACKGROUND_REFRESH);
-					} catch (CouldNotImportProjectException ex) {
-						this.errors.put(containerLocation, ex);
-						if (this.listener != null) {
-							this.listener.errorHappened(containerLocation, ex);
+
+			if (this.configurationManager == null) {
+				this.configurationManager = new ProjectConfiguratorExtensionManager();
+			}
+			Collection<ProjectConfigurator> activeConfigurators = this.configurationManager.getAllActiveProjectConfigurators(container);
+			for (ProjectConfigurator configurator : activeConfigurators) {
+				// exclude Eclipse project configurator for root project if is new
+				if (configurator instanceof EclipseProjectConfigurator && forceFullProjectCheck) {
+					continue;
+				}
+				long start = System.nanoTime();
+				boolean shouldBeAnEclipseProject = configurator.shouldBeAnEclipseProject(container, subMonitor.split(1));
+				addCost(configurator, start);
+				if (shouldBeAnEclipseProject) {
+					mainProjectConfigurators.add(configurator);
+					if (project == null) {
+						// Create project
+						try {
+							project = toExistingOrNewProject(containerLocation.toFile(), subMonitor.split(1),
+									IResource.BACKGROUND_REFRESH);
+						} catch (CouldNotImportProjectException ex) {
+							this.errors.put(containerLocation, ex);
+							if (this.listener != null) {
+								this.listener.errorHappened(containerLocation, ex);
+							}
+							return projectFromCurrentContainer;
 						}
-						return projectFromCurrentContainer;
+						projectFromCurrentContainer.add(project);
 					}
-					projectFromCurrentContainer.add(project);
+				} else {
+					potentialSecondaryConfigurators.add(configurator);
 				}
-			} else {
-				potentialSecondaryConfigurators.add(configurator);
 			}
-		}
 
-		if (!mainProjectConfigurators.isEmpty()) {
-			project.refreshLocal(IResource.DEPTH_INFINITE, subMonitor.split(1));
-		}
-		for (ProjectConfigurator configurator : mainProjectConfigurators) {
-			IProgressMonitor childMonitor = subMonitor.split(1);
-			if (configurator instanceof EclipseProjectConfigurator || !isAlreadyAnEclipseProject || this.reconfigureEclipseProjects) {
-				configurator.configure(project, excludedPaths, childMonitor);
-				this.report.get(project).add(configurator);
-				if (this.listener != null) {
-					listener.projectConfigured(project, configurator);
+			if (!mainProjectConfigurators.isEmpty()) {
+				project.refreshLocal(IResource.DEPTH_INFINITE, subMonitor.split(1));
+			}
+			for (ProjectConfigurator configurator : mainProjectConfigurators) {
+				IProgressMonitor childMonitor = subMonitor.split(1);
+				long start = System.nanoTime();
+				if (configurator instanceof EclipseProjectConfigurator || !isAlreadyAnEclipseProject || this.reconfigureEclipseProjects) {
+					configurator.configure(project, excludedPaths, childMonitor);
+					this.report.get(project).add(configurator);
+					if (this.listener != null) {
+						listener.projectConfigured(project, configurator);
+					}
 				}
+				excludedPaths.addAll(toPathSet(configurator.getFoldersToIgnore(project, subMonitor.split(20))));
+				addCost(configurator, start);
+			}
+			if (project != null && !project.equals(container)) {
+				// configurators may have changed the subtree, which is also
+				// seen through the container
+				container.refreshLocal(IResource.DEPTH_INFINITE, progressMonitor);
 			}
-			excludedPaths.addAll(toPathSet(configurator.getFoldersToIgnore(project, subMonitor.split(20))));
+		} finally {
+			endDirectoryRule(rule);
 		}
 
 		if (deepChildrenDetection) {
@@ -483,35 +535,42 @@ public class SmartImportJob extends Job {
 		}
 
 		if (mainProjectConfigurators.isEmpty() && (!isAlreadyAnEclipseProject || forceFullProjectCheck)) {
-			// Apply secondary configurators
-			if (project == null) {
-				// Create project
-				try {
-					project = toExistingOrNewProject(containerLocation.toFile(), subMonitor.split(1),
-							IResource.BACKGROUND_REFRESH);
-				} catch (CouldNotImportProjectException ex) {
-					this.errors.put(containerLocation, ex);
-					if (this.listener != null) {
-						this.listener.errorHappened(containerLocation, ex);
+			rule = beginDirectoryRule(container, subMonitor);
+			try {
+				// Apply secondary configurators
+				if (project == null) {
+					// Create project
+					try {
+						project = toExistingOrNewProject(containerLocation.toFile(), subMonitor.split(1),
+								IResource.BACKGROUND_REFRESH);
+					} catch (CouldNotImportProjectException ex) {
+						this.errors.put(containerLocation, ex);
+						if (this.listener != null) {
+							this.listener.errorHappened(containerLocation, ex);
+						}
+						return projectFromCurrentContainer;
 					}
-					return projectFromCurrentContainer;
+					projectFromCurrentContainer.add(project);
 				}
-				projectFromCurrentContainer.add(project);
-			}
-			project.refreshLocal(IResource.DEPTH_ONE, subMonitor.split(1));
-			// At least depth one, maybe INFINITE is necessary
-			progressMonitor.setTaskName(
-					NLS.bind(DataTransferMessages.SmartImportJob_continuingConfiguration, project.getName()));
-			for (ProjectConfigurator additionalConfigurator : potentialSecondaryConfigurators) {
-				if (additionalConfigurator.canConfigure(project, excludedPaths, subMonitor.split(1))) {
-					additionalConfigurator.configure(project, excludedPaths, subMonitor.split(1));
-					this.report.get(project).add(additionalConfigurator);
-					if (this.listener != null) {
-						listener.projectConfigured(project, additionalConfigurator);
+				project.refreshLocal(IResource.DEPTH_ONE, subMonitor.split(1));
+				// At least depth one, maybe INFINITE is necessary
+				progressMonitor.setTaskName(
+						NLS.bind(DataTransferMessages.SmartImportJob_continuingConfiguration, project.getName()));
+				for (ProjectConfigurator additionalConfigurator : potentialSecondaryConfigurators) {
+					long start = System.nanoTime();
+					if (additionalConfigurator.canConfigure(project, excludedPaths, subMonitor.split(1))) {
+						additionalConfigurator.configure(project, excludedPaths, subMonitor.split(1));
+						this.report.get(project).add(additionalConfigurator);
+						if (this.listener != null) {
+							listener.projectConfigured(project, additionalConfigurator);
+						}
+						excludedPaths
+								.addAll(toPathSet(additionalConfigurator.getFoldersToIgnore(project, subMonitor.split(1))));
 					}
-					excludedPaths
-							.addAll(toPathSet(additionalConfigurator.getFoldersToIgnore(project, subMonitor.split(1))));
+					addCost(additionalConfigurator, start);
 				}
+			} finally {
+				endDirectoryRule(rule);
 			}
 		}
 		if (project != null) {
@@ -522,6 +581,53 @@ public class SmartImportJob extends Job {
 		return projectFromCurrentContainer;
 	}
 
+	/**
+	 * Begins the rule of the given container in the current thread, unless the
+	 * thread already runs with a rule that doesn't contain it.
+	 *
+	 * @return the rule to end, or <code>null</code>
+	 */
+	private static ISchedulingRule beginDirectoryRule(IContainer container, IProgressMonitor monitor) {
+		IJobManager jobManager = Job.getJobManager();
+		ISchedulingRule rule = new DirectorySchedulingRule(container);
+		ISchedulingRule currentRule = jobManager.currentRule();
+		if (currentRule != null && !currentRule.contains(rule)) {
+			return null;
+		}
+		jobManager.beginRule(rule, monitor);
+		return rule;
+	}
+
+	private static void endDirectoryRule(ISchedulingRule rule) {
+		if (rule != null) {
+			Job.getJobManager().endRule(rule);
+		}
+	}
+
+	/**
+	 * Refreshes the given container, unless it is in a container that was
+	 * already refreshed to infinite depth by this job. All the configurators
+	 * then share the listings of the workspace tree, and each directory is
+	 * listed once rather than once per parent directory.
+	 */
+	private void refreshOnce(IContainer container, int depth, IProgressMonitor monitor) throws CoreException {
+		IPath path = container.getFullPath();
+		for (IPath refreshed : this.refreshedContainers) {
+			if (refreshed.isPrefixOf(path)) {
+				return;
+			}
+		}
+		container.refreshLocal(depth, monitor);
+		if (depth == IResource.DEPTH_INFINITE) {
+			this.refreshedContainers.add(path);
+		}
+	}
+
+	private void addCost(ProjectConfigurator configurator, long start) {
+		this.configuratorCosts.computeIfAbsent(configurator.getClass().getName(), name -> new AtomicLong())
+				.addAndGet(System.nanoTime() - start);
+	}
+
 	private Set<IPath> toPathSet(Set<? extends IContainer> resources) {
 		if (resources == null || resources.isEmpty()) {
 			return Collections.emptySet();
@@ -654,6 +760,19 @@ public class SmartImportJob extends Job {
 		return this.errors;
 	}
 
+	/**
+	 * Returns the time spent so far in each project configurator, detecting
+	 * and configuring projects, by this job.
+	 *
+	 * @return the milliseconds spent by configurator class name
+	 * @since 3.21
+	 */
+	public Map<String, Long> getConfiguratorCosts() {
+		Map<String, Long> res = new TreeMap<>();
+		this.configuratorCosts.forEach((configurator, cost) -> res.put(configurator, cost.get() / 1_000_000));
+		return res;
+	}
+
 	/**
 	 *
 	 * @param monitor
@@ -672,14 +791,17 @@ public class SmartImportJob extends Job {
 			}
 			List<ProjectConfigurator> activeConfigurators = configurationManager
 					.getAllActiveProjectConfigurators(this.rootDirectory);
-			SubMonitor loopMonitor = SubMonitor.convert(monitor, activeConfigurators.size());
+			SubMonitor loopMonitor = SubMonitor.convert(monitor, activeConfigurators.size() + 1);
+			// the configurators share one listing of the directories
+			DirectorySnapshot snapshot = DirectorySnapshot.create(this.rootDirectory, loopMonitor.split(1));
 			for (ProjectConfigurator configurator : activeConfigurators) {
+				long start = System.nanoTime();
 				Set<File> supportedDirectories = configurator.findConfigurableLocations(
-						SmartImportJob.this.rootDirectory,
-						loopMonitor.split(1));
+						SmartImportJob.this.rootDirectory, snapshot, loopMonitor.split(1));
+				addCost(configurator, start);
 				if (supportedDirectories != null) {
 					for (File supportedDirectory : supportedDirectories) {
-						if (supportedDirectory.isDirectory()) {
+						if (snapshot.isListed(supportedDirectory) || supportedDirectory.isDirectory()) {
 							if (!res.containsKey(supportedDirectory)) {
 								res.put(supportedDirectory, new ArrayList<>());
 							}
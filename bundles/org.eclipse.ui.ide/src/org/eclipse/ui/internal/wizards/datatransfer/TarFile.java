@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,27 +16,39 @@
 package org.eclipse.ui.internal.wizards.datatransfer;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
-import java.util.zip.GZIPInputStream;
+import java.util.Iterator;
+import java.util.List;
 
 
 /**
  * Reads a .tar or .tar.gz archive file, providing an index enumeration
  * and allows for accessing an InputStream for arbitrary files in the
  * archive.
+ * <p>
+ * The entries are read once per archive into a {@link TarIndex}, which is
+ * shared by the instances reading the same, unchanged archive. The data of an
+ * entry is read at its position in an uncompressed archive, and inflated from
+ * the nearest preceding gzip member in a compressed archive.
+ * </p>
  *
  * @since 3.1
  */
 public class TarFile {
+	private static final int HEADER_SIZE = 512;
+
 	private File file;
-	private TarInputStream entryEnumerationStream;
-	private TarEntry curEntry;
-	private TarInputStream entryStream;
+	private FileChannel channel;
+	private TarIndex index;
 
-	private InputStream internalEntryStream;
+	/** the stream the last entry was read from in a compressed archive */
+	private GzipMembersInputStream internalEntryStream;
 
 	/**
 	 * Create a new TarFile for the given file.
@@ -47,24 +59,39 @@ public class TarFile {
 	 */
 	public TarFile(File file) throws TarException, IOException {
 		this.file = file;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		index = TarIndex.getCached(file);
+		if (index == null) {
+			try {
+				// check the first entry only, the archive is read when needed
+				checkFormat();
+			} catch (TarException | IOException ex) {
+				channel.close();
+				throw ex;
+			}
+		}
+	}
 
-		InputStream in = new FileInputStream(file);
-		// First, check if it's a GZIPInputStream.
-		try {
-			in = new GZIPInputStream(in);
-		} catch(IOException e) {
-			//If it is not compressed we close
-			//the old one and recreate
-			in.close();
-			in = new FileInputStream(file);
+	private void checkFormat() throws TarException, IOException {
+		GzipMembersInputStream gzipStream = null;
+		if (TarIndex.isCompressed(channel)) {
+			gzipStream = new GzipMembersInputStream(channel, 0, 0);
 		}
 		try {
-			entryEnumerationStream = new TarInputStream(in);
-		} catch (TarException | IOException ex) {
-			in.close();
-			throw ex;
+			// reads the first entry; not closed, which would close the channel
+			new TarInputStream(gzipStream != null ? gzipStream : Channels.newInputStream(channel.position(0)));
+		} finally {
+			if (gzipStream != null) {
+				gzipStream.close();
+			}
+		}
+	}
+
+	private TarIndex getIndex() throws TarException, IOException {
+		if (index == null) {
+			index = TarIndex.get(file);
 		}
-		curEntry = entryEnumerationStream.getNextEntry();
+		return index;
 	}
 
 	/**
@@ -73,10 +100,12 @@ public class TarFile {
 	 * @throws IOException if the file cannot be successfully closed
 	 */
 	public void close() throws IOException {
-		if (entryEnumerationStream != null)
-			entryEnumerationStream.close();
-		if (internalEntryStream != null)
+		if (internalEntryStream != null) {
 			internalEntryStream.close();
+			internalEntryStream = null;
+		}
+		if (channel != null)
+			channel.close();
 	}
 
 	/**
@@ -96,21 +125,29 @@ public class TarFile {
 	 * @return enumeration of all files in the archive
 	 */
 	public Enumeration entries() {
+		List<TarEntry> entries;
+		try {
+			entries = getIndex().getEntries();
+		} catch (TarException | IOException e) {
+			entries = List.of();
+		}
+		Iterator<TarEntry> iterator = entries.iterator();
 		return new Enumeration() {
 			@Override
 			public boolean hasMoreElements() {
-				return (curEntry != null);
+				return iterator.hasNext();
 			}
 
 			@Override
 			public Object nextElement() {
-				TarEntry oldEntry = curEntry;
-				try {
-					curEntry = entryEnumerationStream.getNextEntry();
-				} catch(TarException | IOException e) {
-					curEntry = null;
-				}
-				return oldEntry;
+				// a copy, the index is shared
+				TarEntry entry = iterator.next();
+				TarEntry copy = new TarEntry(entry.getName(), entry.filepos);
+				copy.setFileType(entry.getFileType());
+				copy.setMode(entry.getMode());
+				copy.setSize(entry.getSize());
+				copy.setTime(entry.getTime());
+				return copy;
 			}
 		};
 	}
@@ -124,28 +161,86 @@ public class TarFile {
 	 * @throws IOException
 	 */
 	public InputStream getInputStream(TarEntry entry) throws TarException, IOException {
-		if(entryStream == null || !entryStream.skipToEntry(entry)) {
+		TarIndex tarIndex = getIndex();
+		long dataOffset = (long) entry.filepos + HEADER_SIZE;
+		if (!tarIndex.isCompressed()) {
+			return new EntryInputStream(null, dataOffset, entry.getSize());
+		}
+		int checkpoint = tarIndex.getCheckpoint(dataOffset);
+		if (internalEntryStream == null || internalEntryStream.getPosition() > dataOffset
+				|| internalEntryStream.getPosition() < tarIndex.getCheckpointOffset(checkpoint)) {
+			// resume at the nearest checkpoint rather than the start
 			if (internalEntryStream != null) {
 				internalEntryStream.close();
+				internalEntryStream = null;
 			}
-			internalEntryStream = new FileInputStream(file);
-			// First, check if it's a GZIPInputStream.
-			try {
-				internalEntryStream = new GZIPInputStream(internalEntryStream);
-			} catch(IOException e) {
-				//If it is not compressed we close
-				//the old one and recreate
-				internalEntryStream.close();
-				internalEntryStream = new FileInputStream(file);
+			internalEntryStream = new GzipMembersInputStream(channel, tarIndex.getCheckpointFileOffset(checkpoint),
+					tarIndex.getCheckpointOffset(checkpoint));
+		}
+		long toSkip = dataOffset - internalEntryStream.getPosition();
+		if (internalEntryStream.skip(toSkip) < toSkip) {
+			throw new IOException("early end of stream"); //$NON-NLS-1$
+		}
+		return new EntryInputStream(internalEntryStream, dataOffset, entry.getSize());
+	}
+
+	/**
+	 * The data of an entry, read from the inflated stream of a compressed
+	 * archive, or at its position in an uncompressed archive. Closing it does
+	 * not close the archive.
+	 */
+	private final class EntryInputStream extends InputStream {
+		private final GzipMembersInputStream in;
+		private long position;
+		private long remaining;
+
+		EntryInputStream(GzipMembersInputStream in, long position, long size) {
+			this.in = in;
+			this.position = position;
+			this.remaining = size;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			if (len > remaining) {
+				len = (int) remaining;
+			}
+			int n;
+			if (in != null) {
+				n = in.read(b, off, len);
+			} else {
+				n = channel.read(ByteBuffer.wrap(b, off, len), position);
 			}
-			entryStream = new TarInputStream(internalEntryStream, entry) {
-				@Override
-				public void close() {
-					// Ignore close() since we want to reuse the stream.
-				}
-			};
+			if (n < 0) {
+				throw new IOException("early end of stream"); //$NON-NLS-1$
+			}
+			position += n;
+			remaining -= n;
+			return n;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] data = new byte[1];
+			int size = read(data, 0, 1);
+			if (size < 0) {
+				return size;
+			}
+			return data[0] & 0xff;
+		}
+
+		@Override
+		public int available() {
+			return in != null ? 0 : (int) Math.min(Integer.MAX_VALUE, remaining);
+		}
+
+		@Override
+		public void close() {
+			// Ignore close() since we want to reuse the stream.
 		}
-		return entryStream;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,10 +14,12 @@
 package org.eclipse.ui.internal.wizards.datatransfer;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.zip.GZIPOutputStream;
 
@@ -30,14 +32,42 @@ import org.eclipse.core.runtime.CoreException;
 
 /**
  * Exports resources to a .tar.gz file.
+ * <p>
+ * In parallel mode, every entry is formatted, and compressed as a gzip member
+ * of its own, by {@link #prepare(IFile, String)}, and the members are
+ * concatenated in the archive, which is read as one stream by gzip readers.
+ * </p>
  *
  * @since 3.1
  */
-public class TarFileExporter implements IFileExporter {
+public class TarFileExporter implements IParallelFileExporter {
+	private static final int BLOCK_SIZE = 512;
+	private static final int RECORD_SIZE = 10240;
+
 	private TarOutputStream outputStream;
 	private GZIPOutputStream gzipOutputStream;
 	private boolean resolveLinks;
 
+	private OutputStream archiveStream;
+	private boolean compress;
+	private long archiveLength;
+	private long exportedLength;
+
+	/**
+	 * An entry formatted by {@link TarFileExporter#prepare(IFile, String)}.
+	 */
+	private static final class PreparedEntry {
+		final byte[] data;
+		final long tarLength;
+		final long contentLength;
+
+		PreparedEntry(byte[] data, long tarLength, long contentLength) {
+			this.data = data;
+			this.tarLength = tarLength;
+			this.contentLength = contentLength;
+		}
+	}
+
 
 	/**
 	 * Create an instance of this class.
@@ -51,8 +81,31 @@ public class TarFileExporter implements IFileExporter {
 	 * @exception java.io.IOException
 	 */
 	public TarFileExporter(String filename, boolean compress, boolean resolveLinks) throws IOException {
+		this(filename, compress, resolveLinks, false);
+	}
+
+	/**
+	 * Create an instance of this class.
+	 *
+	 * @param filename
+	 *            java.lang.String
+	 * @param compress
+	 *            boolean
+	 * @param resolveLinks
+	 *            boolean
+	 * @param parallel
+	 *            whether files may be formatted and compressed on other
+	 *            threads with {@link #prepare(IFile, String)}
+	 * @exception java.io.IOException
+	 * @since 3.21
+	 */
+	public TarFileExporter(String filename, boolean compress, boolean resolveLinks, boolean parallel)
+			throws IOException {
 		this.resolveLinks = resolveLinks;
-		if (compress) {
+		this.compress = compress;
+		if (parallel) {
+			archiveStream = new BufferedOutputStream(new FileOutputStream(filename), 65536);
+		} else if (compress) {
 			gzipOutputStream = new GZIPOutputStream(new FileOutputStream(filename));
 			outputStream = new TarOutputStream(new BufferedOutputStream(gzipOutputStream));
 		} else {
@@ -68,12 +121,31 @@ public class TarFileExporter implements IFileExporter {
 	 */
 	@Override
 	public void finished() throws IOException {
+		if (archiveStream != null) {
+			// as TarOutputStream.close(), 1024 zeros and padding to a record
+			long trailerLength = 2 * BLOCK_SIZE;
+			long remainder = (archiveLength + trailerLength) % RECORD_SIZE;
+			if (remainder != 0) {
+				trailerLength += RECORD_SIZE - remainder;
+			}
+			try {
+				appendMember(new byte[(int) trailerLength]);
+			} finally {
+				archiveStream.close();
+			}
+			return;
+		}
 		outputStream.close();
 		if(gzipOutputStream != null) {
 			gzipOutputStream.close();
 		}
 	}
 
+	@Override
+	public long getExportedLength() {
+		return exportedLength;
+	}
+
 	/**
 	 *	Write the contents of the file to the tar archive.
 	 *
@@ -88,14 +160,19 @@ public class TarFileExporter implements IFileExporter {
 			throw new FileNotFoundException(contents.getFullPath().toOSString());
 		}
 
-		InputStream contentStream = contents.getContents(false);
+		InputStream contentStream = archiveStream != null ? FileContents.open(contents) : contents.getContents(false);
 		entry.setSize(EFS.getStore(location).fetchInfo().getLength());
+		if (archiveStream != null) {
+			writeStreamed(entry, contentStream);
+			return;
+		}
 		outputStream.putNextEntry(entry);
 		try {
 			int n;
 			byte[] readBuffer = new byte[4096];
 			while ((n = contentStream.read(readBuffer)) > 0) {
 				outputStream.write(readBuffer, 0, n);
+				exportedLength += n;
 			}
 		} finally {
 			if (contentStream != null) {
@@ -106,6 +183,98 @@ public class TarFileExporter implements IFileExporter {
 		outputStream.closeEntry();
 	}
 
+	/**
+	 * Write an entry too large to prepare to the archive in parallel mode,
+	 * without keeping its contents in memory.
+	 */
+	private void writeStreamed(TarEntry entry, InputStream contentStream) throws IOException {
+		GzipMember member = compress ? new GzipMember(archiveStream) : null;
+		OutputStream out = member != null ? member : archiveStream;
+		long length = 0;
+		try {
+			try {
+				writeHeader(entry, out);
+				int n;
+				byte[] readBuffer = new byte[8192];
+				while ((n = contentStream.read(readBuffer)) > 0) {
+					out.write(readBuffer, 0, n);
+					length += n;
+				}
+			} finally {
+				contentStream.close();
+			}
+			if (length != entry.getSize()) {
+				// the header is written already
+				throw new IOException("contents changed while exporting: " + entry.getName()); //$NON-NLS-1$
+			}
+			out.write(new byte[getPadding(length)]);
+			if (member != null) {
+				member.finish();
+			}
+		} finally {
+			if (member != null) {
+				member.end();
+			}
+		}
+		archiveLength += BLOCK_SIZE + length + getPadding(length);
+		exportedLength += length;
+	}
+
+	/**
+	 * A gzip member written to the archive in parallel mode. It is ended
+	 * rather than closed, which would close the archive.
+	 */
+	private static final class GzipMember extends GZIPOutputStream {
+		GzipMember(OutputStream out) throws IOException {
+			super(out, 8192);
+		}
+
+		/**
+		 * Release the deflater, which is only released by close() otherwise.
+		 */
+		void end() {
+			def.end();
+		}
+	}
+
+	/**
+	 * Append formatted entries to the archive in parallel mode, as a gzip
+	 * member of their own if compressing.
+	 */
+	private void appendMember(byte[] tarData) throws IOException {
+		archiveStream.write(compress ? gzip(tarData) : tarData);
+		archiveLength += tarData.length;
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2 + 64);
+		try (GZIPOutputStream member = new GZIPOutputStream(bytes, 8192)) {
+			member.write(data);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static int getPadding(long contentLength) {
+		return (int) ((BLOCK_SIZE - contentLength % BLOCK_SIZE) % BLOCK_SIZE);
+	}
+
+	private static void writeHeader(TarEntry entry, OutputStream out) throws IOException {
+		// not closed, which would write the trailer
+		new TarOutputStream(out).putNextEntry(entry);
+	}
+
+	/**
+	 * Format an entry and its contents as they appear in the archive.
+	 */
+	private static byte[] format(TarEntry entry, byte[] contents) throws IOException {
+		int padding = getPadding(contents.length);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(BLOCK_SIZE + contents.length + padding);
+		writeHeader(entry, bytes);
+		bytes.write(contents);
+		bytes.write(new byte[padding]);
+		return bytes.toByteArray();
+	}
+
 	@Override
 	public void write(IContainer container, String destinationPath)
 			throws IOException {
@@ -124,6 +293,10 @@ public class TarFileExporter implements IFileExporter {
 			newEntry.setMode(newEntry.getMode() & ~0222);
 		}
 		newEntry.setFileType(TarEntry.DIRECTORY);
+		if (archiveStream != null) {
+			appendMember(format(newEntry, new byte[0]));
+			return;
+		}
 		outputStream.putNextEntry(newEntry);
 	}
 
@@ -141,6 +314,10 @@ public class TarFileExporter implements IFileExporter {
 		if (!resolveLinks && resource.isLinked(IResource.DEPTH_INFINITE)) {
 			return;
 		}
+		write(createEntry(resource, destinationPath), resource);
+	}
+
+	private static TarEntry createEntry(IFile resource, String destinationPath) {
 		TarEntry newEntry = new TarEntry(destinationPath);
 		if(resource.getLocalTimeStamp() != IResource.NULL_STAMP) {
 			newEntry.setTime(resource.getLocalTimeStamp() / 1000);
@@ -152,6 +329,29 @@ public class TarFileExporter implements IFileExporter {
 		if (attributes != null && attributes.isReadOnly()) {
 			newEntry.setMode(newEntry.getMode() & ~0222);
 		}
-		write(newEntry, resource);
+		return newEntry;
+	}
+
+	@Override
+	public Object prepare(IFile resource, String destinationPath) throws IOException {
+		if (archiveStream == null || (!resolveLinks && resource.isLinked(IResource.DEPTH_INFINITE))) {
+			return null;
+		}
+		byte[] contents = FileContents.read(resource, FileContents.MAX_PREPARED_LENGTH);
+		if (contents == null) {
+			return null;
+		}
+		TarEntry entry = createEntry(resource, destinationPath);
+		entry.setSize(contents.length);
+		byte[] tarData = format(entry, contents);
+		return new PreparedEntry(compress ? gzip(tarData) : tarData, tarData.length, contents.length);
+	}
+
+	@Override
+	public void writePrepared(Object preparedEntry) throws IOException {
+		PreparedEntry entry = (PreparedEntry) preparedEntry;
+		archiveStream.write(entry.data);
+		archiveLength += entry.tarLength;
+		exportedLength += entry.contentLength;
 	}
 }
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entries of a .tar or .tar.gz archive and their positions, read once
+ * and cached by path, modification time and length, so that opening an
+ * archive again, for example while browsing it in an import wizard, does not
+ * read it again.
+ * <p>
+ * The data of an entry of an uncompressed archive is read directly at its
+ * position. For compressed archives, the index records checkpoints at the
+ * starts of gzip members, from which the data is inflated. Archives written by
+ * parallel compressors have many members; an archive with a single member has
+ * a single checkpoint at its start.
+ * </p>
+ *
+ * @since 3.21
+ */
+final class TarIndex {
+
+	private static final int MAX_CACHED = 8;
+
+	/** the least distance between checkpoints in the uncompressed data */
+	private static final long CHECKPOINT_SPACING = 1024 * 1024;
+
+	private static final Map<String, TarIndex> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TarIndex> eldest) {
+			return size() > MAX_CACHED;
+		}
+	};
+
+	private final long lastModified;
+
+	private final long length;
+
+	private final boolean compressed;
+
+	private final List<TarEntry> entries;
+
+	/** the uncompressed offsets of the checkpoints, ascending */
+	private final long[] checkpointOffsets;
+
+	/** the file offsets of the checkpoints */
+	private final long[] checkpointFileOffsets;
+
+	private TarIndex(long lastModified, long length, boolean compressed, List<TarEntry> entries,
+			long[] checkpointOffsets, long[] checkpointFileOffsets) {
+		this.lastModified = lastModified;
+		this.length = length;
+		this.compressed = compressed;
+		this.entries = entries;
+		this.checkpointOffsets = checkpointOffsets;
+		this.checkpointFileOffsets = checkpointFileOffsets;
+	}
+
+	/**
+	 * Returns the cached index of the given archive, if it has not changed
+	 * since it was read.
+	 *
+	 * @param file
+	 *            the archive
+	 * @return the index, or <code>null</code>
+	 */
+	static TarIndex getCached(File file) {
+		String key = file.getAbsolutePath();
+		synchronized (CACHE) {
+			TarIndex index = CACHE.get(key);
+			if (index != null && (index.lastModified != file.lastModified() || index.length != file.length())) {
+				CACHE.remove(key);
+				index = null;
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the index of the given archive, reading the archive if it is not
+	 * cached.
+	 *
+	 * @param file
+	 *            the archive
+	 * @return the index
+	 * @throws TarException
+	 *             if the archive is not in tar format
+	 * @throws IOException
+	 *             if the archive could not be read
+	 */
+	static TarIndex get(File file) throws TarException, IOException {
+		TarIndex index = getCached(file);
+		if (index != null) {
+			return index;
+		}
+		long lastModified = file.lastModified();
+		long length = file.length();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			index = read(channel, lastModified, length);
+		}
+		synchronized (CACHE) {
+			CACHE.put(file.getAbsolutePath(), index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns whether the given file starts with the gzip magic number.
+	 */
+	static boolean isCompressed(FileChannel channel) throws IOException {
+		ByteBuffer magic = ByteBuffer.allocate(2);
+		while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+			// read both bytes
+		}
+		return magic.position() == 2 && magic.get(0) == (byte) 0x1f && magic.get(1) == (byte) 0x8b;
+	}
+
+	private static TarIndex read(FileChannel channel, long lastModified, long length)
+			throws TarException, IOException {
+		boolean compressed = isCompressed(channel);
+		GzipMembersInputStream gzipStream = null;
+		InputStream in;
+		if (compressed) {
+			gzipStream = new GzipMembersInputStream(channel, 0, 0);
+			in = gzipStream;
+		} else {
+			in = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 65536);
+		}
+		List<TarEntry> entries = new ArrayList<>();
+		long[] offsets = new long[16];
+		long[] fileOffsets = new long[16];
+		int checkpoints = 1;
+		try (TarInputStream tarStream = new TarInputStream(in)) {
+			TarEntry entry = tarStream.getNextEntry();
+			while (entry != null) {
+				entries.add(entry);
+				if (gzipStream != null
+						&& gzipStream.getMemberOffset() >= offsets[checkpoints - 1] + CHECKPOINT_SPACING) {
+					if (checkpoints == offsets.length) {
+						offsets = Arrays.copyOf(offsets, checkpoints * 2);
+						fileOffsets = Arrays.copyOf(fileOffsets, checkpoints * 2);
+					}
+					offsets[checkpoints] = gzipStream.getMemberOffset();
+					fileOffsets[checkpoints] = gzipStream.getMemberFileOffset();
+					checkpoints++;
+				}
+				try {
+					entry = tarStream.getNextEntry();
+				} catch (TarException | IOException e) {
+					// as TarFile.entries(), list the entries before the error
+					entry = null;
+				}
+			}
+		}
+		return new TarIndex(lastModified, length, compressed, Collections.unmodifiableList(entries),
+				Arrays.copyOf(offsets, checkpoints), Arrays.copyOf(fileOffsets, checkpoints));
+	}
+
+	/**
+	 * @return whether the archive is compressed with gzip
+	 */
+	boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * @return the entries of the archive, shared by all readers of the archive
+	 */
+	List<TarEntry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Returns the index of the last checkpoint at or before the given offset.
+	 *
+	 * @param offset
+	 *            an offset in the uncompressed data
+	 * @return the index of the checkpoint
+	 */
+	int getCheckpoint(long offset) {
+		int index = Arrays.binarySearch(checkpointOffsets, offset);
+		return index >= 0 ? index : Math.max(0, -index - 2);
+	}
+
+	/**
+	 * @param checkpoint
+	 *            the index of a checkpoint
+	 * @return the offset of the checkpoint in the uncompressed data
+	 */
+	long getCheckpointOffset(int checkpoint) {
+		return checkpointOffsets[checkpoint];
+	}
+
+	/**
+	 * @param checkpoint
+	 *            the index of a checkpoint
+	 * @return the offset of the checkpoint in the file
+	 */
+	long getCheckpointFileOffset(int checkpoint) {
+		return checkpointFileOffsets[checkpoint];
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -44,6 +45,7 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 	private Button zipFormatButton;
 	private Button targzFormatButton;
+	private Button parallelCompressionCheckbox;
 
 	// dialog store id constants
 	private static final String STORE_DESTINATION_NAMES_ID = "WizardZipFileResourceExportPage1.STORE_DESTINATION_NAMES_ID"; //$NON-NLS-1$
@@ -52,6 +54,8 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 	private static final String STORE_COMPRESS_CONTENTS_ID = "WizardZipFileResourceExportPage1.STORE_COMPRESS_CONTENTS_ID"; //$NON-NLS-1$
 
+	private static final String STORE_PARALLEL_COMPRESSION_ID = "WizardZipFileResourceExportPage1.STORE_PARALLEL_COMPRESSION_ID"; //$NON-NLS-1$
+
 	/**
 	 *	Create an instance of this class.
 	 *
@@ -99,6 +103,13 @@ public class WizardArchiveFileResourceExportPage1 extends
 				| SWT.LEFT);
 		compressContentsCheckbox.setText(DataTransferMessages.ZipExport_compressContents);
 		compressContentsCheckbox.setFont(font);
+		compressContentsCheckbox.addSelectionListener(
+				SelectionListener.widgetSelectedAdapter(e -> updateParallelCompressionEnablement()));
+
+		// each entry of a parallel .tar.gz is compressed on its own
+		parallelCompressionCheckbox = new Button(left, SWT.CHECK | SWT.LEFT);
+		parallelCompressionCheckbox.setText(DataTransferMessages.ArchiveExport_parallelCompression);
+		parallelCompressionCheckbox.setFont(font);
 
 		createResolveLinkedResources(left, font);
 
@@ -112,6 +123,14 @@ public class WizardArchiveFileResourceExportPage1 extends
 		createDirectoryStructureButton.setSelection(true);
 		createSelectionOnlyButton.setSelection(false);
 		compressContentsCheckbox.setSelection(true);
+		updateParallelCompressionEnablement();
+	}
+
+	/**
+	 * Entries are only compressed in parallel if they are compressed at all.
+	 */
+	private void updateParallelCompressionEnablement() {
+		parallelCompressionCheckbox.setEnabled(compressContentsCheckbox.getSelection());
 	}
 
 	/**
@@ -203,6 +222,7 @@ public class WizardArchiveFileResourceExportPage1 extends
 		op.setUseCompression(compressContentsCheckbox.getSelection());
 		op.setIncludeLinkedResources(resolveLinkedResourcesCheckbox.getSelection());
 		op.setUseTarFormat(targzFormatButton.getSelection());
+		op.setUseParallelExport(compressContentsCheckbox.getSelection() && parallelCompressionCheckbox.getSelection());
 
 		try {
 			getContainer().run(true, true, op);
@@ -349,6 +369,8 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 			settings.put(STORE_COMPRESS_CONTENTS_ID, compressContentsCheckbox
 					.getSelection());
+
+			settings.put(STORE_PARALLEL_COMPRESSION_ID, parallelCompressionCheckbox.getSelection());
 		}
 	}
 
@@ -380,6 +402,9 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 			compressContentsCheckbox.setSelection(settings
 					.getBoolean(STORE_COMPRESS_CONTENTS_ID));
+
+			parallelCompressionCheckbox.setSelection(settings.getBoolean(STORE_PARALLEL_COMPRESSION_ID));
+			updateParallelCompressionEnablement();
 		}
 	}
 
@@ -408,6 +433,7 @@ public class WizardArchiveFileResourceExportPage1 extends
 			zipFormatButton.setSelection(true);
 			targzFormatButton.setSelection(false);
 		}
+		updateParallelCompressionEnablement();
 
 		return super.validateDestinationGroup();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2019 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,10 +36,12 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -84,6 +86,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
@@ -96,10 +99,8 @@ import org.eclipse.ui.dialogs.WizardDataTransferPage;
 import org.eclipse.ui.dialogs.WorkingSetGroup;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
-import org.eclipse.ui.internal.ide.StatusUtil;
 import org.eclipse.ui.internal.registry.WorkingSetDescriptor;
 import org.eclipse.ui.internal.registry.WorkingSetRegistry;
-import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.wizards.datatransfer.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 
@@ -898,6 +899,7 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		// We can't access the radio button from the inner class so get the
 		// status beforehand
 		final boolean dirSelected = this.projectFromDirectoryRadio.getSelection();
+		final Display display = getShell().getDisplay();
 		try {
 			getContainer().run(true, true, monitor -> {
 
@@ -963,22 +965,15 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 
 				else if (dirSelected && directory.isDirectory()) {
 
-					Collection<File> files = new ArrayList<>();
-					if (!collectProjectFilesFromDirectory(files, directory,
-							null, nestedProjects, monitor)) {
+					ProjectRecordCollector collector = new ProjectRecordCollector(display);
+					boolean completed = new ProjectFileCrawler(nestedProjects, monitor, collector)
+							.crawl(directory);
+					ProjectRecord[] records = collector.finish();
+					if (!completed) {
 						return;
 					}
-					Iterator<File> filesIterator3 = files.iterator();
-					selectedProjects = new ProjectRecord[files.size()];
-					int index3 = 0;
 					monitor.worked(50);
-					monitor
-							.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
-					while (filesIterator3.hasNext()) {
-						File file = filesIterator3.next();
-						selectedProjects[index3] = new ProjectRecord(file);
-						index3++;
-					}
+					selectedProjects = records;
 				} else {
 					monitor.worked(60);
 				}
@@ -1070,8 +1065,66 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		return null;
 	}
 
+	/**
+	 * Creates the records for the project description files found while
+	 * searching a directory, and shows them in the projects list as they are
+	 * found.
+	 */
+	private final class ProjectRecordCollector implements Consumer<File> {
+
+		private final Display display;
+
+		private final List<ProjectRecord> records = new ArrayList<>();
+
+		private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+		private boolean finished;
+
+		ProjectRecordCollector(Display display) {
+			this.display = display;
+		}
+
+		@Override
+		public void accept(File file) {
+			ProjectRecord record = new ProjectRecord(file);
+			synchronized (records) {
+				records.add(record);
+			}
+			if (refreshScheduled.compareAndSet(false, true)) {
+				display.asyncExec(this::refresh);
+			}
+		}
+
+		private void refresh() {
+			refreshScheduled.set(false);
+			synchronized (records) {
+				if (finished) {
+					return;
+				}
+				selectedProjects = records.toArray(new ProjectRecord[records.size()]);
+			}
+			if (!projectsList.getControl().isDisposed()) {
+				projectsList.refresh(true);
+			}
+		}
+
+		/**
+		 * Stops showing the records found in the list.
+		 *
+		 * @return the records found
+		 */
+		ProjectRecord[] finish() {
+			synchronized (records) {
+				finished = true;
+				return records.toArray(new ProjectRecord[records.size()]);
+			}
+		}
+	}
+
 	/**
 	 * Collect the list of .project files that are under directory into files.
+	 * Heavy directories that cannot contain projects to import, such as
+	 * <code>.git</code> or <code>node_modules</code>, are not searched.
 	 *
 	 * @param files
 	 * @param directory
@@ -1082,65 +1135,24 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 	 * @param monitor
 	 *            The monitor to report to
 	 * @return boolean <code>true</code> if the operation was completed.
+	 * @see ProjectFileCrawler
 	 */
 	static boolean collectProjectFilesFromDirectory(Collection<File> files, File directory,
 			Set<String> directoriesVisited, boolean nestedProjects, IProgressMonitor monitor) {
-
-		if (monitor.isCanceled()) {
-			return false;
-		}
-		monitor.subTask(NLS.bind(
-				DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
-				directory.getPath()));
-		File[] contents = directory.listFiles();
-		if (contents == null) {
-			return false;
-		}
-
-		// Initialize recursion guard for recursive symbolic links
-		if (directoriesVisited == null) {
-			directoriesVisited = new HashSet<>();
-			try {
-				directoriesVisited.add(directory.getCanonicalPath());
-			} catch (IOException exception) {
-				StatusManager.getManager().handle(StatusUtil.newError(exception));
-			}
+		Set<File> found = ConcurrentHashMap.newKeySet();
+		ProjectFileCrawler crawler = new ProjectFileCrawler(nestedProjects, monitor, found::add);
+		if (directoriesVisited != null) {
+			crawler.getDirectoriesVisited().addAll(directoriesVisited);
 		}
-
-		// first look for project description files
-		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
-		List<File> directories = new ArrayList<>();
-		for (File file : contents) {
-			if(file.isDirectory()){
-				directories.add(file);
-			} else if (file.getName().equals(dotProject) && file.isFile()) {
-				files.add(file);
-				if (!nestedProjects) {
-					// don't search sub-directories since we can't have nested
-					// projects
-					return true;
-				}
-			}
+		boolean completed = crawler.crawl(directory);
+		if (directoriesVisited != null) {
+			directoriesVisited.addAll(crawler.getDirectoriesVisited());
 		}
-		// no project description found or search for nested projects enabled,
-		// so recurse into sub-directories
-		for (File dir : directories) {
-			if (!dir.getName().equals(METADATA_FOLDER)) {
-				try {
-					String canonicalPath = dir.getCanonicalPath();
-					if (!directoriesVisited.add(canonicalPath)) {
-						// already been here --> do not recurse
-						continue;
-					}
-				} catch (IOException exception) {
-					StatusManager.getManager().handle(StatusUtil.newError(exception));
-
-				}
-				collectProjectFilesFromDirectory(files, dir,
-						directoriesVisited, nestedProjects, monitor);
-			}
-		}
-		return true;
+		// the crawler finds the files in no particular order
+		List<File> sorted = new ArrayList<>(found);
+		sorted.sort(null);
+		files.addAll(sorted);
+		return completed;
 	}
 
 	/**
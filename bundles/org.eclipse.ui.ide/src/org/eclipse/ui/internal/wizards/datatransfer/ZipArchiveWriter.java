@@ -0,0 +1,492 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a .zip file whose entries may have been compressed before, on other
+ * threads. Unlike {@link java.util.zip.ZipOutputStream}, which deflates the
+ * data of an entry while writing it, this writer appends the data of
+ * {@link Entry entries} compressed with {@link #createEntry}, and only
+ * compresses entries streamed with {@link #writeEntry(String, long, long,
+ * InputStream)} itself. Entries and archives larger than 4 GB use the
+ * Zip64 extensions.
+ *
+ * @since 3.21
+ */
+final class ZipArchiveWriter implements Closeable {
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+
+	private static final int CENTRAL_HEADER = 0x02014b50;
+
+	private static final int ZIP64_END = 0x06064b50;
+
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+
+	private static final int END = 0x06054b50;
+
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+	private static final int ZIP64_EXTRA = 0x0001;
+
+	private static final int VERSION = 20;
+
+	private static final int VERSION_ZIP64 = 45;
+
+	private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+	private static final int FLAG_UTF8 = 0x800;
+
+	private static final int STORED = 0;
+
+	private static final int DEFLATED = 8;
+
+	private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+	/**
+	 * An entry whose data is already compressed.
+	 */
+	static final class Entry {
+
+		final byte[] name;
+
+		final long dosTime;
+
+		final int method;
+
+		int flags = FLAG_UTF8;
+
+		long crc;
+
+		long size;
+
+		long compressedSize;
+
+		long offset;
+
+		byte[] data;
+
+		int dataLength;
+
+		Entry(String name, long time, int method) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.dosTime = toDosTime(time);
+			this.method = method;
+		}
+
+		/**
+		 * @return the number of bytes of uncompressed data
+		 */
+		long getSize() {
+			return size;
+		}
+
+		boolean isDirectory() {
+			return name.length > 0 && name[name.length - 1] == '/';
+		}
+
+		boolean needsZip64() {
+			return size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC || offset >= ZIP64_MAGIC;
+		}
+	}
+
+	private final OutputStream out;
+
+	private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+
+	private final byte[] buffer = new byte[8];
+
+	private long written;
+
+	private long entryCount;
+
+	/**
+	 * @param out
+	 *            the stream to write the archive to, closed by
+	 *            {@link #close()}
+	 */
+	ZipArchiveWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Creates an entry with the given contents, compressed if requested. May
+	 * be called from any thread.
+	 *
+	 * @param name
+	 *            the name of the entry
+	 * @param time
+	 *            the modification time in milliseconds, or <code>-1</code>
+	 * @param compress
+	 *            whether to deflate the contents
+	 * @param contents
+	 *            the contents
+	 * @return the entry, to be written with {@link #writeEntry(Entry)}
+	 */
+	static Entry createEntry(String name, long time, boolean compress, byte[] contents) {
+		Entry entry = new Entry(name, time, compress ? DEFLATED : STORED);
+		CRC32 crc = new CRC32();
+		crc.update(contents);
+		entry.crc = crc.getValue();
+		entry.size = contents.length;
+		if (compress) {
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try {
+				deflater.setInput(contents);
+				deflater.finish();
+				byte[] data = new byte[Math.max(64, contents.length / 2)];
+				int length = 0;
+				while (!deflater.finished()) {
+					if (length == data.length) {
+						data = Arrays.copyOf(data, data.length * 2);
+					}
+					length += deflater.deflate(data, length, data.length - length);
+				}
+				entry.data = data;
+				entry.dataLength = length;
+			} finally {
+				deflater.end();
+			}
+		} else {
+			entry.data = contents;
+			entry.dataLength = contents.length;
+		}
+		entry.compressedSize = entry.dataLength;
+		return entry;
+	}
+
+	/**
+	 * Appends an entry created by {@link #createEntry}.
+	 *
+	 * @param entry
+	 *            the entry to append
+	 * @throws IOException
+	 *             if the entry could not be written
+	 */
+	void writeEntry(Entry entry) throws IOException {
+		entry.offset = written;
+		writeLocalHeader(entry, false);
+		write(entry.data, 0, entry.dataLength);
+		entry.data = null;
+		addCentralHeader(entry);
+	}
+
+	/**
+	 * Appends an entry for a directory.
+	 *
+	 * @param name
+	 *            the name of the entry, ending with a separator
+	 * @param time
+	 *            the modification time in milliseconds, or <code>-1</code>
+	 * @throws IOException
+	 *             if the entry could not be written
+	 */
+	void writeDirectory(String name, long time) throws IOException {
+		writeEntry(createEntry(name, time, false, new byte[0]));
+	}
+
+	/**
+	 * Appends a stored entry with the contents read from the given stream,
+	 * without keeping them in memory.
+	 *
+	 * @param name
+	 *            the name of the entry
+	 * @param time
+	 *            the modification time in milliseconds, or <code>-1</code>
+	 * @param crc
+	 *            the CRC-32 of the contents
+	 * @param size
+	 *            the length of the contents
+	 * @param contents
+	 *            the stream to read the contents from
+	 * @throws IOException
+	 *             if the contents could not be read or written, or do not
+	 *             have the given length
+	 */
+	void writeStoredEntry(String name, long time, long crc, long size, InputStream contents) throws IOException {
+		Entry entry = new Entry(name, time, STORED);
+		entry.offset = written;
+		entry.crc = crc;
+		entry.size = size;
+		entry.compressedSize = size;
+		// stored entries cannot have a data descriptor, so need Zip64 upfront
+		boolean zip64 = size >= ZIP64_MAGIC;
+		writeLocalHeader(entry, zip64);
+		byte[] readBuffer = new byte[8192];
+		long copied = 0;
+		int n;
+		while ((n = contents.read(readBuffer)) > 0) {
+			write(readBuffer, 0, n);
+			copied += n;
+		}
+		if (copied != size) {
+			throw new IOException("contents changed while exporting: " + name); //$NON-NLS-1$
+		}
+		addCentralHeader(entry);
+	}
+
+	/**
+	 * Appends a deflated entry with the contents read from the given stream,
+	 * compressing them on the calling thread without keeping them in memory.
+	 *
+	 * @param name
+	 *            the name of the entry
+	 * @param time
+	 *            the modification time in milliseconds, or <code>-1</code>
+	 * @param length
+	 *            the expected length of the contents
+	 * @param contents
+	 *            the stream to read the contents from
+	 * @return the number of bytes read
+	 * @throws IOException
+	 *             if the contents could not be read or written
+	 */
+	long writeEntry(String name, long time, long length, InputStream contents) throws IOException {
+		Entry entry = new Entry(name, time, DEFLATED);
+		entry.flags |= FLAG_DATA_DESCRIPTOR;
+		entry.offset = written;
+		// deflating may grow the data a little
+		boolean zip64 = length >= ZIP64_MAGIC - (length >>> 6) - 1024;
+		writeLocalHeader(entry, zip64);
+		byte[] readBuffer = new byte[8192];
+		byte[] deflated = new byte[8192];
+		CRC32 crc = new CRC32();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			int n;
+			while ((n = contents.read(readBuffer)) > 0) {
+				crc.update(readBuffer, 0, n);
+				deflater.setInput(readBuffer, 0, n);
+				while (!deflater.needsInput()) {
+					write(deflated, 0, deflater.deflate(deflated));
+				}
+			}
+			deflater.finish();
+			while (!deflater.finished()) {
+				write(deflated, 0, deflater.deflate(deflated));
+			}
+			entry.size = deflater.getBytesRead();
+			entry.compressedSize = deflater.getBytesWritten();
+		} finally {
+			deflater.end();
+		}
+		entry.crc = crc.getValue();
+		if (!zip64 && (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC)) {
+			throw new IOException("contents grew while exporting: " + name); //$NON-NLS-1$
+		}
+		writeInt(DATA_DESCRIPTOR);
+		writeInt(entry.crc);
+		if (zip64) {
+			writeLong(entry.compressedSize);
+			writeLong(entry.size);
+		} else {
+			writeInt(entry.compressedSize);
+			writeInt(entry.size);
+		}
+		addCentralHeader(entry);
+		return entry.size;
+	}
+
+	/**
+	 * Writes the central directory and closes the stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			long centralOffset = written;
+			long centralSize = centralDirectory.size();
+			centralDirectory.writeTo(out);
+			written += centralSize;
+			if (entryCount >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+				long zip64EndOffset = written;
+				writeInt(ZIP64_END);
+				writeLong(44);
+				writeShort(VERSION_ZIP64);
+				writeShort(VERSION_ZIP64);
+				writeInt(0);
+				writeInt(0);
+				writeLong(entryCount);
+				writeLong(entryCount);
+				writeLong(centralSize);
+				writeLong(centralOffset);
+				writeInt(ZIP64_LOCATOR);
+				writeInt(0);
+				writeLong(zip64EndOffset);
+				writeInt(1);
+			}
+			writeInt(END);
+			writeShort(0);
+			writeShort(0);
+			writeShort((int) Math.min(entryCount, ZIP64_MAGIC_COUNT));
+			writeShort((int) Math.min(entryCount, ZIP64_MAGIC_COUNT));
+			writeInt(Math.min(centralSize, ZIP64_MAGIC));
+			writeInt(Math.min(centralOffset, ZIP64_MAGIC));
+			writeShort(0);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeLocalHeader(Entry entry, boolean zip64) throws IOException {
+		boolean descriptor = (entry.flags & FLAG_DATA_DESCRIPTOR) != 0;
+		writeInt(LOCAL_HEADER);
+		writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+		writeShort(entry.flags);
+		writeShort(entry.method);
+		writeInt(entry.dosTime);
+		if (zip64) {
+			writeInt(descriptor ? 0 : entry.crc);
+			writeInt(ZIP64_MAGIC);
+			writeInt(ZIP64_MAGIC);
+		} else if (descriptor) {
+			writeInt(0);
+			writeInt(0);
+			writeInt(0);
+		} else {
+			writeInt(entry.crc);
+			writeInt(entry.compressedSize);
+			writeInt(entry.size);
+		}
+		writeShort(entry.name.length);
+		writeShort(zip64 ? 20 : 0);
+		write(entry.name, 0, entry.name.length);
+		if (zip64) {
+			// with a data descriptor, the sizes follow the data
+			writeShort(ZIP64_EXTRA);
+			writeShort(16);
+			writeLong(descriptor ? 0 : entry.size);
+			writeLong(descriptor ? 0 : entry.compressedSize);
+		}
+	}
+
+	private void addCentralHeader(Entry entry) {
+		ByteArrayOutputStream header = centralDirectory;
+		boolean zip64 = entry.needsZip64();
+		int extraLength = 0;
+		if (zip64) {
+			extraLength = 4 + (entry.size >= ZIP64_MAGIC ? 8 : 0) + (entry.compressedSize >= ZIP64_MAGIC ? 8 : 0)
+					+ (entry.offset >= ZIP64_MAGIC ? 8 : 0);
+		}
+		int version = zip64 ? VERSION_ZIP64 : VERSION;
+		putInt(header, CENTRAL_HEADER);
+		putShort(header, version);
+		putShort(header, version);
+		putShort(header, entry.flags);
+		putShort(header, entry.method);
+		putInt(header, entry.dosTime);
+		putInt(header, entry.crc);
+		putInt(header, Math.min(entry.compressedSize, ZIP64_MAGIC));
+		putInt(header, Math.min(entry.size, ZIP64_MAGIC));
+		putShort(header, entry.name.length);
+		putShort(header, extraLength);
+		putShort(header, 0);
+		putShort(header, 0);
+		putShort(header, 0);
+		putInt(header, entry.isDirectory() ? DIRECTORY_ATTRIBUTE : 0);
+		putInt(header, Math.min(entry.offset, ZIP64_MAGIC));
+		header.write(entry.name, 0, entry.name.length);
+		if (zip64) {
+			putShort(header, ZIP64_EXTRA);
+			putShort(header, extraLength - 4);
+			if (entry.size >= ZIP64_MAGIC) {
+				putLong(header, entry.size);
+			}
+			if (entry.compressedSize >= ZIP64_MAGIC) {
+				putLong(header, entry.compressedSize);
+			}
+			if (entry.offset >= ZIP64_MAGIC) {
+				putLong(header, entry.offset);
+			}
+		}
+		entryCount++;
+	}
+
+	private void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		written += len;
+	}
+
+	private void writeShort(int value) throws IOException {
+		buffer[0] = (byte) value;
+		buffer[1] = (byte) (value >>> 8);
+		write(buffer, 0, 2);
+	}
+
+	private void writeInt(long value) throws IOException {
+		for (int i = 0; i < 4; i++) {
+			buffer[i] = (byte) (value >>> (8 * i));
+		}
+		write(buffer, 0, 4);
+	}
+
+	private void writeLong(long value) throws IOException {
+		for (int i = 0; i < 8; i++) {
+			buffer[i] = (byte) (value >>> (8 * i));
+		}
+		write(buffer, 0, 8);
+	}
+
+	private static void putShort(ByteArrayOutputStream stream, int value) {
+		stream.write(value);
+		stream.write(value >>> 8);
+	}
+
+	private static void putInt(ByteArrayOutputStream stream, long value) {
+		for (int i = 0; i < 4; i++) {
+			stream.write((int) (value >>> (8 * i)));
+		}
+	}
+
+	private static void putLong(ByteArrayOutputStream stream, long value) {
+		for (int i = 0; i < 8; i++) {
+			stream.write((int) (value >>> (8 * i)));
+		}
+	}
+
+	/**
+	 * Converts a Java time to the MS-DOS date and time format used in zip
+	 * files, as {@link java.util.zip.ZipEntry#setTime(long)} does for times
+	 * after 1980.
+	 */
+	private static long toDosTime(long time) {
+		if (time == -1) {
+			time = System.currentTimeMillis();
+		}
+		LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		int year = date.getYear() - 1980;
+		if (year < 0) {
+			// 1980-01-01 00:00
+			return (1 << 21) | (1 << 16);
+		}
+		return ((long) Math.min(year, 127) << 25 | date.getMonthValue() << 21 | date.getDayOfMonth() << 16
+				| date.getHour() << 11 | date.getMinute() << 5 | date.getSecond() >> 1) & 0xFFFFFFFFL;
+	}
+}
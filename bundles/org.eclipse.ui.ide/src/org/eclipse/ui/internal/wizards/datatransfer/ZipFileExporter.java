@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,13 +13,16 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.wizards.datatransfer;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -29,9 +32,13 @@ import org.eclipse.core.runtime.CoreException;
 /**
  *	Exports resources to a .zip file
  */
-public class ZipFileExporter implements IFileExporter {
+public class ZipFileExporter implements IParallelFileExporter {
 	private ZipOutputStream outputStream;
 
+	private ZipArchiveWriter archiveWriter;
+
+	private long exportedLength;
+
 	private boolean useCompression = true;
 
 	private boolean resolveLinks;
@@ -48,8 +55,32 @@ public class ZipFileExporter implements IFileExporter {
 	 * @exception java.io.IOException
 	 */
 	public ZipFileExporter(String filename, boolean compress, boolean resolveLinks) throws IOException {
+		this(filename, compress, resolveLinks, false);
+	}
+
+	/**
+	 * Create an instance of this class.
+	 *
+	 * @param filename
+	 *            java.lang.String
+	 * @param compress
+	 *            boolean
+	 * @param resolveLinks
+	 *            boolean
+	 * @param parallel
+	 *            whether files may be compressed on other threads with
+	 *            {@link #prepare(IFile, String)}
+	 * @exception java.io.IOException
+	 * @since 3.21
+	 */
+	public ZipFileExporter(String filename, boolean compress, boolean resolveLinks, boolean parallel)
+			throws IOException {
 		this.resolveLinks = resolveLinks;
-		outputStream = new ZipOutputStream(new FileOutputStream(filename));
+		if (parallel) {
+			archiveWriter = new ZipArchiveWriter(new BufferedOutputStream(new FileOutputStream(filename), 65536));
+		} else {
+			outputStream = new ZipOutputStream(new FileOutputStream(filename));
+		}
 		useCompression = compress;
 	}
 
@@ -61,7 +92,16 @@ public class ZipFileExporter implements IFileExporter {
 	 */
 	@Override
 	public void finished() throws IOException {
-		outputStream.close();
+		if (archiveWriter != null) {
+			archiveWriter.close();
+		} else {
+			outputStream.close();
+		}
+	}
+
+	@Override
+	public long getExportedLength() {
+		return exportedLength;
 	}
 
 	/**
@@ -107,17 +147,57 @@ public class ZipFileExporter implements IFileExporter {
 			int n;
 			while ((n = contentStream.read(readBuffer)) > 0) {
 				outputStream.write(readBuffer, 0, n);
+				exportedLength += n;
 			}
 		}
 		outputStream.closeEntry();
 	}
 
+	/**
+	 * Write the contents of the file to the archive without keeping them in
+	 * memory.
+	 */
+	private void writeStreamed(String name, IFile contents) throws IOException, CoreException {
+		long time = contents.getLocalTimeStamp();
+		if (useCompression) {
+			long length = -1;
+			URI location = contents.getLocationURI();
+			if (location != null) {
+				length = EFS.getStore(location).fetchInfo().getLength();
+			}
+			try (InputStream contentStream = FileContents.open(contents)) {
+				// an unknown length may exceed 4 GB
+				exportedLength += archiveWriter.writeEntry(name, time, length < 0 ? Long.MAX_VALUE : length,
+						contentStream);
+			}
+			return;
+		}
+		byte[] readBuffer = new byte[8192];
+		long length = 0;
+		CRC32 checksumCalculator = new CRC32();
+		try (InputStream contentStream = FileContents.open(contents)) {
+			int n;
+			while ((n = contentStream.read(readBuffer)) > 0) {
+				checksumCalculator.update(readBuffer, 0, n);
+				length += n;
+			}
+		}
+		try (InputStream contentStream = FileContents.open(contents)) {
+			archiveWriter.writeStoredEntry(name, time, checksumCalculator.getValue(), length, contentStream);
+		}
+		exportedLength += length;
+	}
+
 	@Override
 	public void write(IContainer container, String destinationPath)
 			throws IOException {
 		if (!resolveLinks && container.isLinked(IResource.DEPTH_INFINITE)) {
 			return;
 		}
+		if (archiveWriter != null) {
+			archiveWriter.writeDirectory(destinationPath, -1);
+			return;
+		}
 		ZipEntry newEntry = new ZipEntry(destinationPath);
 		outputStream.putNextEntry(newEntry);
 	}
@@ -136,7 +216,30 @@ public class ZipFileExporter implements IFileExporter {
 		if (!resolveLinks && resource.isLinked(IResource.DEPTH_INFINITE)) {
 			return;
 		}
+		if (archiveWriter != null) {
+			writeStreamed(destinationPath, resource);
+			return;
+		}
 		ZipEntry newEntry = new ZipEntry(destinationPath);
 		write(newEntry, resource);
 	}
+
+	@Override
+	public Object prepare(IFile resource, String destinationPath) throws IOException {
+		if (archiveWriter == null || (!resolveLinks && resource.isLinked(IResource.DEPTH_INFINITE))) {
+			return null;
+		}
+		byte[] contents = FileContents.read(resource, FileContents.MAX_PREPARED_LENGTH);
+		if (contents == null) {
+			return null;
+		}
+		return ZipArchiveWriter.createEntry(destinationPath, resource.getLocalTimeStamp(), useCompression, contents);
+	}
+
+	@Override
+	public void writePrepared(Object preparedEntry) throws IOException {
+		ZipArchiveWriter.Entry entry = (ZipArchiveWriter.Entry) preparedEntry;
+		archiveWriter.writeEntry(entry);
+		exportedLength += entry.getSize();
+	}
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.wizards.datatransfer;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the directories below the root directory of an
+ * import, listed once and shared by all the {@link ProjectConfigurator project
+ * configurators} looking for their marker files, such as <code>pom.xml</code>
+ * or <code>package.json</code>:
+ *
+ * <pre>
+ * public Set&lt;File&gt; findConfigurableLocations(File root, IDirectorySnapshot snapshot,
+ * 		IProgressMonitor monitor) {
+ * 	return snapshot.findDirectories(root, "pom.xml");
+ * }
+ * </pre>
+ * <p>
+ * The snapshot does not see the changes made to the file system after it was
+ * taken. Directories that cannot contain projects to import, such as version
+ * control metadata, are not listed; queries about a directory that is not
+ * listed are answered by the file system.
+ * </p>
+ *
+ * @see ProjectConfigurator#findConfigurableLocations(File, IDirectorySnapshot,
+ *      org.eclipse.core.runtime.IProgressMonitor)
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 3.21
+ */
+public interface IDirectorySnapshot {
+
+	/**
+	 * @return the root directory of the snapshot
+	 */
+	File getRoot();
+
+	/**
+	 * Returns whether the given directory was listed in the snapshot.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @return <code>true</code> if queries about the directory are answered
+	 *         by the snapshot
+	 */
+	boolean isListed(File directory);
+
+	/**
+	 * Returns whether the given directory contains a file or directory with
+	 * the given name.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @param name
+	 *            the name of the file or directory
+	 * @return <code>true</code> if it exists
+	 */
+	boolean exists(File directory, String name);
+
+	/**
+	 * Returns whether the given directory contains a file, which is not a
+	 * directory, with the given name.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @param name
+	 *            the name of the file
+	 * @return <code>true</code> if the file exists
+	 */
+	boolean isFile(File directory, String name);
+
+	/**
+	 * Returns the names of the files, which are not directories, in the given
+	 * directory that match the given glob pattern, as accepted by
+	 * {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @param glob
+	 *            the pattern, such as <code>*.gradle</code>
+	 * @return the sorted names, may be empty
+	 */
+	List<String> getFileNames(File directory, String glob);
+
+	/**
+	 * Returns the listed directories in the given directory, including itself,
+	 * that contain a file, which is not a directory, matching the given glob
+	 * pattern, as accepted by
+	 * {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+	 *
+	 * @param directory
+	 *            the directory to search
+	 * @param glob
+	 *            the pattern, such as <code>pom.xml</code> or
+	 *            <code>build.gradle*</code>
+	 * @return the sorted directories, may be empty
+	 */
+	Set<File> findDirectories(File directory, String glob);
+}
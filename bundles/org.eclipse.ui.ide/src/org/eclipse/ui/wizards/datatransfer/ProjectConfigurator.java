@@ -72,6 +72,40 @@ public interface ProjectConfigurator {
 	 */
 	public Set<File> findConfigurableLocations(File root, IProgressMonitor monitor);
 
+	/**
+	 * From a given {@link File}, detects which directories can/should be
+	 * imported as projects into the workspace and configured by this
+	 * configurator, looking them up in a snapshot of the directories below the
+	 * root that is shared by all configurators. This first set of directories
+	 * is then presented to the user as import proposals.
+	 *
+	 * <p>
+	 * The default implementation calls
+	 * {@link #findConfigurableLocations(File, IProgressMonitor)}, which walks
+	 * the file system again. Configurators that look for marker files should
+	 * override this method and query the snapshot instead.
+	 * </p>
+	 *
+	 * <p>
+	 * This method must be stateless.
+	 * </p>
+	 *
+	 * @param root
+	 *            the root directory on which to start the discovery
+	 * @param snapshot
+	 *            the directories below the root, listed before the
+	 *            configurators are asked
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the children (at any depth) that this configurator suggests to
+	 *         import as project
+	 * @since 3.21
+	 */
+	default public Set<File> findConfigurableLocations(File root, IDirectorySnapshot snapshot,
+			IProgressMonitor monitor) {
+		return findConfigurableLocations(root, monitor);
+	}
+
 	/**
 	 * Removes from the set of directories those that should not be proposed to
 	 * the user for import. Those are typically dirty volatile directories such
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,12 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.viewers.ITreeContentProvider;
@@ -31,6 +37,7 @@ import org.eclipse.jface.viewers.ITreePathContentProvider;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorViewerDescriptor;
@@ -134,11 +141,20 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private static final boolean ELEMENTS = true;
 
+	/**
+	 * Milliseconds the UI thread waits for children requested on a worker
+	 * thread before it requests them itself.
+	 */
+	private static final long UI_THREAD_WAIT = 100;
+
 	private Object[] internalGetChildren(final Object aParentElement,
 			final Object aParentElementOrPath, final Set enabledExtensions, final boolean elements) {
 		if (enabledExtensions.isEmpty()) {
 			return NO_CHILDREN;
 		}
+		if (enabledExtensions.size() > 1 && hasConcurrentExtension(enabledExtensions)) {
+			return internalGetChildrenInParallel(aParentElement, aParentElementOrPath, enabledExtensions, elements);
+		}
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
 
@@ -152,12 +168,8 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 				public void run() throws Exception {
 					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
 							enabledExtensions)) {
-						if (elements)
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getElements(aParentElementOrPath);
-						else
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getChildren(aParentElementOrPath);
+						contributedChildren = fetchChildren(foundExtension, aParentElement,
+								aParentElementOrPath, elements);
 						overridingExtensions = foundExtension
 								.getOverridingExtensionsForTriggerPoint(aParentElement);
 						INavigatorContentDescriptor foundDescriptor = foundExtension
@@ -185,6 +197,152 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		return finalSet.toArray();
 	}
 
+	private static boolean hasConcurrentExtension(Set enabledExtensions) {
+		for (Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			if (isConcurrent((NavigatorContentExtension) itr.next())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isConcurrent(NavigatorContentExtension anExtension) {
+		return ((NavigatorContentDescriptor) anExtension.getDescriptor()).isConcurrentChildren();
+	}
+
+	/**
+	 * Requests the children from the first class extensions that allow it on
+	 * worker threads, and then pipelines them in the order of the extensions on
+	 * the calling thread, so the result is the same as
+	 * {@link #internalGetChildren}. The UI thread only waits a short time for a
+	 * worker, and otherwise cancels its request and requests the children
+	 * itself.
+	 */
+	private Object[] internalGetChildrenInParallel(final Object aParentElement,
+			final Object aParentElementOrPath, final Set enabledExtensions, final boolean elements) {
+		List<NavigatorContentExtension> firstClassExtensions = new ArrayList<>(enabledExtensions.size());
+		for (Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
+			if (!isOverridingExtensionInSet(foundExtension.getDescriptor(), enabledExtensions)) {
+				// create the content provider here, as it may activate its plug-in
+				foundExtension.internalGetContentProvider();
+				firstClassExtensions.add(foundExtension);
+			}
+		}
+
+		// the calling thread requests the children of the other extensions, or
+		// of the last one if all allow worker threads
+		int inline = firstClassExtensions.size() - 1;
+		for (int i = 0; i < firstClassExtensions.size(); i++) {
+			if (!isConcurrent(firstClassExtensions.get(i))) {
+				inline = -1;
+				break;
+			}
+		}
+		List<FutureTask<Object[]>> requests = new ArrayList<>(firstClassExtensions.size());
+		for (int i = 0; i < firstClassExtensions.size(); i++) {
+			NavigatorContentExtension foundExtension = firstClassExtensions.get(i);
+			FutureTask<Object[]> request = new FutureTask<>(
+					() -> fetchChildren(foundExtension, aParentElement, aParentElementOrPath, elements));
+			if (i != inline && isConcurrent(foundExtension)) {
+				ChildrenExecutor.INSTANCE.execute(request);
+			}
+			requests.add(request);
+		}
+		// run the requests no worker has started, does nothing for the others
+		for (FutureTask<Object[]> request : requests) {
+			request.run();
+		}
+
+		final Set finalSet = new LinkedHashSet();
+		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
+		final boolean uiThread = Display.getCurrent() != null;
+
+		for (int i = 0; i < requests.size(); i++) {
+			final NavigatorContentExtension foundExtension = firstClassExtensions.get(i);
+			final FutureTask<Object[]> request = requests.get(i);
+			SafeRunner.run(new NavigatorSafeRunnable() {
+
+				@Override
+				public void run() throws Exception {
+					Object[] contributedChildren;
+					try {
+						contributedChildren = uiThread ? request.get(UI_THREAD_WAIT, TimeUnit.MILLISECONDS)
+								: request.get();
+					} catch (TimeoutException e) {
+						// the worker may wait for the UI thread, do not wait for it.
+						// Cancelling keeps a queued request from starting, and
+						// discards the result of a running one.
+						request.cancel(false);
+						contributedChildren = fetchChildren(foundExtension, aParentElement, aParentElementOrPath,
+								elements);
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						if (cause instanceof Error) {
+							throw (Error) cause;
+						}
+						throw cause instanceof Exception ? (Exception) cause : e;
+					}
+					NavigatorContentExtension[] overridingExtensions = foundExtension
+							.getOverridingExtensionsForTriggerPoint(aParentElement);
+					INavigatorContentDescriptor foundDescriptor = foundExtension.getDescriptor();
+					localSet.setContributor(foundDescriptor, foundDescriptor);
+					localSet.setContents(contributedChildren);
+
+					if (overridingExtensions.length > 0) {
+						pipelineChildren(aParentElement, overridingExtensions, foundDescriptor, localSet, elements);
+					}
+					finalSet.addAll(localSet);
+				}
+
+				@Override
+				public void handleException(Throwable e) {
+					NavigatorPlugin.logError(0, NLS.bind(
+							CommonNavigatorMessages.Exception_Invoking_Extension, new Object[] {
+									foundExtension.getDescriptor().getId(), aParentElement }), e);
+				}
+			});
+		}
+
+		return finalSet.toArray();
+	}
+
+	private Object[] fetchChildren(NavigatorContentExtension anExtension, Object aParentElement,
+			Object aParentElementOrPath, boolean elements) {
+		long start = Policy.DEBUG_CONTENT ? System.nanoTime() : 0;
+		SafeDelegateTreeContentProvider contentProvider = anExtension.internalGetContentProvider();
+		Object[] children = elements ? contentProvider.getElements(aParentElementOrPath)
+				: contentProvider.getChildren(aParentElementOrPath);
+		if (Policy.DEBUG_CONTENT) {
+			System.out.println((elements ? "Elements of " : "Children of ") + Policy.getObjectString(aParentElement) //$NON-NLS-1$ //$NON-NLS-2$
+					+ " from " + anExtension.getId() + ": " + (children == null ? 0 : children.length) //$NON-NLS-1$ //$NON-NLS-2$
+					+ " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms [" //$NON-NLS-1$ //$NON-NLS-2$
+					+ Thread.currentThread().getName() + "]"); //$NON-NLS-1$
+		}
+		return children;
+	}
+
+	/**
+	 * The bounded pool of daemon threads that request children from content
+	 * extensions in parallel, shared by all navigator viewers.
+	 */
+	private static final class ChildrenExecutor {
+
+		static final ThreadPoolExecutor INSTANCE = create();
+
+		private static ThreadPoolExecutor create() {
+			int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "Navigator Content Extension Worker"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+
 	/**
 	 * Query each of <code>theOverridingExtensions</code> for children, and then
 	 * pipe them through the Pipeline content provider.
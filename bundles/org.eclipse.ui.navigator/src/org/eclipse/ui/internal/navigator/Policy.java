@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,6 +51,11 @@ public class Policy {
 	 */
 	public static boolean DEBUG_VIEWER_MAP = DEFAULT;
 
+	/**
+	 * Option for tracing the time content extensions take to provide children
+	 */
+	public static boolean DEBUG_CONTENT = DEFAULT;
+
 	static {
 		if (getDebugOption("/debug")) { //$NON-NLS-1$
 			DEBUG_DND = getDebugOption("/debug/dnd"); //$NON-NLS-1$
@@ -58,6 +63,7 @@ public class Policy {
 			DEBUG_EXTENSION_SETUP = getDebugOption("/debug/setup"); //$NON-NLS-1$
 			DEBUG_SORT = getDebugOption("/debug/sort"); //$NON-NLS-1$
 			DEBUG_VIEWER_MAP = getDebugOption("/debug/viewermap"); //$NON-NLS-1$
+			DEBUG_CONTENT = getDebugOption("/debug/content"); //$NON-NLS-1$
 		}
 	}
 
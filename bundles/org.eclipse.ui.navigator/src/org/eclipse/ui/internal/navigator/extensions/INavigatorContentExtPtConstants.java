@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -103,6 +103,9 @@ public interface INavigatorContentExtPtConstants {
 	/** */
 	String ATT_PROVIDES_SAVEABLES = "providesSaveables"; //$NON-NLS-1$
 
+	/** */
+	String ATT_CONCURRENT_CHILDREN = "concurrentChildren"; //$NON-NLS-1$
+
 	/** */
 	String ATT_CONTENT_PROVIDER = "contentProvider"; //$NON-NLS-1$
 
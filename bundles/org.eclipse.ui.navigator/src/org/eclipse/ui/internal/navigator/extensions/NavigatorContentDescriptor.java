@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -74,6 +74,10 @@ public final class NavigatorContentDescriptor implements
 
 	private Expression possibleChildren;
 
+	private TypeFilter triggerPointTypes = TypeFilter.NONE;
+
+	private TypeFilter possibleChildTypes = TypeFilter.NONE;
+
 	private Expression initialActivation;
 
 	private String icon;
@@ -97,6 +101,8 @@ public final class NavigatorContentDescriptor implements
 
 	private boolean providesSaveables;
 
+	private boolean concurrentChildren;
+
 	/**
 	 * Creates a new content descriptor from a configuration element.
 	 *
@@ -160,6 +166,15 @@ public final class NavigatorContentDescriptor implements
 		return sortOnly;
 	}
 
+	/**
+	 * @return The value specified by the <i>concurrentChildren</i> attribute of
+	 *         the &lt;navigatorContent/&gt; element, whether the content
+	 *         provider may be asked for children on a worker thread
+	 */
+	public boolean isConcurrentChildren() {
+		return concurrentChildren;
+	}
+
 	/**
 	 * Parses the configuration element.
 	 *
@@ -205,6 +220,8 @@ public final class NavigatorContentDescriptor implements
 		String sortOnlyString = configElement.getAttribute(ATT_SORT_ONLY);
 		sortOnly = (sortOnlyString != null && sortOnlyString.length() > 0) ? Boolean.parseBoolean(sortOnlyString) : false;
 
+		concurrentChildren = Boolean.parseBoolean(configElement.getAttribute(ATT_CONCURRENT_CHILDREN));
+
 		if (id == null) {
 			throw new WorkbenchException(NLS.bind(
 					CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -252,6 +269,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_TRIGGER_POINTS);
 			if (children.length == 1) {
 				enablement = new CustomAndExpression(children[0]);
+				triggerPointTypes = TypeFilter.create(children[0]);
 			} else {
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -265,6 +283,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_POSSIBLE_CHILDREN);
 			if (children.length == 1) {
 				possibleChildren = new CustomAndExpression(children[0]);
+				possibleChildTypes = TypeFilter.create(children[0]);
 			} else if(children.length > 1){
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -273,11 +292,15 @@ public final class NavigatorContentDescriptor implements
 								id,
 								configElement.getDeclaringExtension()
 										.getContributor().getName() }));
+			} else {
+				possibleChildTypes = triggerPointTypes;
 			}
 		} else if (children.length == 1) {
 			try {
 				enablement = ElementHandler.getDefault().create(
 						ExpressionConverter.getDefault(), children[0]);
+				triggerPointTypes = TypeFilter.create(children[0]);
+				possibleChildTypes = triggerPointTypes;
 			} catch (CoreException e) {
 				NavigatorPlugin.log(IStatus.ERROR, 0, e.getMessage(), e);
 			}
@@ -405,7 +428,8 @@ public final class NavigatorContentDescriptor implements
 	@Override
 	public boolean isTriggerPoint(Object anElement) {
 
-		if (enablement == null || anElement == null) {
+		if (enablement == null || anElement == null
+				|| !triggerPointTypes.accepts(anElement.getClass())) {
 			return false;
 		}
 
@@ -435,6 +459,8 @@ public final class NavigatorContentDescriptor implements
 			return false;
 		} else if(anElement instanceof IStructuredSelection) {
 			return arePossibleChildren((IStructuredSelection) anElement);
+		} else if (!possibleChildTypes.accepts(anElement.getClass())) {
+			return false;
 		}
 
 		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
@@ -446,6 +472,32 @@ public final class NavigatorContentDescriptor implements
 		return false;
 	}
 
+	/**
+	 * Determine if elements of the given type could be trigger points of this
+	 * content extension, from the type tests of its trigger points.
+	 *
+	 * @param aType
+	 *            The class of the elements.
+	 * @return False if {@link #isTriggerPoint(Object)} is false for every
+	 *         element of the type.
+	 */
+	public boolean mayBeTriggerPoint(Class<?> aType) {
+		return triggerPointTypes.accepts(aType);
+	}
+
+	/**
+	 * Determine if elements of the given type could be provided as children by
+	 * this content extension, from the type tests of its possible children.
+	 *
+	 * @param aType
+	 *            The class of the elements, not a selection.
+	 * @return False if {@link #isPossibleChild(Object)} is false for every
+	 *         element of the type.
+	 */
+	public boolean mayBePossibleChild(Class<?> aType) {
+		return possibleChildTypes.accepts(aType);
+	}
+
 	/**
 	 * A convenience method to check all elements in a selection.
 	 *
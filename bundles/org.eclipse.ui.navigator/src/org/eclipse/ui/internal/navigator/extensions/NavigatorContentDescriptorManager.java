@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,9 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.navigator.extensions;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,6 +33,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.resource.ResourceLocator;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.internal.navigator.NavigatorPlugin;
 import org.eclipse.ui.internal.navigator.NavigatorSafeRunnable;
@@ -64,6 +67,17 @@ public class NavigatorContentDescriptorManager {
 
 	private final Set<NavigatorContentDescriptor> firstClassDescriptorsSet = new HashSet<>();
 
+	/*
+	 * The first class descriptors whose trigger points, or possible children,
+	 * may accept elements of a class, so that the expressions of the other
+	 * descriptors are not evaluated for every new element.
+	 */
+	private final Map<Class<?>, Set<NavigatorContentDescriptor>> triggerPointCandidates = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private final Map<Class<?>, Set<NavigatorContentDescriptor>> possibleChildCandidates = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
 	/**
 	 * @return the singleton instance of the manager
 	 */
@@ -167,11 +181,12 @@ public class NavigatorContentDescriptorManager {
 			return descriptors;
 		}
 
+		Set<NavigatorContentDescriptor> candidates = getCandidates(anElement, possibleChild);
 		if (considerOverrides) {
-			addDescriptorsConsideringOverrides(anElement, firstClassDescriptorsSet, aVisibilityAssistant, descriptors, possibleChild);
+			addDescriptorsConsideringOverrides(anElement, candidates, aVisibilityAssistant, descriptors, possibleChild);
 		} else {
 			/* Find other ContentProviders which enable for this object */
-			for (NavigatorContentDescriptor descriptor : firstClassDescriptorsSet) {
+			for (NavigatorContentDescriptor descriptor : candidates) {
 				if (aVisibilityAssistant.isActive(descriptor) && aVisibilityAssistant.isVisible(descriptor)
 						&& (possibleChild ? descriptor.isPossibleChild(anElement) : descriptor.isTriggerPoint(anElement))) {
 					descriptors.add(descriptor);
@@ -188,6 +203,43 @@ public class NavigatorContentDescriptorManager {
 		return descriptors;
 	}
 
+	/**
+	 * Returns the first class descriptors that may enable for the element,
+	 * judging by the type tests of their expressions.
+	 * <p>
+	 * A descriptor that does not enable for the element may still have to be
+	 * visited if one of its overriding descriptors does, so descriptors with
+	 * overriding extensions are always candidates.
+	 * </p>
+	 */
+	private Set<NavigatorContentDescriptor> getCandidates(Object anElement, boolean possibleChild) {
+		if (anElement == null || (possibleChild && anElement instanceof IStructuredSelection)) {
+			return firstClassDescriptorsSet;
+		}
+		Map<Class<?>, Set<NavigatorContentDescriptor>> index = possibleChild ? possibleChildCandidates
+				: triggerPointCandidates;
+		Class<?> type = anElement.getClass();
+		Set<NavigatorContentDescriptor> candidates = index.get(type);
+		if (candidates == null) {
+			List<NavigatorContentDescriptor> list = new ArrayList<>();
+			for (NavigatorContentDescriptor descriptor : firstClassDescriptorsSet) {
+				if (descriptor.hasOverridingExtensions()
+						|| (possibleChild ? descriptor.mayBePossibleChild(type) : descriptor.mayBeTriggerPoint(type))) {
+					list.add(descriptor);
+				}
+			}
+			candidates = list.size() == firstClassDescriptorsSet.size() ? firstClassDescriptorsSet
+					: Collections.unmodifiableSet(new HashSet<>(list));
+			index.put(type, candidates);
+			if (Policy.DEBUG_RESOLUTION) {
+				System.out.println("Candidate descriptors for " + type.getName() + //$NON-NLS-1$
+						(possibleChild ? " (possible child)" : "") + ": " + candidates.size() + " of " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						+ firstClassDescriptorsSet.size());
+			}
+		}
+		return candidates;
+	}
+
 	private EvaluationCache getEvaluationCache(Map<VisibilityAssistant, EvaluationCache> anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
 		EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
@@ -308,6 +360,9 @@ public class NavigatorContentDescriptorManager {
 		for (EvaluationCache cache : cachedTriggerPointEvaluations.values()) {
 			cache.clear();
 		}
+		// adapter factories may have been added since the candidates were computed
+		triggerPointCandidates.clear();
+		possibleChildCandidates.clear();
 	}
 
 	/**
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.navigator.extensions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * The types an element must have to possibly satisfy an expression of a
+ * navigator content extension, derived from the <code>instanceof</code> and
+ * <code>adapt</code> tests of the expression.
+ * <p>
+ * A type filter only answers whether the expression can be skipped for an
+ * element; elements it accepts must still be evaluated. Parts of the expression
+ * that do not test the type of the default variable, such as
+ * <code>not</code>, <code>with</code> or property tests, are assumed to
+ * accept every element.
+ * </p>
+ *
+ * @since 3.12
+ */
+public abstract class TypeFilter {
+
+	private static final String TAG_INSTANCEOF = "instanceof"; //$NON-NLS-1$
+
+	private static final String TAG_ADAPT = "adapt"; //$NON-NLS-1$
+
+	private static final String TAG_AND = "and"; //$NON-NLS-1$
+
+	private static final String TAG_OR = "or"; //$NON-NLS-1$
+
+	private static final String ATT_VALUE = "value"; //$NON-NLS-1$
+
+	private static final String ATT_TYPE = "type"; //$NON-NLS-1$
+
+	private static final String ADAPTABLE = IAdaptable.class.getName();
+
+	/**
+	 * The filter that accepts every element.
+	 */
+	public static final TypeFilter ANY = new TypeFilter() {
+		@Override
+		boolean accepts(Class<?> type, Set<String> typeNames) {
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "any"; //$NON-NLS-1$
+		}
+	};
+
+	/**
+	 * The filter that accepts no element, used when there is no expression.
+	 */
+	public static final TypeFilter NONE = new TypeFilter() {
+		@Override
+		boolean accepts(Class<?> type, Set<String> typeNames) {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "none"; //$NON-NLS-1$
+		}
+	};
+
+	private static final ClassValue<Set<String>> TYPE_NAMES = new ClassValue<>() {
+		@Override
+		protected Set<String> computeValue(Class<?> type) {
+			Set<String> names = new HashSet<>();
+			addTypeNames(type, names);
+			return names;
+		}
+	};
+
+	TypeFilter() {
+		// only the filters below
+	}
+
+	/**
+	 * Creates the filter for the children of the given element, which are
+	 * combined using boolean AND semantics, as for
+	 * <code>triggerPoints</code>, <code>possibleChildren</code> and
+	 * <code>enablement</code>.
+	 *
+	 * @param element
+	 *            the element containing the expression, or <code>null</code>
+	 * @return the filter, never <code>null</code>
+	 */
+	public static TypeFilter create(IConfigurationElement element) {
+		if (element == null) {
+			return NONE;
+		}
+		return combine(element.getChildren(), true);
+	}
+
+	private static TypeFilter create(String name, IConfigurationElement element) {
+		if (TAG_INSTANCEOF.equals(name)) {
+			String value = element.getAttribute(ATT_VALUE);
+			return value == null ? ANY : new InstanceofFilter(value, false);
+		} else if (TAG_ADAPT.equals(name)) {
+			String value = element.getAttribute(ATT_TYPE);
+			return value == null ? ANY : new InstanceofFilter(value, true);
+		} else if (TAG_AND.equals(name)) {
+			return combine(element.getChildren(), true);
+		} else if (TAG_OR.equals(name)) {
+			return combine(element.getChildren(), false);
+		}
+		return ANY;
+	}
+
+	private static TypeFilter combine(IConfigurationElement[] elements, boolean and) {
+		List<TypeFilter> filters = new ArrayList<>(elements.length);
+		for (IConfigurationElement element : elements) {
+			TypeFilter filter = create(element.getName(), element);
+			if (filter == ANY) {
+				if (!and) {
+					return ANY;
+				}
+			} else {
+				filters.add(filter);
+			}
+		}
+		if (filters.isEmpty()) {
+			// an empty or evaluates to false, an empty and to true
+			return and ? ANY : NONE;
+		}
+		if (filters.size() == 1) {
+			return filters.get(0);
+		}
+		return new CompositeFilter(filters.toArray(new TypeFilter[filters.size()]), and);
+	}
+
+	/**
+	 * Returns whether an element of the given type may satisfy the expression.
+	 *
+	 * @param type
+	 *            the class of the element
+	 * @return <code>false</code> if no element of the type satisfies the
+	 *         expression
+	 */
+	public boolean accepts(Class<?> type) {
+		return accepts(type, TYPE_NAMES.get(type));
+	}
+
+	abstract boolean accepts(Class<?> type, Set<String> typeNames);
+
+	private static void addTypeNames(Class<?> type, Set<String> names) {
+		while (type != null && names.add(type.getName())) {
+			for (Class<?> interfaceType : type.getInterfaces()) {
+				addTypeNames(interfaceType, names);
+			}
+			type = type.getSuperclass();
+		}
+	}
+
+	private static final class InstanceofFilter extends TypeFilter {
+
+		private final String typeName;
+
+		private final boolean adapt;
+
+		InstanceofFilter(String typeName, boolean adapt) {
+			this.typeName = typeName;
+			this.adapt = adapt;
+		}
+
+		@Override
+		boolean accepts(Class<?> type, Set<String> typeNames) {
+			if (typeNames.contains(typeName)) {
+				return true;
+			}
+			if (!adapt) {
+				return false;
+			}
+			if (typeNames.contains(ADAPTABLE)) {
+				return true;
+			}
+			String[] adapterTypes = Platform.getAdapterManager().computeAdapterTypes(type);
+			return Arrays.asList(adapterTypes).contains(typeName);
+		}
+
+		@Override
+		public String toString() {
+			return (adapt ? "adapt " : "instanceof ") + typeName; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static final class CompositeFilter extends TypeFilter {
+
+		private final TypeFilter[] filters;
+
+		private final boolean and;
+
+		CompositeFilter(TypeFilter[] filters, boolean and) {
+			this.filters = filters;
+			this.and = and;
+		}
+
+		@Override
+		boolean accepts(Class<?> type, Set<String> typeNames) {
+			for (TypeFilter filter : filters) {
+				if (filter.accepts(type, typeNames) != and) {
+					return !and;
+				}
+			}
+			return and;
+		}
+
+		@Override
+		public String toString() {
+			return (and ? "and" : "or") + Arrays.toString(filters); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
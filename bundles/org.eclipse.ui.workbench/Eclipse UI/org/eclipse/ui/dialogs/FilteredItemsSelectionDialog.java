@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -37,7 +37,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -225,6 +232,23 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	/**
+	 * Number of items matched by one task of the matching pool.
+	 */
+	private static final int MATCH_BATCH_SIZE = 512;
+
+	/**
+	 * Number of best matches shown while the search is still running.
+	 */
+	private static final int STREAM_LIMIT = 256;
+
+	/**
+	 * Milliseconds between two refreshes showing the best matches so far.
+	 */
+	private static final long STREAM_INTERVAL = 100;
+
+	private static ForkJoinPool matchingPool;
+
 	private boolean refreshWithLastSelection = false;
 
 	private IHandlerActivation showViewHandler;
@@ -1177,6 +1201,37 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		return new HistoryComparator();
 	}
 
+	/**
+	 * Returns whether the items of a search are matched on several threads
+	 * concurrently, and the best matches are shown while the search is still
+	 * running. If enabled, {@link ItemsFilter#matchItem(Object)} of the filters
+	 * created by {@link #createFilter()} must be thread safe, while
+	 * {@link #fillContentProvider(AbstractContentProvider, ItemsFilter, IProgressMonitor)}
+	 * is still called on a single thread.
+	 * <p>
+	 * The default implementation returns <code>false</code>. Subclasses whose
+	 * filters are thread safe may override.
+	 * </p>
+	 *
+	 * @return <code>true</code> to match items in parallel
+	 * @since 3.129
+	 */
+	protected boolean isParallelMatchingEnabled() {
+		return false;
+	}
+
+	/**
+	 * Returns the pool that matches items of large searches in parallel.
+	 *
+	 * @return the matching pool
+	 */
+	private static synchronized ForkJoinPool getMatchingPool() {
+		if (matchingPool == null) {
+			matchingPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		}
+		return matchingPool;
+	}
+
 	/**
 	 * Returns the history of selected elements.
 	 *
@@ -1933,6 +1988,11 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		protected void filterContent(GranualProgressMonitor monitor) throws CoreException {
 
+			if (isParallelMatchingEnabled()) {
+				filterContentInParallel(monitor);
+				return;
+			}
+
 			if (lastCompletedFilter != null && lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
 				int length = lastCompletedResult.size() / 500;
@@ -1969,6 +2029,194 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 		}
 
+		private void filterContentInParallel(GranualProgressMonitor monitor) throws CoreException {
+
+			contentProvider.startStreaming(itemsFilter);
+			try {
+				if (lastCompletedFilter != null && lastCompletedFilter.isSubFilter(this.itemsFilter)) {
+
+					Object[] lastItems = lastCompletedResult.toArray();
+					monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
+							lastItems.length / MATCH_BATCH_SIZE + 1);
+
+					MatchTask task = new MatchTask(lastItems, 0, lastItems.length, itemsFilter, monitor);
+					awaitMatches(getMatchingPool().submit(task), itemsFilter);
+
+				} else {
+
+					lastCompletedFilter = null;
+					lastCompletedResult = null;
+
+					SubMonitor subMonitor = SubMonitor.convert(monitor,
+							WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName, 100);
+
+					MatchingContentProvider matchingProvider = new MatchingContentProvider(itemsFilter, monitor);
+					try {
+						fillContentProvider(matchingProvider, itemsFilter, subMonitor.split(95));
+					} finally {
+						// wait for the submitted batches even if the subclass failed,
+						// they stop early if the search is canceled
+						matchingProvider.finish();
+					}
+
+					if (monitor != null && !monitor.isCanceled()) {
+						subMonitor.worked(2);
+						contentProvider.rememberResult(itemsFilter);
+						subMonitor.worked(3);
+					}
+				}
+			} finally {
+				contentProvider.stopStreaming();
+			}
+
+		}
+
+	}
+
+	/**
+	 * Waits for a matching task, showing the best matches found so far every
+	 * {@link #STREAM_INTERVAL} milliseconds.
+	 *
+	 * @param task        the task to wait for
+	 * @param itemsFilter the filter the task matches against
+	 */
+	private void awaitMatches(ForkJoinTask<?> task, ItemsFilter itemsFilter) {
+		while (true) {
+			try {
+				task.get(STREAM_INTERVAL, TimeUnit.MILLISECONDS);
+				return;
+			} catch (TimeoutException e) {
+				contentProvider.publishTopItems(itemsFilter);
+			} catch (InterruptedException e) {
+				task.cancel(false);
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Matches a range of items against a filter, adding the matches to the
+	 * content provider. Large ranges are split and matched in parallel.
+	 */
+	private class MatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Object[] items;
+
+		private final int from;
+
+		private final int to;
+
+		private final ItemsFilter itemsFilter;
+
+		private final IProgressMonitor monitor;
+
+		MatchTask(Object[] items, int from, int to, ItemsFilter itemsFilter, IProgressMonitor monitor) {
+			this.items = items;
+			this.from = from;
+			this.to = to;
+			this.itemsFilter = itemsFilter;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > MATCH_BATCH_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new MatchTask(items, from, middle, itemsFilter, monitor),
+						new MatchTask(items, middle, to, itemsFilter, monitor));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				if (itemsFilter != filter || monitor.isCanceled()) {
+					return;
+				}
+				contentProvider.add(items[i], itemsFilter);
+				if ((i - from + 1) % MATCH_BATCH_SIZE == 0) {
+					synchronized (monitor) {
+						monitor.worked(1);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Content provider passed to
+	 * {@link FilteredItemsSelectionDialog#fillContentProvider(AbstractContentProvider, ItemsFilter, IProgressMonitor)}.
+	 * Collects the items in batches that are matched on the matching pool while
+	 * the subclass keeps producing items, and shows the best matches found so
+	 * far while the search is running.
+	 */
+	private class MatchingContentProvider extends AbstractContentProvider {
+
+		private final ItemsFilter itemsFilter;
+
+		private final IProgressMonitor monitor;
+
+		private final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+		private List<Object> batch = new ArrayList<>(MATCH_BATCH_SIZE);
+
+		private long lastPublish = System.currentTimeMillis();
+
+		MatchingContentProvider(ItemsFilter itemsFilter, IProgressMonitor monitor) {
+			this.itemsFilter = itemsFilter;
+			this.monitor = new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return monitor.isCanceled();
+				}
+			};
+		}
+
+		@Override
+		public synchronized void add(Object item, ItemsFilter filter) {
+			if (filter != itemsFilter) {
+				contentProvider.add(item, filter);
+			} else {
+				batch.add(item);
+				if (batch.size() == MATCH_BATCH_SIZE) {
+					submitBatch();
+				}
+			}
+			long now = System.currentTimeMillis();
+			if (now - lastPublish >= STREAM_INTERVAL) {
+				lastPublish = now;
+				contentProvider.publishTopItems(itemsFilter);
+			}
+		}
+
+		private void submitBatch() {
+			Object[] items = batch.toArray();
+			batch = new ArrayList<>(MATCH_BATCH_SIZE);
+			tasks.removeIf(ForkJoinTask::isDone);
+			tasks.add(getMatchingPool().submit(new MatchTask(items, 0, items.length, itemsFilter, monitor)));
+		}
+
+		/**
+		 * Matches the remaining items and waits until all items are matched.
+		 */
+		synchronized void finish() {
+			if (!batch.isEmpty()) {
+				submitBatch();
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				awaitMatches(task, itemsFilter);
+			}
+			tasks.clear();
+		}
 	}
 
 	/**
@@ -2279,6 +2527,11 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 		/**
 		 * Matches an item against filter conditions.
+		 * <p>
+		 * If {@link FilteredItemsSelectionDialog#isParallelMatchingEnabled()}
+		 * returns <code>true</code>, items are matched on several threads
+		 * concurrently, so implementations must be thread safe.
+		 * </p>
 		 *
 		 * @param item the item to match
 		 * @return <code>true</code> if item matches against filter conditions,
@@ -2379,6 +2632,22 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		private boolean reset;
 
+		/**
+		 * The best matches of the running search, with the worst of them at the
+		 * head. <code>null</code> if no search is running.
+		 */
+		private PriorityQueue<Object> topItems;
+
+		/**
+		 * Sort order of the running search.
+		 */
+		private Comparator<Object> topComparator;
+
+		/**
+		 * Whether <code>topItems</code> changed since the matches were last shown.
+		 */
+		private boolean topItemsChanged;
+
 		/**
 		 * Creates new instance of <code>ContentProvider</code>.
 		 */
@@ -2432,8 +2701,8 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		public void add(Object item, ItemsFilter itemsFilter) {
 			if (itemsFilter == filter) {
 				if (itemsFilter != null) {
-					if (itemsFilter.matchItem(item)) {
-						this.items.add(item);
+					if (itemsFilter.matchItem(item) && this.items.add(item)) {
+						offerTopItem(item);
 					}
 				} else {
 					this.items.add(item);
@@ -2441,6 +2710,71 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			}
 		}
 
+		/**
+		 * Starts collecting the best matches of a search in the sort order of the
+		 * dialog, so that they can be shown before the search is complete.
+		 *
+		 * @param itemsFilter the filter of the search
+		 */
+		public void startStreaming(ItemsFilter itemsFilter) {
+			Object[] matched = items.toArray();
+			synchronized (this) {
+				topComparator = new HistoryComparator(itemsFilter.getPattern());
+				topItems = new PriorityQueue<>(STREAM_LIMIT + 1, topComparator.reversed());
+				topItemsChanged = false;
+			}
+			for (Object item : matched) {
+				offerTopItem(item);
+			}
+		}
+
+		/**
+		 * Stops collecting the best matches.
+		 */
+		public synchronized void stopStreaming() {
+			topItems = null;
+			topComparator = null;
+		}
+
+		private synchronized void offerTopItem(Object item) {
+			if (topItems == null) {
+				return;
+			}
+			if (topItems.size() < STREAM_LIMIT) {
+				topItems.add(item);
+				topItemsChanged = true;
+			} else if (topComparator.compare(item, topItems.peek()) < 0) {
+				topItems.poll();
+				topItems.add(item);
+				topItemsChanged = true;
+			}
+		}
+
+		/**
+		 * Shows the best matches found so far if they changed since they were last
+		 * shown.
+		 *
+		 * @param itemsFilter the filter of the search
+		 */
+		public void publishTopItems(ItemsFilter itemsFilter) {
+			Object[] best;
+			Comparator<Object> comparator;
+			synchronized (this) {
+				if (topItems == null || !topItemsChanged) {
+					return;
+				}
+				topItemsChanged = false;
+				best = topItems.toArray();
+				comparator = topComparator;
+			}
+			Arrays.sort(best, comparator);
+			if (itemsFilter != filter || tableViewer == null || tableViewer.getTable().isDisposed()) {
+				return;
+			}
+			lastFilteredItems = Arrays.asList(filterItems(tableViewer.getInput(), best, 1, new NullProgressMonitor()));
+			refreshCacheJob.refreshJob.schedule();
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -2715,6 +3049,22 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 			monitor.worked(ticks);
 
+			return filterItems(parent, filteredElements, ticks, monitor);
+		}
+
+		/**
+		 * Returns the given sorted items filtered using the provided
+		 * <code>ViewerFilter</code>s with a separator added.
+		 *
+		 * @param parent      the parent
+		 * @param sortedItems the items in the sort order of the dialog
+		 * @param ticks       the ticks to report per <code>ViewerFilter</code>
+		 * @param monitor     progress monitor
+		 * @return an array of filtered items
+		 */
+		private Object[] filterItems(Object parent, Object[] sortedItems, int ticks, IProgressMonitor monitor) {
+			Object[] filteredElements = sortedItems;
+
 			// filter the elements using provided ViewerFilters
 			if (filters != null && filteredElements != null) {
 				for (Object f : filters) {
@@ -2933,12 +3283,12 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		final Comparator<Object> itemsComparator;
 
 		HistoryComparator() {
-			itemsComparator = getItemsComparator();
-			if (currentlyCompletingFilter != null) {
-				filterPattern = currentlyCompletingFilter.getPattern();
-			} else {
-				filterPattern = null;
-			}
+			this(currentlyCompletingFilter != null ? currentlyCompletingFilter.getPattern() : null);
+		}
+
+		HistoryComparator(String filterPattern) {
+			this.itemsComparator = getItemsComparator();
+			this.filterPattern = filterPattern;
 		}
 
 		@Override
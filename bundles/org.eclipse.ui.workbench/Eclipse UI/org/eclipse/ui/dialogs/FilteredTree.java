@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,14 +16,20 @@
  *******************************************************************************/
 package org.eclipse.ui.dialogs;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.IContentProvider;
 import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
@@ -48,6 +54,7 @@ import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.IWorkbenchPreferenceConstants;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.WorkbenchMessages;
+import org.eclipse.ui.internal.misc.TextMatcher;
 import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
@@ -147,6 +154,46 @@ public class FilteredTree extends Composite {
 	 */
 	private static final long SOFT_MAX_EXPAND_TIME = 200;
 
+	/**
+	 * Maximum time the UI thread spends taking the content snapshot for
+	 * background matching at once, before it processes events again.
+	 */
+	private static final long SNAPSHOT_TIME_SLICE = 50;
+
+	/**
+	 * Whether the filter text is matched against a snapshot of the tree content
+	 * in the background.
+	 */
+	private boolean backgroundMatching;
+
+	/**
+	 * The content matched in the background, or <code>null</code> if it has to
+	 * be snapshotted again.
+	 */
+	private ContentSnapshot contentSnapshot;
+
+	/**
+	 * The job matching the filter text in the background.
+	 */
+	private MatchJob matchJob;
+
+	/**
+	 * The job taking the content snapshot on the UI thread in time slices.
+	 */
+	private WorkbenchJob snapshotJob;
+
+	/**
+	 * Incremented whenever the filter text changes, so that results of stale
+	 * background matches are dropped.
+	 */
+	private int matchGeneration;
+
+	/**
+	 * Whether the tree is being refreshed to apply a new filter text rather than
+	 * changed content.
+	 */
+	private boolean refreshingFilter;
+
 	/**
 	 * Create a new instance of the receiver. Subclasses that wish to override the
 	 * default creation behavior may use this constructor, but must ensure that the
@@ -400,7 +447,10 @@ public class FilteredTree extends Composite {
 		treeViewer = doCreateTreeViewer(parent, style);
 		GridData data = new GridData(SWT.FILL, SWT.FILL, true, true);
 		treeViewer.getControl().setLayoutData(data);
-		treeViewer.getControl().addDisposeListener(e -> refreshJob.cancel());
+		treeViewer.getControl().addDisposeListener(e -> {
+			refreshJob.cancel();
+			cancelBackgroundMatching();
+		});
 		if (treeViewer instanceof NotifyingTreeViewer) {
 			patternFilter.setUseCache(true);
 		}
@@ -470,97 +520,117 @@ public class FilteredTree extends Composite {
 				if (text == null) {
 					return Status.OK_STATUS;
 				}
+				return refreshFilter(text, null, monitor);
+			}
+		};
+	}
 
-				boolean initial = initialText != null && initialText.equals(text);
-				if (initial) {
-					patternFilter.setPattern(null);
-				} else if (text != null) {
-					patternFilter.setPattern(text);
+	/**
+	 * Applies the given filter text to the tree and expands the elements that
+	 * are visible within a time budget.
+	 *
+	 * @param text            the filter text
+	 * @param visibleElements the visible elements found by a background match, or
+	 *                        <code>null</code> to match elements on demand
+	 * @param monitor         the progress monitor, checked for cancellation while
+	 *                        expanding
+	 * @return the status, {@link Status#CANCEL_STATUS} if the expansion has been
+	 *         cut short
+	 */
+	private IStatus refreshFilter(String text, Set<Object> visibleElements, IProgressMonitor monitor) {
+		boolean initial = initialText != null && initialText.equals(text);
+		if (initial) {
+			patternFilter.setPattern(null);
+		} else {
+			patternFilter.setPattern(text);
+		}
+		patternFilter.setVisibleElements(visibleElements);
+
+		Control redrawFalseControl = treeComposite != null ? treeComposite : treeViewer.getControl();
+		try {
+			// don't want the user to see updates that will be made to
+			// the tree
+			// we are setting redraw(false) on the composite to avoid
+			// dancing scrollbar
+			redrawFalseControl.setRedraw(false);
+			if (!narrowingDown) {
+				// collapse all
+				TreeItem[] is = treeViewer.getTree().getItems();
+				for (TreeItem item : is) {
+					if (item.getExpanded()) {
+						treeViewer.setExpandedState(item.getData(), false);
+					}
 				}
+			}
+			refreshingFilter = true;
+			try {
+				treeViewer.refresh(true);
+			} finally {
+				refreshingFilter = false;
+			}
 
-				Control redrawFalseControl = treeComposite != null ? treeComposite : treeViewer.getControl();
-				try {
-					// don't want the user to see updates that will be made to
-					// the tree
-					// we are setting redraw(false) on the composite to avoid
-					// dancing scrollbar
-					redrawFalseControl.setRedraw(false);
-					if (!narrowingDown) {
-						// collapse all
-						TreeItem[] is = treeViewer.getTree().getItems();
-						for (TreeItem item : is) {
-							if (item.getExpanded()) {
-								treeViewer.setExpandedState(item.getData(), false);
-							}
-						}
-					}
-					treeViewer.refresh(true);
-
-					if (text.length() > 0 && !initial) {
-						/*
-						 * Expand elements one at a time. After each is expanded, check to see if the
-						 * filter text has been modified. If it has, then cancel the refresh job so the
-						 * user doesn't have to endure expansion of all the nodes.
-						 */
-						TreeItem[] items = getViewer().getTree().getItems();
-						int treeHeight = getViewer().getTree().getBounds().height;
-						int numVisibleItems = treeHeight / getViewer().getTree().getItemHeight();
-						long stopTime = SOFT_MAX_EXPAND_TIME + System.currentTimeMillis();
-						if (items.length > 0
-								&& recursiveExpand(items, monitor, stopTime, new int[] { numVisibleItems })) {
-							return Status.CANCEL_STATUS;
-						}
-					}
-				} finally {
-					// done updating the tree - set redraw back to true
-					TreeItem[] items = getViewer().getTree().getItems();
-					if (items.length > 0 && getViewer().getTree().getSelectionCount() == 0) {
-						treeViewer.getTree().setTopItem(items[0]);
-					}
-					if (quickSelectionMode)
-						updateTreeSelection(false);
-					redrawFalseControl.setRedraw(true);
+			if (text.length() > 0 && !initial) {
+				/*
+				 * Expand elements one at a time. After each is expanded, check to see if the
+				 * filter text has been modified. If it has, then cancel the refresh job so the
+				 * user doesn't have to endure expansion of all the nodes.
+				 */
+				TreeItem[] items = getViewer().getTree().getItems();
+				int treeHeight = getViewer().getTree().getBounds().height;
+				int numVisibleItems = treeHeight / getViewer().getTree().getItemHeight();
+				long stopTime = SOFT_MAX_EXPAND_TIME + System.currentTimeMillis();
+				if (items.length > 0
+						&& recursiveExpand(items, monitor, stopTime, new int[] { numVisibleItems })) {
+					return Status.CANCEL_STATUS;
 				}
-				return Status.OK_STATUS;
 			}
+		} finally {
+			// done updating the tree - set redraw back to true
+			TreeItem[] items = getViewer().getTree().getItems();
+			if (items.length > 0 && getViewer().getTree().getSelectionCount() == 0) {
+				treeViewer.getTree().setTopItem(items[0]);
+			}
+			if (quickSelectionMode)
+				updateTreeSelection(false);
+			redrawFalseControl.setRedraw(true);
+		}
+		return Status.OK_STATUS;
+	}
 
-			/**
-			 * Returns true if the job should be canceled (because of timeout or actual
-			 * cancellation).
-			 *
-			 * @param items
-			 * @param monitor
-			 * @param cancelTime
-			 * @param numItemsLeft
-			 * @return true if canceled
-			 */
-			private boolean recursiveExpand(TreeItem[] items, IProgressMonitor monitor, long cancelTime,
-					int[] numItemsLeft) {
-				boolean canceled = false;
-				for (int i = 0; !canceled && i < items.length; i++) {
-					TreeItem item = items[i];
-					boolean visible = numItemsLeft[0]-- >= 0;
-					if (monitor.isCanceled() || (!visible && System.currentTimeMillis() > cancelTime)) {
-						canceled = true;
-					} else {
-						Object itemData = item.getData();
-						if (itemData != null) {
-							if (!item.getExpanded()) {
-								// do the expansion through the viewer so that
-								// it can refresh children appropriately.
-								treeViewer.setExpandedState(itemData, true);
-							}
-							TreeItem[] children = item.getItems();
-							if (items.length > 0) {
-								canceled = recursiveExpand(children, monitor, cancelTime, numItemsLeft);
-							}
-						}
+	/**
+	 * Returns true if the job should be canceled (because of timeout or actual
+	 * cancellation).
+	 *
+	 * @param items
+	 * @param monitor
+	 * @param cancelTime
+	 * @param numItemsLeft
+	 * @return true if canceled
+	 */
+	private boolean recursiveExpand(TreeItem[] items, IProgressMonitor monitor, long cancelTime,
+			int[] numItemsLeft) {
+		boolean canceled = false;
+		for (int i = 0; !canceled && i < items.length; i++) {
+			TreeItem item = items[i];
+			boolean visible = numItemsLeft[0]-- >= 0;
+			if (monitor.isCanceled() || (!visible && System.currentTimeMillis() > cancelTime)) {
+				canceled = true;
+			} else {
+				Object itemData = item.getData();
+				if (itemData != null) {
+					if (!item.getExpanded()) {
+						// do the expansion through the viewer so that
+						// it can refresh children appropriately.
+						treeViewer.setExpandedState(itemData, true);
+					}
+					TreeItem[] children = item.getItems();
+					if (items.length > 0) {
+						canceled = recursiveExpand(children, monitor, cancelTime, numItemsLeft);
 					}
 				}
-				return canceled;
 			}
-
-		};
+		}
+		return canceled;
 	}
 
 	/**
@@ -753,9 +823,396 @@ public class FilteredTree extends Composite {
 		previousFilterText = getFilterString();
 		// cancel currently running job first, to prevent unnecessary redraw
 		refreshJob.cancel();
+		matchGeneration++;
+		if (matchJob != null) {
+			matchJob.cancel();
+		}
+		if (backgroundMatching && scheduleMatchJob()) {
+			return;
+		}
 		refreshJob.schedule(getRefreshJobDelay());
 	}
 
+	/**
+	 * Sets whether the filter text is matched in the background. In this mode the
+	 * content of the tree and the {@link PatternFilter#getSearchTexts(Viewer, Object)
+	 * search texts} of its elements are snapshotted on the UI thread once, in short
+	 * time slices between which events are processed, and the filter text is
+	 * matched against the snapshot by a background job. The UI thread then only
+	 * looks up the visible elements while it refreshes and expands the tree. A
+	 * match that is still running when the filter text changes is cancelled.
+	 * <p>
+	 * The snapshot is taken again when the content of a tree viewer created by
+	 * {@link #doCreateTreeViewer(Composite, int)} changes. Clients with other tree
+	 * viewers should call {@link #contentChanged()} instead.
+	 * </p>
+	 * <p>
+	 * This mode should only be enabled if the pattern filter of the tree does not
+	 * override {@link PatternFilter#isLeafMatch(Viewer, Object)} other than by
+	 * providing search texts.
+	 * </p>
+	 *
+	 * @param enabled <code>true</code> to match in the background
+	 * @since 3.129
+	 */
+	public void setBackgroundMatching(boolean enabled) {
+		backgroundMatching = enabled;
+		if (!enabled) {
+			contentSnapshot = null;
+			patternFilter.setVisibleElements(null);
+			cancelBackgroundMatching();
+		}
+	}
+
+	private void cancelBackgroundMatching() {
+		if (snapshotJob != null) {
+			snapshotJob.cancel();
+		}
+		if (matchJob != null) {
+			matchJob.cancel();
+		}
+	}
+
+	/**
+	 * Returns whether the filter text is matched in the background.
+	 *
+	 * @return <code>true</code> if the filter text is matched in the background
+	 * @see #setBackgroundMatching(boolean)
+	 * @since 3.129
+	 */
+	public boolean isBackgroundMatching() {
+		return backgroundMatching;
+	}
+
+	/**
+	 * Notifies the receiver that the content of the tree changed, so that the
+	 * snapshot used for background matching is taken again. Has no effect unless
+	 * background matching is enabled.
+	 *
+	 * @see #setBackgroundMatching(boolean)
+	 * @since 3.129
+	 */
+	public void contentChanged() {
+		if (refreshingFilter || contentSnapshot == null) {
+			return;
+		}
+		contentSnapshot = null;
+		// visibility found for the old content may be wrong for the new one
+		patternFilter.setVisibleElements(null);
+		if (backgroundMatching && previousFilterText != null) {
+			matchGeneration++;
+			if (matchJob != null) {
+				matchJob.cancel();
+			}
+			scheduleMatchJob();
+		}
+	}
+
+	/**
+	 * Schedules the background match of the current filter text.
+	 *
+	 * @return <code>false</code> if the filter text does not need matching and
+	 *         the refresh job should be used
+	 */
+	private boolean scheduleMatchJob() {
+		String text = getFilterString();
+		if (text == null || text.isEmpty() || (initialText != null && initialText.equals(text))
+				|| treeViewer.getControl().isDisposed()) {
+			return false;
+		}
+		if (contentSnapshot == null) {
+			contentSnapshot = ContentSnapshot.start(treeViewer, patternFilter);
+			if (contentSnapshot == null) {
+				return false;
+			}
+		}
+		if (matchJob == null) {
+			matchJob = new MatchJob();
+		}
+		matchJob.start(matchGeneration, text, patternFilter.createMatcher(text), contentSnapshot);
+		if (contentSnapshot.isComplete()) {
+			matchJob.schedule(getRefreshJobDelay());
+		} else {
+			// the match job is scheduled once the snapshot is complete
+			if (snapshotJob == null) {
+				snapshotJob = new SnapshotJob();
+			}
+			snapshotJob.schedule(getRefreshJobDelay());
+		}
+		return true;
+	}
+
+	/**
+	 * Applies the result of a background match to the tree.
+	 *
+	 * @param result the result
+	 */
+	private void applyMatches(MatchResult result) {
+		if (result.generation != matchGeneration || treeViewer.getControl().isDisposed()) {
+			return;
+		}
+		refreshFilter(result.text, result.visibleElements, new NullProgressMonitor());
+	}
+
+	/**
+	 * The tree content matched by a background match: the elements in depth
+	 * first order with the index of their parent, and their search texts. The
+	 * content is traversed on the UI thread in steps, see
+	 * {@link #build(long)}.
+	 */
+	private static final class ContentSnapshot {
+
+		Object[] elements;
+
+		int[] parents;
+
+		String[][] searchTexts;
+
+		private final TreeViewer viewer;
+
+		private final PatternFilter filter;
+
+		private final ITreeContentProvider contentProvider;
+
+		private final List<Object> elementList = new ArrayList<>();
+
+		private final List<String[]> searchTextList = new ArrayList<>();
+
+		private int[] parentArray = new int[64];
+
+		// depth first traversal, one frame per expanded element
+		private final List<Object[]> frameChildren = new ArrayList<>();
+
+		private final List<int[]> framePositions = new ArrayList<>();
+
+		// elements on the current path, to guard against cyclic content
+		private final List<Object> frameElements = new ArrayList<>();
+
+		private final Set<Object> path = new HashSet<>();
+
+		private ContentSnapshot(TreeViewer viewer, PatternFilter filter, ITreeContentProvider contentProvider) {
+			this.viewer = viewer;
+			this.filter = filter;
+			this.contentProvider = contentProvider;
+		}
+
+		/**
+		 * Starts the snapshot of the content of the given viewer. Must be called on
+		 * the UI thread.
+		 *
+		 * @param viewer the tree viewer
+		 * @param filter the pattern filter providing the search texts
+		 * @return the snapshot, or <code>null</code> if the viewer has no tree
+		 *         content provider
+		 */
+		static ContentSnapshot start(TreeViewer viewer, PatternFilter filter) {
+			if (!(viewer.getContentProvider() instanceof ITreeContentProvider)) {
+				return null;
+			}
+			ContentSnapshot snapshot = new ContentSnapshot(viewer, filter,
+					(ITreeContentProvider) viewer.getContentProvider());
+			snapshot.frameChildren.add(snapshot.contentProvider.getElements(viewer.getInput()));
+			snapshot.framePositions.add(new int[] { 0, -1 });
+			snapshot.frameElements.add(null);
+			return snapshot;
+		}
+
+		boolean isComplete() {
+			return elements != null;
+		}
+
+		/**
+		 * Continues the traversal of the content. Must be called on the UI thread.
+		 *
+		 * @param stopTime the time in milliseconds after which the traversal is
+		 *                 interrupted
+		 * @return whether the snapshot is complete
+		 */
+		boolean build(long stopTime) {
+			int steps = 0;
+			while (!frameChildren.isEmpty()) {
+				if ((++steps & 0x3f) == 0 && System.currentTimeMillis() > stopTime) {
+					return false;
+				}
+				int top = frameChildren.size() - 1;
+				Object[] children = frameChildren.get(top);
+				int[] position = framePositions.get(top);
+				if (children == null || position[0] >= children.length) {
+					frameChildren.remove(top);
+					framePositions.remove(top);
+					path.remove(frameElements.remove(top));
+					continue;
+				}
+				Object element = children[position[0]++];
+				if (element == null || path.contains(element)) {
+					continue;
+				}
+				String[] texts = filter.getSearchTexts(viewer, element);
+				if (texts == null) {
+					continue;
+				}
+				int index = elementList.size();
+				elementList.add(element);
+				searchTextList.add(texts);
+				if (index == parentArray.length) {
+					int[] grown = new int[parentArray.length * 2];
+					System.arraycopy(parentArray, 0, grown, 0, parentArray.length);
+					parentArray = grown;
+				}
+				parentArray[index] = position[1];
+				path.add(element);
+				frameChildren.add(contentProvider.getChildren(element));
+				framePositions.add(new int[] { 0, index });
+				frameElements.add(element);
+			}
+			if (elements == null) {
+				parents = new int[elementList.size()];
+				System.arraycopy(parentArray, 0, parents, 0, parents.length);
+				searchTexts = searchTextList.toArray(new String[0][]);
+				elements = elementList.toArray();
+				elementList.clear();
+				searchTextList.clear();
+				parentArray = null;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Takes the content snapshot of a background match in time slices on the UI
+	 * thread, and starts the match once the snapshot is complete.
+	 */
+	private final class SnapshotJob extends WorkbenchJob {
+
+		SnapshotJob() {
+			super("Snapshot Filter Content"); //$NON-NLS-1$
+			setSystem(true);
+		}
+
+		@Override
+		public IStatus runInUIThread(IProgressMonitor monitor) {
+			if (treeViewer.getControl().isDisposed() || contentSnapshot == null) {
+				return Status.CANCEL_STATUS;
+			}
+			if (contentSnapshot.build(System.currentTimeMillis() + SNAPSHOT_TIME_SLICE)) {
+				matchJob.schedule();
+			} else if (!monitor.isCanceled()) {
+				// let the UI thread process events before continuing
+				schedule();
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * The visible elements found by a background match.
+	 */
+	private static final class MatchResult {
+
+		final int generation;
+
+		final String text;
+
+		final Set<Object> visibleElements;
+
+		MatchResult(int generation, String text, Set<Object> visibleElements) {
+			this.generation = generation;
+			this.text = text;
+			this.visibleElements = visibleElements;
+		}
+	}
+
+	/**
+	 * Matches the filter text against a content snapshot and hands the result to
+	 * the UI thread.
+	 */
+	private final class MatchJob extends Job {
+
+		private int generation;
+
+		private String text;
+
+		private TextMatcher matcher;
+
+		private ContentSnapshot snapshot;
+
+		private Display display;
+
+		MatchJob() {
+			super("Match Filter"); //$NON-NLS-1$
+			setSystem(true);
+		}
+
+		/**
+		 * Sets the request of the next run. Called on the UI thread after the
+		 * previous run has been cancelled.
+		 *
+		 * @param newGeneration the generation of the filter text
+		 * @param newText       the filter text
+		 * @param newMatcher    the matcher of the filter text
+		 * @param newSnapshot   the content to match
+		 */
+		synchronized void start(int newGeneration, String newText, TextMatcher newMatcher,
+				ContentSnapshot newSnapshot) {
+			this.generation = newGeneration;
+			this.text = newText;
+			this.matcher = newMatcher;
+			this.snapshot = newSnapshot;
+			this.display = treeViewer.getControl().getDisplay();
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			int runGeneration;
+			String runText;
+			TextMatcher runMatcher;
+			ContentSnapshot runSnapshot;
+			Display runDisplay;
+			synchronized (this) {
+				runGeneration = generation;
+				runText = text;
+				runMatcher = matcher;
+				runSnapshot = snapshot;
+				runDisplay = display;
+			}
+			int size = runSnapshot.elements.length;
+			boolean[] visible = new boolean[size];
+			boolean[] visibleChild = new boolean[size];
+			// children follow their parents, so a reverse pass sees them first
+			for (int i = size - 1; i >= 0; i--) {
+				if ((i & 0xff) == 0 && monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				boolean match = visibleChild[i];
+				for (String searchText : runSnapshot.searchTexts[i]) {
+					if (match) {
+						break;
+					}
+					match = PatternFilter.wordMatches(runMatcher, searchText);
+				}
+				visible[i] = match;
+				int parent = runSnapshot.parents[i];
+				if (match && parent >= 0) {
+					visibleChild[parent] = true;
+				}
+			}
+			Set<Object> visibleElements = new HashSet<>();
+			for (int i = 0; i < size; i++) {
+				if (visible[i]) {
+					visibleElements.add(runSnapshot.elements[i]);
+				}
+			}
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			MatchResult result = new MatchResult(runGeneration, runText, visibleElements);
+			if (!runDisplay.isDisposed()) {
+				runDisplay.asyncExec(() -> applyMatches(result));
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
 	/**
 	 * Return the time delay that should be used when scheduling the filter refresh
 	 * job. Subclasses may override.
@@ -948,93 +1405,102 @@ public class FilteredTree extends Composite {
 			super(parent, style);
 		}
 
+		private void notifyContentChanged() {
+			contentChanged();
+			// the pattern filter starts over with fresh caches when its pattern
+			// is set, keep the results of previous patterns for narrowing
+			if (!refreshingFilter) {
+				getPatternFilter().clearCaches();
+			}
+		}
+
 		@Override
 		public void add(Object parentElementOrTreePath, Object childElement) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.add(parentElementOrTreePath, childElement);
 		}
 
 		@Override
 		public void add(Object parentElementOrTreePath, Object... childElements) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.add(parentElementOrTreePath, childElements);
 		}
 
 		@Override
 		protected void inputChanged(Object input, Object oldInput) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.inputChanged(input, oldInput);
 		}
 
 		@Override
 		public void insert(Object parentElementOrTreePath, Object element, int position) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.insert(parentElementOrTreePath, element, position);
 		}
 
 		@Override
 		public void refresh() {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.refresh();
 		}
 
 		@Override
 		public void refresh(boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.refresh(updateLabels);
 		}
 
 		@Override
 		public void refresh(Object element) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.refresh(element);
 		}
 
 		@Override
 		public void refresh(Object element, boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.refresh(element, updateLabels);
 		}
 
 		@Override
 		public void remove(Object elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void remove(Object parent, Object... elements) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.remove(parent, elements);
 		}
 
 		@Override
 		public void remove(Object... elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void replace(Object parentElementOrTreePath, int index, Object element) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.replace(parentElementOrTreePath, index, element);
 		}
 
 		@Override
 		public void setChildCount(Object elementOrTreePath, int count) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.setChildCount(elementOrTreePath, count);
 		}
 
 		@Override
 		public void setContentProvider(IContentProvider provider) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.setContentProvider(provider);
 		}
 
 		@Override
 		public void setHasChildren(Object elementOrTreePath, boolean hasChildren) {
-			getPatternFilter().clearCaches();
+			notifyContentChanged();
 			super.setHasChildren(elementOrTreePath, hasChildren);
 		}
 
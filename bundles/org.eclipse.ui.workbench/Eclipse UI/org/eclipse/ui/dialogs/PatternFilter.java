@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,11 @@
 package org.eclipse.ui.dialogs;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ContentViewer;
 import org.eclipse.jface.viewers.ILabelProvider;
@@ -46,8 +50,31 @@ public class PatternFilter extends ViewerFilter {
 	 */
 	private Map foundAnyCache = new HashMap();
 
+	/*
+	 * Caches of recently used patterns, least recently used first
+	 */
+	private Map<String, PatternCaches> previousCaches = new LinkedHashMap<>();
+
+	private static final int MAX_PREVIOUS_PATTERNS = 16;
+
+	/*
+	 * The pattern string the caches are computed for
+	 */
+	private String cachedPattern;
+
+	/*
+	 * Caches of a previous pattern that the current pattern narrows, or null
+	 */
+	private PatternCaches narrowedCaches;
+
 	private boolean useCache = false;
 
+	/*
+	 * Whether the caches of previous patterns may be narrowed and restored, or
+	 * null if not determined yet
+	 */
+	private Boolean incremental;
+
 	/**
 	 * Whether to include a leading wildcard for all provided patterns. A trailing
 	 * wildcard is always included.
@@ -61,6 +88,12 @@ public class PatternFilter extends ViewerFilter {
 
 	private boolean useEarlyReturnIfMatcherIsNull = true;
 
+	/**
+	 * The elements found visible for the current pattern by a background match,
+	 * or <code>null</code> if visibility is computed on demand.
+	 */
+	private Set<Object> visibleElements;
+
 	private static Object[] EMPTY = new Object[0];
 
 	@Override
@@ -82,7 +115,7 @@ public class PatternFilter extends ViewerFilter {
 			if (foundAny != null && !foundAny.booleanValue()) {
 				filtered = EMPTY;
 			} else {
-				filtered = super.filter(viewer, parent, elements);
+				filtered = super.filter(viewer, parent, getCandidates(parent, elements));
 			}
 			cache.put(parent, filtered);
 		}
@@ -113,12 +146,52 @@ public class PatternFilter extends ViewerFilter {
 		}
 		Boolean foundAny = (Boolean) foundAnyCache.get(parent);
 		if (foundAny == null) {
-			foundAny = computeAnyVisible(viewer, elements) ? Boolean.TRUE : Boolean.FALSE;
+			foundAny = computeAnyVisible(viewer, getCandidates(parent, elements)) ? Boolean.TRUE : Boolean.FALSE;
 			foundAnyCache.put(parent, foundAny);
 		}
 		return foundAny.booleanValue();
 	}
 
+	/**
+	 * Returns the elements that may match the current pattern. If the pattern
+	 * narrows a previous pattern, only the children of the parent that were
+	 * visible for the previous pattern need to be tested.
+	 *
+	 * @param parent   the parent element
+	 * @param elements the children of the parent
+	 * @return the elements to test
+	 */
+	private Object[] getCandidates(Object parent, Object[] elements) {
+		if (narrowedCaches == null) {
+			return elements;
+		}
+		Boolean foundAny = (Boolean) narrowedCaches.foundAnyCache.get(parent);
+		if (foundAny != null && !foundAny.booleanValue()) {
+			return EMPTY;
+		}
+		Object[] previous = (Object[]) narrowedCaches.cache.get(parent);
+		if (previous == null || previous.length == elements.length) {
+			return elements;
+		}
+		Set<Object> visible = new HashSet<>();
+		for (Object element : previous) {
+			visible.add(element);
+		}
+		Object[] candidates = new Object[previous.length];
+		int count = 0;
+		for (Object element : elements) {
+			if (count < candidates.length && visible.contains(element)) {
+				candidates[count++] = element;
+			}
+		}
+		if (count < candidates.length) {
+			Object[] trimmed = new Object[count];
+			System.arraycopy(candidates, 0, trimmed, 0, count);
+			candidates = trimmed;
+		}
+		return candidates;
+	}
+
 	/**
 	 * Returns true if any of the elements makes it through the filter.
 	 *
@@ -137,6 +210,9 @@ public class PatternFilter extends ViewerFilter {
 
 	@Override
 	public final boolean select(Viewer viewer, Object parentElement, Object element) {
+		if (visibleElements != null) {
+			return visibleElements.contains(element);
+		}
 		return isElementVisible(viewer, element);
 	}
 
@@ -165,27 +241,175 @@ public class PatternFilter extends ViewerFilter {
 			useEarlyReturnIfMatcherIsNull = false;
 			return;
 		}
-		clearCaches();
+		updateCaches(patternString);
+		visibleElements = null;
+		matcher = createMatcher(patternString);
+	}
+
+	/**
+	 * Answers whether every element that matches the new pattern string also
+	 * matches the old one. When the user extends the pattern, the filter then
+	 * only tests the elements that were visible for the old pattern.
+	 * <p>
+	 * The default implementation answers <code>true</code> if the new pattern
+	 * appends characters to an old pattern that is not matched exactly (does not
+	 * end with a space or an escape character), and the subclass does not
+	 * override {@link #isElementVisible(Viewer, Object)},
+	 * {@link #isParentMatch(Viewer, Object)}, {@link #isLeafMatch(Viewer, Object)}
+	 * or {@link #wordMatches(String)}. Otherwise it answers <code>false</code>.
+	 * </p>
+	 * <p>
+	 * Subclasses that override these methods may override this method to opt in
+	 * to narrowing. The caches of previous patterns are then also restored when
+	 * the user removes characters from the pattern again, so such subclasses must
+	 * call {@link #clearCaches()} whenever their matching changes for reasons
+	 * other than the pattern.
+	 * </p>
+	 *
+	 * @param oldPattern the previous pattern string, not empty
+	 * @param newPattern the new pattern string, not empty
+	 * @return <code>true</code> if the new pattern only matches elements that
+	 *         the old pattern matches
+	 * @since 3.129
+	 */
+	protected boolean isSubPattern(String oldPattern, String newPattern) {
+		return !overridesMatching() && newPattern.length() > oldPattern.length() && newPattern.startsWith(oldPattern)
+				&& !oldPattern.endsWith(" ") && !oldPattern.endsWith("\\"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Answers whether the caches of previous patterns may be narrowed and
+	 * restored, which subclasses with their own matching have to opt in to by
+	 * overriding {@link #isSubPattern(String, String)}.
+	 *
+	 * @return whether matching is incremental
+	 */
+	private boolean isIncremental() {
+		if (incremental == null) {
+			incremental = Boolean.valueOf(isOverridden("isSubPattern", String.class, String.class) //$NON-NLS-1$
+					|| !overridesMatching());
+		}
+		return incremental.booleanValue();
+	}
+
+	/**
+	 * Answers whether a subclass overrides how elements are matched.
+	 *
+	 * @return whether matching is overridden
+	 */
+	private boolean overridesMatching() {
+		return isOverridden("isElementVisible", Viewer.class, Object.class) //$NON-NLS-1$
+				|| isOverridden("isParentMatch", Viewer.class, Object.class) //$NON-NLS-1$
+				|| isOverridden("isLeafMatch", Viewer.class, Object.class) //$NON-NLS-1$
+				|| isOverridden("wordMatches", String.class); //$NON-NLS-1$
+	}
+
+	private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+		for (Class<?> type = getClass(); type != PatternFilter.class; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod(methodName, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// look in the superclass
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Switches the caches to the given pattern string. The caches of the current
+	 * pattern are kept, so they can be restored when the user removes characters
+	 * from the pattern again or used to narrow down the matching of a longer
+	 * pattern.
+	 *
+	 * @param patternString the new pattern string
+	 */
+	private void updateCaches(String patternString) {
+		if (!useCache || !isIncremental()) {
+			clearCaches();
+			return;
+		}
+		if (patternString != null && patternString.equals(cachedPattern)) {
+			// the same pattern is matched again from scratch
+			cache = new HashMap();
+			foundAnyCache = new HashMap();
+			return;
+		}
+		if (cachedPattern != null && !cachedPattern.isEmpty() && (!cache.isEmpty() || !foundAnyCache.isEmpty())) {
+			previousCaches.put(cachedPattern, new PatternCaches(cache, foundAnyCache));
+			if (previousCaches.size() > MAX_PREVIOUS_PATTERNS) {
+				Iterator<String> eldest = previousCaches.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+		}
+		cachedPattern = patternString;
+		narrowedCaches = null;
+		PatternCaches restored = patternString == null ? null : previousCaches.remove(patternString);
+		if (restored != null) {
+			cache = restored.cache;
+			foundAnyCache = restored.foundAnyCache;
+			return;
+		}
+		cache = new HashMap();
+		foundAnyCache = new HashMap();
 		if (patternString == null || patternString.isEmpty()) {
-			matcher = null;
-		} else {
-			String pattern = patternString;
-			if (!patternString.endsWith(" ")) //$NON-NLS-1$
-				pattern += "*"; //$NON-NLS-1$
-			if (includeLeadingWildcard) {
-				pattern = "*" + pattern; //$NON-NLS-1$
+			return;
+		}
+		// narrow down the longest previous pattern
+		String narrowed = null;
+		for (Map.Entry<String, PatternCaches> entry : previousCaches.entrySet()) {
+			String previous = entry.getKey();
+			if ((narrowed == null || previous.length() > narrowed.length()) && isSubPattern(previous, patternString)) {
+				narrowed = previous;
+				narrowedCaches = entry.getValue();
 			}
-			matcher = new TextMatcher(pattern, true, false);
 		}
 	}
 
+	/**
+	 * Creates the matcher for the given pattern string.
+	 *
+	 * @param patternString the pattern string
+	 * @return the matcher, or <code>null</code> if every string matches
+	 */
+	/* package */ TextMatcher createMatcher(String patternString) {
+		if (patternString == null || patternString.isEmpty()) {
+			return null;
+		}
+		String pattern = patternString;
+		if (!patternString.endsWith(" ")) //$NON-NLS-1$
+			pattern += "*"; //$NON-NLS-1$
+		if (includeLeadingWildcard) {
+			pattern = "*" + pattern; //$NON-NLS-1$
+		}
+		return new TextMatcher(pattern, true, false);
+	}
+
+	/**
+	 * Sets the elements found visible for the current pattern by a background
+	 * match of the filtered tree. Until the pattern changes, elements are selected
+	 * by looking them up instead of matching them.
+	 *
+	 * @param visibleElements the visible elements, or <code>null</code> to match
+	 *                        elements on demand
+	 */
+	/* package */ void setVisibleElements(Set<Object> visibleElements) {
+		this.visibleElements = visibleElements;
+	}
+
 	/**
 	 * Clears the caches used for optimizing this filter. Needs to be called
-	 * whenever the tree content changes.
+	 * whenever the tree content changes, or the matching of a subclass changes
+	 * for other reasons than the pattern.
+	 *
+	 * @since 3.129
 	 */
-	/* package */ void clearCaches() {
+	protected void clearCaches() {
 		cache.clear();
 		foundAnyCache.clear();
+		previousCaches.clear();
+		narrowedCaches = null;
 	}
 
 	/**
@@ -196,10 +420,14 @@ public class PatternFilter extends ViewerFilter {
 	 * @return whether the string matches the pattern
 	 */
 	private boolean match(String string) {
-		if (matcher == null) {
+		return match(matcher, string);
+	}
+
+	private static boolean match(TextMatcher textMatcher, String string) {
+		if (textMatcher == null) {
 			return true;
 		}
-		return matcher.match(string);
+		return textMatcher.match(string);
 	}
 
 	/**
@@ -256,7 +484,9 @@ public class PatternFilter extends ViewerFilter {
 
 	/**
 	 * Check if the current (leaf) element is a match with the filter text. The
-	 * default behavior checks that the label of the element is a match.
+	 * default behavior checks that any of the
+	 * {@link #getSearchTexts(Viewer, Object) search texts} of the element, by
+	 * default its label, is a match.
 	 *
 	 * Subclasses should override this method.
 	 *
@@ -265,12 +495,16 @@ public class PatternFilter extends ViewerFilter {
 	 * @return true if the given element's label matches the filter text
 	 */
 	protected boolean isLeafMatch(Viewer viewer, Object element) {
-		String labelText = ((ILabelProvider) ((ContentViewer) viewer).getLabelProvider()).getText(element);
-
-		if (labelText == null) {
+		String[] texts = getSearchTexts(viewer, element);
+		if (texts == null) {
 			return false;
 		}
-		return wordMatches(labelText);
+		for (String text : texts) {
+			if (wordMatches(text)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -281,25 +515,64 @@ public class PatternFilter extends ViewerFilter {
 	 *         match criteria.
 	 */
 	protected boolean wordMatches(String text) {
+		return wordMatches(matcher, text);
+	}
+
+	/**
+	 * Return whether or not if any of the words in text satisfy the match critera
+	 * of the given matcher.
+	 *
+	 * @param textMatcher the matcher, <code>null</code> matches every word
+	 * @param text        the text to match
+	 * @return boolean <code>true</code> if one of the words in text satisifes the
+	 *         match criteria.
+	 */
+	/* package */ static boolean wordMatches(TextMatcher textMatcher, String text) {
 		if (text == null) {
 			return false;
 		}
 
 		// If the whole text matches we are all set
-		if (match(text)) {
+		if (match(textMatcher, text)) {
 			return true;
 		}
 
 		// Otherwise check if any of the words of the text matches
 		String[] words = TextMatcher.getWords(text);
 		for (String word : words) {
-			if (!match(word)) {
+			if (!match(textMatcher, word)) {
 				return false;
 			}
 		}
 		return words.length > 0;
 	}
 
+	/**
+	 * Returns the texts of the given element that are matched against the filter
+	 * text. The element is a leaf match if any of them
+	 * {@link #wordMatches(String) matches}, see
+	 * {@link #isLeafMatch(Viewer, Object)}. When the filtered tree matches in the
+	 * background, the texts are collected on the UI thread while the tree content
+	 * is snapshotted. The default implementation returns the label of the
+	 * element.
+	 * <p>
+	 * Subclasses that only match other texts than the label should override this
+	 * method rather than {@link #isLeafMatch(Viewer, Object)}.
+	 * </p>
+	 *
+	 * @param viewer  the viewer that contains the element
+	 * @param element the tree element
+	 * @return the texts to match, an empty array if the element is never a leaf
+	 *         match, or <code>null</code> if the element and its children are
+	 *         never visible
+	 * @see FilteredTree#setBackgroundMatching(boolean)
+	 * @since 3.129
+	 */
+	protected String[] getSearchTexts(Viewer viewer, Object element) {
+		String labelText = ((ILabelProvider) ((ContentViewer) viewer).getLabelProvider()).getText(element);
+		return labelText == null ? new String[0] : new String[] { labelText };
+	}
+
 	/**
 	 * Can be called by the filtered tree to turn on caching.
 	 *
@@ -308,4 +581,19 @@ public class PatternFilter extends ViewerFilter {
 	void setUseCache(boolean useCache) {
 		this.useCache = useCache;
 	}
+
+	/**
+	 * The caches computed for one pattern string.
+	 */
+	private static final class PatternCaches {
+
+		final Map cache;
+
+		final Map foundAnyCache;
+
+		PatternCaches(Map cache, Map foundAnyCache) {
+			this.cache = cache;
+			this.foundAnyCache = foundAnyCache;
+		}
+	}
 }
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.StartupThreading.StartupRunnable;
+import org.eclipse.ui.internal.misc.UIStats;
+
+/**
+ * A set of workbench startup tasks with declared dependencies and thread
+ * affinity. Tasks with {@link Affinity#UI} affinity are run on the thread that
+ * calls {@link #run()}, which must be the display thread. Tasks with
+ * {@link Affinity#BACKGROUND} affinity are run concurrently on a small pool as
+ * soon as all of their dependencies are done. Background tasks must not
+ * synchronize with the display thread, as it is blocked while waiting for
+ * them, and must not change static or other process wide state that is read
+ * on the display thread.
+ * <p>
+ * When the {@link UIStats#STARTUP_TASK} performance event is enabled, the
+ * timing of every task and the critical path through the graph are reported
+ * once the graph has been run.
+ * </p>
+ *
+ * @since 3.129
+ */
+public final class StartupTaskGraph {
+
+	/**
+	 * The thread a startup task has to be run on.
+	 */
+	public enum Affinity {
+		/** The task must be run on the display thread. */
+		UI,
+		/**
+		 * The task may be run on any thread. It must neither synchronize with the
+		 * display thread nor change static state.
+		 */
+		BACKGROUND
+	}
+
+	private static final class Task {
+		final String id;
+		final Affinity affinity;
+		final StartupRunnable runnable;
+		final String[] dependsOn;
+		final List<Task> dependencies = new ArrayList<>();
+		final List<Task> dependents = new ArrayList<>();
+		int pendingDependencies;
+		long start;
+		long end;
+		String threadName;
+
+		Task(String id, Affinity affinity, StartupRunnable runnable, String[] dependsOn) {
+			this.id = id;
+			this.affinity = affinity;
+			this.runnable = runnable;
+			this.dependsOn = dependsOn;
+		}
+
+		void execute() {
+			threadName = Thread.currentThread().getName();
+			start = System.nanoTime();
+			runnable.run();
+			end = System.nanoTime();
+		}
+	}
+
+	private final String name;
+
+	private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+	/**
+	 * Creates an empty task graph.
+	 *
+	 * @param name the name of the graph, used for reporting
+	 */
+	public StartupTaskGraph(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Adds a task to the graph. Dependencies may be added after the tasks
+	 * depending on them, but must exist when the graph is run.
+	 *
+	 * @param id        the unique id of the task
+	 * @param affinity  the thread affinity of the task
+	 * @param runnable  the work to do
+	 * @param dependsOn the ids of the tasks that have to be done before this task
+	 *                  can be started
+	 * @return this graph
+	 */
+	public StartupTaskGraph add(String id, Affinity affinity, StartupRunnable runnable, String... dependsOn) {
+		if (tasks.containsKey(id)) {
+			throw new IllegalArgumentException("Duplicate startup task: " + id); //$NON-NLS-1$
+		}
+		tasks.put(id, new Task(id, affinity, runnable, dependsOn));
+		return this;
+	}
+
+	/**
+	 * Runs all tasks of the graph and returns once all of them are done. Must be
+	 * called on the display thread. If a task fails, no further tasks are started
+	 * and the failure is rethrown once the running background tasks are done.
+	 *
+	 * @throws IllegalStateException if not called on the display thread, if a
+	 *                               dependency is unknown or the dependencies
+	 *                               form a cycle
+	 */
+	public void run() {
+		if (Display.getCurrent() == null) {
+			throw new IllegalStateException("Startup tasks of " + name + " must be run on the display thread"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		Deque<Task> readyUI = new ArrayDeque<>();
+		List<Task> readyBackground = new ArrayList<>();
+		resolveDependencies(readyUI, readyBackground);
+
+		long graphStart = System.nanoTime();
+		BlockingQueue<Task> completed = new LinkedBlockingQueue<>();
+		ExecutorService executor = null;
+		int remaining = tasks.size();
+		int running = 0;
+		Throwable failure = null;
+		try {
+			while (remaining > 0) {
+				if (failure == null) {
+					for (Task task : readyBackground) {
+						if (executor == null) {
+							executor = createExecutor();
+						}
+						running++;
+						executor.execute(() -> {
+							try {
+								task.execute();
+							} finally {
+								completed.add(task);
+							}
+						});
+					}
+					readyBackground.clear();
+				}
+
+				Task done;
+				if (failure == null && !readyUI.isEmpty()) {
+					done = readyUI.poll();
+					done.execute();
+				} else if (running > 0) {
+					done = completed.take();
+					running--;
+				} else {
+					// failed and nothing left running
+					break;
+				}
+				remaining--;
+
+				if (failure == null && done.runnable.getThrowable() != null) {
+					failure = done.runnable.getThrowable();
+				}
+				for (Task dependent : done.dependents) {
+					if (--dependent.pendingDependencies == 0) {
+						if (dependent.affinity == Affinity.UI) {
+							readyUI.add(dependent);
+						} else {
+							readyBackground.add(dependent);
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = e;
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+				try {
+					executor.awaitTermination(1, TimeUnit.MINUTES);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		if (UIStats.isDebugging(UIStats.STARTUP_TASK)) {
+			report(graphStart);
+		}
+
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure != null) {
+			throw new RuntimeException(failure);
+		}
+	}
+
+	private void resolveDependencies(Deque<Task> readyUI, List<Task> readyBackground) {
+		for (Task task : tasks.values()) {
+			for (String dependencyId : task.dependsOn) {
+				Task dependency = tasks.get(dependencyId);
+				if (dependency == null) {
+					throw new IllegalStateException(
+							"Startup task " + task.id + " depends on unknown task " + dependencyId); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				task.dependencies.add(dependency);
+				dependency.dependents.add(task);
+			}
+			task.pendingDependencies = task.dependencies.size();
+		}
+
+		// check for cycles up front, otherwise run() would wait forever
+		Map<Task, Integer> pending = new LinkedHashMap<>();
+		Deque<Task> queue = new ArrayDeque<>();
+		for (Task task : tasks.values()) {
+			pending.put(task, Integer.valueOf(task.pendingDependencies));
+			if (task.pendingDependencies == 0) {
+				queue.add(task);
+				if (task.affinity == Affinity.UI) {
+					readyUI.add(task);
+				} else {
+					readyBackground.add(task);
+				}
+			}
+		}
+		int sorted = 0;
+		while (!queue.isEmpty()) {
+			Task task = queue.poll();
+			sorted++;
+			for (Task dependent : task.dependents) {
+				int count = pending.get(dependent).intValue() - 1;
+				pending.put(dependent, Integer.valueOf(count));
+				if (count == 0) {
+					queue.add(dependent);
+				}
+			}
+		}
+		if (sorted != tasks.size()) {
+			throw new IllegalStateException("Startup tasks of " + name + " have cyclic dependencies"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "Workbench Startup"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Reports the per task timing to {@link UIStats} and traces the timeline of
+	 * the graph together with its critical path, i.e. the chain of dependent
+	 * tasks that finished last.
+	 */
+	private void report(long graphStart) {
+		long graphEnd = graphStart;
+		Task last = null;
+		for (Task task : tasks.values()) {
+			if (task.threadName == null) {
+				continue;
+			}
+			UIStats.startupTask(task.id, this, TimeUnit.NANOSECONDS.toMillis(task.end - task.start));
+			if (task.end > graphEnd) {
+				graphEnd = task.end;
+				last = task;
+			}
+		}
+
+		List<Task> criticalPath = new ArrayList<>();
+		for (Task task = last; task != null;) {
+			criticalPath.add(0, task);
+			Task latest = null;
+			for (Task dependency : task.dependencies) {
+				if (latest == null || dependency.end > latest.end) {
+					latest = dependency;
+				}
+			}
+			task = latest;
+		}
+
+		StringBuilder timeline = new StringBuilder();
+		timeline.append("Startup timeline of ").append(name).append(": ") //$NON-NLS-1$ //$NON-NLS-2$
+				.append(TimeUnit.NANOSECONDS.toMillis(graphEnd - graphStart)).append("ms\n"); //$NON-NLS-1$
+		for (Task task : tasks.values()) {
+			if (task.threadName == null) {
+				timeline.append(String.format("  %-32s not run%n", task.id)); //$NON-NLS-1$
+				continue;
+			}
+			timeline.append(String.format("  %-32s %-10s start %5dms  took %5dms  [%s]%s%n", task.id, //$NON-NLS-1$
+					task.affinity, Long.valueOf(TimeUnit.NANOSECONDS.toMillis(task.start - graphStart)),
+					Long.valueOf(TimeUnit.NANOSECONDS.toMillis(task.end - task.start)), task.threadName,
+					criticalPath.contains(task) ? " *" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		timeline.append("  critical path (*): "); //$NON-NLS-1$
+		for (int i = 0; i < criticalPath.size(); i++) {
+			if (i > 0) {
+				timeline.append(" -> "); //$NON-NLS-1$
+			}
+			timeline.append(criticalPath.get(i).id);
+		}
+		UIStats.startupTimeline(timeline.toString());
+	}
+}
@@ -29,6 +29,7 @@ package org.eclipse.ui.internal;
 import com.ibm.icu.util.ULocale;
 import com.ibm.icu.util.ULocale.Category;
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -125,6 +126,7 @@ import org.eclipse.jface.bindings.IBindingManagerListener;
 import org.eclipse.jface.databinding.swt.DisplayRealm;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.operation.IRunnableContext;
 import org.eclipse.jface.operation.ModalContext;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -190,6 +192,7 @@ import org.eclipse.ui.contexts.IWorkbenchContextSupport;
 import org.eclipse.ui.handlers.IHandlerService;
 import org.eclipse.ui.help.IWorkbenchHelpSystem;
 import org.eclipse.ui.internal.StartupThreading.StartupRunnable;
+import org.eclipse.ui.internal.StartupTaskGraph.Affinity;
 import org.eclipse.ui.internal.WorkbenchWindow.WWinPartServiceSaveHandler;
 import org.eclipse.ui.internal.actions.CommandAction;
 import org.eclipse.ui.internal.activities.ws.WorkbenchActivitySupport;
@@ -285,6 +288,8 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 
 	public static final String EDITOR_TAG = "Editor"; //$NON-NLS-1$
 
+	private static final String IMAGE_DATA_CACHE_PROPERTY = "org.eclipse.ui.imageDataCache"; //$NON-NLS-1$
+	private static final String IMAGE_DATA_CACHE_FILE = "imageData.cache"; //$NON-NLS-1$
 	private static final String PROP_VM = "eclipse.vm"; //$NON-NLS-1$
 	private static final String PROP_VMARGS = "eclipse.vmargs"; //$NON-NLS-1$
 	private static final String PROP_COMMANDS = "eclipse.commands"; //$NON-NLS-1$
@@ -1574,7 +1579,25 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 		e4Context.set("org.eclipse.core.runtime.Platform", Platform.class); //$NON-NLS-1$
 		final EvaluationService evaluationService = new EvaluationService(e4Context);
 
-		StartupThreading.runWithoutExceptions(new StartupRunnable() {
+		StartupTaskGraph startupTasks = new StartupTaskGraph("Workbench"); //$NON-NLS-1$
+
+		// the intro registry only reads the extension registry, so the intro of
+		// the product is looked up while the services are initialized
+		final IIntroRegistry introRegistry = WorkbenchPlugin.getDefault().getIntroRegistry();
+		final IntroDescriptor[] productIntro = new IntroDescriptor[1];
+		startupTasks.add("introLookup", Affinity.BACKGROUND, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				if (introRegistry.getIntroCount() > 0) {
+					IProduct product = Platform.getProduct();
+					if (product != null) {
+						productIntro[0] = (IntroDescriptor) introRegistry.getIntroForProduct(product.getId());
+					}
+				}
+			}
+		});
+
+		startupTasks.add("evaluationService", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
 
 			@Override
 			public void runWithException() {
@@ -1582,59 +1605,107 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 			}
 		});
 
-		initializeLazyServices();
+		startupTasks.add("lazyServices", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeLazyServices();
+			}
+		}, "evaluationService"); //$NON-NLS-1$
 
 		// Initialize the activity support.
-
-		activityHelper = ActivityPersistanceHelper.getInstance();
-		StartupThreading.runWithoutExceptions(new StartupRunnable() {
+		startupTasks.add("activitySupport", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
 
 			@Override
 			public void runWithException() {
+				activityHelper = ActivityPersistanceHelper.getInstance();
 				WorkbenchImages.getImageRegistry();
 			}
-		});
-		initializeE4Services();
-		IIntroRegistry introRegistry = WorkbenchPlugin.getDefault().getIntroRegistry();
-		if (introRegistry.getIntroCount() > 0) {
-			IProduct product = Platform.getProduct();
-			if (product != null) {
-				introDescriptor = (IntroDescriptor) introRegistry.getIntroForProduct(product.getId());
+		}, "lazyServices"); //$NON-NLS-1$
+
+		startupTasks.add("e4Services", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeE4Services();
 			}
-		}
-		initializeDefaultServices();
-		initializeFonts();
-		initializeApplicationColors();
+		}, "activitySupport"); //$NON-NLS-1$
+
+		startupTasks.add("intro", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				introDescriptor = productIntro[0];
+			}
+		}, "e4Services", "introLookup"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		startupTasks.add("defaultServices", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeDefaultServices();
+			}
+		}, "intro"); //$NON-NLS-1$
+
+		startupTasks.add("fonts", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeFonts();
+			}
+		}, "defaultServices"); //$NON-NLS-1$
+
+		startupTasks.add("colors", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeApplicationColors();
+			}
+		}, "fonts"); //$NON-NLS-1$
 
 		// now that the workbench is sufficiently initialized, let the advisor
 		// have a turn.
-		StartupThreading.runWithoutExceptions(new StartupRunnable() {
+		startupTasks.add("advisorInitialize", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
 
 			@Override
 			public void runWithException() {
 				advisor.internalBasicInitialize(getWorkbenchConfigurer());
 			}
-		});
+		}, "colors"); //$NON-NLS-1$
 
-		// configure use of color icons in toolbars
-		boolean useColorIcons = PrefUtil.getInternalPreferenceStore().getBoolean(IPreferenceConstants.COLOR_ICONS);
-		ActionContributionItem.setUseColorIconsInToolbars(useColorIcons);
+		// the following read preferences which the advisor may have changed and
+		// set static state, so they stay on the display thread
+		startupTasks.add("openStrategy", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				// configure use of color icons in toolbars
+				boolean useColorIcons = PrefUtil.getInternalPreferenceStore()
+						.getBoolean(IPreferenceConstants.COLOR_ICONS);
+				ActionContributionItem.setUseColorIconsInToolbars(useColorIcons);
 
-		// initialize workbench single-click vs double-click behavior
-		initializeSingleClickOption();
+				// initialize workbench single-click vs double-click behavior
+				initializeSingleClickOption();
+			}
+		}, "advisorInitialize"); //$NON-NLS-1$
 
-		initializeGlobalization();
-		initializeNLExtensions();
+		startupTasks.add("globalization", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeGlobalization();
+				initializeNLExtensions();
+			}
+		}, "advisorInitialize"); //$NON-NLS-1$
 
-		initializeWorkbenchImages();
+		startupTasks.add("workbenchImages", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
+			@Override
+			public void runWithException() {
+				initializeWorkbenchImages();
+			}
+		}, "advisorInitialize"); //$NON-NLS-1$
 
 		// hook shortcut visualizer
-		StartupThreading.runWithoutExceptions(new StartupRunnable() {
+		startupTasks.add("showKeys", Affinity.UI, new StartupRunnable() { //$NON-NLS-1$
 			@Override
 			public void runWithException() {
 				new ShowKeysListener(Workbench.this, PrefUtil.getInternalPreferenceStore());
 			}
-		});
+		}, "workbenchImages"); //$NON-NLS-1$
+
+		startupTasks.run();
 
 		// attempt to restore a previous workbench state
 		try {
@@ -1791,6 +1862,8 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 	 * @since 3.0
 	 */
 	private static void initializeImages() {
+		initializeImageDataCache();
+
 		ImageDescriptor[] windowImages = WorkbenchPlugin.getDefault().getWindowImages();
 		if (windowImages == null) {
 			return;
@@ -1803,6 +1876,21 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 		Window.setDefaultImages(images);
 	}
 
+	/*
+	 * Opens the persistent cache of decoded image data in the configuration area,
+	 * unless disabled via the "org.eclipse.ui.imageDataCache" system property.
+	 */
+	private static void initializeImageDataCache() {
+		if (!Boolean.parseBoolean(System.getProperty(IMAGE_DATA_CACHE_PROPERTY, Boolean.TRUE.toString()))) {
+			return;
+		}
+		BundleContext context = WorkbenchPlugin.getDefault().getBundleContext();
+		File cacheFile = context == null ? null : context.getDataFile(IMAGE_DATA_CACHE_FILE);
+		if (cacheFile != null) {
+			ImageDataCache.open(cacheFile);
+		}
+	}
+
 	/*
 	 * Take the workbenches' images out of the shared registry.
 	 *
@@ -1810,6 +1898,7 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 	 */
 	private void uninitializeImages() {
 		WorkbenchImages.dispose();
+		ImageDataCache.close();
 		Image[] images = Window.getDefaultImages();
 		Window.setDefaultImage(null);
 		for (Image image : images) {
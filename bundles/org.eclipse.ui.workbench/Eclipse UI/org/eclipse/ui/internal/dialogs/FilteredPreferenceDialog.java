@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2021 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -216,6 +216,7 @@ public abstract class FilteredPreferenceDialog extends PreferenceDialog implemen
 		TreeViewer tree;
 		if (!hasAtMostOnePage()) {
 			filteredTree = new PreferenceFilteredTree(parent, styleBits, new PreferencePatternFilter());
+			filteredTree.setBackgroundMatching(true);
 			filteredTree.setBackground(parent.getDisplay().getSystemColor(SWT.COLOR_LIST_BACKGROUND));
 
 			tree = filteredTree.getViewer();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,11 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.dialogs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.eclipse.jface.preference.IPreferenceNode;
 import org.eclipse.jface.viewers.ITreeContentProvider;
@@ -94,21 +97,16 @@ public class PreferencePatternFilter extends PatternFilter {
 	}
 
 	@Override
-	protected boolean isLeafMatch(Viewer viewer, Object element) {
-		IPreferenceNode node = (IPreferenceNode) element;
-		String text = node.getLabelText();
-
-		if (wordMatches(text)) {
-			return true;
+	protected String[] getSearchTexts(Viewer viewer, Object element) {
+		if (WorkbenchActivityHelper.restrictUseOf(element)) {
+			return null;
 		}
-
+		IPreferenceNode node = (IPreferenceNode) element;
+		List<String> texts = new ArrayList<>();
+		texts.add(node.getLabelText());
 		// Also need to check the keywords
-		for (String keyword : getKeywords(node)) {
-			if (wordMatches(keyword)) {
-				return true;
-			}
-		}
-		return false;
+		texts.addAll(Arrays.asList(getKeywords(node)));
+		return texts.toArray(new String[texts.size()]);
 	}
 
 }
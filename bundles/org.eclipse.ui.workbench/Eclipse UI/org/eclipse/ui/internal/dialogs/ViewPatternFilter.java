@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -34,20 +34,11 @@ public class ViewPatternFilter extends PatternFilter {
 	}
 
 	@Override
-	protected boolean isLeafMatch(Viewer viewer, Object element) {
-		if (element instanceof String) {
-			return false;
-		}
-
-		String text = null;
+	protected String[] getSearchTexts(Viewer viewer, Object element) {
 		if (element instanceof MPartDescriptor) {
 			MPartDescriptor desc = (MPartDescriptor) element;
-			text = LocalizationHelper.getLocalized(desc.getLabel(), desc);
-			if (wordMatches(text)) {
-				return true;
-			}
+			return new String[] { LocalizationHelper.getLocalized(desc.getLabel(), desc) };
 		}
-
-		return false;
+		return new String[0];
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -38,6 +38,8 @@ class CategoryPatternFilter extends PatternFilter {
 		} else {
 			setPattern("org.eclipse.ui.keys.optimization.true"); //$NON-NLS-1$
 		}
+		// the cached matches of the pattern depend on the categories
+		clearCaches();
 	}
 
 	public boolean isFilteringCategories() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,9 @@ package org.eclipse.ui.internal.misc;
 import java.util.HashMap;
 import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.WorkbenchPlugin;
 
 /**
  * This class is used for monitoring performance events. Each performance event
@@ -61,10 +63,12 @@ public class UIStats {
 
 	public static final int EARLY_STARTUP = 15;
 
+	public static final int STARTUP_TASK = 16;
+
 	/**
 	 * Change this value when you add a new event constant.
 	 */
-	public static final int LAST_VALUE = EARLY_STARTUP;
+	public static final int LAST_VALUE = STARTUP_TASK;
 
 	private static boolean debug[] = new boolean[LAST_VALUE + 1];
 
@@ -87,6 +91,7 @@ public class UIStats {
 		events[UI_JOB] = PlatformUI.PLUGIN_ID + "/perf/uijob"; //$NON-NLS-1$
 		events[CONTENT_TYPE_LOOKUP] = PlatformUI.PLUGIN_ID + "/perf/contentTypes"; //$NON-NLS-1$
 		events[EARLY_STARTUP] = PlatformUI.PLUGIN_ID + "/perf/earlyStartup"; //$NON-NLS-1$
+		events[STARTUP_TASK] = PlatformUI.PLUGIN_ID + "/perf/startupTasks"; //$NON-NLS-1$
 
 		for (int i = 0; i <= LAST_VALUE; i++) {
 			// don't log any performance events if the general performance stats is disabled
@@ -140,6 +145,36 @@ public class UIStats {
 		}
 	}
 
+	/**
+	 * Records the duration of a single workbench startup task.
+	 *
+	 * @param taskId  The id of the startup task
+	 * @param blame   The object that ran the task
+	 * @param elapsed The time the task took in milliseconds
+	 */
+	public static void startupTask(String taskId, Object blame, long elapsed) {
+		if (debug[STARTUP_TASK]) {
+			PerformanceStats.getStats(events[STARTUP_TASK], blame).addRun(elapsed, taskId);
+		}
+	}
+
+	/**
+	 * Writes the timeline of the workbench startup tasks, including their
+	 * critical path, to the debug trace of the startup task option.
+	 *
+	 * @param timeline The formatted timeline
+	 */
+	public static void startupTimeline(String timeline) {
+		if (debug[STARTUP_TASK]) {
+			WorkbenchPlugin plugin = WorkbenchPlugin.getDefault();
+			DebugOptions options = plugin == null ? null : plugin.getDebugOptions();
+			if (options != null) {
+				String option = events[STARTUP_TASK].substring(PlatformUI.PLUGIN_ID.length());
+				options.newDebugTrace(PlatformUI.PLUGIN_ID, UIStats.class).trace(option, timeline);
+			}
+		}
+	}
+
 	/**
 	 * Special hook to signal that application startup is complete and the event
 	 * loop has started running.
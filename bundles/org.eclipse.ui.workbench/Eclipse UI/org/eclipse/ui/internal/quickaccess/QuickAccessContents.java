@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -373,6 +373,8 @@ public abstract class QuickAccessContents {
 			filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
 		}
 		final String finalFilter = filter;
+		// compiled once and shared by the matchers of all elements
+		final QuickAccessQuery query = new QuickAccessQuery(filter);
 
 		// collect matching elements
 		LinkedHashMap<QuickAccessProvider, List<QuickAccessElement>> elementsForProviders = new LinkedHashMap<>(
@@ -418,7 +420,8 @@ public abstract class QuickAccessContents {
 					}
 				}
 				if (!filter.isEmpty() && !sortedElements.isEmpty()) {
-					sortedElements = putPrefixMatchFirst(sortedElements, filter);
+					sortedElements = provider.getCandidates(sortedElements, query);
+					sortedElements = putPrefixMatchFirst(provider, sortedElements, filter);
 				}
 				elementsForProviders.put(provider, new ArrayList<>(sortedElements));
 			}
@@ -460,8 +463,8 @@ public abstract class QuickAccessContents {
 					.entrySet()) {
 				QuickAccessProvider provider = elementsPerProvider.getKey();
 				List<QuickAccessEntry> entries = elementsPerProvider.getValue().stream() //
-						.map(QuickAccessMatcher::new) //
-						.map(matcher -> matcher.match(finalFilter, provider)) //
+						.map(provider::getMatcher) //
+						.map(matcher -> matcher.match(query, provider)) //
 						.filter(Objects::nonNull) //
 						.collect(Collectors.toList());
 				if (!entries.isEmpty()) {
@@ -480,7 +483,7 @@ public abstract class QuickAccessContents {
 						int toPickEntries = nbEntriesPerProvider;
 						while (toPickEntries > 0 && !elements.isEmpty()) {
 							QuickAccessElement element = elements.remove(0);
-							QuickAccessEntry entry = new QuickAccessMatcher(element).match(filter, provider);
+							QuickAccessEntry entry = provider.getMatcher(element).match(query, provider);
 							if (entry != null) {
 								numberOfSlotsLeft--;
 								toPickEntries--;
@@ -500,7 +503,7 @@ public abstract class QuickAccessContents {
 							boolean entryPicked = false;
 							while (!entryPicked && !elements.isEmpty()) {
 								QuickAccessElement element = elements.remove(0);
-								QuickAccessEntry entry = new QuickAccessMatcher(element).match(filter, provider);
+								QuickAccessEntry entry = provider.getMatcher(element).match(query, provider);
 								if (entry != null) {
 									numberOfSlotsLeft--;
 									entryPicked = true;
@@ -537,27 +540,21 @@ public abstract class QuickAccessContents {
 	 * Consider whether we could directly check the "matchQuality" here, but it
 	 * seems to be a more expensive operation
 	 */
-	private static List<QuickAccessElement> putPrefixMatchFirst(List<QuickAccessElement> elements, String prefix) {
-		List<QuickAccessElement> res = new ArrayList<>(elements);
-		List<Integer> matchingIndexes = new ArrayList<>();
-		for (int i = 0; i < elements.size(); i++) {
-			if (elements.get(i).getLabel().toLowerCase().startsWith(prefix.toLowerCase())) {
-				matchingIndexes.add(Integer.valueOf(i));
-			}
-		}
-		int currentMatchIndex = 0;
-		int currentNonMatchIndex = matchingIndexes.size();
-		for (int i = 0; i < res.size(); i++) {
-			boolean isMatch = !matchingIndexes.isEmpty() && matchingIndexes.iterator().next().intValue() == i;
+	private static List<QuickAccessElement> putPrefixMatchFirst(QuickAccessProvider provider,
+			List<QuickAccessElement> elements, String prefix) {
+		Set<QuickAccessElement> prefixMatches = provider.getPrefixMatches(prefix);
+		List<QuickAccessElement> res = new ArrayList<>(elements.size());
+		List<QuickAccessElement> nonMatches = new ArrayList<>(elements.size());
+		for (QuickAccessElement element : elements) {
+			boolean isMatch = prefixMatches.contains(element) || (!provider.isIndexed(element)
+					&& element.getLabel().toLowerCase().startsWith(prefix.toLowerCase()));
 			if (isMatch) {
-				matchingIndexes.remove(0);
-				res.set(currentMatchIndex, elements.get(i));
-				currentMatchIndex++;
+				res.add(element);
 			} else {
-				res.set(currentNonMatchIndex, elements.get(i));
-				currentNonMatchIndex++;
+				nonMatches.add(element);
 			}
 		}
+		res.addAll(nonMatches);
 		return res;
 	}
 
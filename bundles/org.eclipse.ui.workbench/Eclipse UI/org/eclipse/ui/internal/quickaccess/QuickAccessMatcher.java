@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Red Hat Inc. and others.
+ * Copyright (c) 2019, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,12 +16,16 @@ package org.eclipse.ui.internal.quickaccess;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 import org.eclipse.ui.quickaccess.QuickAccessElement;
 
 /**
  * QuickAccessMatch contains the logic to check whether a given
  * {@link QuickAccessElement} matches a input user request.
+ * <p>
+ * The lower case and camel case forms of the labels of the element are
+ * computed once, so that a matcher can be reused for every filter typed by the
+ * user, see {@link QuickAccessProvider#getMatcher(QuickAccessElement)}.
+ * </p>
  *
  * @noreference This class is not intended to be referenced by clients.
  */
@@ -29,102 +33,86 @@ public final class QuickAccessMatcher {
 
 	private final QuickAccessElement element;
 
+	private final String label;
+
+	private final String lowerCaseLabel;
+
+	private final String matchLabel;
+
+	private final String lowerCaseMatchLabel;
+
+	private final String camelCase;
+
+	private final long characterMask;
+
+	// labels combined with the name of the provider the element was last matched for
+	private String providerName;
+	private String combinedLabel;
+	private String lowerCaseCombinedLabel;
+	private String lowerCaseCombinedMatchLabel;
+	private String combinedCamelCase;
+	private String providerCamelCase;
+
 	public QuickAccessMatcher(QuickAccessElement element) {
 		this.element = element;
+		this.label = element.getLabel();
+		this.lowerCaseLabel = label.toLowerCase();
+		this.matchLabel = element.getMatchLabel();
+		this.lowerCaseMatchLabel = matchLabel.toLowerCase();
+		this.camelCase = CamelUtil.getCamelCase(label); // use actual label for camelcase
+		this.characterMask = QuickAccessQuery.getCharacterMask(lowerCaseLabel)
+				| QuickAccessQuery.getCharacterMask(lowerCaseMatchLabel);
 	}
 
 	private static final int[][] EMPTY_INDICES = new int[0][0];
-	private static final String WS_WILD_START = "^\\s*(\\*|\\?)*"; //$NON-NLS-1$
-	private static final String WS_WILD_END = "(\\*|\\?)*\\s*$"; //$NON-NLS-1$
-	private static final String ANY_WS = "\\s+"; //$NON-NLS-1$
-	private static final String EMPTY_STR = ""; //$NON-NLS-1$
-	private static final String PAR_START = "\\("; //$NON-NLS-1$
-	private static final String PAR_END = "\\)"; //$NON-NLS-1$
-	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
-
-	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
 
 	/**
-	 * Get the existing {@link Pattern} for the given filter, or create a new one.
-	 * The generated pattern will replace whitespace with * to match all.
-	 *
-	 * @param filter
-	 * @return
+	 * @return the element
 	 */
-	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
-			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
-					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
-			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = safeCompile(sFilter);
-		}
-		return wsPattern;
+	public QuickAccessElement getElement() {
+		return element;
 	}
 
-	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
-
 	/**
-	 * Get the existing {@link Pattern} for the given filter, or create a new one.
-	 * The generated pattern will handle '*' and '?' wildcards.
+	 * Returns whether the labels of the element are still the ones this matcher
+	 * was created with. Matchers that are reused across filters have to be
+	 * created again when the labels change.
 	 *
-	 * @param filter
-	 * @return
+	 * @return <code>true</code> if the precomputed labels are current
 	 */
-	private Pattern getWildcardsPattern(String filter) {
-		// squash consecutive **** into a single *
-		filter = filter.replaceAll("\\*+", "*"); //$NON-NLS-1$ //$NON-NLS-2$
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
-			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
-					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
-			// replace '*' and '?' with their matchers ").*(" and ").?("
-			StringBuilder sb = new StringBuilder();
-			for (int i = 0; i < sFilter.length(); i++) {
-				char c = sFilter.charAt(i);
-				if (c == '*') {
-					sb.append(").").append(c).append("("); //$NON-NLS-1$ //$NON-NLS-2$
-				} else if (c == '?') {
-					int n = 1;
-					for (; (i + 1) < sFilter.length(); i++) {
-						if (sFilter.charAt(i + 1) != '?') {
-							break;
-						}
-						n++;
-					}
-					sb.append(").").append(n == 1 ? '?' : String.format("{0,%d}", n)).append("("); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				} else {
-					sb.append(c);
-				}
-			}
-			sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
-			// remove empty capturing groups
-			sFilter = sFilter.replace("()", EMPTY_STR); //$NON-NLS-1$
-			//
-			wcPattern = safeCompile(sFilter);
-		}
-		return wcPattern;
+	public boolean isCurrent() {
+		return label.equals(element.getLabel()) && matchLabel.equals(element.getMatchLabel());
+	}
+
+	/**
+	 * @return the lower case label of the element
+	 */
+	public String getLowerCaseLabel() {
+		return lowerCaseLabel;
 	}
 
 	/**
-	 * A safe way to compile some unknown pattern, avoids possible
-	 * {@link PatternSyntaxException}. If the pattern can't be compiled, some not
-	 * matching pattern will be returned.
+	 * Returns whether the element may match the given query when matched for a
+	 * provider with the given character mask. This is a fast check to skip most
+	 * elements that do not match.
 	 *
-	 * @param pattern some pattern to compile, not null
-	 * @return a {@link Pattern} object compiled from given input or a dummy pattern
-	 *         which do not match anything
+	 * @param query        the query
+	 * @param providerMask the {@link QuickAccessQuery#getCharacterMask(String)
+	 *                     character mask} of the name of the provider
+	 * @return <code>false</code> if the element does not match
 	 */
-	private static Pattern safeCompile(String pattern) {
-		try {
-			return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
-		} catch (Exception e) {
-			// A "bell" special character: should not match anything we can get
-			return Pattern.compile("\\a"); //$NON-NLS-1$
+	public boolean mayMatch(QuickAccessQuery query, long providerMask) {
+		return query.mayMatch(characterMask | providerMask);
+	}
+
+	private void updateCombinedLabels(String name) {
+		if (!name.equals(providerName)) {
+			providerName = name;
+			combinedLabel = name + " " + label; //$NON-NLS-1$
+			lowerCaseCombinedLabel = combinedLabel.toLowerCase();
+			lowerCaseCombinedMatchLabel = (name + " " + matchLabel).toLowerCase(); //$NON-NLS-1$
+			combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
+			providerCamelCase = CamelUtil.getCamelCase(name);
 		}
 	}
 
@@ -139,14 +127,28 @@ public final class QuickAccessMatcher {
 	 * @noreference This method is not intended to be referenced by clients.
 	 */
 	public QuickAccessEntry match(String filter, QuickAccessProvider providerForMatching) {
-		String matchLabel = element.getMatchLabel();
+		return match(new QuickAccessQuery(filter), providerForMatching);
+	}
+
+	/**
+	 * If this element is a match (partial, complete, camel case, etc) to the given
+	 * filter, returns a {@link QuickAccessEntry}. Otherwise returns
+	 * <code>null</code>;
+	 *
+	 * @param query               the compiled filter for matching
+	 * @param providerForMatching the provider that will own the entry
+	 * @return a quick access entry or <code>null</code>
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public QuickAccessEntry match(QuickAccessQuery query, QuickAccessProvider providerForMatching) {
+		String filter = query.getFilter();
 		// first occurrence of filter
-		int index = matchLabel.toLowerCase().indexOf(filter);
+		int index = lowerCaseMatchLabel.indexOf(filter);
 		if (index != -1) {
-			index = element.getLabel().toLowerCase().indexOf(filter);
+			index = lowerCaseLabel.indexOf(filter);
 			if (index != -1) { // match actual label
-				int quality = matchLabel.toLowerCase().equals(filter) ? QuickAccessEntry.MATCH_PERFECT
-						: (matchLabel.toLowerCase().startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
+				int quality = lowerCaseMatchLabel.equals(filter) ? QuickAccessEntry.MATCH_PERFECT
+						: (lowerCaseMatchLabel.startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
 								: QuickAccessEntry.MATCH_GOOD);
 				return new QuickAccessEntry(element, providerForMatching,
 						new int[][] { { index, index + filter.length() - 1 } }, EMPTY_INDICES, quality);
@@ -155,21 +157,13 @@ public final class QuickAccessMatcher {
 					QuickAccessEntry.MATCH_PARTIAL);
 		}
 		//
-		Pattern p;
-		if (filter.contains("*") || filter.contains("?")) { //$NON-NLS-1$ //$NON-NLS-2$
-			// check for wildcards
-			p = getWildcardsPattern(filter);
-		} else {
-			// check for whitespaces
-			p = getWhitespacesPattern(filter);
-		}
+		Pattern p = query.getPattern();
 		Matcher m = p.matcher(matchLabel);
 		// if matches, return an entry
 		if (m.matches()) {
 			// and highlight match on the label only
-			String label = element.getLabel();
 			if (!matchLabel.equals(label)) {
-				m = p.matcher(element.getLabel());
+				m = p.matcher(label);
 				if (!m.matches()) {
 					return new QuickAccessEntry(element, providerForMatching, EMPTY_INDICES, EMPTY_INDICES,
 							QuickAccessEntry.MATCH_GOOD);
@@ -187,13 +181,23 @@ public final class QuickAccessMatcher {
 			return new QuickAccessEntry(element, providerForMatching, indices, EMPTY_INDICES, quality);
 		}
 		//
-		String combinedMatchLabel = (providerForMatching.getName() + " " + element.getMatchLabel()); //$NON-NLS-1$
-		String combinedLabel = (providerForMatching.getName() + " " + element.getLabel()); //$NON-NLS-1$
-		index = combinedMatchLabel.toLowerCase().indexOf(filter);
+		String providerForMatchingName = providerForMatching.getName();
+		String lowerCaseCombinedMatch;
+		String lowerCaseCombined;
+		String combinedCamel;
+		String providerCamel;
+		synchronized (this) {
+			updateCombinedLabels(providerForMatchingName);
+			lowerCaseCombinedMatch = lowerCaseCombinedMatchLabel;
+			lowerCaseCombined = lowerCaseCombinedLabel;
+			combinedCamel = combinedCamelCase;
+			providerCamel = providerCamelCase;
+		}
+		index = lowerCaseCombinedMatch.indexOf(filter);
 		if (index != -1) { // match
-			index = combinedLabel.toLowerCase().indexOf(filter);
+			index = lowerCaseCombined.indexOf(filter);
 			if (index != -1) { // compute highlight on label
-				int lengthOfElementMatch = index + filter.length() - providerForMatching.getName().length() - 1;
+				int lengthOfElementMatch = index + filter.length() - providerForMatchingName.length() - 1;
 				if (lengthOfElementMatch > 0) {
 					return new QuickAccessEntry(element, providerForMatching,
 							new int[][] { { 0, lengthOfElementMatch - 1 } },
@@ -206,27 +210,24 @@ public final class QuickAccessMatcher {
 					QuickAccessEntry.MATCH_PARTIAL);
 		}
 		//
-		String camelCase = CamelUtil.getCamelCase(element.getLabel()); // use actual label for camelcase
 		index = camelCase.indexOf(filter);
 		if (index != -1) {
 			int[][] indices = CamelUtil.getCamelCaseIndices(matchLabel, index, filter.length());
 			return new QuickAccessEntry(element, providerForMatching, indices, EMPTY_INDICES,
 					QuickAccessEntry.MATCH_GOOD);
 		}
-		String combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
-		index = combinedCamelCase.indexOf(filter);
+		index = combinedCamel.indexOf(filter);
 		if (index != -1) {
-			String providerCamelCase = CamelUtil.getCamelCase(providerForMatching.getName());
-			int lengthOfElementMatch = index + filter.length() - providerCamelCase.length();
+			int lengthOfElementMatch = index + filter.length() - providerCamel.length();
 			if (lengthOfElementMatch > 0) {
 				return new QuickAccessEntry(element, providerForMatching,
 						CamelUtil.getCamelCaseIndices(matchLabel, 0, lengthOfElementMatch),
-						CamelUtil.getCamelCaseIndices(providerForMatching.getName(), index,
+						CamelUtil.getCamelCaseIndices(providerForMatchingName, index,
 								filter.length() - lengthOfElementMatch),
 						QuickAccessEntry.MATCH_GOOD);
 			}
 			return new QuickAccessEntry(element, providerForMatching, EMPTY_INDICES,
-					CamelUtil.getCamelCaseIndices(providerForMatching.getName(), index, filter.length()),
+					CamelUtil.getCamelCaseIndices(providerForMatchingName, index, filter.length()),
 					QuickAccessEntry.MATCH_GOOD);
 		}
 		return null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
-4 * Copyright (c) 2006, 2015 IBM Corporation and others.
+4 * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,14 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.quickaccess;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,6 +39,17 @@ public abstract class QuickAccessProvider {
 	 */
 	private QuickAccessElement[] cacheSortedElements;
 
+	/*
+	 * Index of the cached elements, built on first use
+	 */
+	private QuickAccessElement[] indexedElements;
+	private Map<QuickAccessElement, QuickAccessMatcher> indexedMatchers;
+	private String[] indexedLabels;
+	private QuickAccessElement[] indexedLabelElements;
+	private boolean indexedLabelsStale;
+	private String indexedName;
+	private long indexedNameMask;
+
 	/**
 	 * Returns the unique ID of this provider.
 	 *
@@ -122,6 +139,150 @@ public abstract class QuickAccessProvider {
 		return null;
 	}
 
+	/**
+	 * Builds the index of the cached elements if they changed since it was last
+	 * built. The index holds a {@link QuickAccessMatcher} with the precomputed
+	 * labels of every element, and the lower case labels in ascending order for
+	 * prefix lookups. Labels can change while the elements are cached, e.g. the
+	 * dirty marker of an editor, see {@link #getCurrentMatcher(QuickAccessElement)}.
+	 */
+	private void updateIndex() {
+		QuickAccessElement[] elements = cacheSortedElements;
+		if (elements == indexedElements) {
+			return;
+		}
+		indexedElements = elements;
+		if (elements == null) {
+			indexedMatchers = null;
+			indexedLabels = null;
+			indexedLabelElements = null;
+			return;
+		}
+		indexedMatchers = new IdentityHashMap<>(elements.length);
+		for (QuickAccessElement element : elements) {
+			indexedMatchers.put(element, new QuickAccessMatcher(element));
+		}
+		sortLabels();
+	}
+
+	private void sortLabels() {
+		QuickAccessMatcher[] matchers = indexedMatchers.values().toArray(new QuickAccessMatcher[0]);
+		Arrays.sort(matchers, Comparator.comparing(QuickAccessMatcher::getLowerCaseLabel));
+		indexedLabels = new String[matchers.length];
+		indexedLabelElements = new QuickAccessElement[matchers.length];
+		for (int i = 0; i < matchers.length; i++) {
+			indexedLabels[i] = matchers[i].getLowerCaseLabel();
+			indexedLabelElements[i] = matchers[i].getElement();
+		}
+		indexedLabelsStale = false;
+	}
+
+	/**
+	 * Returns the matcher of the given cached element, replacing it if the labels
+	 * of the element changed since it was created. The sorted labels are then
+	 * built again by the next {@link #getPrefixMatches(String)}.
+	 *
+	 * @return the matcher, or <code>null</code> if the element is not cached
+	 */
+	private QuickAccessMatcher getCurrentMatcher(QuickAccessElement element) {
+		QuickAccessMatcher matcher = indexedMatchers.get(element);
+		if (matcher != null && !matcher.isCurrent()) {
+			matcher = new QuickAccessMatcher(element);
+			indexedMatchers.put(element, matcher);
+			indexedLabelsStale = true;
+		}
+		return matcher;
+	}
+
+	/**
+	 * Returns the matcher for the given element. Matchers of the cached elements
+	 * are reused across filters.
+	 *
+	 * @param element an element of this provider
+	 * @return the matcher
+	 */
+	public synchronized QuickAccessMatcher getMatcher(QuickAccessElement element) {
+		updateIndex();
+		QuickAccessMatcher matcher = indexedMatchers == null ? null : getCurrentMatcher(element);
+		return matcher != null ? matcher : new QuickAccessMatcher(element);
+	}
+
+	/**
+	 * Returns the given elements without the cached elements that cannot match
+	 * the given query. The order of the elements is kept.
+	 *
+	 * @param elements the elements of this provider
+	 * @param query    the query
+	 * @return the elements that may match the query
+	 */
+	public synchronized List<QuickAccessElement> getCandidates(List<QuickAccessElement> elements,
+			QuickAccessQuery query) {
+		updateIndex();
+		if (indexedMatchers == null || query.getRequiredCharacters() == 0) {
+			return elements;
+		}
+		String name = getName();
+		if (!name.equals(indexedName)) {
+			indexedName = name;
+			indexedNameMask = QuickAccessQuery.getCharacterMask(name.toLowerCase());
+		}
+		List<QuickAccessElement> candidates = new ArrayList<>(elements.size());
+		for (QuickAccessElement element : elements) {
+			QuickAccessMatcher matcher = getCurrentMatcher(element);
+			if (matcher == null || matcher.mayMatch(query, indexedNameMask)) {
+				candidates.add(element);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns the cached elements whose lower case label starts with the given
+	 * prefix.
+	 *
+	 * @param prefix the lower case prefix
+	 * @return the matching elements, compared by identity
+	 */
+	public synchronized Set<QuickAccessElement> getPrefixMatches(String prefix) {
+		updateIndex();
+		if (indexedLabels == null) {
+			return Collections.emptySet();
+		}
+		for (QuickAccessElement element : indexedElements) {
+			getCurrentMatcher(element);
+		}
+		if (indexedLabelsStale) {
+			sortLabels();
+		}
+		int low = 0;
+		int high = indexedLabels.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (indexedLabels[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		Set<QuickAccessElement> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (int i = low; i < indexedLabels.length && indexedLabels[i].startsWith(prefix); i++) {
+			matches.add(indexedLabelElements[i]);
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns whether the given element is one of the cached elements covered by
+	 * {@link #getPrefixMatches(String)}.
+	 *
+	 * @param element an element of this provider
+	 * @return <code>true</code> if the element is indexed
+	 */
+	public synchronized boolean isIndexed(QuickAccessElement element) {
+		updateIndex();
+		return indexedMatchers != null && indexedMatchers.containsKey(element);
+	}
+
 	/**
 	 * Resets the cache, so next invocation of {@link #getElements()} and related
 	 * method will retrigger computation of elements.
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A user request compiled for matching. The query is created once per filter
+ * string and shared by the {@link QuickAccessMatcher}s of all elements, so the
+ * regular expression of the filter is only compiled once.
+ *
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class QuickAccessQuery {
+
+	private static final String WS_WILD_START = "^\\s*(\\*|\\?)*"; //$NON-NLS-1$
+	private static final String WS_WILD_END = "(\\*|\\?)*\\s*$"; //$NON-NLS-1$
+	private static final String ANY_WS = "\\s+"; //$NON-NLS-1$
+	private static final String EMPTY_STR = ""; //$NON-NLS-1$
+	private static final String PAR_START = "\\("; //$NON-NLS-1$
+	private static final String PAR_END = "\\)"; //$NON-NLS-1$
+	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
+	private static final String REGEX_CHARS = "\\[]{}.^$|+"; //$NON-NLS-1$
+
+	private final String filter;
+
+	private Pattern pattern;
+
+	private final long requiredCharacters;
+
+	/**
+	 * Creates a query for the given filter.
+	 *
+	 * @param filter the lower case user input
+	 */
+	public QuickAccessQuery(String filter) {
+		this.filter = filter;
+		this.requiredCharacters = computeRequiredCharacters(filter);
+	}
+
+	/**
+	 * @return the lower case user input
+	 */
+	public String getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Returns the pattern matching labels that contain the words of the filter in
+	 * order, or the filter with '*' and '?' wildcards if it contains some. The
+	 * pattern is compiled on first use.
+	 *
+	 * @return the pattern
+	 */
+	public synchronized Pattern getPattern() {
+		if (pattern == null) {
+			if (filter.contains("*") || filter.contains("?")) { //$NON-NLS-1$ //$NON-NLS-2$
+				pattern = createWildcardsPattern(filter);
+			} else {
+				pattern = createWhitespacesPattern(filter);
+			}
+		}
+		return pattern;
+	}
+
+	/**
+	 * Returns the ASCII letters and digits every label matching this query
+	 * contains, see {@link #getCharacterMask(String)}. The mask is empty if the
+	 * filter contains characters with a special meaning in regular expressions.
+	 *
+	 * @return the mask of required characters
+	 */
+	public long getRequiredCharacters() {
+		return requiredCharacters;
+	}
+
+	/**
+	 * Returns whether a text with the given character mask can match this query.
+	 *
+	 * @param characterMask the mask of all texts an element is matched on
+	 * @return <code>false</code> if the element cannot match
+	 */
+	public boolean mayMatch(long characterMask) {
+		return (characterMask & requiredCharacters) == requiredCharacters;
+	}
+
+	/**
+	 * Returns a mask with one bit for every ASCII letter (ignoring case) and
+	 * digit the given text contains.
+	 *
+	 * @param text the text
+	 * @return the character mask
+	 */
+	public static long getCharacterMask(String text) {
+		long mask = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				mask |= 1L << (c - 'a');
+			} else if (c >= 'A' && c <= 'Z') {
+				mask |= 1L << (c - 'A');
+			} else if (c >= '0' && c <= '9') {
+				mask |= 1L << (26 + c - '0');
+			}
+		}
+		return mask;
+	}
+
+	private static long computeRequiredCharacters(String filter) {
+		for (int i = 0; i < filter.length(); i++) {
+			if (REGEX_CHARS.indexOf(filter.charAt(i)) != -1) {
+				return 0;
+			}
+		}
+		return getCharacterMask(filter);
+	}
+
+	/**
+	 * Creates a {@link Pattern} for the given filter. The generated pattern will
+	 * replace whitespace with * to match all.
+	 *
+	 * @param filter
+	 * @return the pattern
+	 */
+	private static Pattern createWhitespacesPattern(String filter) {
+		String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
+				.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
+		sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
+		return safeCompile(sFilter);
+	}
+
+	/**
+	 * Creates a {@link Pattern} for the given filter. The generated pattern will
+	 * handle '*' and '?' wildcards.
+	 *
+	 * @param filter
+	 * @return the pattern
+	 */
+	private static Pattern createWildcardsPattern(String filter) {
+		// squash consecutive **** into a single *
+		filter = filter.replaceAll("\\*+", "*"); //$NON-NLS-1$ //$NON-NLS-2$
+		String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
+				.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
+		// replace '*' and '?' with their matchers ").*(" and ").?("
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < sFilter.length(); i++) {
+			char c = sFilter.charAt(i);
+			if (c == '*') {
+				sb.append(").").append(c).append("("); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if (c == '?') {
+				int n = 1;
+				for (; (i + 1) < sFilter.length(); i++) {
+					if (sFilter.charAt(i + 1) != '?') {
+						break;
+					}
+					n++;
+				}
+				sb.append(").").append(n == 1 ? '?' : String.format("{0,%d}", n)).append("("); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			} else {
+				sb.append(c);
+			}
+		}
+		sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
+		// remove empty capturing groups
+		sFilter = sFilter.replace("()", EMPTY_STR); //$NON-NLS-1$
+		//
+		return safeCompile(sFilter);
+	}
+
+	/**
+	 * A safe way to compile some unknown pattern, avoids possible
+	 * {@link PatternSyntaxException}. If the pattern can't be compiled, some not
+	 * matching pattern will be returned.
+	 *
+	 * @param pattern some pattern to compile, not null
+	 * @return a {@link Pattern} object compiled from given input or a dummy pattern
+	 *         which do not match anything
+	 */
+	private static Pattern safeCompile(String pattern) {
+		try {
+			return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+		} catch (Exception e) {
+			// A "bell" special character: should not match anything we can get
+			return Pattern.compile("\\a"); //$NON-NLS-1$
+		}
+	}
+}
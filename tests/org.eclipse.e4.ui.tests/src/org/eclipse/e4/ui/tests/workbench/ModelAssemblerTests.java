@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2021 EclipseSource Muenchen GmbH and others.
+ * Copyright (c) 2016, 2023 EclipseSource Muenchen GmbH and others.
  *
  *
  * This program and the accompanying materials
@@ -394,6 +394,41 @@ public class ModelAssemblerTests {
 		assertEquals(0, logMessages.size());
 	}
 
+	/**
+	 * Tests that the fragment resources of several extensions are read up front,
+	 * in contribution order, and merged into the application model.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_preloadedResources() throws Exception {
+		IContributor contributor = ContributorFactorySimple.createContributor(BUNDLE_SYMBOLIC_NAME);
+		IExtensionRegistry registry = createTestExtensionRegistry();
+		assembler.setExtensionRegistry(registry);
+		String dataFilePath = "org.eclipse.e4.ui.tests/data/ModelAssembler/fragmentPreload.xml";
+		registry.addContribution(getContentsAsInputStream(dataFilePath), contributor, false, null, null, null);
+
+		assembler.processModel(true);
+
+		List<URI> loadedURIs = new ArrayList<>();
+		for (Resource resource : resourceSet.getResources()) {
+			if (resource != appResource) {
+				assertTrue(resource.isLoaded());
+				loadedURIs.add(resource.getURI());
+			}
+		}
+		List<URI> expectedURIs = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			expectedURIs.add(URI.createPlatformPluginURI(
+					BUNDLE_SYMBOLIC_NAME + "/data/ModelAssembler/fragmentPreload-" + i + ".e4xmi", false));
+			MUIElement window = modelService.find("testFragments_preload-window" + i, application);
+			assertEquals(application, window.getParent());
+		}
+		assertEquals(expectedURIs, loadedURIs);
+
+		assertEquals(0, logMessages.size());
+	}
+
 	/**
 	 * Tests that pre-processors running from a non-persisted state that are
 	 * marked as "always" are executed.
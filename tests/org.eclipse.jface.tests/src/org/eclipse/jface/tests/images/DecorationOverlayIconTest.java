@@ -16,12 +16,15 @@ package org.eclipse.jface.tests.images;
 import static org.junit.Assert.assertNotEquals;
 
 import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.internal.CompositionCache;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.resource.LocalResourceManager;
 import org.eclipse.jface.viewers.DecorationOverlayIcon;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.junit.Before;
 
 import junit.framework.TestCase;
@@ -154,4 +157,70 @@ public class DecorationOverlayIconTest extends TestCase {
 		assertTrue(equalButDifferentIcon1.equals(equalButDifferentIcon2));
 		assertEquals(equalButDifferentIcon1.hashCode(), equalButDifferentIcon2.hashCode());
 	}
+
+	public void testCompositionCache() {
+		CompositionCache.clear();
+		int liveImages = CompositionCache.getLiveImageCount();
+		LocalResourceManager resourceManager = new LocalResourceManager(JFaceResources.getResources());
+		try {
+			DecorationOverlayIcon icon1 = new DecorationOverlayIcon(baseDescriptor1, overlayDescriptor1,
+					IDecoration.TOP_LEFT);
+			ImageData composed = icon1.getImageData(100);
+			assertEquals(0, CompositionCache.getHitCount());
+
+			// an equal icon reuses the composition
+			DecorationOverlayIcon icon2 = new DecorationOverlayIcon(baseDescriptor1, overlayDescriptor1,
+					IDecoration.TOP_LEFT);
+			ImageData cached = icon2.getImageData(100);
+			assertEquals(1, CompositionCache.getHitCount());
+			assertNotSame(composed, cached);
+			assertEquals(composed.width, cached.width);
+			assertEquals(composed.height, cached.height);
+
+			// a different overlay is composed separately
+			new DecorationOverlayIcon(baseDescriptor1, overlayDescriptor2, IDecoration.TOP_LEFT).getImageData(100);
+			assertEquals(1, CompositionCache.getHitCount());
+
+			resourceManager.createImage(icon1);
+			assertEquals(liveImages + 1, CompositionCache.getLiveImageCount());
+			resourceManager.destroyImage(icon1);
+			assertEquals(liveImages, CompositionCache.getLiveImageCount());
+		} finally {
+			resourceManager.dispose();
+		}
+	}
+
+	public void testCompositionCacheSkipsSubclasses() {
+		CompositionCache.clear();
+		DecorationOverlayIcon icon = new DecorationOverlayIcon(baseDescriptor1, overlayDescriptor1,
+				IDecoration.TOP_LEFT) {
+			// may draw differently
+		};
+		icon.getImageData(100);
+		icon.getImageData(100);
+		assertEquals(0, CompositionCache.getHitCount());
+	}
+
+	public void testCompositionCacheKeepsLiveEntries() {
+		int maximumSize = CompositionCache.getMaximumSize();
+		LocalResourceManager resourceManager = new LocalResourceManager(JFaceResources.getResources());
+		try {
+			CompositionCache.setMaximumSize(0);
+			CompositionCache.clear();
+			DecorationOverlayIcon icon = new DecorationOverlayIcon(baseDescriptor2, overlayDescriptor2,
+					IDecoration.BOTTOM_RIGHT);
+			resourceManager.createImage(icon);
+			new DecorationOverlayIcon(baseDescriptor2, overlayDescriptor2, IDecoration.BOTTOM_RIGHT)
+					.getImageData(100);
+			assertEquals("Entries of live images must not be evicted", 1, CompositionCache.getHitCount());
+
+			resourceManager.destroyImage(icon);
+			CompositionCache.clear();
+			icon.getImageData(100);
+			assertEquals(0, CompositionCache.getHitCount());
+		} finally {
+			resourceManager.dispose();
+			CompositionCache.setMaximumSize(maximumSize);
+		}
+	}
 }
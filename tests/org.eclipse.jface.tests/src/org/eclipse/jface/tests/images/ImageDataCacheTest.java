@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.tests.images;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.internal.ImageDataCache;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import junit.framework.TestCase;
+
+public class ImageDataCacheTest extends TestCase {
+
+	private File directory;
+	private File imageFile;
+	private URL imageURL;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = Files.createTempDirectory("imageDataCacheTest").toFile();
+		imageFile = new File(directory, "image.png");
+		Files.write(imageFile.toPath(), new byte[] { 1, 2, 3 });
+		imageURL = imageFile.toURI().toURL();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+		super.tearDown();
+	}
+
+	public void testEntriesSurviveSave() {
+		File cacheFile = new File(directory, "imageData.cache");
+		ImageData imageData = createImageData();
+
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		assertFalse(cache.contains(imageURL, 100));
+		cache.put(imageURL, 100, imageData);
+		cache.put(imageURL, 200, null);
+		assertTrue(cache.contains(imageURL, 100));
+		assertTrue(cache.contains(imageURL, 200));
+		assertNull(cache.get(imageURL, 200));
+		cache.save();
+
+		ImageDataCache reread = ImageDataCache.read(cacheFile);
+		assertTrue(reread.contains(imageURL, 100));
+		assertTrue(reread.contains(imageURL, 200));
+		assertFalse(reread.contains(imageURL, 150));
+		assertNull(reread.get(imageURL, 200));
+
+		ImageData cached = reread.get(imageURL, 100);
+		assertNotNull(cached);
+		assertEquals(imageData.width, cached.width);
+		assertEquals(imageData.height, cached.height);
+		assertEquals(imageData.depth, cached.depth);
+		assertEquals(imageData.palette.isDirect, cached.palette.isDirect);
+		assertEquals(imageData.palette.redMask, cached.palette.redMask);
+		assertTrue(Arrays.equals(imageData.data, cached.data));
+		assertTrue(Arrays.equals(imageData.alphaData, cached.alphaData));
+	}
+
+	public void testChangedImageInvalidatesEntry() throws IOException {
+		File cacheFile = new File(directory, "imageData.cache");
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		cache.put(imageURL, 100, createImageData());
+		cache.save();
+
+		Files.write(imageFile.toPath(), new byte[] { 1, 2, 3, 4 });
+		ImageDataCache reread = ImageDataCache.read(cacheFile);
+		assertFalse(reread.contains(imageURL, 100));
+		assertNull(reread.get(imageURL, 100));
+	}
+
+	public void testBundleEntriesSurviveRestart() throws IOException {
+		Bundle bundle = FrameworkUtil.getBundle(ImageDataCacheTest.class);
+		URL entryURL = bundle.getEntry("icons/anything.gif");
+		assertNotNull(entryURL);
+		File cacheFile = new File(directory, "imageData.cache");
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		cache.put(entryURL, 100, createImageData());
+		cache.save();
+
+		// the host of bundle URLs contains a hash of the framework instance,
+		// which changes with every launch
+		URL relaunchedURL = new URL(entryURL.getProtocol() + "://" + bundle.getBundleId() + ".fwk1234"
+				+ entryURL.getPath());
+		URL platformURL = new URL("platform:/plugin/" + bundle.getSymbolicName() + entryURL.getPath());
+		ImageDataCache reread = ImageDataCache.read(cacheFile);
+		assertTrue(reread.contains(entryURL, 100));
+		assertTrue(reread.contains(relaunchedURL, 100));
+		assertTrue(reread.contains(platformURL, 100));
+		assertNotNull(reread.get(relaunchedURL, 100));
+
+		// entries of the current bundle are kept when the cache is written again
+		reread.put(imageURL, 100, createImageData());
+		reread.save();
+		ImageDataCache third = ImageDataCache.read(cacheFile);
+		assertTrue(third.contains(relaunchedURL, 100));
+		assertTrue(third.contains(imageURL, 100));
+	}
+
+	public void testLoaderCalledOnlyOnMiss() throws IOException {
+		File cacheFile = new File(directory, "imageData.cache");
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		AtomicInteger loads = new AtomicInteger();
+		ImageData loaded = cache.get(imageURL, 100, () -> {
+			loads.incrementAndGet();
+			return createImageData();
+		});
+		assertNotNull(loaded);
+		ImageData cached = cache.get(imageURL, 100, () -> {
+			loads.incrementAndGet();
+			return null;
+		});
+		assertNotNull(cached);
+		assertEquals(1, loads.get());
+
+		// failures to load the image itself are not remembered, missing
+		// high resolution variants are
+		assertNull(cache.get(imageURL, 150, () -> null));
+		assertTrue(cache.contains(imageURL, 150));
+		URL otherURL = new File(directory, "other.png").toURI().toURL();
+		assertNull(cache.get(otherURL, 100, () -> null));
+		assertFalse(cache.contains(otherURL, 100));
+	}
+
+	public void testAddedEntriesAreWrittenThrough() {
+		File cacheFile = new File(directory, "imageData.cache");
+		File journalFile = new File(directory, "imageData.cache.journal");
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		cache.put(imageURL, 100, createImageData());
+		assertTrue(journalFile.length() > 0);
+		assertNotNull(cache.get(imageURL, 100));
+
+		cache.save();
+		assertFalse(journalFile.exists());
+		assertNotNull(ImageDataCache.read(cacheFile).get(imageURL, 100));
+	}
+
+	public void testUnusedFileEntriesAreDropped() throws IOException {
+		File cacheFile = new File(directory, "imageData.cache");
+		File otherFile = new File(directory, "other.png");
+		Files.write(otherFile.toPath(), new byte[] { 4, 5, 6 });
+		URL otherURL = otherFile.toURI().toURL();
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		cache.put(imageURL, 100, createImageData());
+		cache.put(otherURL, 100, createImageData());
+		cache.save();
+
+		ImageDataCache reread = ImageDataCache.read(cacheFile);
+		assertNotNull(reread.get(imageURL, 100));
+		reread.save();
+
+		ImageDataCache third = ImageDataCache.read(cacheFile);
+		assertTrue(third.contains(imageURL, 100));
+		assertFalse(third.contains(otherURL, 100));
+	}
+
+	public void testCorruptFileIsIgnored() throws IOException {
+		File cacheFile = new File(directory, "imageData.cache");
+		Files.write(cacheFile.toPath(), new byte[] { 'J', 'F', 'I', 'C', 0, 0 });
+		ImageDataCache cache = ImageDataCache.read(cacheFile);
+		assertFalse(cache.contains(imageURL, 100));
+	}
+
+	private static ImageData createImageData() {
+		ImageData imageData = new ImageData(4, 3, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		for (int x = 0; x < imageData.width; x++) {
+			for (int y = 0; y < imageData.height; y++) {
+				imageData.setPixel(x, y, x * 0x100 + y);
+				imageData.setAlpha(x, y, 0x80 + x);
+			}
+		}
+		return imageData;
+	}
+}
@@ -24,6 +24,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.LocalResourceManager;
 import org.eclipse.jface.resource.ResourceLocator;
 import org.eclipse.jface.resource.ResourceManager;
+import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
@@ -312,6 +313,79 @@ public class ResourceManagerTest extends TestCase {
 		globalResourceManager.destroy(descriptor);
 	}
 
+	public void testCreateImageAsync() throws Exception {
+		Display display = Display.getCurrent();
+		ImageDescriptor descriptor = getImage("icons/anything.gif");
+		LocalResourceManager mgr = new LocalResourceManager(globalResourceManager);
+		try {
+			Image[] created = new Image[1];
+			int[] callbacks = new int[1];
+			Image result = mgr.createImageAsync(descriptor, testImage2, image -> {
+				created[0] = image;
+				callbacks[0]++;
+			});
+			assertSame("Placeholder should be returned while decoding", testImage2, result);
+			// a second request for the same image joins the pending one
+			mgr.createImageAsync(descriptor, testImage2, image -> callbacks[0]++);
+
+			long timeout = System.currentTimeMillis() + 10000;
+			while (callbacks[0] < 2 && System.currentTimeMillis() < timeout) {
+				if (!display.readAndDispatch()) {
+					Thread.sleep(10);
+				}
+			}
+			assertEquals(2, callbacks[0]);
+			assertNotNull(created[0]);
+			assertSame(created[0], mgr.find(descriptor));
+			assertEquals(descriptor.getImageData(100).width, created[0].getBounds().width);
+
+			// allocated images are returned right away
+			Image again = mgr.createImageAsync(descriptor, testImage2, image -> fail("No callback expected"));
+			assertSame(created[0], again);
+			mgr.destroyImage(descriptor);
+			mgr.destroyImage(descriptor);
+			mgr.destroyImage(descriptor);
+			assertNull(mgr.find(descriptor));
+		} finally {
+			mgr.dispose();
+		}
+	}
+
+	public void testGetImageAsyncReleasesImages() throws Exception {
+		Display display = Display.getCurrent();
+		ImageDescriptor descriptor = getImage("icons/anything.gif");
+		LocalResourceManager mgr = new LocalResourceManager(globalResourceManager);
+		LabelProvider labelProvider = new LabelProvider() {
+			@Override
+			public Image getImage(Object element) {
+				return getImageAsync(mgr, descriptor, element, testImage2);
+			}
+		};
+		try {
+			int[] events = new int[1];
+			labelProvider.addListener(event -> events[0]++);
+			assertSame(testImage2, labelProvider.getImage("a"));
+			assertSame(testImage2, labelProvider.getImage("b"));
+
+			long timeout = System.currentTimeMillis() + 10000;
+			while (events[0] < 2 && System.currentTimeMillis() < timeout) {
+				if (!display.readAndDispatch()) {
+					Thread.sleep(10);
+				}
+			}
+			assertEquals(2, events[0]);
+			Image image = labelProvider.getImage("a");
+			assertSame(image, mgr.find(descriptor));
+			assertSame(image, labelProvider.getImage("c"));
+
+			labelProvider.dispose();
+			assertNull("Image should be released with the label provider", mgr.find(descriptor));
+		} finally {
+			labelProvider.dispose();
+			mgr.dispose();
+		}
+	}
+
 	/**
 	 * ImageDataProvider to identify identical ImageData by the given ID.
 	 */
@@ -20,6 +20,7 @@ import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.widgets.Item;
 import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.swt.widgets.Widget;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
 
@@ -310,6 +311,41 @@ public abstract class AbstractTreeViewerTest extends StructuredItemViewerTest {
 		assertEquals("Same element added to parent twice.", 3, tree.getItems().length);
 	}
 
+	public void testBatchUpdates() {
+		TestElement first = fRootElement.getFirstChild();
+		TestElement last = fRootElement.getLastChild();
+		Tree tree = (Tree) fTreeViewer.getControl();
+		int count = tree.getItemCount();
+		TestElement[] added = new TestElement[3];
+		fTreeViewer.batchUpdates(() -> {
+			for (int i = 0; i < added.length; i++) {
+				added[i] = fRootElement.addChild(TestModelChange.INSERT);
+			}
+			// changes are collected until the batch ends
+			assertNull("added child is not visible yet", fViewer.testFindItem(added[0]));
+			fRootElement.deleteChild(added[1]);
+			fRootElement.deleteChild(first);
+			last.setLabel(last.getLabel() + " changed");
+			// an addition that is removed and added again is applied once
+			fTreeViewer.remove(added[2]);
+			fTreeViewer.add(fRootElement, added[2]);
+		});
+		assertNotNull("added child is visible", fViewer.testFindItem(added[0]));
+		assertNotNull("added child is visible", fViewer.testFindItem(added[2]));
+		assertNull("removed child is not visible", fViewer.testFindItem(added[1]));
+		assertNull("removed child is not visible", fViewer.testFindItem(first));
+		assertEquals("children added and removed", count + 1, tree.getItemCount());
+		int occurrences = 0;
+		for (TreeItem item : tree.getItems()) {
+			if (item.getData() == added[2]) {
+				occurrences++;
+			}
+		}
+		assertEquals("child added again is not duplicated", 1, occurrences);
+		Widget widget = fViewer.testFindItem(last);
+		assertEquals("changed label", last.getID() + " " + last.getLabel(), ((Item) widget).getText());
+	}
+
 	@Override
 	public void tearDown() {
 		super.tearDown();
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Widget;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the element to widget map of structured viewers with hash lookup
+ * enabled, through the items the viewers find for their elements.
+ */
+public class ElementMapTest extends TestCase {
+
+	private Shell shell;
+
+	/**
+	 * An element with a given hash code, equal to the elements with the same
+	 * name.
+	 */
+	private static final class Key {
+
+		private final String name;
+
+		private final int hash;
+
+		Key(String name, int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).name.equals(name);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * Compares the elements by the lower case of their names.
+	 */
+	private static final IElementComparer IGNORE_CASE = new IElementComparer() {
+		@Override
+		public boolean equals(Object a, Object b) {
+			return ((Key) a).name.equalsIgnoreCase(((Key) b).name);
+		}
+
+		@Override
+		public int hashCode(Object element) {
+			return ((Key) element).name.toLowerCase().hashCode();
+		}
+	};
+
+	public void testAddAndRemove() {
+		TableViewer viewer = createTableViewer(null);
+		List<Key> keys = createKeys(100, 100);
+		viewer.setInput(keys.toArray());
+		assertMapped(viewer, keys);
+
+		List<Key> removed = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i += 3) {
+			removed.add(keys.get(i));
+		}
+		viewer.remove(removed.toArray());
+		assertUnmapped(viewer, removed);
+		List<Key> remaining = new ArrayList<>(keys);
+		remaining.removeAll(removed);
+		assertMapped(viewer, remaining);
+
+		viewer.add(removed.toArray());
+		assertMapped(viewer, keys);
+	}
+
+	public void testRemoveFromCollisions() {
+		TableViewer viewer = createTableViewer(null);
+		// a few hash codes only, including -1 whose probe sequence wraps around
+		// the end of the table
+		List<Key> keys = createKeys(40, 3);
+		for (int i = 0; i < keys.size(); i++) {
+			Key key = keys.get(i);
+			keys.set(i, new Key(key.name, key.hash - 1));
+		}
+		viewer.setInput(keys.toArray());
+		assertMapped(viewer, keys);
+
+		// removing keys shifts back the following keys of their clusters
+		List<Key> remaining = new ArrayList<>(keys);
+		for (int i = 0; i < keys.size(); i += 2) {
+			Key key = keys.get(i);
+			viewer.remove(key);
+			remaining.remove(key);
+			assertNull(viewer.testFindItem(key));
+			assertMapped(viewer, remaining);
+		}
+		for (Key key : new ArrayList<>(remaining)) {
+			viewer.remove(key);
+			remaining.remove(key);
+			assertMapped(viewer, remaining);
+		}
+		assertUnmapped(viewer, keys);
+	}
+
+	public void testEqualKeys() {
+		TableViewer viewer = createTableViewer(null);
+		List<Key> keys = createKeys(10, 10);
+		viewer.setInput(keys.toArray());
+
+		// equal elements are found by equals and hashCode
+		Key equal = new Key(keys.get(5).name, keys.get(5).hash);
+		assertSame(viewer.testFindItem(keys.get(5)), viewer.testFindItem(equal));
+		assertNull(viewer.testFindItem(new Key(keys.get(5).name.toUpperCase(), keys.get(5).hash)));
+		viewer.remove(equal);
+		assertNull(viewer.testFindItem(keys.get(5)));
+	}
+
+	public void testComparer() {
+		TableViewer viewer = createTableViewer(IGNORE_CASE);
+		List<Key> keys = createKeys(50, 50);
+		viewer.setInput(keys.toArray());
+		assertMapped(viewer, keys);
+
+		// the comparer decides equality and hash codes, not the elements
+		Key key = keys.get(7);
+		Key upperCase = new Key(key.name.toUpperCase(), key.hash + 1);
+		assertSame(viewer.testFindItem(key), viewer.testFindItem(upperCase));
+		viewer.remove(upperCase);
+		assertNull(viewer.testFindItem(key));
+
+		// changing the comparer maps the elements again
+		viewer.setComparer(null);
+		assertNull(viewer.testFindItem(upperCase));
+		assertNotNull(viewer.testFindItem(keys.get(8)));
+	}
+
+	public void testResize() {
+		TableViewer viewer = createTableViewer(null);
+		viewer.setInput(new Object[0]);
+		List<Key> keys = createKeys(5000, 5000);
+		for (Key key : keys) {
+			viewer.add(key);
+		}
+		assertMapped(viewer, keys);
+
+		viewer.remove(keys.subList(0, 4990).toArray());
+		assertUnmapped(viewer, keys.subList(0, 4990));
+		assertMapped(viewer, keys.subList(4990, 5000));
+	}
+
+	public void testSeveralWidgets() {
+		TreeViewer viewer = new TreeViewer(shell);
+		viewer.setUseHashlookup(true);
+		Key shared = new Key("shared", 1);
+		Key[] parents = { new Key("parent1", 1), new Key("parent2", 1) };
+		viewer.setContentProvider(new ITreeContentProvider() {
+			@Override
+			public Object[] getElements(Object inputElement) {
+				return parents;
+			}
+
+			@Override
+			public Object[] getChildren(Object parentElement) {
+				return parentElement == shared ? new Object[0] : new Object[] { shared };
+			}
+
+			@Override
+			public Object getParent(Object element) {
+				return null;
+			}
+
+			@Override
+			public boolean hasChildren(Object element) {
+				return element != shared;
+			}
+		});
+		viewer.setInput(new Object());
+		viewer.expandAll();
+
+		Widget[] items = viewer.testFindItems(shared);
+		assertEquals(2, items.length);
+		for (Widget item : items) {
+			assertSame(shared, item.getData());
+		}
+
+		// removing one of the widgets keeps the other one mapped
+		viewer.remove(parents[0], new Object[] { shared });
+		items = viewer.testFindItems(shared);
+		assertEquals(1, items.length);
+		assertSame(parents[1], viewer.testFindItem(parents[1]).getData());
+		viewer.remove(parents[1], new Object[] { shared });
+		assertEquals(0, viewer.testFindItems(shared).length);
+	}
+
+	private TableViewer createTableViewer(IElementComparer comparer) {
+		TableViewer viewer = new TableViewer(shell);
+		viewer.setUseHashlookup(true);
+		viewer.setComparer(comparer);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		return viewer;
+	}
+
+	/**
+	 * Creates keys with the given number of distinct hash codes.
+	 */
+	private static List<Key> createKeys(int count, int hashes) {
+		List<Key> keys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			keys.add(new Key("key" + i, i % hashes));
+		}
+		return keys;
+	}
+
+	private static void assertMapped(StructuredViewer viewer, List<Key> keys) {
+		for (Key key : keys) {
+			Widget item = viewer.testFindItem(key);
+			assertNotNull(key.name, item);
+			assertSame(key.name, key, item.getData());
+		}
+	}
+
+	private static void assertUnmapped(StructuredViewer viewer, List<Key> keys) {
+		for (Key key : keys) {
+			assertNull(key.name, viewer.testFindItem(key));
+		}
+	}
+
+	@Override
+	protected void setUp() {
+		Display display = Display.getCurrent();
+		if (display == null) {
+			display = new Display();
+		}
+		shell = new Shell(display);
+		shell.setLayout(new FillLayout());
+		shell.open();
+	}
+
+	@Override
+	protected void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+			shell = null;
+		}
+	}
+}
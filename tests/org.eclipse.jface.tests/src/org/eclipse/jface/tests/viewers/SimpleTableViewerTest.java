@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,14 @@
 
 package org.eclipse.jface.tests.viewers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.IElementComparer;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ITableLabelProvider;
@@ -27,6 +34,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.ui.tests.harness.util.Mocks;
 
 /**
@@ -177,4 +185,90 @@ public class SimpleTableViewerTest extends ViewerTestCase {
 		tableViewer.getTable().dispose();
 		assertEquals(1, disposeCounter[0]);
 	}
+
+	public void testRefreshKeepsItemsOfUnchangedElements() {
+		List<String> elements = setListInput("a", "b", "c", "d", "e");
+		TableItem[] before = tableViewer.getTable().getItems();
+
+		elements.add(1, "x");
+		tableViewer.refresh();
+		TableItem[] items = tableViewer.getTable().getItems();
+		assertItems(items, "a", "x", "b", "c", "d", "e");
+		assertSame(before[0], items[0]);
+		assertSame(before[1], items[2]);
+		assertSame(before[4], items[5]);
+
+		elements.remove("c");
+		tableViewer.refresh();
+		before = items;
+		items = tableViewer.getTable().getItems();
+		assertItems(items, "a", "x", "b", "d", "e");
+		assertTrue(before[3].isDisposed());
+		assertSame(before[4], items[3]);
+		assertSame(before[5], items[4]);
+	}
+
+	public void testRefreshReordersItems() {
+		List<String> elements = setListInput("a", "b", "c", "d", "e");
+		TableItem[] before = tableViewer.getTable().getItems();
+
+		elements.add(0, elements.remove(4));
+		tableViewer.refresh();
+		TableItem[] items = tableViewer.getTable().getItems();
+		assertItems(items, "e", "a", "b", "c", "d");
+		for (int i = 0; i < 4; i++) {
+			assertSame(before[i], items[i + 1]);
+		}
+
+		Collections.reverse(elements);
+		tableViewer.refresh();
+		before = items;
+		items = tableViewer.getTable().getItems();
+		assertItems(items, "d", "c", "b", "a", "e");
+		// reversing is done by position, without creating items
+		for (int i = 0; i < 5; i++) {
+			assertSame(before[i], items[i]);
+		}
+	}
+
+	public void testRefreshWithComparerAndDuplicates() {
+		tableViewer.setComparer(new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				return ((String) a).equalsIgnoreCase((String) b);
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				return ((String) element).toLowerCase().hashCode();
+			}
+		});
+		List<String> elements = setListInput("a", "b", "c");
+
+		elements.clear();
+		elements.addAll(Arrays.asList("A", "b", "B", "c"));
+		tableViewer.refresh();
+		assertItems(tableViewer.getTable().getItems(), "A", "b", "B", "c");
+
+		elements.clear();
+		elements.addAll(Arrays.asList("c", "A", "b"));
+		tableViewer.refresh();
+		assertItems(tableViewer.getTable().getItems(), "c", "A", "b");
+	}
+
+	private List<String> setListInput(String... elements) {
+		List<String> list = new ArrayList<>(Arrays.asList(elements));
+		tableViewer.setContentProvider(ArrayContentProvider.getInstance());
+		tableViewer.setLabelProvider(new LabelProvider());
+		tableViewer.setInput(list);
+		return list;
+	}
+
+	private static void assertItems(TableItem[] items, String... expected) {
+		assertEquals(expected.length, items.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], items[i].getData());
+			assertEquals(expected[i], items[i].getText());
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,15 @@
 
 package org.eclipse.jface.tests.viewers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.viewers.IAsyncTreeContentProvider;
+import org.eclipse.jface.viewers.IElementComparer;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.ITableLabelProvider;
@@ -29,8 +38,11 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.TreeItem;
 
 /**
  * @since 3.2
@@ -167,4 +179,240 @@ public class SimpleTreeViewerTest extends ViewerTestCase {
 		assertEquals(4, i); // 4 because the filter doesn't work due to equal nodes
 	}
 
+	public void testExpandInBackground() {
+		List<Runnable> pending = new ArrayList<>();
+		treeViewer.setContentProvider(new AsyncTestModelContentProvider(pending::add));
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) treeViewer.testFindItem(first);
+
+		expand(item);
+		assertEquals(1, item.getItemCount());
+		assertNull("placeholder has no element", item.getItem(0).getData());
+		assertEquals(JFaceResources.getString("AbstractTreeViewer.pending"), item.getItem(0).getText());
+		assertEquals(1, pending.size());
+
+		pending.remove(0).run();
+		processEvents();
+		assertEquals(first.getChildCount(), item.getItemCount());
+		assertEquals(first.getFirstChild(), item.getItem(0).getData());
+	}
+
+	public void testExpandInBackgroundAfterUnrelatedChange() {
+		List<Runnable> pending = new ArrayList<>();
+		treeViewer.setContentProvider(new AsyncTestModelContentProvider(pending::add));
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) treeViewer.testFindItem(first);
+
+		expand(item);
+		treeViewer.refresh(fRootElement.getLastChild());
+		fRootElement.getLastChild().addChild(TestModelChange.INSERT);
+		pending.remove(0).run();
+		processEvents();
+		// changes elsewhere in the tree do not discard the children
+		assertEquals(0, pending.size());
+		assertEquals(first.getChildCount(), item.getItemCount());
+	}
+
+	public void testExpandInBackgroundAfterRefresh() {
+		List<Runnable> pending = new ArrayList<>();
+		treeViewer.setContentProvider(new AsyncTestModelContentProvider(pending::add));
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) treeViewer.testFindItem(first);
+
+		expand(item);
+		treeViewer.refresh(fRootElement);
+		pending.remove(0).run();
+		processEvents();
+		// the children are computed again
+		assertEquals(1, item.getItemCount());
+		assertNull(item.getItem(0).getData());
+		assertEquals(1, pending.size());
+
+		pending.remove(0).run();
+		processEvents();
+		assertEquals(first.getChildCount(), item.getItemCount());
+	}
+
+	public void testExpandInBackgroundAfterAdd() {
+		List<Runnable> pending = new ArrayList<>();
+		treeViewer.setContentProvider(new AsyncTestModelContentProvider(pending::add));
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) treeViewer.testFindItem(first);
+
+		expand(item);
+		pending.remove(0).run();
+		TestElement added = first.addChild(TestModelChange.INSERT);
+		// the added child is not shown next to the placeholder
+		assertEquals(1, item.getItemCount());
+		processEvents();
+		assertEquals(1, pending.size());
+
+		pending.remove(0).run();
+		processEvents();
+		assertEquals(first.getChildCount(), item.getItemCount());
+		assertNotNull(treeViewer.testFindItem(added));
+	}
+
+	public void testExpandInBackgroundFiltersOnUIThread() throws InterruptedException {
+		List<Runnable> pending = new ArrayList<>();
+		treeViewer.setContentProvider(new AsyncTestModelContentProvider(pending::add));
+		TestElement first = fRootElement.getFirstChild();
+		List<Thread> filterThreads = Collections.synchronizedList(new ArrayList<>());
+		treeViewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				filterThreads.add(Thread.currentThread());
+				return element != first.getFirstChild();
+			}
+		});
+		TreeItem item = (TreeItem) treeViewer.testFindItem(first);
+
+		expand(item);
+		filterThreads.clear();
+		Thread worker = new Thread(pending.remove(0));
+		worker.start();
+		worker.join();
+		processEvents();
+		assertEquals(first.getChildCount() - 1, item.getItemCount());
+		assertFalse(filterThreads.isEmpty());
+		for (Thread thread : filterThreads) {
+			assertSame(item.getDisplay().getThread(), thread);
+		}
+	}
+
+	public void testRefreshKeepsItemsOfUnchangedChildren() {
+		List<String> children = setListInput("a", "b", "c", "d", "e");
+		TreeItem[] before = treeViewer.getTree().getItems();
+
+		children.add(1, "x");
+		treeViewer.refresh();
+		TreeItem[] items = treeViewer.getTree().getItems();
+		assertItems(items, "a", "x", "b", "c", "d", "e");
+		assertSame(before[0], items[0]);
+		assertSame(before[1], items[2]);
+		assertSame(before[4], items[5]);
+
+		children.remove("c");
+		treeViewer.refresh();
+		before = items;
+		items = treeViewer.getTree().getItems();
+		assertItems(items, "a", "x", "b", "d", "e");
+		assertTrue(before[3].isDisposed());
+		assertSame(before[4], items[3]);
+		assertSame(before[5], items[4]);
+	}
+
+	public void testRefreshReordersItems() {
+		List<String> children = setListInput("a", "b", "c", "d", "e");
+		TreeItem[] before = treeViewer.getTree().getItems();
+
+		children.add(0, children.remove(4));
+		treeViewer.refresh();
+		TreeItem[] items = treeViewer.getTree().getItems();
+		assertItems(items, "e", "a", "b", "c", "d");
+		for (int i = 0; i < 4; i++) {
+			assertSame(before[i], items[i + 1]);
+		}
+
+		Collections.reverse(children);
+		treeViewer.refresh();
+		before = items;
+		items = treeViewer.getTree().getItems();
+		assertItems(items, "d", "c", "b", "a", "e");
+		// reversing is done by position, without creating items
+		for (int i = 0; i < 5; i++) {
+			assertSame(before[i], items[i]);
+		}
+	}
+
+	public void testRefreshWithComparerAndDuplicates() {
+		treeViewer.setComparer(new CaseInsensitiveComparer());
+		List<String> children = setListInput("a", "b", "c");
+
+		children.clear();
+		children.addAll(Arrays.asList("A", "b", "B", "c"));
+		treeViewer.refresh();
+		assertItems(treeViewer.getTree().getItems(), "A", "b", "B", "c");
+
+		children.clear();
+		children.addAll(Arrays.asList("c", "A", "b"));
+		treeViewer.refresh();
+		assertItems(treeViewer.getTree().getItems(), "c", "A", "b");
+	}
+
+	private List<String> setListInput(String... elements) {
+		List<String> children = new ArrayList<>(Arrays.asList(elements));
+		treeViewer.setContentProvider(new ListContentProvider());
+		treeViewer.setLabelProvider(new LabelProvider());
+		treeViewer.setInput(children);
+		return children;
+	}
+
+	private static void assertItems(TreeItem[] items, String... expected) {
+		assertEquals(expected.length, items.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], items[i].getData());
+			assertEquals(expected[i], items[i].getText());
+		}
+	}
+
+	private static void expand(TreeItem item) {
+		item.setExpanded(true);
+		Event event = new Event();
+		event.item = item;
+		event.type = SWT.Expand;
+		item.getParent().notifyListeners(SWT.Expand, event);
+	}
+
+	private static class AsyncTestModelContentProvider extends TestModelContentProvider
+			implements IAsyncTreeContentProvider {
+
+		private final Executor executor;
+
+		AsyncTestModelContentProvider(Executor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public Executor getExecutor() {
+			return executor;
+		}
+	}
+
+	private static class ListContentProvider implements ITreeContentProvider {
+
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return inputElement instanceof List ? ((List<?>) inputElement).toArray() : new Object[0];
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			return new Object[0];
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return false;
+		}
+	}
+
+	private static class CaseInsensitiveComparer implements IElementComparer {
+
+		@Override
+		public boolean equals(Object a, Object b) {
+			return ((String) a).equalsIgnoreCase((String) b);
+		}
+
+		@Override
+		public int hashCode(Object element) {
+			return ((String) element).toLowerCase().hashCode();
+		}
+	}
+
 }
@@ -18,6 +18,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeFalse;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Platform;
@@ -205,6 +207,40 @@ public class ProgrammaticOpenTest extends NavigatorTestBase {
 
 	}
 
+	@Test
+	public void testConcurrentChildrenOrdering() throws Exception {
+		_contentService.bindExtensions(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT, TEST_SIMPLE_CHILDREN1,
+				TEST_SIMPLE_CHILDREN3, TEST_SIMPLE_CHILDREN_CONCURRENT }, false);
+		_contentService.getActivationService().activateExtensions(
+				new String[] { COMMON_NAVIGATOR_RESOURCE_EXT, TEST_SIMPLE_CHILDREN1, TEST_SIMPLE_CHILDREN3 }, true);
+
+		_viewer.expandAll();
+		List<String> sequential = getTexts(_viewer.getTree().getItems()[0].getItems());
+
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_SIMPLE_CHILDREN_CONCURRENT }, false);
+		refreshViewer();
+		_viewer.expandAll();
+		List<String> concurrent = getTexts(_viewer.getTree().getItems()[0].getItems());
+
+		// the concurrent children appear before those of the third extension, the
+		// others keep their sequential order
+		int first = sequential.indexOf("30");
+		List<String> expected = new ArrayList<>(sequential);
+		for (int i = TestSimpleChildrenContentProvider.NUM_ITEMS - 1; i >= 0; i--) {
+			expected.add(first, "C" + i);
+		}
+		assertEquals(expected, concurrent);
+	}
+
+	private static List<String> getTexts(TreeItem[] items) {
+		List<String> texts = new ArrayList<>(items.length);
+		for (TreeItem item : items) {
+			texts.add(item.getText());
+		}
+		return texts;
+	}
+
 	// bug 349224 Navigator content provider "appearsBefore" creates hard reference to named id
 	@Test
 	public void testNceNotFound() throws Exception {
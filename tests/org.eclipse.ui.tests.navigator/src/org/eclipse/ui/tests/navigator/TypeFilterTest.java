@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptorManager;
+import org.eclipse.ui.internal.navigator.extensions.TypeFilter;
+import org.eclipse.ui.tests.navigator.extension.TestExtensionTreeData;
+import org.junit.Test;
+
+/**
+ * Tests the {@link TypeFilter} used to skip the evaluation of trigger points
+ * and possible children for elements of types they cannot accept.
+ */
+public class TypeFilterTest extends NavigatorTestBase {
+
+	public TypeFilterTest() {
+		_navigatorInstanceId = TEST_VIEWER;
+	}
+
+	private NavigatorContentDescriptor getDescriptor(String id) {
+		return NavigatorContentDescriptorManager.getInstance().getContentDescriptor(id);
+	}
+
+	@Test
+	public void testInstanceofAndAdapt() {
+		NavigatorContentDescriptor descriptor = getDescriptor(TEST_CONTENT);
+		// <or><adapt type="IProject"/><instanceof value="TestExtensionTreeData"/></or>
+		assertTrue(descriptor.mayBeTriggerPoint(_project.getClass()));
+		assertTrue(descriptor.mayBeTriggerPoint(TestExtensionTreeData.class));
+		assertFalse(descriptor.mayBeTriggerPoint(String.class));
+
+		// <or><instanceof value="IFile"/><instanceof value="TestExtensionTreeData"/></or>
+		IFile file = _project.getFile("model.properties");
+		assertTrue(descriptor.mayBePossibleChild(file.getClass()));
+		assertTrue(descriptor.mayBePossibleChild(TestExtensionTreeData.class));
+		assertFalse(descriptor.mayBePossibleChild(_project.getClass()));
+		assertFalse(descriptor.isPossibleChild(_project));
+	}
+
+	@Test
+	public void testPossibleChildrenDefaultToTriggerPoints() {
+		NavigatorContentDescriptor descriptor = getDescriptor(TEST_CONTENT2);
+		// <instanceof value="IProject"/> without possible children
+		assertTrue(descriptor.mayBeTriggerPoint(_project.getClass()));
+		assertTrue(descriptor.mayBePossibleChild(_project.getClass()));
+		assertFalse(descriptor.mayBeTriggerPoint(Object.class));
+		assertFalse(descriptor.mayBePossibleChild(Object.class));
+	}
+
+	@Test
+	public void testNoFalseNegatives() {
+		Object[] elements = { _project, _project.getFolder("src"), _project.getFile(".project"), "element", //$NON-NLS-1$
+				new Object() };
+		for (NavigatorContentDescriptor descriptor : NavigatorContentDescriptorManager.getInstance()
+				.getAllContentDescriptors()) {
+			for (Object element : elements) {
+				if (descriptor.isTriggerPoint(element)) {
+					assertTrue(descriptor.getId(), descriptor.mayBeTriggerPoint(element.getClass()));
+				}
+				if (descriptor.isPossibleChild(element)) {
+					assertTrue(descriptor.getId(), descriptor.mayBePossibleChild(element.getClass()));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+/**
+ * Provides its children on the worker threads of the navigator, see the
+ * <code>concurrentChildren</code> attribute of its extension.
+ */
+public class TestSimpleChildrenContentProviderConcurrent extends TestSimpleChildrenContentProvider {
+
+	public TestSimpleChildrenContentProviderConcurrent() {
+		_name = "C";
+	}
+
+	@Override
+	public synchronized Object[] getChildren(Object parentElement) {
+		return super.getChildren(parentElement);
+	}
+
+}
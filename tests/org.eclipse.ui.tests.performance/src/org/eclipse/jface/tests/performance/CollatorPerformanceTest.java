@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,13 @@
 
 package org.eclipse.jface.tests.performance;
 
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
 import org.eclipse.jface.util.Policy;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.ui.tests.performance.BasicPerformanceTest;
 
 /**
@@ -53,6 +56,41 @@ public class CollatorPerformanceTest extends BasicPerformanceTest {
 		assertPerformance();
 	}
 
+	/**
+	 * test ViewerComparator sorting the array with a Collator, which compares
+	 * collation keys computed once per element
+	 */
+	public void testViewerComparator() {
+		doTestViewerComparator(new ViewerComparator(Collator.getInstance()));
+	}
+
+	/**
+	 * test ViewerComparator sorting the array with a Collator and an overridden
+	 * compare method, which compares the elements pairwise
+	 */
+	public void testViewerComparatorPairwise() {
+		doTestViewerComparator(new ViewerComparator(Collator.getInstance()) {
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				return super.compare(viewer, e1, e2);
+			}
+		});
+	}
+
+	private void doTestViewerComparator(ViewerComparator viewerComparator) {
+		String[] sorted = fArray.clone();
+		Arrays.sort(sorted, Collator.getInstance());
+		for (int i = 0; i < 15; i++) {
+			Object[] array = fArray.clone();
+			startMeasuring();
+			viewerComparator.sort(null, array);
+			stopMeasuring();
+			assertTrue(Arrays.equals(sorted, array));
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
 	/**
 	 * Generate a large sized array for sorting
 	 */
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * The ElementMapTest measures the element to widget map of a tree viewer with
+ * hash lookup enabled: finding the items of all elements of an expanded tree,
+ * with and without an element comparer, and mapping and unmapping elements.
+ * Compare the results with a baseline build to compare the map with the
+ * previous chained hash table.
+ */
+public class ElementMapTest extends TreeTest {
+
+	static int PARENT_COUNT = 100;
+
+	static int CHILD_COUNT = 200;
+
+	static int LOOKUP_COUNT = 10;
+
+	public ElementMapTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public ElementMapTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Test the lookup of all items using the equals and hashCode of the
+	 * elements.
+	 */
+	public void testFindItems() {
+		tagIfNecessary("JFace - Find 20000 items 10 times in TreeViewer", Dimension.ELAPSED_PROCESS);
+
+		doTestFindItems(null);
+	}
+
+	/**
+	 * Test the lookup of all items using an element comparer.
+	 */
+	public void testFindItemsWithComparer() {
+		doTestFindItems(new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				return a == b;
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				return System.identityHashCode(element);
+			}
+		});
+	}
+
+	/**
+	 * Test removing and adding back the children of all parents, which unmaps
+	 * and maps all elements.
+	 */
+	public void testUnmapAndMap() {
+		openBrowser();
+		TestTreeElement input = createInput();
+
+		for (int i = 0; i < ITERATIONS / 10; i++) {
+			startMeasuring();
+			for (TestTreeElement parent : input.children) {
+				viewer.remove((Object[]) parent.children);
+			}
+			for (TestTreeElement parent : input.children) {
+				viewer.add(parent, (Object[]) parent.children);
+			}
+			processEvents();
+			stopMeasuring();
+		}
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void doTestFindItems(IElementComparer comparer) {
+		openBrowser();
+		viewer.setInput(null);
+		viewer.setComparer(comparer);
+		TestTreeElement input = createInput();
+		TestTreeElement missing = new TestTreeElement(0, null);
+
+		exercise(() -> {
+			startMeasuring();
+			for (int i = 0; i < LOOKUP_COUNT; i++) {
+				for (TestTreeElement parent : input.children) {
+					viewer.testFindItem(parent);
+					for (TestTreeElement child : parent.children) {
+						viewer.testFindItem(child);
+					}
+					viewer.testFindItems(missing);
+				}
+			}
+			stopMeasuring();
+		}, MIN_ITERATIONS, ITERATIONS, JFacePerformanceSuite.MAX_TIME);
+
+		for (TestTreeElement parent : input.children) {
+			for (TestTreeElement child : parent.children) {
+				assertNotNull(viewer.testFindItem(child));
+			}
+		}
+		assertEquals(0, viewer.testFindItems(missing).length);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private TestTreeElement createInput() {
+		TestTreeElement input = new TestTreeElement(0, null);
+		input.createChildren(PARENT_COUNT);
+		for (TestTreeElement parent : input.children) {
+			parent.createChildren(CHILD_COUNT);
+		}
+		viewer.setInput(input);
+		viewer.expandAll();
+		processEvents();
+		return input;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -45,6 +45,8 @@ public class JFacePerformanceSuite extends FilteredTestSuite {
 		addTestSuite(ProgressMonitorDialogPerformanceTest.class);
 		addTestSuite(ShrinkingTreeTest.class);
 		addTestSuite(CollatorPerformanceTest.class);
+		addTestSuite(ElementMapTest.class);
+		addTestSuite(TreeViewerInsertAtHeadTest.class);
 
 	}
 }
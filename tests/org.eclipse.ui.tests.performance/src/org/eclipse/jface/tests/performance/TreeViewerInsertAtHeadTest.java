@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * The TreeViewerInsertAtHeadTest measures refreshes of a tree viewer after
+ * elements were inserted or removed at the top, which must not relabel all
+ * following items.
+ */
+public class TreeViewerInsertAtHeadTest extends TreeViewerRefreshTest {
+
+	static int ELEMENT_COUNT = 2000;
+
+	static int EXPANDED_COUNT = 50;
+
+	private List<TestTreeElement> elements;
+
+	private int created;
+
+	public TreeViewerInsertAtHeadTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public TreeViewerInsertAtHeadTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Shell shell) {
+		StructuredViewer result = super.createViewer(shell);
+		elements = new ArrayList<>();
+		for (int i = 0; i < ELEMENT_COUNT; i++) {
+			TestTreeElement element = newElement();
+			if (i < EXPANDED_COUNT) {
+				element.createChildren(10);
+			}
+			elements.add(element);
+		}
+		viewer.setContentProvider(new ITreeContentProvider() {
+
+			@Override
+			public Object[] getElements(Object inputElement) {
+				return elements.toArray();
+			}
+
+			@Override
+			public Object[] getChildren(Object parentElement) {
+				return ((TestTreeElement) parentElement).children;
+			}
+
+			@Override
+			public Object getParent(Object element) {
+				return ((TestTreeElement) element).parent;
+			}
+
+			@Override
+			public boolean hasChildren(Object element) {
+				return ((TestTreeElement) element).children.length > 0;
+			}
+
+			@Override
+			public void inputChanged(Viewer localViewer, Object oldInput, Object newInput) {
+				// Do nothing here
+			}
+		});
+		return result;
+	}
+
+	private TestTreeElement newElement() {
+		return new TestTreeElement(created++, null);
+	}
+
+	@Override
+	protected void openBrowser() {
+		super.openBrowser();
+		for (int i = 0; i < EXPANDED_COUNT; i++) {
+			viewer.setExpandedState(elements.get(i), true);
+		}
+		processEvents();
+	}
+
+	/**
+	 * Test refreshing after one element was inserted at the top.
+	 */
+	public void testInsertAtHead() {
+		tagIfNecessary("JFace - Refresh 2000 item TreeViewer after insert at head", Dimension.ELAPSED_PROCESS);
+		openBrowser();
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			elements.add(0, newElement());
+			startMeasuring();
+			viewer.refresh();
+			processEvents();
+			stopMeasuring();
+		}
+
+		assertEquals(elements.get(0).getText(), viewer.getTree().getItem(0).getText());
+		// the expanded elements moved down but stay expanded
+		TreeItem moved = viewer.getTree().getItem(ITERATIONS);
+		assertTrue(moved.getExpanded());
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test refreshing after one element was removed at the top and one was
+	 * appended.
+	 */
+	public void testRemoveAtHead() {
+		openBrowser();
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			elements.remove(0);
+			elements.add(newElement());
+			startMeasuring();
+			viewer.refresh();
+			processEvents();
+			stopMeasuring();
+		}
+
+		assertEquals(elements.get(0).getText(), viewer.getTree().getItem(0).getText());
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test refreshing after the last element was moved to the top.
+	 */
+	public void testMoveToHead() {
+		openBrowser();
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			elements.add(0, elements.remove(elements.size() - 1));
+			startMeasuring();
+			viewer.refresh(false);
+			processEvents();
+			stopMeasuring();
+		}
+
+		assertEquals(elements.get(0).getText(), viewer.getTree().getItem(0).getText());
+
+		commitMeasurements();
+		assertPerformance();
+	}
+}
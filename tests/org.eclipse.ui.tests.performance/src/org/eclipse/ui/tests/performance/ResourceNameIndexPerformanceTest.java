@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.ui.dialogs.SearchPattern;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
+
+/**
+ * Measures file name queries of the Open Resource dialog against the resource
+ * name index of a synthetic workspace with one million files, compared to
+ * matching every name like a workspace traversal does.
+ */
+public class ResourceNameIndexPerformanceTest extends BasicPerformanceTest {
+
+	private static final int PROJECTS = 100;
+
+	private static final int FOLDERS = 100;
+
+	private static final int FILES = 100;
+
+	private static final String[] WORDS = { "Abstract", "Resource", "Viewer", "Content", "Provider", "Label",
+			"Handler", "Manager", "Service", "Factory", "Index", "Dialog", "Model", "Action", "Editor", "Util" };
+
+	private static final String[] EXTENSIONS = { "java", "xml", "properties", "html", "txt" };
+
+	private static final String[] PATTERNS = { "ViewerContentProvider", "ResourceIndex*", "*Dialog.xml",
+			"LabelHandlerService" };
+
+	private static ResourceNameIndex index;
+
+	public ResourceNameIndexPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	private static synchronized ResourceNameIndex getIndex() {
+		if (index == null) {
+			index = new ResourceNameIndex();
+			for (int p = 0; p < PROJECTS; p++) {
+				int project = index.add(ResourceNameIndex.ROOT, "project" + p, IResource.PROJECT, false);
+				for (int f = 0; f < FOLDERS; f++) {
+					int folder = index.add(project, "folder" + f, IResource.FOLDER, false);
+					for (int i = 0; i < FILES; i++) {
+						index.add(folder, createName(p * FOLDERS * FILES + f * FILES + i), IResource.FILE,
+								false);
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	private static String createName(int n) {
+		StringBuilder name = new StringBuilder();
+		int value = n;
+		for (int i = 0; i < 3; i++) {
+			name.append(WORDS[value % WORDS.length]);
+			value /= WORDS.length;
+		}
+		name.append(n % 97).append('.').append(EXTENSIONS[n % EXTENSIONS.length]);
+		return name.toString();
+	}
+
+	public void testIndexedQuery() throws Throwable {
+		ResourceNameIndex resourceNames = getIndex();
+		SearchPattern[] searchPatterns = new SearchPattern[PATTERNS.length];
+		int[] expected = new int[PATTERNS.length];
+		for (int i = 0; i < PATTERNS.length; i++) {
+			searchPatterns[i] = createPattern(PATTERNS[i]);
+			expected[i] = countMatches(resourceNames, searchPatterns[i]);
+		}
+
+		tagIfNecessary("Open Resource - indexed query on 1M files", Dimension.ELAPSED_PROCESS);
+		int[] matches = new int[PATTERNS.length];
+		exercise(() -> {
+			startMeasuring();
+			for (int i = 0; i < searchPatterns.length; i++) {
+				SearchPattern searchPattern = searchPatterns[i];
+				int pattern = i;
+				matches[pattern] = 0;
+				resourceNames.query(ResourceNameIndex.getFragments(searchPattern.getPattern()), id -> {
+					if (searchPattern.matches(resourceNames.getName(id))) {
+						matches[pattern]++;
+					}
+					return true;
+				});
+			}
+			stopMeasuring();
+			for (int i = 0; i < PATTERNS.length; i++) {
+				assertEquals(PATTERNS[i], expected[i], matches[i]);
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testFullScan() throws Throwable {
+		ResourceNameIndex resourceNames = getIndex();
+		exercise(() -> {
+			startMeasuring();
+			for (String pattern : PATTERNS) {
+				countMatches(resourceNames, createPattern(pattern));
+			}
+			stopMeasuring();
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testPersistence() throws Throwable {
+		ResourceNameIndex resourceNames = getIndex();
+		exercise(() -> {
+			try {
+				startMeasuring();
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				resourceNames.write(new DataOutputStream(bytes));
+				ResourceNameIndex read = ResourceNameIndex
+						.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+				stopMeasuring();
+				assertEquals(resourceNames.size(), read.size());
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static SearchPattern createPattern(String pattern) {
+		SearchPattern searchPattern = new SearchPattern(SearchPattern.RULE_EXACT_MATCH | SearchPattern.RULE_PREFIX_MATCH
+				| SearchPattern.RULE_PATTERN_MATCH | SearchPattern.RULE_CAMELCASE_MATCH);
+		searchPattern.setPattern(pattern);
+		return searchPattern;
+	}
+
+	private static int countMatches(ResourceNameIndex resourceNames, SearchPattern searchPattern) {
+		int[] matches = new int[1];
+		resourceNames.query(new String[0], id -> {
+			if (searchPattern.matches(resourceNames.getName(id))) {
+				matches[0]++;
+			}
+			return true;
+		});
+		return matches[0];
+	}
+}
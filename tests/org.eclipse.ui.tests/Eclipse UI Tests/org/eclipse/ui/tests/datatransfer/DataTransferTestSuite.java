@@ -28,6 +28,7 @@ import org.junit.runners.Suite;
 	ImportExportWizardsCategoryTests.class,
 	SmartImportTests.class,
 	ZipSlipTests.class,
+	FileCopyEngineTest.class,
 })
 public class DataTransferTestSuite {
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2018 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -117,6 +118,43 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(ZIP_FILE_EXT);
 	}
 
+	@Test
+	public void testExportZipParallel() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		List<IProject> resources = new ArrayList<>();
+		resources.add(project);
+		ArchiveFileExportOperation operation =
+			new ArchiveFileExportOperation(resources, filePath);
+
+		operation.setUseCompression(true);
+		operation.setUseTarFormat(false);
+		operation.setUseParallelExport(true);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getStatus().isOK());
+		verifyCompressed(ZIP_FILE_EXT);
+		// +1 for .settings
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length + 1, ZIP_FILE_EXT);
+		verifyContents(ZIP_FILE_EXT);
+	}
+
+	@Test
+	public void testExportZipParallelUncompressed() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		List<IProject> resources = new ArrayList<>();
+		resources.add(project);
+		ArchiveFileExportOperation operation =
+			new ArchiveFileExportOperation(resources, filePath);
+
+		operation.setUseCompression(false);
+		operation.setUseTarFormat(false);
+		operation.setUseParallelExport(true);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getStatus().isOK());
+		// +1 for .settings
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length + 1, ZIP_FILE_EXT);
+		verifyContents(ZIP_FILE_EXT);
+	}
+
 	@Test
 	public void testExportZipCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
@@ -244,6 +282,29 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(TAR_FILE_EXT);
 	}
 
+	@Test
+	public void testExportTarParallelCompressed() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + TAR_FILE_EXT;
+		List<IResource> resources = new ArrayList<>();
+		resources.add(project);
+		ArchiveFileExportOperation operation =
+			new ArchiveFileExportOperation(resources, filePath);
+
+		operation.setUseTarFormat(true);
+		operation.setUseCompression(true);
+		operation.setUseParallelExport(true);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getStatus().isOK());
+		verifyCompressed(TAR_FILE_EXT);
+		// +1 for .settings
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length + 1, TAR_FILE_EXT);
+		verifyContents(TAR_FILE_EXT);
+		// the trailer pads the uncompressed archive to whole records
+		try (InputStream in = new GZIPInputStream(new FileInputStream(filePath))) {
+			assertEquals(0, in.readAllBytes().length % 10240);
+		}
+	}
+
 	@Test
 	public void testExportTarCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + TAR_FILE_EXT;
@@ -452,6 +513,50 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		}
 	}
 
+	private void verifyContents(String type) throws Exception {
+		int count = 0;
+		if (ZIP_FILE_EXT.equals(type)) {
+			try (ZipFile zipFile = new ZipFile(filePath)) {
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					try (InputStream in = zipFile.getInputStream(entry)) {
+						count += verifyContents(entry.getName(), in);
+					}
+				}
+			}
+		} else {
+			TarFile tarFile = new TarFile(filePath);
+			try {
+				Enumeration<?> entries = tarFile.entries();
+				while (entries.hasMoreElements()) {
+					TarEntry entry = (TarEntry) entries.nextElement();
+					if (entry.getFileType() != TarEntry.DIRECTORY) {
+						try (InputStream in = tarFile.getInputStream(entry)) {
+							count += verifyContents(entry.getName(), in);
+						}
+					}
+				}
+			} finally {
+				tarFile.close();
+			}
+		}
+		assertEquals(directoryNames.length * fileNames.length, count);
+	}
+
+	private int verifyContents(String entryName, InputStream in) throws IOException {
+		String contents = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		for (String directoryName : directoryNames) {
+			for (String fileName : fileNames) {
+				if (entryName.endsWith(directoryName + "/" + fileName)) {
+					assertEquals(directoryName + ", " + fileName, contents);
+					return 1;
+				}
+			}
+		}
+		return 0;
+	}
+
 	private void verifyArchive(int folderCount, List<String> entries) {
 		int count = 0;
 		Set<String> folderNames = new HashSet<>();
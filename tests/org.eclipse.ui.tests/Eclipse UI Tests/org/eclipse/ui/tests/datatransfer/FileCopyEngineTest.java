@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.datatransfer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourceAttributes;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.tests.harness.FileSystemHelper;
+import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.ide.filesystem.FileCopyEngine;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests the planning and copying of local files and folders by
+ * {@link FileCopyEngine}.
+ */
+@RunWith(JUnit4.class)
+public class FileCopyEngineTest extends UITestCase {
+
+	private Path sourceDirectory;
+
+	private IProject project;
+
+	private final Deque<String> answers = new ArrayDeque<>();
+
+	private final List<String> queries = new ArrayList<>();
+
+	private final IOverwriteQuery query = pathString -> {
+		queries.add(pathString);
+		return answers.isEmpty() ? IOverwriteQuery.NO : answers.poll();
+	};
+
+	public FileCopyEngineTest() {
+		super(FileCopyEngineTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		sourceDirectory = Files.createTempDirectory("FileCopyEngineTest");
+		project = FileUtil.createProject("FileCopyEngineTest");
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		try {
+			FileUtil.deleteProject(project);
+			FileSystemHelper.clear(sourceDirectory.toFile());
+		} finally {
+			project = null;
+			sourceDirectory = null;
+			super.doTearDown();
+		}
+	}
+
+	@Test
+	public void testCopyNewFolder() throws Exception {
+		Path folder = createSourceFolder("folder");
+		createSourceFile(folder, "a.txt", "a");
+		createSourceFile(Files.createDirectory(folder.resolve("sub")), "b.txt", "b");
+
+		IStatus status = copy(folder);
+
+		assertTrue(status.isOK());
+		assertTrue(queries.isEmpty());
+		assertContents("a", project.getFile("folder/a.txt"));
+		assertContents("b", project.getFile("folder/sub/b.txt"));
+		assertTrue(project.isSynchronized(IResource.DEPTH_INFINITE));
+	}
+
+	@Test
+	public void testOverwriteYesAndNo() throws Exception {
+		IFile first = createFile("first.txt", "old");
+		IFile second = createFile("second.txt", "old");
+		answers.add(IOverwriteQuery.YES);
+		answers.add(IOverwriteQuery.NO);
+
+		IStatus status = copy(createSourceFile(sourceDirectory, "first.txt", "new"),
+				createSourceFile(sourceDirectory, "second.txt", "new"));
+
+		assertTrue(status.isOK());
+		assertEquals(Arrays.asList(first.getFullPath().makeRelative().toString(),
+				second.getFullPath().makeRelative().toString()), queries);
+		assertContents("new", first);
+		assertContents("old", second);
+	}
+
+	@Test
+	public void testOverwriteAll() throws Exception {
+		IFile first = createFile("first.txt", "old");
+		IFile second = createFile("second.txt", "old");
+		answers.add(IOverwriteQuery.ALL);
+
+		copy(createSourceFile(sourceDirectory, "first.txt", "new"),
+				createSourceFile(sourceDirectory, "second.txt", "new"));
+
+		assertEquals(1, queries.size());
+		assertContents("new", first);
+		assertContents("new", second);
+	}
+
+	@Test
+	public void testOverwriteReadOnly() throws Exception {
+		IFile readOnly = createFile("readOnly.txt", "old");
+		IFile writable = createFile("writable.txt", "old");
+		ResourceAttributes attributes = readOnly.getResourceAttributes();
+		attributes.setReadOnly(true);
+		readOnly.setResourceAttributes(attributes);
+		answers.add(IOverwriteQuery.ALL);
+
+		try {
+			IStatus status = copy(createSourceFile(sourceDirectory, "readOnly.txt", "new"),
+					createSourceFile(sourceDirectory, "writable.txt", "new"));
+
+			// without a team provider the read-only file cannot be made editable
+			assertFalse(status.isOK());
+			assertContents("old", readOnly);
+			assertContents("new", writable);
+		} finally {
+			attributes.setReadOnly(false);
+			readOnly.setResourceAttributes(attributes);
+		}
+	}
+
+	@Test
+	public void testOverwriteNoAll() throws Exception {
+		IFile first = createFile("first.txt", "old");
+		IFile second = createFile("second.txt", "old");
+		answers.add(IOverwriteQuery.NO_ALL);
+
+		copy(createSourceFile(sourceDirectory, "first.txt", "new"),
+				createSourceFile(sourceDirectory, "second.txt", "new"),
+				createSourceFile(sourceDirectory, "third.txt", "new"));
+
+		assertEquals(1, queries.size());
+		assertContents("old", first);
+		assertContents("old", second);
+		assertContents("new", project.getFile("third.txt"));
+	}
+
+	@Test
+	public void testOverwriteCancel() throws Exception {
+		IFile existing = createFile("existing.txt", "old");
+		answers.add(IOverwriteQuery.CANCEL);
+		FileCopyEngine engine = new FileCopyEngine(project, query, null);
+
+		try {
+			engine.plan(toStores(createSourceFile(sourceDirectory, "new.txt", "new"),
+					createSourceFile(sourceDirectory, "existing.txt", "new")), new NullProgressMonitor());
+			fail("Expected the plan to be canceled");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+
+		// nothing is copied before all questions are answered
+		assertFalse(project.getFile("new.txt").exists());
+		assertFalse(Files.exists(project.getLocation().toFile().toPath().resolve("new.txt")));
+		assertContents("old", existing);
+	}
+
+	@Test
+	public void testMergeFolder() throws Exception {
+		IFolder existingFolder = project.getFolder("folder");
+		existingFolder.create(true, true, null);
+		IFile existing = createFile("folder/existing.txt", "old");
+		Path folder = createSourceFolder("folder");
+		createSourceFile(folder, "existing.txt", "new");
+		createSourceFile(folder, "added.txt", "new");
+		answers.add(IOverwriteQuery.YES);
+		answers.add(IOverwriteQuery.YES);
+
+		IStatus status = copy(folder);
+
+		assertTrue(status.isOK());
+		assertEquals(Arrays.asList(existingFolder.getFullPath().makeRelative().toString(),
+				existing.getFullPath().makeRelative().toString()), queries);
+		assertContents("new", existing);
+		assertContents("new", project.getFile("folder/added.txt"));
+	}
+
+	@Test
+	public void testTypeConflict() throws Exception {
+		project.getFolder("conflict").create(true, true, null);
+
+		IStatus status = copy(createSourceFile(sourceDirectory, "conflict", "file"));
+
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertTrue(queries.isEmpty());
+		assertTrue(project.getFolder("conflict").exists());
+	}
+
+	@Test
+	public void testOutOfSyncFile() throws Exception {
+		Path location = project.getLocation().toFile().toPath().resolve("unknown.txt");
+		Files.write(location, "old".getBytes(StandardCharsets.UTF_8));
+		answers.add(IOverwriteQuery.YES);
+
+		IStatus status = copy(createSourceFile(sourceDirectory, "unknown.txt", "new"));
+
+		assertTrue(status.isOK());
+		assertEquals(1, queries.size());
+		assertContents("new", project.getFile("unknown.txt"));
+	}
+
+	@Test
+	public void testOutOfSyncFileNotOverwritten() throws Exception {
+		Path location = project.getLocation().toFile().toPath().resolve("unknown.txt");
+		Files.write(location, "old".getBytes(StandardCharsets.UTF_8));
+		answers.add(IOverwriteQuery.NO);
+
+		copy(createSourceFile(sourceDirectory, "unknown.txt", "new"));
+
+		assertEquals(1, queries.size());
+		assertEquals("old", new String(Files.readAllBytes(location), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCancelCopy() throws Exception {
+		Path folder = createSourceFolder("large");
+		byte[] contents = new byte[256 * 1024];
+		Arrays.fill(contents, (byte) 'x');
+		for (int i = 0; i < 64; i++) {
+			Files.write(folder.resolve("file" + i + ".txt"), contents);
+		}
+		FileCopyEngine engine = new FileCopyEngine(project, query, null);
+		engine.plan(toStores(folder), new NullProgressMonitor());
+
+		try {
+			// cancel once the first file is copied
+			engine.execute(new NullProgressMonitor() {
+				@Override
+				public void worked(int work) {
+					setCanceled(true);
+				}
+
+				@Override
+				public void internalWorked(double work) {
+					setCanceled(true);
+				}
+			});
+			fail("Expected the copy to be canceled");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+
+		// only complete files are left, and they are in the workspace
+		Path target = project.getLocation().toFile().toPath().resolve("large");
+		try (Stream<Path> files = Files.list(target)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				assertFalse("Temporary file left behind: " + file, file.getFileName().toString().endsWith(".tmp"));
+				assertEquals(file.toString(), contents.length, Files.size(file));
+			}
+		}
+		assertTrue(project.isSynchronized(IResource.DEPTH_INFINITE));
+	}
+
+	private IStatus copy(Path... sources) throws CoreException {
+		FileCopyEngine engine = new FileCopyEngine(project, query, null);
+		engine.plan(toStores(sources), new NullProgressMonitor());
+		return engine.execute(new NullProgressMonitor());
+	}
+
+	private static IFileStore[] toStores(Path... sources) {
+		IFileStore[] stores = new IFileStore[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			stores[i] = EFS.getLocalFileSystem().fromLocalFile(sources[i].toFile());
+		}
+		return stores;
+	}
+
+	private Path createSourceFolder(String name) throws IOException {
+		return Files.createDirectory(sourceDirectory.resolve(name));
+	}
+
+	private static Path createSourceFile(Path folder, String name, String contents) throws IOException {
+		return Files.write(folder.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private IFile createFile(String path, String contents) throws CoreException {
+		IFile file = project.getFile(path);
+		file.create(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)), true, null);
+		return file;
+	}
+
+	private static void assertContents(String expected, IFile file) throws IOException {
+		assertTrue(file.getFullPath() + " exists", file.exists());
+		assertEquals(expected,
+				new String(Files.readAllBytes(file.getLocation().toFile().toPath()), StandardCharsets.UTF_8));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
@@ -33,6 +35,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.wizards.datatransfer.TarEntry;
 import org.eclipse.ui.internal.wizards.datatransfer.TarFile;
 import org.eclipse.ui.internal.wizards.datatransfer.TarLeveledStructureProvider;
 import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
@@ -199,6 +202,54 @@ public class ImportArchiveOperationTest extends UITestCase implements IOverwrite
 		verifyFiles(directoryNames.length, false);
 	}
 
+	@Test
+	public void testTarReadEntriesInAnyOrder() throws Exception {
+		setup(ARCHIVE_SOURCE_PROPERTY);
+		List<TarEntry> entries = new ArrayList<>();
+		List<byte[]> contents = new ArrayList<>();
+		TarFile tarFile = new TarFile(tarFileURL.getPath());
+		try {
+			Enumeration<?> tarEntries = tarFile.entries();
+			while (tarEntries.hasMoreElements()) {
+				TarEntry entry = (TarEntry) tarEntries.nextElement();
+				if (entry.getFileType() != TarEntry.DIRECTORY) {
+					entries.add(entry);
+					try (InputStream in = tarFile.getInputStream(entry)) {
+						contents.add(in.readAllBytes());
+					}
+				}
+			}
+		} finally {
+			tarFile.close();
+		}
+		assertFalse(entries.isEmpty());
+
+		// a second instance reads the cached index, backwards
+		tarFile = new TarFile(tarFileURL.getPath());
+		try {
+			Enumeration<?> tarEntries = tarFile.entries();
+			List<String> names = new ArrayList<>();
+			while (tarEntries.hasMoreElements()) {
+				TarEntry entry = (TarEntry) tarEntries.nextElement();
+				if (entry.getFileType() != TarEntry.DIRECTORY) {
+					names.add(entry.getName());
+				}
+			}
+			assertEquals(entries.size(), names.size());
+			Collections.reverse(entries);
+			Collections.reverse(contents);
+			for (int i = 0; i < entries.size(); i++) {
+				assertEquals(entries.get(i).getName(), names.get(names.size() - 1 - i));
+				try (InputStream in = tarFile.getInputStream(entries.get(i))) {
+					assertTrue(entries.get(i).getName(),
+							Arrays.equals(contents.get(i), in.readAllBytes()));
+				}
+			}
+		} finally {
+			tarFile.close();
+		}
+	}
+
 	@Test
 	public void testTarSetOverwriteResources() throws Exception {
 		setup(ARCHIVE_SOURCE_PROPERTY);
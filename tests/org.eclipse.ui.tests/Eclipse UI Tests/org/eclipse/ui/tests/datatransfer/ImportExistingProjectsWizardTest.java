@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -1212,4 +1213,38 @@ public class ImportExistingProjectsWizardTest extends UITestCase {
 		}
 	}
 
+	@Test
+	public void test24FindDirectoryPrunesHeavyFolders() throws IOException {
+		File root = Files.createTempDirectory("importPruned").toFile();
+		dataLocation = root.getAbsolutePath();
+		createProjectFile(new File(root, "P1"), "P1");
+		createProjectFile(new File(root, "node_modules/P2"), "P2");
+		createProjectFile(new File(root, ".git/P3"), "P3");
+		File mavenProject = new File(root, "maven");
+		mavenProject.mkdirs();
+		Files.writeString(new File(mavenProject, "pom.xml").toPath(), "<project/>");
+		createProjectFile(new File(mavenProject, "target/P4"), "P4");
+		// only the target folder of maven projects is pruned
+		createProjectFile(new File(root, "other/target/P5"), "P5");
+
+		WizardProjectsImportPage wpip = getNewWizard();
+		wpip.getProjectFromDirectoryRadio().setSelection(true);
+		wpip.updateProjectsList(root.getAbsolutePath());
+
+		List<String> projectNames = new ArrayList<>();
+		for (ProjectRecord selectedProject : wpip.getProjectRecords()) {
+			projectNames.add(selectedProject.getProjectName());
+		}
+		assertEquals(2, projectNames.size());
+		assertTrue(projectNames.containsAll(List.of("P1", "P5")));
+	}
+
+	private void createProjectFile(File directory, String name) throws IOException {
+		directory.mkdirs();
+		Files.writeString(new File(directory, ".project").toPath(),
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?><projectDescription><name>" + name
+						+ "</name><comment></comment><projects></projects><buildSpec></buildSpec>"
+						+ "<natures></natures></projectDescription>");
+	}
+
 }
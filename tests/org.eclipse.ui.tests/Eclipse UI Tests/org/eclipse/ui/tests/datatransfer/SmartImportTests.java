@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Red Hat Inc. and others
+ * Copyright (c) 2016, 2023 Red Hat Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,8 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -42,6 +44,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.tests.harness.FileSystemHelper;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.Util;
@@ -61,6 +64,8 @@ import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.dialogs.FilteredTree;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.wizards.datatransfer.DirectorySnapshot;
+import org.eclipse.ui.internal.wizards.datatransfer.SmartImportJob;
 import org.eclipse.ui.internal.wizards.datatransfer.SmartImportRootWizardPage;
 import org.eclipse.ui.internal.wizards.datatransfer.SmartImportWizard;
 import org.eclipse.ui.tests.TestPlugin;
@@ -463,6 +468,74 @@ public class SmartImportTests extends UITestCase {
 		}
 	}
 
+	/**
+	 * Imports sibling modules that contain projects with the same name, which
+	 * are detected and configured in parallel.
+	 */
+	@Test
+	public void testImportNestedModulesInParallel() throws Exception {
+		File directoryToImport = Files
+				.createTempDirectory(getClass().getSimpleName() + "_" + System.currentTimeMillis()).toFile();
+		try {
+			new File(directoryToImport, "importme").createNewFile();
+			int modules = 12;
+			for (int i = 0; i < modules; i++) {
+				File impl = new File(directoryToImport, "module" + i + "/impl");
+				impl.mkdirs();
+				new File(impl, "importme").createNewFile();
+			}
+			SmartImportJob job = new SmartImportJob(directoryToImport, Collections.emptySet(), true, true);
+			job.schedule();
+			job.join();
+			waitForJobs(100, 5000);
+			assertTrue(job.getErrors().toString(), job.getErrors().isEmpty());
+
+			Set<String> implProjectNames = new HashSet<>();
+			for (IProject project : ImportMeProjectConfigurator.configuredProjects) {
+				if (project.getLocation().lastSegment().equals("impl")) {
+					implProjectNames.add(project.getName());
+				}
+			}
+			assertEquals(modules, implProjectNames.size());
+
+			Map<String, Long> costs = job.getConfiguratorCosts();
+			assertTrue(costs.toString(), costs.containsKey(ImportMeProjectConfigurator.class.getName()));
+		} finally {
+			FileSystemHelper.clear(directoryToImport);
+		}
+	}
+
+	@Test
+	public void testDirectorySnapshot() throws Exception {
+		File root = Files.createTempDirectory(getClass().getSimpleName() + "_" + System.currentTimeMillis())
+				.toFile();
+		try {
+			File module = new File(root, "module");
+			new File(module, "src").mkdirs();
+			new File(module, "pom.xml").createNewFile();
+			new File(module, "build.gradle.kts").createNewFile();
+			File git = new File(root, ".git");
+			git.mkdirs();
+			new File(git, "pom.xml").createNewFile();
+
+			DirectorySnapshot snapshot = DirectorySnapshot.create(root, new NullProgressMonitor());
+			assertTrue(snapshot.isFile(module, "pom.xml"));
+			assertTrue(snapshot.exists(module, "src"));
+			assertFalse(snapshot.isFile(module, "src"));
+			assertFalse(snapshot.exists(module, "package.json"));
+			assertEquals(List.of("build.gradle.kts"), snapshot.getFileNames(module, "build.gradle*"));
+			// version control metadata is not listed
+			assertFalse(snapshot.isListed(git));
+			assertEquals(Collections.singleton(module), snapshot.findDirectories(root, "pom.xml"));
+
+			// later changes are not seen
+			new File(root, "package.json").createNewFile();
+			assertFalse(snapshot.exists(root, "package.json"));
+		} finally {
+			FileSystemHelper.clear(root);
+		}
+	}
+
 	/**
 	 * Bug 559600 - [SmartImport] Label provider throws exception if results contain
 	 * filesystem root
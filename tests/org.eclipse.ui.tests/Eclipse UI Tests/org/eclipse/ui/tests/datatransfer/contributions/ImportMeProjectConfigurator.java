@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Red Hat Inc. and others
+ * Copyright (c) 2016, 2023 Red Hat Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,11 +29,17 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.ui.wizards.datatransfer.IDirectorySnapshot;
 
 public class ImportMeProjectConfigurator implements org.eclipse.ui.wizards.datatransfer.ProjectConfigurator {
 
 	private static final String IMPORTME_FILENAME = "importme";
-	public static final Set<IProject> configuredProjects = new HashSet<>();
+	public static final Set<IProject> configuredProjects = Collections.synchronizedSet(new HashSet<>());
+
+	@Override
+	public Set<File> findConfigurableLocations(File root, IDirectorySnapshot snapshot, IProgressMonitor monitor) {
+		return snapshot.findDirectories(root, IMPORTME_FILENAME);
+	}
 
 	@Override
 	public Set<File> findConfigurableLocations(File root, IProgressMonitor monitor) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017-2019 Red Hat Inc. and others.
+ * Copyright (c) 2017, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.junit.runners.Suite;
 	ResourceItemLabelTest.class,
 	ResourceInitialSelectionTest.class,
 	ResourceSelectionFilteringDialogTest.class,
+	ResourceNameIndexTest.class,
 })
 public class FilteredResourcesSelectionDialogTestSuite {
 }
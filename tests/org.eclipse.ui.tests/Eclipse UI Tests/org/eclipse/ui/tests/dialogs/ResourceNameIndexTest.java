@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.dialogs;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndexManager;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests the resource name index used by the Open Resource dialog.
+ */
+@RunWith(JUnit4.class)
+public class ResourceNameIndexTest extends UITestCase {
+
+	private IProject project;
+
+	public ResourceNameIndexTest() {
+		super(ResourceNameIndexTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		if (project != null) {
+			project.delete(true, null);
+		}
+		super.doTearDown();
+	}
+
+	@Test
+	public void testGetFragments() {
+		assertArrayEquals(new String[] { "Res", "Name", "Idx", "java" },
+				ResourceNameIndex.getFragments("ResNameIdx*.java"));
+		assertArrayEquals(new String[] { "abc" }, ResourceNameIndex.getFragments("?abc<"));
+	}
+
+	@Test
+	public void testIncrementalUpdate() {
+		ResourceNameIndex resourceNames = new ResourceNameIndex();
+		int root = resourceNames.add(ResourceNameIndex.ROOT, "project", IResource.PROJECT, false);
+		int folder = resourceNames.add(root, "folder", IResource.FOLDER, false);
+		int file = resourceNames.add(folder, "ResourceNameIndex.java", IResource.FILE, false);
+		assertEquals(file, resourceNames.find(resourceNames.getPath(file)));
+		assertEquals(1, query(resourceNames, "NameIndex").size());
+
+		resourceNames.setDerived(folder, true);
+		assertTrue(resourceNames.isInDerived(file));
+		resourceNames.remove(Collections.singleton(Integer.valueOf(folder)));
+		assertEquals(1, resourceNames.size());
+		assertEquals(0, query(resourceNames, "NameIndex").size());
+	}
+
+	@Test
+	public void testReadWrite() throws Exception {
+		ResourceNameIndex resourceNames = new ResourceNameIndex();
+		int root = resourceNames.add(ResourceNameIndex.ROOT, "project", IResource.PROJECT, false);
+		int folder = resourceNames.add(root, "bin", IResource.FOLDER, true);
+		resourceNames.add(folder, "Main.class", IResource.FILE, false);
+		resourceNames.add(root, "Main.java", IResource.FILE, false);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		resourceNames.write(new DataOutputStream(bytes));
+		ResourceNameIndex read = ResourceNameIndex
+				.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(resourceNames.size(), read.size());
+		List<Integer> found = query(read, "Main");
+		assertEquals(2, found.size());
+		int derived = 0;
+		for (Integer id : found) {
+			if (read.isInDerived(id.intValue())) {
+				derived++;
+			}
+		}
+		assertEquals(1, derived);
+	}
+
+	@Test
+	public void testFollowsWorkspaceChanges() throws Exception {
+		ResourceNameIndexManager manager = ResourceNameIndexManager.getDefault();
+		assertNotNull(manager);
+		project = ResourcesPlugin.getWorkspace().getRoot()
+				.getProject(getClass().getSimpleName() + "_" + System.currentTimeMillis());
+		project.create(new NullProgressMonitor());
+		project.open(new NullProgressMonitor());
+		IFile file = project.getFile("IndexedResourceName.txt");
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+
+		assertTrue("File should be found in the index", waitForQuery(manager, "IndexedResourceName", 1));
+		file.delete(true, null);
+		assertTrue("Deleted file should not be found in the index", waitForQuery(manager, "IndexedResourceName", 0));
+	}
+
+	private boolean waitForQuery(ResourceNameIndexManager manager, String pattern, int expected)
+			throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 20000;
+		while (System.currentTimeMillis() < timeout) {
+			List<IResource> found = new ArrayList<>();
+			if (manager.query(project, ResourceNameIndex.getFragments(pattern), IResource.FILE, true,
+					name -> true, found::add, new NullProgressMonitor()) && found.size() == expected) {
+				return true;
+			}
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+	private static List<Integer> query(ResourceNameIndex resourceNames, String pattern) {
+		List<Integer> found = new ArrayList<>();
+		resourceNames.query(ResourceNameIndex.getFragments(pattern), id -> {
+			found.add(Integer.valueOf(id));
+			return true;
+		});
+		return found;
+	}
+}
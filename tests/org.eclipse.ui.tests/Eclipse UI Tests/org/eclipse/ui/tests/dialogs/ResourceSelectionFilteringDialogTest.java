@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Red Hat Inc. and others.
+ * Copyright (c) 2019, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -12,16 +12,31 @@ package org.eclipse.ui.tests.dialogs;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
 import org.eclipse.ui.dialogs.FilteredResourcesSelectionDialog;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.eclipse.ui.tests.harness.util.UITestCase;
@@ -76,6 +91,50 @@ public class ResourceSelectionFilteringDialogTest extends UITestCase {
 		}
 	}
 
+	/**
+	 * Resources are matched in parallel when there are more of them than one
+	 * matching batch.
+	 */
+	@Test
+	public void testMatchManyFiles() throws CoreException {
+		IFolder folder = project.getFolder("many");
+		folder.create(true, true, null);
+		for (int i = 0; i < 1500; i++) {
+			folder.getFile(new Path("file" + i + ".txt"))
+					.create(new ByteArrayInputStream(new byte[0]), true, null);
+		}
+		IFile file = folder.getFile(new Path("file1234.txt"));
+		SeeThroughFilteredResourcesSelectionDialog dialog = createDialog();
+		try {
+			dialog.setInitialPattern("file1234");
+			dialog.open();
+			dialog.refresh();
+			Assert.assertTrue(DisplayHelper.waitForCondition(dialog.getShell().getDisplay(), 5000,
+					() -> file.equals(dialog.getSelectedItems().getFirstElement())));
+		} finally {
+			dialog.close();
+		}
+	}
+
+	/**
+	 * Dialogs that do not enable parallel matching get all items matched on the
+	 * thread that fills the content provider.
+	 */
+	@Test
+	public void testMatchSequentiallyByDefault() {
+		SequentialDialog dialog = new SequentialDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
+		dialog.setBlockOnOpen(false);
+		try {
+			dialog.setInitialPattern("item");
+			dialog.open();
+			Assert.assertTrue(DisplayHelper.waitForCondition(dialog.getShell().getDisplay(), 5000,
+					() -> dialog.matched.get() >= SequentialDialog.ITEMS));
+			Assert.assertEquals(Set.of(dialog.fillingThread), dialog.matchingThreads);
+		} finally {
+			dialog.close();
+		}
+	}
+
 	@Override
 	public void doTearDown() throws Exception {
 		super.doTearDown();
@@ -94,4 +153,71 @@ public class ResourceSelectionFilteringDialogTest extends UITestCase {
 			return super.getSelectedItems();
 		}
 	}
+
+	private static class SequentialDialog extends FilteredItemsSelectionDialog {
+
+		static final int ITEMS = 3000;
+
+		final Set<Thread> matchingThreads = ConcurrentHashMap.newKeySet();
+
+		final AtomicInteger matched = new AtomicInteger();
+
+		volatile Thread fillingThread;
+
+		SequentialDialog(Shell shell) {
+			super(shell);
+			setListLabelProvider(new LabelProvider());
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings("SequentialDialog");
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					matchingThreads.add(Thread.currentThread());
+					matched.incrementAndGet();
+					return matches((String) item);
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected Comparator<String> getItemsComparator() {
+			return Comparator.naturalOrder();
+		}
+
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) {
+			fillingThread = Thread.currentThread();
+			for (int i = 0; i < ITEMS; i++) {
+				contentProvider.add("item" + i, itemsFilter);
+			}
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return (String) item;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.tests.viewers.TestElement;
 import org.eclipse.jface.tests.viewers.TestModelContentProvider;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -28,6 +29,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.dialogs.FilteredTree;
 import org.eclipse.ui.dialogs.PatternFilter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.eclipse.ui.tests.harness.util.UITestCase;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -133,6 +135,94 @@ public class FilteredTreeTests extends UITestCase {
 		dialog.close();
 	}
 
+	@Test
+	public void testBackgroundMatching() {
+		Dialog dialog = createFilteredTreeDialog();
+
+		Assert.isNotNull(fTreeViewer, "Filtered tree is null");
+		fTreeViewer.setBackgroundMatching(true);
+		assertTrue(fTreeViewer.isBackgroundMatching());
+
+		fTreeViewer.getFilterControl().setText("0-0-0-0 name-*");
+		assertTrue(waitForNumberOfTopLevelItems(1));
+		// matching parents are expanded
+		assertTrue(fTreeViewer.getViewer().getExpandedElements().length > 0);
+
+		fTreeViewer.getFilterControl().setText("0-0-0-0 name unknownWord");
+		assertTrue(waitForNumberOfTopLevelItems(0));
+
+		fTreeViewer.getFilterControl().setText("");
+		assertTrue(waitForNumberOfTopLevelItems(NUM_ITEMS));
+
+		// changed content is snapshotted again
+		fTreeViewer.getFilterControl().setText("0-0-0-0 name-*");
+		assertTrue(waitForNumberOfTopLevelItems(1));
+		fRootElement.deleteChild(fRootElement.getFirstChild());
+		assertTrue(waitForNumberOfTopLevelItems(0));
+
+		dialog.close();
+	}
+
+	/**
+	 * Tests that the caches of a previous pattern are not restored after the
+	 * matching of the filter changed, as when the keys preference page switches
+	 * the filtering of uncategorized commands.
+	 */
+	@Test
+	public void testRestoredPatternAfterMatchingChanged() {
+		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
+		HidingPatternFilter filter = new HidingPatternFilter();
+		Dialog dialog = new FilteredTreeDialog((Shell) null, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER) {
+			@Override
+			protected FilteredTree doCreateFilteredTree(Composite comp, int style) {
+				FilteredTree tree = new FilteredTree(comp, style, filter, true, true);
+				tree.getViewer().setContentProvider(new TestModelContentProvider());
+				tree.getViewer().setLabelProvider(new LabelProvider());
+				return tree;
+			}
+		};
+		dialog.create();
+
+		fTreeViewer.getFilterControl().setText("0-0-0-0 name");
+		assertTrue(waitForNumberOfTopLevelItems(1));
+		fTreeViewer.getFilterControl().setText("");
+		assertTrue(waitForNumberOfTopLevelItems(NUM_ITEMS));
+
+		filter.setHideAll(true);
+		fTreeViewer.getFilterControl().setText("0-0-0-0 name");
+		assertTrue(waitForNumberOfTopLevelItems(0));
+
+		dialog.close();
+	}
+
+	/**
+	 * A filter with its own matching, which opts in to narrowing and restoring
+	 * the caches of previous patterns.
+	 */
+	private static class HidingPatternFilter extends PatternFilter {
+		private boolean hideAll;
+
+		void setHideAll(boolean hideAll) {
+			this.hideAll = hideAll;
+			clearCaches();
+		}
+
+		@Override
+		protected boolean isLeafMatch(Viewer viewer, Object element) {
+			return !hideAll && super.isLeafMatch(viewer, element);
+		}
+
+		@Override
+		protected boolean isSubPattern(String oldPattern, String newPattern) {
+			return newPattern.startsWith(oldPattern) && newPattern.length() > oldPattern.length();
+		}
+	}
+
+	private boolean waitForNumberOfTopLevelItems(int expectedCount) {
+		return DisplayHelper.waitForCondition(fTreeViewer.getDisplay(), 5000,
+				() -> fTreeViewer.getViewer().getTree().getItemCount() == expectedCount);
+	}
+
 	private void runFilteredTreeTest(final int treeStyle){
 		Dialog dialog = createFilteredTreeDialog(treeStyle);
 
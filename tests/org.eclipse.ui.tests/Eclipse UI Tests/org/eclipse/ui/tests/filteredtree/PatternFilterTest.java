@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2020 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ContentViewer;
 import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.ui.dialogs.PatternFilter;
 import org.eclipse.ui.tests.harness.util.TestRunLogUtil;
@@ -158,4 +159,68 @@ public class PatternFilterTest {
 		filter.setPattern("**c*e*i");
 		assertTrue(filter.select(viewer, null, "AbCdEfGi"));
 	}
+
+	@Test
+	public void testSubPatternNarrows() {
+		String[] patterns = { "a", "ab", "ab ", "ab c", "ab cd", "a*", "a*b", "a?c", "b\\", "b\\*" };
+		String[] texts = { "ab", "abc", "ab cd", "abx cd", "a*b", "acb", "abc def", "x ab", "b*", "b\\", "" };
+		NarrowingPatternFilter filter = new NarrowingPatternFilter();
+		PatternFilter newFilter = new PatternFilter();
+		for (String oldPattern : patterns) {
+			for (String newPattern : patterns) {
+				if (!filter.isSubPattern(oldPattern, newPattern)) {
+					continue;
+				}
+				filter.setPattern(oldPattern);
+				newFilter.setPattern(newPattern);
+				for (String text : texts) {
+					if (newFilter.select(viewer, null, text)) {
+						assertTrue(oldPattern + " / " + newPattern + " / " + text, filter.select(viewer, null, text));
+					}
+				}
+			}
+		}
+		assertTrue(filter.isSubPattern("ab", "ab c"));
+		assertFalse(filter.isSubPattern("ab ", "ab c"));
+		assertFalse(filter.isSubPattern("ab", "ac"));
+	}
+
+	@Test
+	public void testSubPatternOptIn() {
+		// own matching has to opt in to narrowing
+		assertFalse(new LeafMatchPatternFilter().narrows("ab", "abc"));
+		assertTrue(new SearchTextsPatternFilter().narrows("ab", "abc"));
+	}
+
+	private static class LeafMatchPatternFilter extends PatternFilter {
+
+		@Override
+		protected boolean isLeafMatch(Viewer viewer, Object element) {
+			return super.isLeafMatch(viewer, element);
+		}
+
+		boolean narrows(String oldPattern, String newPattern) {
+			return isSubPattern(oldPattern, newPattern);
+		}
+	}
+
+	private static class SearchTextsPatternFilter extends PatternFilter {
+
+		@Override
+		protected String[] getSearchTexts(Viewer viewer, Object element) {
+			return super.getSearchTexts(viewer, element);
+		}
+
+		boolean narrows(String oldPattern, String newPattern) {
+			return isSubPattern(oldPattern, newPattern);
+		}
+	}
+
+	private static class NarrowingPatternFilter extends PatternFilter {
+
+		@Override
+		protected boolean isSubPattern(String oldPattern, String newPattern) {
+			return super.isSubPattern(oldPattern, newPattern);
+		}
+	}
 }
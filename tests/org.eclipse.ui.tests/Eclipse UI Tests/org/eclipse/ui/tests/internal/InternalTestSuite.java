@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,7 @@ import org.junit.runners.Suite;
 	WorkbenchWindowSubordinateSourcesTests.class,
 	ReopenMenuTest.class,
 	UtilTest.class,
+	StartupTaskGraphTest.class,
 	MarkerTesterTest.class,
 	TextHandlerTest.class,
 	PerspectiveSwitcherTest.class,
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.StartupTaskGraph;
+import org.eclipse.ui.internal.StartupTaskGraph.Affinity;
+import org.eclipse.ui.internal.StartupThreading.StartupRunnable;
+import org.junit.Test;
+
+/**
+ * Tests the ordering, thread affinity and failure handling of
+ * {@link StartupTaskGraph}.
+ */
+public class StartupTaskGraphTest {
+
+	private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+	private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+	private StartupRunnable task(String id) {
+		return new StartupRunnable() {
+			@Override
+			public void runWithException() {
+				ran.add(id);
+				threads.add(Thread.currentThread());
+			}
+		};
+	}
+
+	@Test
+	public void testDependencyOrder() {
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("c", Affinity.UI, task("c"), "b");
+		graph.add("b", Affinity.UI, task("b"), "a");
+		graph.add("a", Affinity.UI, task("a"));
+		graph.run();
+		assertEquals(List.of("a", "b", "c"), ran);
+	}
+
+	@Test
+	public void testAffinity() {
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("background", Affinity.BACKGROUND, task("background"));
+		graph.add("ui", Affinity.UI, task("ui"), "background");
+		graph.run();
+		assertEquals(List.of("background", "ui"), ran);
+		Thread displayThread = Display.getCurrent().getThread();
+		assertNotSame(displayThread, threads.get(0));
+		assertSame(displayThread, threads.get(1));
+	}
+
+	@Test
+	public void testCycle() {
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("a", Affinity.UI, task("a"), "c");
+		graph.add("b", Affinity.BACKGROUND, task("b"), "a");
+		graph.add("c", Affinity.UI, task("c"), "b");
+		graph.add("d", Affinity.UI, task("d"));
+		try {
+			graph.run();
+			fail("cyclic dependencies must be rejected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertTrue("no task runs when the graph has a cycle", ran.isEmpty());
+	}
+
+	@Test
+	public void testUnknownDependency() {
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("a", Affinity.UI, task("a"), "missing");
+		try {
+			graph.run();
+			fail("unknown dependencies must be rejected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertTrue(ran.isEmpty());
+	}
+
+	@Test
+	public void testFailureIsRethrown() {
+		RuntimeException failure = new RuntimeException("failed");
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("fails", Affinity.BACKGROUND, new StartupRunnable() {
+			@Override
+			public void runWithException() {
+				throw failure;
+			}
+		});
+		graph.add("dependent", Affinity.UI, task("dependent"), "fails");
+		try {
+			graph.run();
+			fail("the failure of a task must be rethrown");
+		} catch (RuntimeException e) {
+			assertSame(failure, e);
+		}
+		assertTrue("dependents of a failed task are not run", ran.isEmpty());
+	}
+
+	@Test
+	public void testCheckedFailureIsWrapped() {
+		Exception failure = new Exception("failed");
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("fails", Affinity.UI, new StartupRunnable() {
+			@Override
+			public void runWithException() throws Exception {
+				throw failure;
+			}
+		});
+		try {
+			graph.run();
+			fail("the failure of a task must be rethrown");
+		} catch (RuntimeException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	@Test
+	public void testRunOutsideDisplayThread() throws InterruptedException {
+		StartupTaskGraph graph = new StartupTaskGraph("test");
+		graph.add("a", Affinity.UI, task("a"));
+		AtomicReference<Throwable> thrown = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			try {
+				graph.run();
+			} catch (Throwable t) {
+				thrown.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		assertTrue(thrown.get() instanceof IllegalStateException);
+		assertTrue(ran.isEmpty());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2006 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.operations.AbstractOperation;
 import org.eclipse.core.commands.operations.DefaultOperationHistory;
@@ -37,6 +45,7 @@ import org.eclipse.core.commands.operations.OperationHistoryEvent;
 import org.eclipse.core.commands.operations.OperationHistoryFactory;
 import org.eclipse.core.commands.operations.OperationStatus;
 import org.eclipse.core.commands.operations.TriggeredOperations;
+import org.eclipse.core.commands.operations.UndoContext;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -179,6 +188,119 @@ public class OperationsAPITest {
 		assertSame(history.getUndoOperation(contextA), op6);
 	}
 
+	@Test
+	public void testContextHistoriesFollowChanges() throws ExecutionException {
+		// query first so that the histories of the contexts are indexed
+		assertEquals(3, history.getUndoHistory(contextC).length);
+		assertEquals(3, history.getUndoHistory(contextA).length);
+		assertEquals(2, history.getUndoHistory(contextB).length);
+
+		history.undo(contextC, null, null);
+		assertSame(op6, history.getRedoOperation(contextA));
+		assertSame(op4, history.getUndoOperation(contextA));
+		assertContextHistories();
+
+		// a new operation flushes the redo history of its contexts
+		IUndoableOperation op7 = new TestOperation("op7");
+		op7.addContext(contextA);
+		op7.addContext(contextB);
+		history.execute(op7, null, null);
+		assertNull(history.getRedoOperation(contextA));
+		assertSame(op6, history.getRedoOperation(contextC));
+		assertSame(op7, history.getUndoOperation(contextB));
+		assertContextHistories();
+
+		// forcing a limit removes the context from operations with others
+		history.setLimit(contextA, 1);
+		assertEquals(1, history.getUndoHistory(contextA).length);
+		assertContextHistories();
+
+		// contexts changed by clients are picked up without notification
+		op3.addContext(contextB);
+		assertContextHistories();
+		op7.removeContext(contextB);
+		assertSame(op5, history.getUndoOperation(contextB));
+		assertContextHistories();
+
+		// so are matches added after the history of a context was queried
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		assertEquals(0, history.getUndoHistory(contextD).length);
+		contextD.addMatch(contextC);
+		assertSame(op3, history.getUndoOperation(contextD));
+		contextD.removeMatch(contextC);
+		assertNull(history.getUndoOperation(contextD));
+	}
+
+	@Test
+	public void testContextHistoriesWithCustomMatching() throws ExecutionException {
+		boolean[] matchAll = new boolean[1];
+		IUndoContext custom = new UndoContext() {
+			@Override
+			public boolean matches(IUndoContext context) {
+				return matchAll[0] || context == this;
+			}
+		};
+		assertNull(history.getUndoOperation(custom));
+		matchAll[0] = true;
+		assertSame(op6, history.getUndoOperation(custom));
+
+		// an operation with such a context does not break the other contexts
+		IUndoableOperation op7 = new TestOperation("op7");
+		op7.addContext(custom);
+		history.add(op7);
+		matchAll[0] = false;
+		assertSame(op6, history.getUndoOperation(contextA));
+		matchAll[0] = true;
+		assertSame(op7, history.getUndoOperation(contextA));
+		assertContextHistories();
+	}
+
+	/*
+	 * Check that the histories of the contexts are the global histories
+	 * filtered by context.
+	 */
+	@Test
+	public void testContextHistoriesOfSeveralHistories() {
+		IOperationHistory other = new DefaultOperationHistory();
+		other.add(op3);
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		assertNull(history.getUndoOperation(contextD));
+		assertNull(other.getUndoOperation(contextD));
+
+		// changes of a shared operation are picked up by both histories
+		op3.addContext(contextD);
+		assertSame(op3, history.getUndoOperation(contextD));
+		assertSame(op3, other.getUndoOperation(contextD));
+		op3.removeContext(contextD);
+		assertNull(history.getUndoOperation(contextD));
+		assertNull(other.getUndoOperation(contextD));
+
+		// so are matches of a context queried in both histories
+		contextD.addMatch(contextC);
+		assertSame(op6, history.getUndoOperation(contextD));
+		assertSame(op3, other.getUndoOperation(contextD));
+		assertContextHistories();
+	}
+
+	private void assertContextHistories() {
+		for (IUndoContext context : new IUndoContext[] { contextA, contextB, contextC }) {
+			assertEquals(filter(history.getUndoHistory(IOperationHistory.GLOBAL_UNDO_CONTEXT), context),
+					Arrays.asList(history.getUndoHistory(context)));
+			assertEquals(filter(history.getRedoHistory(IOperationHistory.GLOBAL_UNDO_CONTEXT), context),
+					Arrays.asList(history.getRedoHistory(context)));
+		}
+	}
+
+	private static List<IUndoableOperation> filter(IUndoableOperation[] operations, IUndoContext context) {
+		List<IUndoableOperation> filtered = new ArrayList<>();
+		for (IUndoableOperation operation : operations) {
+			if (operation.hasContext(context)) {
+				filtered.add(operation);
+			}
+		}
+		return filtered;
+	}
+
 	@Test
 	public void testHistoryLimit() throws ExecutionException {
 		history.setLimit(contextA, 2);
@@ -196,6 +318,75 @@ public class OperationsAPITest {
 		assertTrue(history.getUndoHistory(contextB).length == 1);
 	}
 
+	@Test
+	public void testSizeLimit() throws ExecutionException {
+		DefaultOperationHistory defaultHistory = (DefaultOperationHistory) history;
+		history.dispose(IOperationHistory.GLOBAL_UNDO_CONTEXT, true, true, false);
+		defaultHistory.setSizeLimit(contextA, 250);
+		SizedTestOperation[] ops = new SizedTestOperation[4];
+		for (int i = 0; i < ops.length; i++) {
+			ops[i] = new SizedTestOperation("sized" + i, 100);
+			ops[i].addContext(contextA);
+			history.execute(ops[i], null, null);
+		}
+		// only the two most recent operations fit
+		assertEquals(2, history.getUndoHistory(contextA).length);
+		assertSame(ops[3], history.getUndoOperation(contextA));
+		assertEquals(200, defaultHistory.getSize(contextA));
+
+		// an operation exceeding the limit by itself is kept
+		SizedTestOperation large = new SizedTestOperation("large", 300);
+		large.addContext(contextA);
+		history.execute(large, null, null);
+		assertEquals(1, history.getUndoHistory(contextA).length);
+		assertSame(large, history.getUndoOperation(contextA));
+	}
+
+	@Test
+	public void testSpillToDisk() throws ExecutionException, IOException {
+		DefaultOperationHistory defaultHistory = (DefaultOperationHistory) history;
+		history.dispose(IOperationHistory.GLOBAL_UNDO_CONTEXT, true, true, false);
+		Path directory = Files.createTempDirectory("spill");
+		try {
+			defaultHistory.setSpillDirectory(directory);
+			defaultHistory.setSizeLimit(IOperationHistory.GLOBAL_UNDO_CONTEXT, 150);
+			SizedTestOperation[] ops = new SizedTestOperation[3];
+			for (int i = 0; i < ops.length; i++) {
+				ops[i] = new SizedTestOperation("sized" + i, 100);
+				ops[i].addContext(contextA);
+				history.execute(ops[i], null, null);
+			}
+			// spilled operations stay in the history
+			assertEquals(3, history.getUndoHistory(contextA).length);
+			assertTrue(ops[0].isSpilled());
+			assertTrue(ops[1].isSpilled());
+			assertFalse(ops[2].isSpilled());
+			assertEquals(100, defaultHistory.getSize(IOperationHistory.GLOBAL_UNDO_CONTEXT));
+
+			// undoing restores the operation and spills another one
+			assertTrue(history.undo(contextA, null, null).isOK());
+			assertTrue(history.undo(contextA, null, null).isOK());
+			assertTrue(ops[1].hasPayload());
+			assertTrue(ops[2].isSpilled());
+			assertTrue(history.redo(contextA, null, null).isOK());
+			assertTrue(history.redo(contextA, null, null).isOK());
+			assertTrue(ops[2].hasPayload());
+
+			// the spill files are deleted with the operations
+			history.dispose(IOperationHistory.GLOBAL_UNDO_CONTEXT, true, true, false);
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(0, files.count());
+			}
+		} finally {
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
 	@Test
 	public void testLocalHistoryLimits() throws ExecutionException {
 		history.setLimit(contextC, 2);
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.operations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.core.commands.operations.ISizedUndoableOperation;
+
+/**
+ * A test operation that retains a payload of a given size, which it can spill.
+ */
+public class SizedTestOperation extends TestOperation implements ISizedUndoableOperation {
+
+	private byte[] payload;
+
+	private final int size;
+
+	SizedTestOperation(String label, int size) {
+		super(label);
+		this.size = size;
+		this.payload = new byte[size];
+		for (int i = 0; i < size; i++) {
+			payload[i] = (byte) i;
+		}
+	}
+
+	@Override
+	public long getSizeEstimate() {
+		return payload == null ? 0 : payload.length;
+	}
+
+	@Override
+	public boolean canSpill() {
+		return true;
+	}
+
+	@Override
+	public void spill(OutputStream out) throws IOException {
+		out.write(payload);
+		payload = null;
+	}
+
+	@Override
+	public void restore(InputStream in) throws IOException {
+		payload = in.readNBytes(size);
+	}
+
+	boolean isSpilled() {
+		return payload == null;
+	}
+
+	boolean hasPayload() {
+		if (payload == null || payload.length != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (payload[i] != (byte) i) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessMatcher;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+import org.eclipse.ui.internal.quickaccess.QuickAccessQuery;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+import org.junit.Test;
+
+public class QuickAccessQueryTest {
+
+	private static final String[] LABELS = { "Show View", "Open Type", "Toggle Breakpoint", "Java Editor",
+			"Team Synchronizing", "Open Type Hierarchy" };
+
+	private static final String[] FILTERS = { "open", "ot", "show vi", "op*ty", "t?pe", "comm", "commands op",
+			"ja(va", "x", "[a", "e.r" };
+
+	@Test
+	public void testCharacterMask() {
+		assertEquals(QuickAccessQuery.getCharacterMask("abc"), QuickAccessQuery.getCharacterMask("CBA"));
+		assertEquals(0, QuickAccessQuery.getCharacterMask(" -*?"));
+		assertTrue(new QuickAccessQuery("open").mayMatch(QuickAccessQuery.getCharacterMask("Open Type")));
+		assertFalse(new QuickAccessQuery("openx").mayMatch(QuickAccessQuery.getCharacterMask("Open Type")));
+		// regular expression characters disable the check
+		assertEquals(0, new QuickAccessQuery("e.r").getRequiredCharacters());
+	}
+
+	@Test
+	public void testPatternCompiledOnce() {
+		QuickAccessQuery query = new QuickAccessQuery("op*ty");
+		assertSame(query.getPattern(), query.getPattern());
+	}
+
+	@Test
+	public void testCandidatesContainAllMatches() {
+		TestProvider provider = new TestProvider();
+		List<QuickAccessElement> elements = Arrays.asList(provider.getElementsSorted(null, null));
+		for (String filter : FILTERS) {
+			QuickAccessQuery query = new QuickAccessQuery(filter);
+			List<QuickAccessElement> candidates = provider.getCandidates(elements, query);
+			for (QuickAccessElement element : elements) {
+				if (new QuickAccessMatcher(element).match(filter, provider) != null) {
+					assertTrue(filter + " / " + element.getLabel(), candidates.contains(element));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReusedMatcher() {
+		TestProvider provider = new TestProvider();
+		QuickAccessElement[] elements = provider.getElementsSorted(null, null);
+		for (QuickAccessElement element : elements) {
+			QuickAccessMatcher matcher = provider.getMatcher(element);
+			assertSame(matcher, provider.getMatcher(element));
+			for (String filter : FILTERS) {
+				QuickAccessQuery query = new QuickAccessQuery(filter);
+				if (new QuickAccessMatcher(element).match(filter, provider) == null) {
+					assertNull(matcher.match(query, provider));
+				} else {
+					assertNotNull(matcher.match(query, provider));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPrefixMatches() {
+		TestProvider provider = new TestProvider();
+		Set<QuickAccessElement> matches = provider.getPrefixMatches("open t");
+		assertEquals(2, matches.size());
+		for (QuickAccessElement element : matches) {
+			assertTrue(element.getLabel().startsWith("Open Type"));
+		}
+		assertTrue(provider.getPrefixMatches("zzz").isEmpty());
+	}
+
+	@Test
+	public void testChangedLabel() {
+		TestProvider provider = new TestProvider();
+		List<QuickAccessElement> elements = Arrays.asList(provider.getElementsSorted(null, null));
+		TestElement element = (TestElement) elements.stream().filter(e -> e.getLabel().equals("Java Editor"))
+				.findFirst().get();
+		QuickAccessMatcher matcher = provider.getMatcher(element);
+		assertEquals(1, provider.getPrefixMatches("java").size());
+
+		// e.g. the dirty marker of an editor
+		element.label = "*Java Editor";
+		QuickAccessMatcher changedMatcher = provider.getMatcher(element);
+		assertNotSame(matcher, changedMatcher);
+		assertSame(changedMatcher, provider.getMatcher(element));
+		QuickAccessQuery query = new QuickAccessQuery("*java");
+		assertNotNull(changedMatcher.match(query, provider));
+		assertTrue(provider.getCandidates(elements, new QuickAccessQuery("*jav")).contains(element));
+		assertTrue(provider.getPrefixMatches("java").isEmpty());
+		assertTrue(provider.getPrefixMatches("*java").contains(element));
+	}
+
+	private static final class TestElement extends QuickAccessElement {
+
+		private String label;
+
+		TestElement(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+		}
+	}
+
+	private static final class TestProvider extends QuickAccessProvider {
+
+		@Override
+		public String getId() {
+			return "test";
+		}
+
+		@Override
+		public String getName() {
+			return "Commands";
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			return Arrays.stream(LABELS).map(TestElement::new).toArray(QuickAccessElement[]::new);
+		}
+
+		@Override
+		protected void doReset() {
+		}
+	}
+}